@@ -18,10 +18,13 @@ package io.spring.initializr.actuate.autoconfigure;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.spring.initializr.actuate.metric.ProjectGenerationMetricsListener;
+import io.spring.initializr.actuate.metric.ProjectGenerationMetricsTimer;
+import io.spring.initializr.generator.ProjectGenerationTimer;
 
 import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,4 +47,12 @@ public class InitializrMetricsConfiguration {
 		return new ProjectGenerationMetricsListener(meterRegistry);
 	}
 
+	@Bean
+	@ConditionalOnSingleCandidate(MeterRegistry.class)
+	@ConditionalOnMissingBean(ProjectGenerationTimer.class)
+	public ProjectGenerationMetricsTimer projectGenerationTimer(
+			MeterRegistry meterRegistry) {
+		return new ProjectGenerationMetricsTimer(meterRegistry);
+	}
+
 }
@@ -18,12 +18,15 @@ package io.spring.initializr.actuate.autoconfigure;
 
 import java.util.Collections;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisher;
+import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisherMetrics;
 import io.spring.initializr.actuate.stat.ProjectRequestDocumentFactory;
 import io.spring.initializr.actuate.stat.StatsProperties;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
@@ -77,4 +80,16 @@ class InitializrStatsAutoConfiguration {
 		return retryTemplate;
 	}
 
+	@Configuration
+	@ConditionalOnClass(MeterBinder.class)
+	static class StatsMetricsConfiguration {
+
+		@Bean
+		public ProjectGenerationStatPublisherMetrics projectGenerationStatPublisherMetrics(
+				ProjectGenerationStatPublisher statPublisher) {
+			return new ProjectGenerationStatPublisherMetrics(statPublisher);
+		}
+
+	}
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.metric;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.spring.initializr.generator.ProjectGenerationPhase;
+import io.spring.initializr.generator.ProjectGenerationTimer;
+import io.spring.initializr.generator.ProjectRequest;
+
+/**
+ * A {@link ProjectGenerationTimer} that records the time spent in each phase of the
+ * generation of a project with a {@link MeterRegistry}.
+ * <p>
+ * Templates are recorded as {@code initializr.generation.template}, tagged with the
+ * name of the template. Other phases are recorded as {@code initializr.generation.phase},
+ * tagged with the phase and the format of the archive, if any. Both are also tagged
+ * with the build system and the language of the project.
+ *
+ * @author agent
+ */
+public class ProjectGenerationMetricsTimer implements ProjectGenerationTimer {
+
+	private static final String NONE = "none";
+
+	private final MeterRegistry meterRegistry;
+
+	public ProjectGenerationMetricsTimer(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void record(ProjectGenerationPhase phase, String qualifier,
+			ProjectRequest request, long durationNanos) {
+		Tags tags = Tags.of("build", tagValue(request.getBuild()), "language",
+				tagValue(request.getLanguage()));
+		if (phase == ProjectGenerationPhase.RENDER) {
+			meterRegistry.timer(key("template"), tags.and("template", tagValue(qualifier)))
+					.record(durationNanos, TimeUnit.NANOSECONDS);
+		}
+		else {
+			meterRegistry.timer(key("phase"), tags.and("phase", phase.getId(), "format",
+					tagValue(qualifier))).record(durationNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	protected String key(String part) {
+		return "initializr.generation." + part;
+	}
+
+	private static String tagValue(String value) {
+		return (value != null ? value : NONE);
+	}
+
+}
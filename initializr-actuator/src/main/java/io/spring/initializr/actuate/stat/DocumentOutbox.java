@@ -0,0 +1,481 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A durable, append-only log of documents that could not be published. Documents are
+ * written to memory-mapped segments of a fixed size in the specified directory and are
+ * read in order until they are {@link #commit(Batch) committed}, at which point the
+ * segments that have been fully read are deleted.
+ * <p>
+ * Each record holds the length of the document, its CRC32 checksum and its UTF-8
+ * content. The length is written last so that a partially written record is ignored
+ * when the log is opened again. The position of the next record to read is kept in a
+ * separate cursor file so that the log can be resumed after a restart.
+ * <p>
+ * The total size of the segments is capped: once it is reached, rotating to a new
+ * segment deletes the oldest one, including the documents that have not been read yet.
+ * <p>
+ * Segments are unmapped before they are deleted and when the outbox is
+ * {@link #close() closed}.
+ *
+ * @author agent
+ */
+final class DocumentOutbox implements Closeable {
+
+	static final String SEGMENT_SUFFIX = ".segment";
+
+	static final String CURSOR_FILE_NAME = "outbox.cursor";
+
+	private static final int HEADER_SIZE = 8;
+
+	private static final int CURSOR_SIZE = 16;
+
+	private final File directory;
+
+	private final int segmentSize;
+
+	private final int maxSegments;
+
+	private final LinkedList<Segment> segments = new LinkedList<>();
+
+	private final MappedByteBuffer cursorBuffer;
+
+	private long cursorSegment;
+
+	private int cursorPosition;
+
+	private int cursorCount;
+
+	private long droppedCount;
+
+	private boolean closed;
+
+	/**
+	 * Open the outbox in the specified directory, recovering any existing segment.
+	 * @param directory the directory of the segments
+	 * @param segmentSize the size of a segment, in bytes
+	 * @param maxSize the maximum size of all segments, in bytes
+	 * @throws IOException if the outbox cannot be opened
+	 */
+	DocumentOutbox(File directory, int segmentSize, long maxSize) throws IOException {
+		if (segmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("Segment size must be greater than "
+					+ HEADER_SIZE + " bytes");
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create outbox directory " + directory);
+		}
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE,
+				maxSize / segmentSize));
+		for (File file : listSegmentFiles(directory)) {
+			this.segments.add(Segment.recover(file));
+		}
+		this.cursorBuffer = map(new File(directory, CURSOR_FILE_NAME), CURSOR_SIZE);
+		restoreCursor();
+	}
+
+	private static List<File> listSegmentFiles(File directory) {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+		if (files == null) {
+			return Collections.emptyList();
+		}
+		Arrays.sort(files, (first, second) -> Long.compare(Segment.idOf(first),
+				Segment.idOf(second)));
+		return Arrays.asList(files);
+	}
+
+	private void restoreCursor() {
+		long segment = cursorBuffer.getLong(0);
+		int position = cursorBuffer.getInt(8);
+		int count = cursorBuffer.getInt(12);
+		Segment current = findSegment(segment);
+		if (current != null && position >= 0 && position <= current.writePosition
+				&& count >= 0 && count <= current.recordCount) {
+			updateCursor(segment, position, count);
+		}
+		else {
+			updateCursor((segments.isEmpty() ? 0 : segments.getFirst().id), 0, 0);
+		}
+	}
+
+	/**
+	 * Append the specified document.
+	 * @param document the JSON document
+	 * @return {@code true} if the document was appended, {@code false} if it is larger
+	 * than a segment
+	 * @throws IOException if a new segment cannot be created
+	 */
+	synchronized boolean append(String document) throws IOException {
+		if (closed) {
+			throw new IOException("Outbox " + directory + " is closed");
+		}
+		byte[] content = document.getBytes(StandardCharsets.UTF_8);
+		int recordSize = HEADER_SIZE + content.length;
+		if (recordSize > segmentSize) {
+			droppedCount++;
+			return false;
+		}
+		Segment active = (segments.isEmpty() ? null : segments.getLast());
+		if (active == null || active.remaining() < recordSize) {
+			active = rotate();
+		}
+		active.write(content);
+		return true;
+	}
+
+	private Segment rotate() throws IOException {
+		if (!segments.isEmpty()) {
+			segments.getLast().buffer.force();
+		}
+		while (segments.size() >= maxSegments) {
+			dropOldestSegment();
+		}
+		long id = (segments.isEmpty() ? Math.max(cursorSegment, 1)
+				: segments.getLast().id + 1);
+		Segment segment = Segment.create(new File(directory,
+				Segment.fileName(id)), id, segmentSize);
+		segments.add(segment);
+		if (segments.size() == 1) {
+			updateCursor(id, 0, 0);
+		}
+		return segment;
+	}
+
+	private void dropOldestSegment() {
+		Segment oldest = segments.removeFirst();
+		if (oldest.id == cursorSegment) {
+			droppedCount += oldest.recordCount - cursorCount;
+			updateCursor((segments.isEmpty() ? oldest.id + 1 : segments.getFirst().id),
+					0, 0);
+		}
+		else {
+			droppedCount += oldest.recordCount;
+		}
+		oldest.delete();
+	}
+
+	/**
+	 * Read up to the specified number of documents, oldest first. Documents are read
+	 * again until the returned batch is {@link #commit(Batch) committed}.
+	 * @param max the maximum number of documents to read
+	 * @return the batch of documents
+	 */
+	synchronized Batch read(int max) {
+		List<String> documents = new ArrayList<>();
+		long segmentId = cursorSegment;
+		int position = cursorPosition;
+		int count = cursorCount;
+		for (Segment segment : segments) {
+			if (segment.id < segmentId) {
+				continue;
+			}
+			if (segment.id > segmentId) {
+				segmentId = segment.id;
+				position = 0;
+				count = 0;
+			}
+			while (documents.size() < max && position < segment.writePosition) {
+				byte[] content = segment.read(position);
+				documents.add(new String(content, StandardCharsets.UTF_8));
+				position += HEADER_SIZE + content.length;
+				count++;
+			}
+			if (documents.size() == max) {
+				break;
+			}
+		}
+		return new Batch(documents, segmentId, position, count);
+	}
+
+	/**
+	 * Mark the documents of the specified batch as processed and delete the segments
+	 * that are no longer needed.
+	 * @param batch a batch previously returned by {@link #read(int)}
+	 */
+	synchronized void commit(Batch batch) {
+		if (findSegment(batch.segment) == null) {
+			// The segment has been dropped in the meantime
+			return;
+		}
+		updateCursor(batch.segment, batch.position, batch.count);
+		while (segments.size() > 1 && segments.getFirst().id < cursorSegment) {
+			segments.removeFirst().delete();
+		}
+	}
+
+	/**
+	 * Return the number of documents that have not been read yet.
+	 * @return the number of pending documents
+	 */
+	synchronized int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			if (segment.id >= cursorSegment) {
+				size += segment.recordCount;
+			}
+		}
+		return (findSegment(cursorSegment) != null ? size - cursorCount : size);
+	}
+
+	/**
+	 * Return the size of the segments on disk, in bytes.
+	 * @return the size of the outbox
+	 */
+	synchronized long sizeOnDisk() {
+		return segments.stream().mapToLong((segment) -> segment.buffer.capacity()).sum();
+	}
+
+	/**
+	 * Return the number of documents that were discarded, either because they were
+	 * larger than a segment or because the outbox was full.
+	 * @return the number of dropped documents
+	 */
+	synchronized long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * Write the content of the outbox to disk.
+	 */
+	synchronized void force() {
+		if (closed) {
+			return;
+		}
+		segments.forEach((segment) -> segment.buffer.force());
+		cursorBuffer.force();
+	}
+
+	/**
+	 * Write the content of the outbox to disk and release the segments. Documents can
+	 * no longer be appended once the outbox is closed.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		force();
+		closed = true;
+		segments.forEach((segment) -> unmap(segment.buffer));
+		segments.clear();
+		unmap(cursorBuffer);
+	}
+
+	private Segment findSegment(long id) {
+		for (Segment segment : segments) {
+			if (segment.id == id) {
+				return segment;
+			}
+		}
+		return null;
+	}
+
+	private void updateCursor(long segment, int position, int count) {
+		this.cursorSegment = segment;
+		this.cursorPosition = position;
+		this.cursorCount = count;
+		cursorBuffer.putLong(0, segment);
+		cursorBuffer.putInt(8, position);
+		cursorBuffer.putInt(12, count);
+	}
+
+	/**
+	 * Release the mapping of the specified buffer rather than waiting for it to be
+	 * garbage collected, so that its file can be deleted. The buffer must not be used
+	 * afterwards. Relies on {@code Unsafe#invokeCleaner} on Java 9 and later and on the
+	 * cleaner of the buffer on Java 8.
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			try {
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner",
+						ByteBuffer.class);
+				Field unsafe = unsafeClass.getDeclaredField("theUnsafe");
+				unsafe.setAccessible(true);
+				invokeCleaner.invoke(unsafe.get(null), buffer);
+			}
+			catch (NoSuchMethodException ex) {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		}
+		catch (Exception ex) {
+			// The mapping is released once the buffer is garbage collected
+		}
+	}
+
+	private static MappedByteBuffer map(File file, int size) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return channel.map(MapMode.READ_WRITE, 0, size);
+		}
+	}
+
+	/**
+	 * Documents read from the outbox and the position that follows them.
+	 */
+	static final class Batch {
+
+		private final List<String> documents;
+
+		private final long segment;
+
+		private final int position;
+
+		private final int count;
+
+		Batch(List<String> documents, long segment, int position, int count) {
+			this.documents = documents;
+			this.segment = segment;
+			this.position = position;
+			this.count = count;
+		}
+
+		List<String> getDocuments() {
+			return documents;
+		}
+
+		boolean isEmpty() {
+			return documents.isEmpty();
+		}
+
+	}
+
+	private static final class Segment {
+
+		private final File file;
+
+		private final long id;
+
+		private final MappedByteBuffer buffer;
+
+		private int writePosition;
+
+		private int recordCount;
+
+		private Segment(File file, long id, MappedByteBuffer buffer) {
+			this.file = file;
+			this.id = id;
+			this.buffer = buffer;
+		}
+
+		static Segment create(File file, long id, int size) throws IOException {
+			return new Segment(file, id, map(file, size));
+		}
+
+		static Segment recover(File file) throws IOException {
+			Segment segment = new Segment(file, idOf(file),
+					map(file, (int) file.length()));
+			while (segment.isValidRecord(segment.writePosition)) {
+				segment.writePosition += HEADER_SIZE
+						+ segment.buffer.getInt(segment.writePosition);
+				segment.recordCount++;
+			}
+			return segment;
+		}
+
+		static String fileName(long id) {
+			return String.format("%020d%s", id, SEGMENT_SUFFIX);
+		}
+
+		static long idOf(File file) {
+			String name = file.getName();
+			try {
+				return Long.parseLong(
+						name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+			}
+			catch (NumberFormatException ex) {
+				return -1;
+			}
+		}
+
+		int remaining() {
+			return buffer.capacity() - writePosition;
+		}
+
+		void write(byte[] content) {
+			int position = writePosition;
+			buffer.putInt(position + 4, checksum(content, content.length));
+			ByteBuffer target = buffer.duplicate();
+			target.position(position + HEADER_SIZE);
+			target.put(content);
+			buffer.putInt(position, content.length);
+			writePosition += HEADER_SIZE + content.length;
+			recordCount++;
+		}
+
+		byte[] read(int position) {
+			byte[] content = new byte[buffer.getInt(position)];
+			ByteBuffer source = buffer.duplicate();
+			source.position(position + HEADER_SIZE);
+			source.get(content);
+			return content;
+		}
+
+		private boolean isValidRecord(int position) {
+			if (position + HEADER_SIZE > buffer.capacity()) {
+				return false;
+			}
+			int length = buffer.getInt(position);
+			if (length <= 0 || length > buffer.capacity() - position - HEADER_SIZE) {
+				return false;
+			}
+			byte[] content = read(position);
+			return checksum(content, length) == buffer.getInt(position + 4);
+		}
+
+		void delete() {
+			unmap(buffer);
+			file.delete();
+		}
+
+		private static int checksum(byte[] content, int length) {
+			CRC32 crc = new CRC32();
+			crc.update(content, 0, length);
+			return (int) crc.getValue();
+		}
+
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded ring buffer of documents waiting to be published. Once the buffer is full,
+ * adding a document evicts the oldest one.
+ *
+ * @author agent
+ */
+final class DocumentRingBuffer {
+
+	private final String[] documents;
+
+	private final int batchSize;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition batchAvailable = lock.newCondition();
+
+	private int head;
+
+	private int size;
+
+	DocumentRingBuffer(int capacity, int batchSize) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		this.documents = new String[capacity];
+		this.batchSize = Math.max(1, Math.min(batchSize, capacity));
+	}
+
+	/**
+	 * Add the specified document, evicting the oldest document if the buffer is full.
+	 * @param document the document to add
+	 * @return the evicted document or {@code null}
+	 */
+	String add(String document) {
+		lock.lock();
+		try {
+			String evicted = null;
+			if (size == documents.length) {
+				evicted = documents[head];
+				documents[head] = document;
+				head = (head + 1) % documents.length;
+			}
+			else {
+				documents[(head + size) % documents.length] = document;
+				size++;
+			}
+			if (size >= batchSize) {
+				batchAvailable.signal();
+			}
+			return evicted;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove up to the specified number of documents, oldest first.
+	 * @param max the maximum number of documents to remove
+	 * @return the removed documents
+	 */
+	List<String> poll(int max) {
+		lock.lock();
+		try {
+			int count = Math.min(max, size);
+			List<String> result = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				result.add(documents[head]);
+				documents[head] = null;
+				head = (head + 1) % documents.length;
+			}
+			size -= count;
+			return result;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Wait until a full batch is available, the specified timeout elapses or
+	 * {@link #wakeUp()} is invoked.
+	 * @param timeout the maximum time to wait
+	 * @param unit the unit of the timeout
+	 * @throws InterruptedException if the current thread is interrupted
+	 */
+	void awaitBatch(long timeout, TimeUnit unit) throws InterruptedException {
+		lock.lock();
+		try {
+			if (size < batchSize) {
+				batchAvailable.await(timeout, unit);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Wake up the threads waiting for a batch.
+	 */
+	void wakeUp() {
+		lock.lock();
+		try {
+			batchAvailable.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	int size() {
+		lock.lock();
+		try {
+			return size;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	int capacity() {
+		return documents.length;
+	}
+
+	int batchSize() {
+		return batchSize;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2017 the original author or authors.
+ * Copyright 2012-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,39 +16,87 @@
 
 package io.spring.initializr.actuate.stat;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.spring.initializr.actuate.stat.StatsProperties.OverflowPolicy;
 import io.spring.initializr.generator.ProjectRequestEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.context.event.EventListener;
 import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
 import org.springframework.retry.RetryCallback;
 import org.springframework.retry.support.RetryTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Publish stats for each project generated to an Elastic index.
+ * <p>
+ * Documents are created when the event is received and kept in a bounded
+ * {@link DocumentRingBuffer buffer} until they are published in batch using the bulk
+ * API of the index. Once started, a background thread publishes the documents as soon
+ * as a full batch is available or the flush interval has elapsed. When the buffer is
+ * full, the oldest document is either dropped or stored in the outbox, according to the
+ * {@link OverflowPolicy overflow policy}. The spill policy therefore requires an outbox
+ * so that spilled documents are replayed rather than only written to disk.
+ * <p>
+ * If an outbox directory is configured, documents that could not be published are
+ * stored in a {@link DocumentOutbox durable outbox} rather than being discarded. The
+ * background thread replays them as soon as the index is reachable again, including
+ * after a restart.
+ * <p>
+ * On shutdown, the pending documents are sent once, without retry, within the
+ * configured shutdown timeout. Documents that could not be sent by then are stored in
+ * the outbox, if any.
  *
  * @author Stephane Nicoll
  */
-public class ProjectGenerationStatPublisher {
+public class ProjectGenerationStatPublisher implements SmartLifecycle, DisposableBean {
 
 	private static final Logger log = LoggerFactory
 			.getLogger(ProjectGenerationStatPublisher.class);
 
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
 	private final ProjectRequestDocumentFactory documentFactory;
 	private final StatsProperties statsProperties;
 	private final ObjectMapper objectMapper;
 	private final RestTemplate restTemplate;
 	private final RetryTemplate retryTemplate;
 
+	private final DocumentRingBuffer buffer;
+	private final OverflowPolicy overflowPolicy;
+	private final DocumentOutbox outbox;
+	private final String bulkAction;
+	private final Object publishMonitor = new Object();
+
+	private final AtomicLong publishedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong spilledCount = new AtomicLong();
+	private final AtomicLong replayedCount = new AtomicLong();
+	private final AtomicLong publishCount = new AtomicLong();
+	private final AtomicLong publishTotalTime = new AtomicLong();
+
+	private volatile Thread publisherThread;
+
 	public ProjectGenerationStatPublisher(ProjectRequestDocumentFactory documentFactory,
 			StatsProperties statsProperties, RestTemplateBuilder restTemplateBuilder,
 			RetryTemplate retryTemplate) {
@@ -65,33 +113,285 @@ public class ProjectGenerationStatPublisher {
 			this.restTemplate = restTemplateBuilder.build();
 		}
 		this.retryTemplate = retryTemplate;
+		StatsProperties.Publisher publisher = statsProperties.getPublisher();
+		this.buffer = new DocumentRingBuffer(publisher.getCapacity(),
+				publisher.getBatchSize());
+		this.overflowPolicy = publisher.getOverflowPolicy();
+		this.outbox = createOutbox(statsProperties);
+		this.bulkAction = createBulkAction(elastic);
+	}
+
+	private static DocumentOutbox createOutbox(StatsProperties statsProperties) {
+		StatsProperties.Outbox outbox = statsProperties.getOutbox();
+		if (!StringUtils.hasText(outbox.getDirectory())) {
+			if (statsProperties.getPublisher()
+					.getOverflowPolicy() == OverflowPolicy.SPILL) {
+				throw new IllegalStateException("An outbox directory is required "
+						+ "with the 'spill' overflow policy");
+			}
+			return null;
+		}
+		File directory = new File(outbox.getDirectory());
+		try {
+			return new DocumentOutbox(directory, outbox.getSegmentSize(),
+					outbox.getMaxSize());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot open outbox in " + directory, ex);
+		}
+	}
+
+	private String createBulkAction(StatsProperties.Elastic elastic) {
+		ObjectNode action = objectMapper.createObjectNode();
+		action.putObject("index").put("_index", elastic.getIndexName()).put("_type",
+				elastic.getEntityName());
+		return action.toString();
 	}
 
 	@EventListener
-	@Async
 	public void handleEvent(ProjectRequestEvent event) {
-		String json = null;
 		try {
 			ProjectRequestDocument document = documentFactory.createDocument(event);
 			if (log.isDebugEnabled()) {
 				log.debug("Publishing " + document);
 			}
-			json = toJson(document);
+			String evicted = buffer.add(toJson(document));
+			if (evicted != null) {
+				handleOverflow(evicted);
+			}
+		}
+		catch (Exception ex) {
+			log.warn("Failed to create stat document", ex);
+		}
+	}
+
+	private void handleOverflow(String document) {
+		if (overflowPolicy == OverflowPolicy.SPILL && store(document)) {
+			spilledCount.incrementAndGet();
+		}
+		else {
+			droppedCount.incrementAndGet();
+		}
+	}
+
+	private boolean store(String document) {
+		try {
+			return outbox.append(document);
+		}
+		catch (IOException ex) {
+			log.warn("Failed to store stat document in outbox", ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Publish all the documents of the queue. Documents of the outbox are replayed by
+	 * the background thread.
+	 */
+	public void flush() {
+		synchronized (publishMonitor) {
+			while (publishBatch() > 0) {
+				// Continue until the buffer is empty
+			}
+		}
+	}
+
+	/**
+	 * Publish the next batch of documents. If the batch cannot be published, its
+	 * documents are stored in the outbox, if any. So are the documents that the index
+	 * rejected temporarily.
+	 * @return the number of documents in the batch
+	 */
+	private int publishBatch() {
+		synchronized (publishMonitor) {
+			List<String> documents = buffer.poll(buffer.batchSize());
+			if (!documents.isEmpty()) {
+				publish(documents, true);
+			}
+			return documents.size();
+		}
+	}
 
-			RequestEntity<String> request = RequestEntity
-					.post(this.statsProperties.getElastic().getEntityUrl())
-					.contentType(MediaType.APPLICATION_JSON).body(json);
+	/**
+	 * Publish the documents that are still pending on shutdown. Each batch is only
+	 * attempted once and, as soon as a batch cannot be published or the specified
+	 * deadline has passed, the remaining documents are stored in the outbox, if any.
+	 * @param deadline the deadline, as returned by {@link System#nanoTime()}
+	 */
+	private void publishRemaining(long deadline) {
+		boolean reachable = true;
+		List<String> documents = buffer.poll(buffer.batchSize());
+		while (!documents.isEmpty()) {
+			if (reachable && System.nanoTime() - deadline < 0) {
+				reachable = publish(documents, false);
+			}
+			else {
+				int stored = storeAll(documents);
+				failedCount.addAndGet(documents.size() - stored);
+				log.warn(String.format("Failed to publish %d stat documents on shutdown, "
+						+ "%d stored in outbox", documents.size(), stored));
+			}
+			documents = buffer.poll(buffer.batchSize());
+		}
+	}
 
-			this.retryTemplate.execute((RetryCallback<Void, RuntimeException>) context -> {
-				restTemplate.exchange(request, String.class);
-				return null;
-			});
+	/**
+	 * Publish the specified documents. If they cannot be published, they are stored in
+	 * the outbox, if any. So are the documents that the index rejected temporarily.
+	 * @param documents the documents to publish
+	 * @param retry whether the request should be retried on failure
+	 * @return whether the index could be reached
+	 */
+	private boolean publish(List<String> documents, boolean retry) {
+		try {
+			BulkResult result = sendBulk(documents, retry);
+			int stored = storeAll(result.getRetryableDocuments());
+			failedCount.addAndGet(result.getFailures() - stored);
+			publishedCount.addAndGet(documents.size() - result.getFailures());
+			return true;
 		}
 		catch (Exception ex) {
-			log.warn(String.format(
-					"Failed to publish stat to index, document follows %n%n%s%n", json),
-					ex);
+			int stored = storeAll(documents);
+			failedCount.addAndGet(documents.size() - stored);
+			log.warn(String.format("Failed to publish %d stat documents to index, "
+					+ "%d stored in outbox", documents.size(), stored), ex);
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Documents follow %n%n%s%n",
+						toBulkEntries(documents)));
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Replay the documents of the outbox, in batch, until the outbox is empty or the
+	 * index cannot be reached. A batch is only attempted once so that an unavailable
+	 * index does not delay the publication of new documents. Documents that the index
+	 * rejected temporarily are stored again and only replayed by the next invocation.
+	 * @return the number of documents that were replayed
+	 */
+	int drainOutbox() {
+		if (outbox == null) {
+			return 0;
 		}
+		synchronized (publishMonitor) {
+			int replayed = 0;
+			int pending = outbox.size();
+			DocumentOutbox.Batch batch = outbox.read(
+					Math.min(buffer.batchSize(), pending));
+			while (!batch.isEmpty()) {
+				List<String> documents = batch.getDocuments();
+				try {
+					BulkResult result = sendBulk(documents, false);
+					int stored = storeAll(result.getRetryableDocuments());
+					failedCount.addAndGet(result.getFailures() - stored);
+					publishedCount.addAndGet(documents.size() - result.getFailures());
+					replayedCount.addAndGet(documents.size() - result.getFailures());
+				}
+				catch (Exception ex) {
+					if (log.isDebugEnabled()) {
+						log.debug("Index not reachable, outbox will be replayed later", ex);
+					}
+					break;
+				}
+				outbox.commit(batch);
+				replayed += documents.size();
+				pending -= documents.size();
+				batch = outbox.read(Math.min(buffer.batchSize(), pending));
+			}
+			return replayed;
+		}
+	}
+
+	private int storeAll(List<String> documents) {
+		if (outbox == null) {
+			return 0;
+		}
+		return (int) documents.stream().filter(this::store).count();
+	}
+
+	/**
+	 * Send the specified documents using the bulk API.
+	 * @param documents the JSON documents to send
+	 * @param retry whether the request should be retried on failure
+	 * @return the result of the request
+	 */
+	private BulkResult sendBulk(List<String> documents, boolean retry) {
+		RequestEntity<String> request = RequestEntity
+				.post(statsProperties.getElastic().getBulkUrl())
+				.contentType(NDJSON).body(toBulkEntries(documents));
+		long start = System.nanoTime();
+		try {
+			ResponseEntity<String> response = (retry ? this.retryTemplate.execute(
+					(RetryCallback<ResponseEntity<String>, RuntimeException>) context ->
+							restTemplate.exchange(request, String.class))
+					: restTemplate.exchange(request, String.class));
+			BulkResult result = readBulkResult(response.getBody(), documents);
+			if (result.getFailures() > 0) {
+				log.warn(String.format("Failed to publish %d of %d stat documents, "
+						+ "%d can be retried", result.getFailures(), documents.size(),
+						result.getRetryableDocuments().size()));
+			}
+			return result;
+		}
+		finally {
+			publishCount.incrementAndGet();
+			publishTotalTime.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Read the response of a bulk request. Items are listed in the order of the
+	 * documents of the request. A response that cannot be read fails the whole batch as
+	 * it is not known which documents were indexed.
+	 */
+	private BulkResult readBulkResult(String response, List<String> documents) {
+		if (response == null) {
+			return BulkResult.SUCCESS;
+		}
+		try {
+			JsonNode root = objectMapper.readTree(response);
+			if (!root.path("errors").asBoolean()) {
+				return BulkResult.SUCCESS;
+			}
+			int failures = 0;
+			List<String> retryableDocuments = new ArrayList<>();
+			int index = 0;
+			for (JsonNode item : root.path("items")) {
+				JsonNode result = item.elements().hasNext() ? item.elements().next()
+						: item;
+				int status = result.path("status").asInt();
+				if (status >= 300) {
+					failures++;
+					if (isRetryable(status) && index < documents.size()) {
+						retryableDocuments.add(documents.get(index));
+					}
+				}
+				index++;
+			}
+			return new BulkResult(failures, retryableDocuments);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot read bulk response", ex);
+		}
+	}
+
+	/**
+	 * Specify if an item rejected with the specified status may be accepted later,
+	 * that is if the index was overloaded or failed.
+	 */
+	private static boolean isRetryable(int status) {
+		return (status == 429 || status >= 500);
+	}
+
+	private String toBulkEntries(List<String> documents) {
+		StringBuilder sb = new StringBuilder(documents.size() * 1024);
+		documents.forEach((document) -> appendBulkEntry(sb, document));
+		return sb.toString();
+	}
+
+	private void appendBulkEntry(StringBuilder sb, String document) {
+		sb.append(bulkAction).append('\n').append(document).append('\n');
 	}
 
 	private String toJson(ProjectRequestDocument stats) {
@@ -113,4 +413,210 @@ public class ProjectGenerationStatPublisher {
 		return this.restTemplate;
 	}
 
+	/**
+	 * Return the number of documents waiting to be published.
+	 * @return the size of the queue
+	 */
+	public int getQueueSize() {
+		return buffer.size();
+	}
+
+	/**
+	 * Return the maximum number of documents that can wait to be published.
+	 * @return the capacity of the queue
+	 */
+	public int getQueueCapacity() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * Return the number of documents that were published successfully.
+	 * @return the number of published documents
+	 */
+	public long getPublishedCount() {
+		return publishedCount.get();
+	}
+
+	/**
+	 * Return the number of documents that could not be published.
+	 * @return the number of failed documents
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * Return the number of documents that were dropped as the queue was full.
+	 * @return the number of dropped documents
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Return the number of documents that were stored in the outbox as the queue was
+	 * full.
+	 * @return the number of spilled documents
+	 */
+	public long getSpilledCount() {
+		return spilledCount.get();
+	}
+
+	/**
+	 * Return the number of documents of the outbox that were published.
+	 * @return the number of replayed documents
+	 */
+	public long getReplayedCount() {
+		return replayedCount.get();
+	}
+
+	/**
+	 * Return the number of documents waiting in the outbox.
+	 * @return the size of the outbox
+	 */
+	public int getOutboxSize() {
+		return (outbox != null ? outbox.size() : 0);
+	}
+
+	/**
+	 * Return the number of documents discarded by the outbox as it was full.
+	 * @return the number of documents dropped by the outbox
+	 */
+	public long getOutboxDroppedCount() {
+		return (outbox != null ? outbox.getDroppedCount() : 0);
+	}
+
+	/**
+	 * Return the number of bulk requests, including the ones that failed.
+	 * @return the number of bulk requests
+	 */
+	public long getPublishCount() {
+		return publishCount.get();
+	}
+
+	/**
+	 * Return the total time spent publishing documents, including retries, in
+	 * nanoseconds.
+	 * @return the total publish time
+	 */
+	public long getPublishTotalTime() {
+		return publishTotalTime.get();
+	}
+
+	@Override
+	public synchronized void start() {
+		if (publisherThread != null) {
+			return;
+		}
+		Thread thread = new Thread(this::publishUntilStopped, "initializr-stats-publisher");
+		thread.setDaemon(true);
+		publisherThread = thread;
+		thread.start();
+	}
+
+	private void publishUntilStopped() {
+		long flushInterval = statsProperties.getPublisher().getFlushInterval().toNanos();
+		Thread current = Thread.currentThread();
+		while (publisherThread == current) {
+			try {
+				buffer.awaitBatch(flushInterval, TimeUnit.NANOSECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (publisherThread == current) {
+				while (publishBatch() >= buffer.batchSize()) {
+					// Publish full batches right away
+				}
+				drainOutbox();
+			}
+		}
+	}
+
+	@Override
+	public void stop() {
+		Thread thread;
+		synchronized (this) {
+			thread = publisherThread;
+			publisherThread = null;
+		}
+		if (thread != null) {
+			long deadline = System.nanoTime()
+					+ statsProperties.getPublisher().getShutdownTimeout().toNanos();
+			buffer.wakeUp();
+			try {
+				TimeUnit.NANOSECONDS.timedJoin(thread, deadline - System.nanoTime());
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			if (thread.isAlive()) {
+				// Abort the retries of the batch being published
+				thread.interrupt();
+			}
+			publishRemaining(deadline);
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public void destroy() {
+		if (outbox != null) {
+			outbox.close();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return publisherThread != null;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+
+	/**
+	 * The outcome of a bulk request.
+	 */
+	private static final class BulkResult {
+
+		static final BulkResult SUCCESS = new BulkResult(0, Collections.emptyList());
+
+		private final int failures;
+
+		private final List<String> retryableDocuments;
+
+		BulkResult(int failures, List<String> retryableDocuments) {
+			this.failures = failures;
+			this.retryableDocuments = retryableDocuments;
+		}
+
+		/**
+		 * Return the number of documents that were rejected by the index.
+		 */
+		int getFailures() {
+			return failures;
+		}
+
+		/**
+		 * Return the rejected documents that may be accepted later.
+		 */
+		List<String> getRetryableDocuments() {
+			return retryableDocuments;
+		}
+
+	}
+
 }
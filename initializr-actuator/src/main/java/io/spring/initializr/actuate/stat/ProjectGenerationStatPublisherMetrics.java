@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link MeterBinder} that exposes the queue of a
+ * {@link ProjectGenerationStatPublisher}, its outbox and the outcome of its bulk
+ * requests.
+ *
+ * @author agent
+ */
+public class ProjectGenerationStatPublisherMetrics implements MeterBinder {
+
+	private static final String PREFIX = "initializr.stats";
+
+	private final ProjectGenerationStatPublisher publisher;
+
+	public ProjectGenerationStatPublisherMetrics(
+			ProjectGenerationStatPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(PREFIX + ".queue.size", publisher,
+				ProjectGenerationStatPublisher::getQueueSize)
+				.description("Number of documents waiting to be published")
+				.register(registry);
+		Gauge.builder(PREFIX + ".queue.capacity", publisher,
+				ProjectGenerationStatPublisher::getQueueCapacity)
+				.description("Maximum number of documents waiting to be published")
+				.register(registry);
+		FunctionTimer.builder(PREFIX + ".publish", publisher,
+				ProjectGenerationStatPublisher::getPublishCount,
+				ProjectGenerationStatPublisher::getPublishTotalTime,
+				TimeUnit.NANOSECONDS)
+				.description("Time spent sending bulk requests, including retries")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".published", publisher,
+				ProjectGenerationStatPublisher::getPublishedCount)
+				.description("Number of documents published").register(registry);
+		FunctionCounter.builder(PREFIX + ".failed", publisher,
+				ProjectGenerationStatPublisher::getFailedCount)
+				.description("Number of documents that could not be published")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".dropped", publisher,
+				ProjectGenerationStatPublisher::getDroppedCount)
+				.description("Number of documents dropped as the queue was full")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".spilled", publisher,
+				ProjectGenerationStatPublisher::getSpilledCount)
+				.description("Number of documents stored in the outbox as the queue was full")
+				.register(registry);
+		Gauge.builder(PREFIX + ".outbox.size", publisher,
+				ProjectGenerationStatPublisher::getOutboxSize)
+				.description("Number of documents waiting in the outbox")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".outbox.replayed", publisher,
+				ProjectGenerationStatPublisher::getReplayedCount)
+				.description("Number of documents of the outbox that were published")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".outbox.dropped", publisher,
+				ProjectGenerationStatPublisher::getOutboxDroppedCount)
+				.description("Number of documents discarded by the outbox as it was full")
+				.register(registry);
+	}
+
+}
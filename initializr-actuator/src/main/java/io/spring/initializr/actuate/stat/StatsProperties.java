@@ -18,6 +18,7 @@ package io.spring.initializr.actuate.stat;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
@@ -34,10 +35,24 @@ public class StatsProperties {
 	@NestedConfigurationProperty
 	private final Elastic elastic = new Elastic();
 
+	@NestedConfigurationProperty
+	private final Publisher publisher = new Publisher();
+
+	@NestedConfigurationProperty
+	private final Outbox outbox = new Outbox();
+
 	public Elastic getElastic() {
 		return elastic;
 	}
 
+	public Publisher getPublisher() {
+		return publisher;
+	}
+
+	public Outbox getOutbox() {
+		return outbox;
+	}
+
 	public static final class Elastic {
 
 		/**
@@ -128,6 +143,16 @@ public class StatsProperties {
 			}
 		}
 
+		public URI getBulkUrl() {
+			String string = uri + "/_bulk";
+			try {
+				return new URI(string);
+			}
+			catch (URISyntaxException ex) {
+				throw new IllegalStateException("Cannot create bulk URL: " + string, ex);
+			}
+		}
+
 		private static String cleanUri(String contextPath) {
 			if (StringUtils.hasText(contextPath) && contextPath.endsWith("/")) {
 				return contextPath.substring(0, contextPath.length() - 1);
@@ -137,4 +162,137 @@ public class StatsProperties {
 
 	}
 
+	public static final class Publisher {
+
+		/**
+		 * Maximum number of documents to keep in memory until they are published.
+		 */
+		private int capacity = 10000;
+
+		/**
+		 * Maximum number of documents to publish in a single bulk request. A bulk
+		 * request is sent as soon as that many documents are available.
+		 */
+		private int batchSize = 500;
+
+		/**
+		 * Maximum time to wait before publishing the available documents.
+		 */
+		private Duration flushInterval = Duration.ofSeconds(5);
+
+		/**
+		 * Policy to apply when a document is added while the queue is full.
+		 */
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+		/**
+		 * Maximum time to spend publishing the pending documents on shutdown. Documents
+		 * that are still pending afterwards are stored in the outbox, if any.
+		 */
+		private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+		public int getCapacity() {
+			return capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public int getBatchSize() {
+			return batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Duration getFlushInterval() {
+			return flushInterval;
+		}
+
+		public void setFlushInterval(Duration flushInterval) {
+			this.flushInterval = flushInterval;
+		}
+
+		public OverflowPolicy getOverflowPolicy() {
+			return overflowPolicy;
+		}
+
+		public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+		}
+
+		public Duration getShutdownTimeout() {
+			return shutdownTimeout;
+		}
+
+		public void setShutdownTimeout(Duration shutdownTimeout) {
+			this.shutdownTimeout = shutdownTimeout;
+		}
+
+	}
+
+	public static final class Outbox {
+
+		/**
+		 * Directory of the outbox that keeps the documents that could not be published
+		 * until the index is reachable again. The outbox is disabled if not set.
+		 */
+		private String directory;
+
+		/**
+		 * Size of a segment of the outbox, in bytes.
+		 */
+		private int segmentSize = 8 * 1024 * 1024;
+
+		/**
+		 * Maximum size of the outbox, in bytes. The oldest segment is deleted when a new
+		 * segment would exceed that size.
+		 */
+		private long maxSize = 256 * 1024 * 1024;
+
+		public String getDirectory() {
+			return directory;
+		}
+
+		public void setDirectory(String directory) {
+			this.directory = directory;
+		}
+
+		public int getSegmentSize() {
+			return segmentSize;
+		}
+
+		public void setSegmentSize(int segmentSize) {
+			this.segmentSize = segmentSize;
+		}
+
+		public long getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(long maxSize) {
+			this.maxSize = maxSize;
+		}
+
+	}
+
+	/**
+	 * Policies to apply when the queue of documents to publish is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Drop the oldest document.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * Store the oldest document in the outbox.
+		 */
+		SPILL
+
+	}
+
 }
@@ -86,11 +86,37 @@ public class ActuatorIntegrationTests
 				metricValue("initializr.dependency.data-jpa"));
 	}
 
+	@Test
+	public void generationPhasesAreTimed() {
+		downloadZip("/starter.zip?style=web&artifactId=timed");
+		assertThat(timerCount("initializr.generation.phase", "phase:resolve",
+				"build:maven", "language:java")).isGreaterThan(0);
+		assertThat(timerCount("initializr.generation.phase", "phase:archive",
+				"format:zip")).isGreaterThan(0);
+		assertThat(timerCount("initializr.generation.template",
+				"template:starter-pom.xml")).isGreaterThan(0);
+	}
+
 	private JsonNode metricsEndpoint() {
 		return parseJson(getRestTemplate().getForObject(
 				createUrl("/actuator/metrics"), String.class));
 	}
 
+	private int timerCount(String metric, String... tags) {
+		StringBuilder url = new StringBuilder("/actuator/metrics/" + metric + "?");
+		for (String tag : tags) {
+			url.append("tag=").append(tag).append("&");
+		}
+		JsonNode root = parseJson(getRestTemplate().getForObject(
+				createUrl(url.toString()), String.class));
+		for (JsonNode measurement : root.get("measurements")) {
+			if ("COUNT".equals(measurement.get("statistic").textValue())) {
+				return measurement.get("value").intValue();
+			}
+		}
+		return 0;
+	}
+
 	private int metricValue(String metric) {
 		JsonNode root =  parseJson(getRestTemplate().getForObject(
 				createUrl("/actuator/metrics/" + metric), String.class));
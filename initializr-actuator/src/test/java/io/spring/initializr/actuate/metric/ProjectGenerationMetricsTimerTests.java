@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.metric;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.spring.initializr.generator.ProjectGenerationPhase;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectGenerationMetricsTimer}.
+ *
+ * @author agent
+ */
+public class ProjectGenerationMetricsTimerTests {
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().addDependencyGroup("core", "web").build();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ProjectGenerationMetricsTimer timer = new ProjectGenerationMetricsTimer(
+			meterRegistry);
+
+	@Test
+	public void phaseIsTaggedWithBuildAndLanguage() {
+		ProjectRequest request = resolvedRequest("gradle-project", "kotlin");
+		timer.record(ProjectGenerationPhase.RESOLVE, null, request,
+				TimeUnit.MILLISECONDS.toNanos(3));
+		timer.record(ProjectGenerationPhase.RESOLVE, null, request,
+				TimeUnit.MILLISECONDS.toNanos(5));
+		Timer resolve = meterRegistry.get("initializr.generation.phase")
+				.tags("phase", "resolve", "build", "gradle", "language", "kotlin",
+						"format", "none")
+				.timer();
+		assertThat(resolve.count()).isEqualTo(2);
+		assertThat(resolve.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(8);
+	}
+
+	@Test
+	public void archiveIsTaggedWithFormat() {
+		ProjectRequest request = resolvedRequest("maven-project", "java");
+		timer.record(ProjectGenerationPhase.ARCHIVE, "zip", request, 1000);
+		timer.record(ProjectGenerationPhase.WRITE, "tar.gz", request, 1000);
+		assertThat(meterRegistry.get("initializr.generation.phase")
+				.tags("phase", "archive", "format", "zip").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("initializr.generation.phase")
+				.tags("phase", "write", "format", "tar.gz").timer().count())
+						.isEqualTo(1);
+	}
+
+	@Test
+	public void templateIsRecordedSeparately() {
+		ProjectRequest request = resolvedRequest("maven-project", "java");
+		timer.record(ProjectGenerationPhase.RENDER, "starter-pom.xml", request, 1000);
+		assertThat(meterRegistry.get("initializr.generation.template")
+				.tags("template", "starter-pom.xml", "build", "maven", "language",
+						"java")
+				.timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.find("initializr.generation.phase").timer()).isNull();
+	}
+
+	private ProjectRequest resolvedRequest(String type, String language) {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(metadata);
+		request.setType(type);
+		request.setLanguage(language);
+		request.resolve(metadata);
+		return request;
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import io.spring.initializr.actuate.stat.DocumentOutbox.Batch;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DocumentOutbox}.
+ *
+ * @author agent
+ */
+public class DocumentOutboxTests {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		this.directory = this.temporaryFolder.newFolder();
+	}
+
+	@Test
+	public void emptyOutboxHasNoSegment() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 1024);
+		assertThat(outbox.size()).isEqualTo(0);
+		assertThat(outbox.read(10).isEmpty()).isTrue();
+		assertThat(segmentFiles()).isEmpty();
+	}
+
+	@Test
+	public void documentsAreReadUntilCommitted() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 1024);
+		outbox.append("doc-1");
+		outbox.append("doc-2");
+		outbox.append("doc-3");
+		assertThat(outbox.read(2).getDocuments()).containsExactly("doc-1", "doc-2");
+		Batch batch = outbox.read(2);
+		assertThat(batch.getDocuments()).containsExactly("doc-1", "doc-2");
+		outbox.commit(batch);
+		assertThat(outbox.size()).isEqualTo(1);
+		assertThat(outbox.read(2).getDocuments()).containsExactly("doc-3");
+	}
+
+	@Test
+	public void segmentsAreRotatedAndDeletedOnceRead() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 1024);
+		for (int i = 0; i < 10; i++) {
+			outbox.append("doc-" + i);
+		}
+		assertThat(segmentFiles()).hasSize(3);
+		assertThat(outbox.sizeOnDisk()).isEqualTo(3 * 64);
+		Batch batch = outbox.read(6);
+		assertThat(batch.getDocuments()).containsExactly("doc-0", "doc-1", "doc-2",
+				"doc-3", "doc-4", "doc-5");
+		outbox.commit(batch);
+		assertThat(segmentFiles()).hasSize(2);
+		assertThat(outbox.size()).isEqualTo(4);
+		assertThat(outbox.read(10).getDocuments()).containsExactly("doc-6", "doc-7",
+				"doc-8", "doc-9");
+	}
+
+	@Test
+	public void outboxIsRecoveredAfterRestart() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 1024);
+		for (int i = 0; i < 6; i++) {
+			outbox.append("doc-" + i);
+		}
+		outbox.commit(outbox.read(3));
+		outbox.force();
+
+		DocumentOutbox recovered = new DocumentOutbox(directory, 64, 1024);
+		assertThat(recovered.size()).isEqualTo(3);
+		recovered.append("doc-6");
+		assertThat(recovered.read(10).getDocuments()).containsExactly("doc-3", "doc-4",
+				"doc-5", "doc-6");
+	}
+
+	@Test
+	public void closedOutboxRejectsDocuments() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 1024);
+		outbox.append("doc-1");
+		outbox.close();
+		assertThat(outbox.read(10).isEmpty()).isTrue();
+		try {
+			outbox.append("doc-2");
+		}
+		catch (IOException ex) {
+			assertThat(ex.getMessage()).contains("closed");
+			DocumentOutbox recovered = new DocumentOutbox(directory, 64, 1024);
+			assertThat(recovered.read(10).getDocuments()).containsExactly("doc-1");
+			return;
+		}
+		throw new AssertionError("Should have failed to append to a closed outbox");
+	}
+
+	@Test
+	public void partiallyWrittenRecordIsIgnored() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 1024);
+		outbox.append("doc-1");
+		outbox.append("doc-2");
+		outbox.force();
+		try (RandomAccessFile file = new RandomAccessFile(segmentFiles()[0], "rw")) {
+			// Corrupt the content of the second record
+			file.seek(13 + 8);
+			file.write('x');
+		}
+
+		DocumentOutbox recovered = new DocumentOutbox(directory, 64, 1024);
+		assertThat(recovered.size()).isEqualTo(1);
+		recovered.append("doc-3");
+		assertThat(recovered.read(10).getDocuments()).containsExactly("doc-1",
+				"doc-3");
+	}
+
+	@Test
+	public void oldestSegmentIsDroppedWhenFull() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 128);
+		for (int i = 0; i < 10; i++) {
+			outbox.append("doc-" + i);
+		}
+		assertThat(segmentFiles()).hasSize(2);
+		assertThat(outbox.getDroppedCount()).isEqualTo(4);
+		assertThat(outbox.size()).isEqualTo(6);
+		assertThat(outbox.read(10).getDocuments()).startsWith("doc-4");
+	}
+
+	@Test
+	public void documentLargerThanSegmentIsDropped() throws IOException {
+		DocumentOutbox outbox = new DocumentOutbox(directory, 64, 1024);
+		assertThat(outbox.append(new String(new char[64]).replace('\0', 'a')))
+				.isFalse();
+		assertThat(outbox.getDroppedCount()).isEqualTo(1);
+		assertThat(outbox.size()).isEqualTo(0);
+	}
+
+	private File[] segmentFiles() {
+		return directory.listFiles(
+				(dir, name) -> name.endsWith(DocumentOutbox.SEGMENT_SUFFIX));
+	}
+
+}
@@ -59,6 +59,9 @@ public class MainControllerStatsIntegrationTests
 	@Autowired
 	private StatsProperties statsProperties;
 
+	@Autowired
+	private ProjectGenerationStatPublisher statPublisher;
+
 	@Before
 	public void setup() {
 		this.statsMockController.stats.clear();
@@ -69,6 +72,7 @@ public class MainControllerStatsIntegrationTests
 	@Test
 	public void simpleProject() {
 		downloadArchive("/starter.zip?groupId=com.foo&artifactId=bar&dependencies=web");
+		this.statPublisher.flush();
 		assertEquals("No stat got generated", 1, statsMockController.stats.size());
 		StatsMockController.Content content = statsMockController.stats.get(0);
 
@@ -83,6 +87,7 @@ public class MainControllerStatsIntegrationTests
 	@Test
 	public void authorizationHeaderIsSet() {
 		downloadArchive("/starter.zip");
+		this.statPublisher.flush();
 		assertEquals("No stat got generated", 1, statsMockController.stats.size());
 		StatsMockController.Content content = statsMockController.stats.get(0);
 
@@ -99,6 +104,7 @@ public class MainControllerStatsIntegrationTests
 	@Test
 	public void requestIpNotSetByDefault() {
 		downloadArchive("/starter.zip?groupId=com.foo&artifactId=bar&dependencies=web");
+		this.statPublisher.flush();
 		assertEquals("No stat got generated", 1, statsMockController.stats.size());
 		StatsMockController.Content content = statsMockController.stats.get(0);
 
@@ -111,6 +117,7 @@ public class MainControllerStatsIntegrationTests
 		RequestEntity<?> request = RequestEntity.get(new URI(createUrl("/starter.zip")))
 				.header("X-FORWARDED-FOR", "10.0.0.123").build();
 		getRestTemplate().exchange(request, String.class);
+		this.statPublisher.flush();
 		assertEquals("No stat got generated", 1, statsMockController.stats.size());
 		StatsMockController.Content content = statsMockController.stats.get(0);
 
@@ -123,6 +130,7 @@ public class MainControllerStatsIntegrationTests
 		RequestEntity<?> request = RequestEntity.get(new URI(createUrl("/starter.zip")))
 				.header("x-forwarded-for", "foo-bar").build();
 		getRestTemplate().exchange(request, String.class);
+		this.statPublisher.flush();
 		assertEquals("No stat got generated", 1, statsMockController.stats.size());
 		StatsMockController.Content content = statsMockController.stats.get(0);
 
@@ -136,6 +144,7 @@ public class MainControllerStatsIntegrationTests
 		RequestEntity<?> request = RequestEntity.get(new URI(createUrl("/starter.zip")))
 				.header("cf-ipcountry", "XX").build();
 		getRestTemplate().exchange(request, String.class);
+		this.statPublisher.flush();
 		assertEquals("No stat got generated", 1, statsMockController.stats.size());
 		StatsMockController.Content content = statsMockController.stats.get(0);
 
@@ -153,6 +162,7 @@ public class MainControllerStatsIntegrationTests
 		catch (HttpClientErrorException ex) {
 			assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
 		}
+		this.statPublisher.flush();
 		assertEquals("No stat got generated", 1, statsMockController.stats.size());
 		StatsMockController.Content content = statsMockController.stats.get(0);
 
@@ -170,6 +180,7 @@ public class MainControllerStatsIntegrationTests
 		this.statsProperties.getElastic()
 				.setUri("http://localhost:" + port + "/elastic-error");
 		downloadArchive("/starter.zip");
+		this.statPublisher.flush();
 		assertEquals("No stat should be available", 0, statsMockController.stats.size());
 	}
 
@@ -178,14 +189,16 @@ public class MainControllerStatsIntegrationTests
 
 		private final List<Content> stats = new ArrayList<>();
 
-		@PostMapping("/elastic/test/my-entity")
-		public void handleProjectRequestDocument(RequestEntity<String> input) {
+		@PostMapping("/elastic/_bulk")
+		public void handleProjectRequestDocuments(RequestEntity<String> input) {
 			String authorization = input.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-			Content content = new Content(authorization, input.getBody());
-			this.stats.add(content);
+			String[] lines = input.getBody().split("\n");
+			for (int i = 1; i < lines.length; i += 2) {
+				this.stats.add(new Content(authorization, lines[i]));
+			}
 		}
 
-		@PostMapping("/elastic-error/test/my-entity")
+		@PostMapping("/elastic-error/_bulk")
 		public void handleExpectedError() {
 			throw new IllegalStateException("Expected exception");
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2017 the original author or authors.
+ * Copyright 2012-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,27 @@
 
 package io.spring.initializr.actuate.stat;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.UUID;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import com.sun.net.httpserver.HttpServer;
 import io.spring.initializr.actuate.stat.StatsProperties.Elastic;
+import io.spring.initializr.actuate.stat.StatsProperties.OverflowPolicy;
 import io.spring.initializr.generator.ProjectGeneratedEvent;
 import io.spring.initializr.generator.ProjectRequest;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpMethod;
@@ -32,8 +45,13 @@ import org.springframework.http.MediaType;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.StreamUtils;
 
-import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
@@ -43,6 +61,12 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
  */
 public class ProjectGenerationStatPublisherTests extends AbstractInitializrStatTests {
 
+	private static final String BULK_URL = "http://example.com/elastic/_bulk";
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private StatsProperties properties;
 	private RetryTemplate retryTemplate;
 	private ProjectGenerationStatPublisher statPublisher;
 	private MockRestServiceServer mockServer;
@@ -50,14 +74,9 @@ public class ProjectGenerationStatPublisherTests extends AbstractInitializrStatT
 
 	@Before
 	public void setUp() {
-		StatsProperties properties = createProperties();
-		ProjectRequestDocumentFactory documentFactory =
-				new ProjectRequestDocumentFactory(createProvider(getMetadata()));
+		this.properties = createProperties();
 		this.retryTemplate = new RetryTemplate();
-		this.statPublisher = new ProjectGenerationStatPublisher(documentFactory,
-				properties, new RestTemplateBuilder(), retryTemplate);
-		mockServer = MockRestServiceServer.createServer(
-				this.statPublisher.getRestTemplate());
+		this.statPublisher = createStatPublisher();
 	}
 
 	@Test
@@ -66,38 +85,73 @@ public class ProjectGenerationStatPublisherTests extends AbstractInitializrStatT
 		request.setGroupId("com.example.foo");
 		request.setArtifactId("my-project");
 
-		mockServer.expect(requestTo("http://example.com/elastic/initializr/request"))
+		mockServer.expect(requestTo(BULK_URL))
 				.andExpect(method(HttpMethod.POST))
-				.andExpect(jsonPath("$.groupId").value("com.example.foo"))
-				.andExpect(jsonPath("$.artifactId").value("my-project"))
-				.andRespond(withStatus(HttpStatus.CREATED)
-						.body(mockResponse(UUID.randomUUID().toString(), true))
+				.andExpect(content().contentType("application/x-ndjson"))
+				.andExpect(content().string(allOf(
+						containsString("{\"index\":{\"_index\":\"initializr\",\"_type\":\"request\"}}\n"),
+						containsString("\"groupId\":\"com.example.foo\""),
+						containsString("\"artifactId\":\"my-project\""))))
+				.andRespond(withStatus(HttpStatus.OK)
+						.body(mockResponse(false))
 						.contentType(MediaType.APPLICATION_JSON));
 
 		this.statPublisher.handleEvent(new ProjectGeneratedEvent(request));
+		assertThat(this.statPublisher.getQueueSize()).isEqualTo(1);
+		this.statPublisher.flush();
 		mockServer.verify();
+		assertThat(this.statPublisher.getQueueSize()).isEqualTo(0);
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getPublishCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void publishDocumentsInBatch() {
+		this.properties.getPublisher().setBatchSize(2);
+		this.statPublisher = createStatPublisher();
+
+		mockServer.expect(requestTo(BULK_URL))
+				.andExpect(content().string(allOf(containsString("\"first\""),
+						containsString("\"second\""), not(containsString("\"third\"")))))
+				.andRespond(withStatus(HttpStatus.OK).body(mockResponse(false))
+						.contentType(MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo(BULK_URL))
+				.andExpect(content().string(containsString("\"third\"")))
+				.andRespond(withStatus(HttpStatus.OK).body(mockResponse(false))
+						.contentType(MediaType.APPLICATION_JSON));
+
+		publish("first");
+		publish("second");
+		publish("third");
+		this.statPublisher.flush();
+		mockServer.verify();
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(3);
+		assertThat(this.statPublisher.getPublishCount()).isEqualTo(2);
 	}
 
 	@Test
 	public void recoverFromError() {
 		ProjectRequest request = createProjectRequest();
 
-		mockServer.expect(requestTo("http://example.com/elastic/initializr/request"))
+		mockServer.expect(requestTo(BULK_URL))
 				.andExpect(method(HttpMethod.POST))
 				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
 
-		mockServer.expect(requestTo("http://example.com/elastic/initializr/request"))
+		mockServer.expect(requestTo(BULK_URL))
 				.andExpect(method(HttpMethod.POST))
 				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
 
-		mockServer.expect(requestTo("http://example.com/elastic/initializr/request"))
+		mockServer.expect(requestTo(BULK_URL))
 				.andExpect(method(HttpMethod.POST))
-				.andRespond(withStatus(HttpStatus.CREATED)
-						.body(mockResponse(UUID.randomUUID().toString(), true))
+				.andRespond(withStatus(HttpStatus.OK)
+						.body(mockResponse(false))
 						.contentType(MediaType.APPLICATION_JSON));
 
 		this.statPublisher.handleEvent(new ProjectGeneratedEvent(request));
+		this.statPublisher.flush();
 		mockServer.verify();
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getFailedCount()).isEqualTo(0);
 	}
 
 	@Test
@@ -106,21 +160,309 @@ public class ProjectGenerationStatPublisherTests extends AbstractInitializrStatT
 		this.retryTemplate.setRetryPolicy(new SimpleRetryPolicy(2,
 				Collections.singletonMap(Exception.class, true)));
 
-		mockServer.expect(requestTo("http://example.com/elastic/initializr/request"))
+		mockServer.expect(requestTo(BULK_URL))
 				.andExpect(method(HttpMethod.POST))
 				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
 
-		mockServer.expect(requestTo("http://example.com/elastic/initializr/request"))
+		mockServer.expect(requestTo(BULK_URL))
 				.andExpect(method(HttpMethod.POST))
 				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
 
 		this.statPublisher.handleEvent(new ProjectGeneratedEvent(request));
+		this.statPublisher.flush();
 		mockServer.verify();
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(0);
+		assertThat(this.statPublisher.getFailedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void failedItemsAreCounted() {
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.OK)
+						.body("{\"took\":3,\"errors\":true,\"items\":["
+								+ "{\"index\":{\"status\":201}},"
+								+ "{\"index\":{\"status\":400,\"error\":{}}}]}")
+						.contentType(MediaType.APPLICATION_JSON));
+
+		publish("first");
+		publish("second");
+		this.statPublisher.flush();
+		mockServer.verify();
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getFailedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void retryableItemsAreStoredInOutbox() throws IOException {
+		this.properties.getOutbox()
+				.setDirectory(this.temporaryFolder.newFolder().getAbsolutePath());
+		this.statPublisher = createStatPublisher();
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.OK)
+						.body("{\"took\":3,\"errors\":true,\"items\":["
+								+ "{\"index\":{\"status\":201}},"
+								+ "{\"index\":{\"status\":429,\"error\":{}}},"
+								+ "{\"index\":{\"status\":400,\"error\":{}}},"
+								+ "{\"index\":{\"status\":503,\"error\":{}}}]}")
+						.contentType(MediaType.APPLICATION_JSON));
+
+		publish("first");
+		publish("second");
+		publish("third");
+		publish("fourth");
+		this.statPublisher.flush();
+		mockServer.verify();
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getFailedCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(2);
+	}
+
+	@Test
+	public void retryableItemsOfOutboxAreStoredAgain() throws IOException {
+		this.properties.getOutbox()
+				.setDirectory(this.temporaryFolder.newFolder().getAbsolutePath());
+		this.retryTemplate.setRetryPolicy(new SimpleRetryPolicy(1,
+				Collections.singletonMap(Exception.class, true)));
+		this.statPublisher = createStatPublisher();
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.OK)
+						.body("{\"took\":3,\"errors\":true,\"items\":["
+								+ "{\"index\":{\"status\":201}},"
+								+ "{\"index\":{\"status\":429,\"error\":{}}}]}")
+						.contentType(MediaType.APPLICATION_JSON));
+
+		publish("first");
+		publish("second");
+		this.statPublisher.flush();
+		assertThat(this.statPublisher.drainOutbox()).isEqualTo(2);
+		mockServer.verify();
+		assertThat(this.statPublisher.getReplayedCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getFailedCount()).isEqualTo(0);
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void overflowDropsOldestDocument() {
+		this.properties.getPublisher().setCapacity(2);
+		this.statPublisher = createStatPublisher();
+
+		mockServer.expect(requestTo(BULK_URL))
+				.andExpect(content().string(allOf(not(containsString("\"first\"")),
+						containsString("\"second\""), containsString("\"third\""))))
+				.andRespond(withStatus(HttpStatus.OK).body(mockResponse(false))
+						.contentType(MediaType.APPLICATION_JSON));
+
+		publish("first");
+		publish("second");
+		publish("third");
+		assertThat(this.statPublisher.getQueueSize()).isEqualTo(2);
+		assertThat(this.statPublisher.getDroppedCount()).isEqualTo(1);
+		this.statPublisher.flush();
+		mockServer.verify();
+	}
+
+	@Test
+	public void overflowSpillsOldestDocument() throws IOException {
+		File directory = this.temporaryFolder.newFolder();
+		StatsProperties.Publisher publisher = this.properties.getPublisher();
+		publisher.setCapacity(1);
+		publisher.setOverflowPolicy(OverflowPolicy.SPILL);
+		this.properties.getOutbox().setDirectory(directory.getAbsolutePath());
+		this.statPublisher = createStatPublisher();
+
+		publish("first");
+		publish("second");
+		assertThat(this.statPublisher.getSpilledCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getDroppedCount()).isEqualTo(0);
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(1);
+		assertThat(this.statPublisher.getQueueSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void spillPolicyRequiresOutbox() {
+		this.properties.getPublisher().setOverflowPolicy(OverflowPolicy.SPILL);
+		try {
+			createStatPublisher();
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage()).contains("outbox directory");
+			return;
+		}
+		throw new AssertionError("Should have failed without an outbox directory");
+	}
+
+	@Test
+	public void fatalErrorStoresDocumentsInOutbox() throws IOException {
+		this.properties.getOutbox()
+				.setDirectory(this.temporaryFolder.newFolder().getAbsolutePath());
+		this.retryTemplate.setRetryPolicy(new SimpleRetryPolicy(1,
+				Collections.singletonMap(Exception.class, true)));
+		this.statPublisher = createStatPublisher();
+
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+
+		publish("first");
+		publish("second");
+		this.statPublisher.flush();
+		mockServer.verify();
+		assertThat(this.statPublisher.getFailedCount()).isEqualTo(0);
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(2);
+	}
+
+	@Test
+	public void unreadableResponseStoresDocumentsInOutbox() throws IOException {
+		this.properties.getOutbox()
+				.setDirectory(this.temporaryFolder.newFolder().getAbsolutePath());
+		this.statPublisher = createStatPublisher();
+
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.OK).body("{\"took\":")
+						.contentType(MediaType.APPLICATION_JSON));
+
+		publish("first");
+		publish("second");
+		this.statPublisher.flush();
+		mockServer.verify();
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(0);
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(2);
+	}
+
+	@Test
+	public void outboxIsReplayedOnceIndexIsReachable() throws IOException {
+		this.properties.getOutbox()
+				.setDirectory(this.temporaryFolder.newFolder().getAbsolutePath());
+		this.retryTemplate.setRetryPolicy(new SimpleRetryPolicy(1,
+				Collections.singletonMap(Exception.class, true)));
+		this.statPublisher = createStatPublisher();
+
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+		mockServer.expect(requestTo(BULK_URL))
+				.andExpect(content().string(allOf(containsString("\"first\""),
+						containsString("\"second\""))))
+				.andRespond(withStatus(HttpStatus.OK).body(mockResponse(false))
+						.contentType(MediaType.APPLICATION_JSON));
+
+		publish("first");
+		publish("second");
+		this.statPublisher.flush();
+		assertThat(this.statPublisher.drainOutbox()).isEqualTo(0);
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(2);
+		assertThat(this.statPublisher.drainOutbox()).isEqualTo(2);
+		mockServer.verify();
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(0);
+		assertThat(this.statPublisher.getReplayedCount()).isEqualTo(2);
+		assertThat(this.statPublisher.getPublishedCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void outboxSurvivesRestart() throws IOException {
+		this.properties.getOutbox()
+				.setDirectory(this.temporaryFolder.newFolder().getAbsolutePath());
+		this.retryTemplate.setRetryPolicy(new SimpleRetryPolicy(1,
+				Collections.singletonMap(Exception.class, true)));
+		this.statPublisher = createStatPublisher();
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+		publish("first");
+		this.statPublisher.flush();
+		this.statPublisher.destroy();
+
+		this.statPublisher = createStatPublisher();
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(1);
+		mockServer.expect(requestTo(BULK_URL))
+				.andExpect(content().string(containsString("\"first\"")))
+				.andRespond(withStatus(HttpStatus.OK).body(mockResponse(false))
+						.contentType(MediaType.APPLICATION_JSON));
+		assertThat(this.statPublisher.drainOutbox()).isEqualTo(1);
+		mockServer.verify();
+	}
+
+	@Test
+	public void stopSendsPendingDocumentsOnce() throws IOException {
+		this.properties.getOutbox()
+				.setDirectory(this.temporaryFolder.newFolder().getAbsolutePath());
+		this.retryTemplate.setRetryPolicy(new SimpleRetryPolicy(3,
+				Collections.singletonMap(Exception.class, true)));
+		this.statPublisher = createStatPublisher();
+		mockServer.expect(requestTo(BULK_URL))
+				.andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+		this.statPublisher.start();
+		publish("first");
+		publish("second");
+		this.statPublisher.stop();
+		mockServer.verify();
+		assertThat(this.statPublisher.getPublishCount()).isEqualTo(1);
+		assertThat(this.statPublisher.getOutboxSize()).isEqualTo(2);
+		assertThat(this.statPublisher.getFailedCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void startedPublisherFlushesOnInterval() throws Exception {
+		List<String> bodies = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/elastic/_bulk", (exchange) -> {
+			bodies.add(StreamUtils.copyToString(exchange.getRequestBody(),
+					StandardCharsets.UTF_8));
+			byte[] response = mockResponse(false).getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+			latch.countDown();
+		});
+		server.start();
+		try {
+			this.properties.getElastic().setUri("http://localhost:"
+					+ server.getAddress().getPort() + "/elastic");
+			this.properties.getPublisher().setFlushInterval(Duration.ofMillis(50));
+			this.statPublisher = createUnmockedStatPublisher();
+			this.statPublisher.start();
+			try {
+				publish("first");
+				assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+				assertThat(bodies).hasSize(1);
+				assertThat(bodies.get(0)).contains("\"first\"");
+			}
+			finally {
+				this.statPublisher.stop();
+			}
+			assertThat(this.statPublisher.isRunning()).isFalse();
+			assertThat(this.statPublisher.getPublishedCount()).isEqualTo(1);
+		}
+		finally {
+			server.stop(0);
+		}
+	}
+
+	private void publish(String artifactId) {
+		ProjectRequest request = createProjectRequest();
+		request.setArtifactId(artifactId);
+		this.statPublisher.handleEvent(new ProjectGeneratedEvent(request));
+	}
+
+	private ProjectGenerationStatPublisher createStatPublisher() {
+		ProjectGenerationStatPublisher publisher = createUnmockedStatPublisher();
+		this.mockServer = MockRestServiceServer.createServer(publisher.getRestTemplate());
+		return publisher;
+	}
+
+	private ProjectGenerationStatPublisher createUnmockedStatPublisher() {
+		ProjectRequestDocumentFactory documentFactory =
+				new ProjectRequestDocumentFactory(createProvider(getMetadata()));
+		return new ProjectGenerationStatPublisher(documentFactory, properties,
+				new RestTemplateBuilder(), retryTemplate);
 	}
 
-	private static String mockResponse(String id, boolean created) {
-		return "{\"_index\":\"initializr\",\"_type\":\"request\",\"_id\":\"" + id + "\",\"_version\":1,\"_shards\"" +
-				":{\"total\":1,\"successful\":1,\"failed\":0},\"created\":" + created + "}";
+	private static String mockResponse(boolean errors) {
+		return "{\"took\":3,\"errors\":" + errors + ",\"items\":[]}";
 	}
 
 	private static StatsProperties createProperties() {
@@ -43,4 +43,11 @@ public class StatsPropertiesTests {
 				is("http://example.com/my-index/foo"));
 	}
 
+	@Test
+	public void provideBulkUrl() {
+		properties.getElastic().setUri("http://example.com/");
+		assertThat(properties.getElastic().getBulkUrl().toString(),
+				is("http://example.com/_bulk"));
+	}
+
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.initializr.generator.DirectoryProjectWriter;
+import io.spring.initializr.generator.ProjectGenerator;
+import io.spring.initializr.generator.ProjectResourceLocator;
+import io.spring.initializr.generator.ProjectTree;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.web.project.PrecompressedZipEntries;
+import io.spring.initializr.web.project.TarGzProjectWriter;
+import io.spring.initializr.web.project.ZipProjectWriter;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.Tar;
+import org.apache.tools.ant.types.TarFileSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Benchmarks the archives that are written for a generated project. The native tar.gz
+ * writer is compared with the Ant {@link Tar} task that staged the project on disk.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArchiveBenchmark {
+
+	private ProjectTree tree;
+
+	private File workDir;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		InitializrMetadata metadata = BenchmarkSupport.loadMetadata();
+		ProjectGenerator projectGenerator = BenchmarkSupport
+				.createProjectGenerator(metadata);
+		tree = projectGenerator.generateProjectTree(BenchmarkSupport
+				.createProjectRequest(metadata, "web", "data-jpa", "security"));
+		workDir = Files.createTempDirectory("initializr-benchmark").toFile();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		FileSystemUtils.deleteRecursively(workDir);
+	}
+
+	@Benchmark
+	public long tarGz(Compression compression) throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+		try (TarGzProjectWriter writer = new TarGzProjectWriter(out,
+				compression.compressionLevel, compression.bufferSize)) {
+			tree.writeTo(writer);
+			writer.finish();
+		}
+		return out.count;
+	}
+
+	@Benchmark
+	public long zip(Compression compression) throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+		try (ZipProjectWriter writer = new ZipProjectWriter(out,
+				compression.compressionLevel)) {
+			tree.writeTo(writer);
+			writer.finish();
+		}
+		return out.count;
+	}
+
+	@Benchmark
+	public long zipWithPrecompressedWrappers(Compression compression)
+			throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+		try (ZipProjectWriter writer = new ZipProjectWriter(out,
+				compression.compressionLevel, compression.precompressedEntries)) {
+			tree.writeTo(writer);
+			writer.finish();
+		}
+		return out.count;
+	}
+
+	/**
+	 * Reproduce what {@code starter.tgz} used to do: stage the project in a directory
+	 * and let the Ant {@link Tar} task scan it. The compression level and buffer size
+	 * cannot be configured.
+	 */
+	@Benchmark
+	public long antTarGz() throws IOException {
+		File dir = Files.createTempDirectory(workDir.toPath(), "project").toFile();
+		try {
+			tree.writeTo(new DirectoryProjectWriter(dir));
+			File download = new File(dir.getParentFile(), dir.getName() + ".tar.gz");
+			Tar tar = new Tar();
+			tar.setProject(new Project());
+			tar.setDefaultexcludes(false);
+			TarFileSet set = tar.createTarFileSet();
+			set.setDir(dir);
+			set.setFileMode("755");
+			set.setIncludes("mvnw");
+			set.setDefaultexcludes(false);
+			set = tar.createTarFileSet();
+			set.setDir(dir);
+			set.setIncludes("**,");
+			set.setExcludes("mvnw");
+			set.setDefaultexcludes(false);
+			tar.setDestFile(download.getCanonicalFile());
+			Tar.TarCompressionMethod method = new Tar.TarCompressionMethod();
+			method.setValue("gzip");
+			tar.setCompression(method);
+			tar.execute();
+			long length = Files.readAllBytes(download.toPath()).length;
+			download.delete();
+			return length;
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(dir);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Compression {
+
+		@Param({ "-1", "1", "9" })
+		private int compressionLevel;
+
+		@Param({ "512", "8192", "65536" })
+		private int bufferSize;
+
+		private PrecompressedZipEntries precompressedEntries;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			precompressedEntries = PrecompressedZipEntries
+					.forWrappers(new ProjectResourceLocator(), compressionLevel);
+		}
+
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.spring.initializr.generator.ProjectGenerator;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.generator.ProjectRequestResolver;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataBuilder;
+import io.spring.initializr.metadata.InitializrProperties;
+import io.spring.initializr.metadata.SimpleInitializrMetadataProvider;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Shared infrastructure for the benchmarks: the metadata is loaded from the
+ * configuration of the production service so that the benchmarks use realistic
+ * data.
+ *
+ * @author agent
+ */
+final class BenchmarkSupport {
+
+	private static final String SERVICE_CONFIGURATION = "initializr-service/application.yml";
+
+	private BenchmarkSupport() {
+	}
+
+	/**
+	 * Load the {@link InitializrMetadata} of the production service.
+	 * @return the metadata
+	 */
+	static InitializrMetadata loadMetadata() {
+		try {
+			List<PropertySource<?>> propertySources = new YamlPropertySourceLoader()
+					.load("initializr-service",
+							new ClassPathResource(SERVICE_CONFIGURATION));
+			List<ConfigurationPropertySource> sources = new ArrayList<>();
+			propertySources.forEach((source) -> ConfigurationPropertySources
+					.from(source).forEach(sources::add));
+			InitializrProperties properties = new Binder(sources)
+					.bind("initializr", InitializrProperties.class)
+					.orElseThrow(() -> new IllegalStateException(
+							"No initializr configuration in " + SERVICE_CONFIGURATION));
+			return InitializrMetadataBuilder.fromInitializrProperties(properties)
+					.build();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(
+					"Cannot load " + SERVICE_CONFIGURATION, ex);
+		}
+	}
+
+	/**
+	 * Create a {@link ProjectGenerator} for the specified metadata.
+	 * @param metadata the metadata to use
+	 * @return a project generator
+	 */
+	static ProjectGenerator createProjectGenerator(InitializrMetadata metadata) {
+		return configureProjectGenerator(new ProjectGenerator(), metadata);
+	}
+
+	/**
+	 * Configure the specified {@link ProjectGenerator} to use the specified metadata.
+	 * @param generator the generator to configure
+	 * @param metadata the metadata to use
+	 * @param <T> the type of the generator
+	 * @return the generator
+	 */
+	static <T extends ProjectGenerator> T configureProjectGenerator(T generator,
+			InitializrMetadata metadata) {
+		generator.setMetadataProvider(new SimpleInitializrMetadataProvider(metadata));
+		generator.setRequestResolver(new ProjectRequestResolver(new ArrayList<>()));
+		generator.setEventPublisher((event) -> {
+		});
+		generator.setTmpdir(System.getProperty("java.io.tmpdir"));
+		return generator;
+	}
+
+	/**
+	 * Create a {@link ProjectRequest} initialized with the defaults of the specified
+	 * metadata and the specified dependencies.
+	 * @param metadata the metadata to use
+	 * @param dependencies the identifiers of the dependencies to add
+	 * @return a project request
+	 */
+	static ProjectRequest createProjectRequest(InitializrMetadata metadata,
+			String... dependencies) {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(metadata);
+		request.getStyle().addAll(Arrays.asList(dependencies));
+		return request;
+	}
+
+}
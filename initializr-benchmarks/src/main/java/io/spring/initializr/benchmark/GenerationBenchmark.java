@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.generator.ProjectResourceLocator;
+import io.spring.initializr.generator.ProjectTree;
+import io.spring.initializr.metadata.InitializrConfiguration.Env.Archive;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.web.project.AbstractArchiveProjectWriter;
+import io.spring.initializr.web.project.PrecompressedZipEntries;
+import io.spring.initializr.web.project.TarGzProjectWriter;
+import io.spring.initializr.web.project.ZipProjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Benchmarks the generation hot path, from the resolution of a request to the archive
+ * that {@code MainController} writes when a project is not cached. Each invocation
+ * uses a new request, initialized with the defaults of the metadata, as a request
+ * cannot be resolved twice. The build file cache of the generator is disabled so that
+ * build files are rendered on each invocation.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerationBenchmark {
+
+	@Param({ "web", "web,data-jpa,security,cloud-config-client" })
+	private String dependencies;
+
+	private InitializrMetadata metadata;
+
+	private ModelProjectGenerator generator;
+
+	private Archive archive;
+
+	private PrecompressedZipEntries precompressedZipEntries;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		metadata = BenchmarkSupport.loadMetadata();
+		generator = BenchmarkSupport.configureProjectGenerator(
+				new ModelProjectGenerator(), metadata);
+		generator.setBuildFileCacheSize(0);
+		archive = metadata.getConfiguration().getEnv().getArchive();
+		precompressedZipEntries = PrecompressedZipEntries.forWrappers(
+				new ProjectResourceLocator(), archive.getCompressionLevel());
+	}
+
+	@Benchmark
+	public ProjectRequest resolve() {
+		ProjectRequest request = createRequest("maven-project");
+		request.resolve(metadata);
+		return request;
+	}
+
+	/**
+	 * Resolve the template model. Entries that are computed lazily are not resolved.
+	 */
+	@Benchmark
+	public Map<String, Object> resolveModel() {
+		return generator.resolveModel(createRequest("maven-project"));
+	}
+
+	@Benchmark
+	public byte[] generateMavenPom() {
+		return generator.generateMavenPom(createRequest("maven-build"));
+	}
+
+	@Benchmark
+	public byte[] generateGradleBuild() {
+		return generator.generateGradleBuild(createRequest("gradle-build"));
+	}
+
+	@Benchmark
+	public File generateProjectStructure() {
+		File dir = generator.generateProjectStructure(createRequest("maven-project"));
+		generator.cleanTempFiles(dir);
+		return dir;
+	}
+
+	@Benchmark
+	public ProjectTree generateProjectTree() {
+		return generator.generateProjectTree(createRequest("maven-project"));
+	}
+
+	/**
+	 * Generate a zip archive the way {@code /starter.zip} does.
+	 */
+	@Benchmark
+	public long zipArchive() throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+		writeArchive(new ZipProjectWriter(out, archive.getCompressionLevel(),
+				precompressedZipEntries));
+		return out.count;
+	}
+
+	/**
+	 * Generate a tar.gz archive the way {@code /starter.tgz} does.
+	 */
+	@Benchmark
+	public long tarGzArchive() throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+		writeArchive(new TarGzProjectWriter(out, archive.getCompressionLevel(),
+				archive.getBufferSize()));
+		return out.count;
+	}
+
+	private void writeArchive(AbstractArchiveProjectWriter writer) throws IOException {
+		ProjectTree tree = generator.generateProjectTree(createRequest("maven-project"));
+		try {
+			tree.writeTo(writer);
+			writer.finish();
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	private ProjectRequest createRequest(String type) {
+		ProjectRequest request = BenchmarkSupport.createProjectRequest(metadata,
+				StringUtils.commaDelimitedListToStringArray(dependencies));
+		request.setType(type);
+		return request;
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+	}
+
+}
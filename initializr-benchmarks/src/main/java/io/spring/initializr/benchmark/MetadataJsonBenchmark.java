@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.initializr.metadata.DependencyMetadata;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.util.Version;
+import io.spring.initializr.web.mapper.DependencyMetadataV21JsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataJsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataV21JsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataV2JsonMapper;
+import io.spring.initializr.web.support.DefaultDependencyMetadataProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the JSON representations of the metadata. The tree-based mappers are
+ * compared with their streaming counterpart.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataJsonBenchmark {
+
+	private static final String APP_URL = "https://start.spring.io";
+
+	private final InitializrMetadataJsonMapper v2Mapper = new InitializrMetadataV2JsonMapper();
+
+	private final InitializrMetadataJsonMapper v21Mapper = new InitializrMetadataV21JsonMapper();
+
+	private final DependencyMetadataV21JsonMapper dependenciesMapper = new DependencyMetadataV21JsonMapper();
+
+	private InitializrMetadata metadata;
+
+	private DependencyMetadata dependencyMetadata;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		metadata = BenchmarkSupport.loadMetadata();
+		// The boot versions of the configuration are refreshed at runtime
+		dependencyMetadata = new DefaultDependencyMetadataProvider().get(metadata,
+				Version.parse("2.0.0.RELEASE"));
+	}
+
+	@Benchmark
+	public String metadataV2Tree() {
+		return v2Mapper.write(metadata, APP_URL);
+	}
+
+	@Benchmark
+	public byte[] metadataV2Stream() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+		v2Mapper.write(metadata, APP_URL, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public String metadataV21Tree() {
+		return v21Mapper.write(metadata, APP_URL);
+	}
+
+	@Benchmark
+	public byte[] metadataV21Stream() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+		v21Mapper.write(metadata, APP_URL, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public String dependenciesV21Tree() {
+		return dependenciesMapper.write(dependencyMetadata);
+	}
+
+	@Benchmark
+	public byte[] dependenciesV21Stream() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		dependenciesMapper.write(dependencyMetadata, out);
+		return out.toByteArray();
+	}
+
+}
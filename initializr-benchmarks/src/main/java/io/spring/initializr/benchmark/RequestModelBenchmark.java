@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.benchmark;
+
+import java.beans.PropertyDescriptor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.initializr.generator.BeanPropertyTable;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.BeanWrapperImpl;
+
+/**
+ * Benchmarks how a {@link ProjectRequest} is copied to the template model and how it
+ * is initialized with the defaults of the metadata. The {@link BeanWrapperImpl} that
+ * used to be created for each request is measured as a baseline.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestModelBenchmark {
+
+	private InitializrMetadata metadata;
+
+	private ProjectRequest request;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		metadata = BenchmarkSupport.loadMetadata();
+		request = BenchmarkSupport.createProjectRequest(metadata, "web", "data-jpa");
+	}
+
+	@Benchmark
+	public Map<String, Object> copyModel() {
+		Map<String, Object> model = new HashMap<>();
+		BeanPropertyTable.forType(request.getClass()).copyTo(request, model);
+		return model;
+	}
+
+	@Benchmark
+	public Map<String, Object> copyModelWithBeanWrapper() {
+		Map<String, Object> model = new HashMap<>();
+		BeanWrapperImpl bean = new BeanWrapperImpl(request);
+		for (PropertyDescriptor descriptor : bean.getPropertyDescriptors()) {
+			if (bean.isReadableProperty(descriptor.getName())) {
+				model.put(descriptor.getName(),
+						bean.getPropertyValue(descriptor.getName()));
+			}
+		}
+		return model;
+	}
+
+	@Benchmark
+	public ProjectRequest initialize() {
+		ProjectRequest candidate = new ProjectRequest();
+		candidate.initialize(metadata);
+		return candidate;
+	}
+
+	@Benchmark
+	public ProjectRequest initializeWithBeanWrapper() {
+		ProjectRequest candidate = new ProjectRequest();
+		BeanWrapperImpl bean = new BeanWrapperImpl(candidate);
+		metadata.defaults().forEach((key, value) -> {
+			if (bean.isWritableProperty(key) && !key.equals("packageName")) {
+				bean.setPropertyValue(key, value);
+			}
+		});
+		return candidate;
+	}
+
+}
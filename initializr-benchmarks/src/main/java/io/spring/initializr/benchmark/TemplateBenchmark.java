@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.util.TemplateRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the rendering of the build templates of a typical project.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateBenchmark {
+
+	private final TemplateRenderer renderer = new TemplateRenderer();
+
+	private Map<String, Object> mavenModel;
+
+	private Map<String, Object> gradleModel;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		InitializrMetadata metadata = BenchmarkSupport.loadMetadata();
+		ModelProjectGenerator generator = BenchmarkSupport
+				.configureProjectGenerator(new ModelProjectGenerator(), metadata);
+		ProjectRequest request = BenchmarkSupport.createProjectRequest(metadata, "web",
+				"data-jpa", "security", "cloud-config-client");
+		request.setType("maven-project");
+		mavenModel = generator.resolveModel(request);
+		request = BenchmarkSupport.createProjectRequest(metadata, "web", "data-jpa",
+				"security", "cloud-config-client");
+		request.setType("gradle-project");
+		gradleModel = generator.resolveModel(request);
+	}
+
+	@Benchmark
+	public byte[] renderPom() {
+		return renderer.processToBytes("starter-pom.xml", mavenModel);
+	}
+
+	@Benchmark
+	public byte[] renderGradleBuild() {
+		return renderer.processToBytes("starter-build.gradle", gradleModel);
+	}
+
+	@Benchmark
+	public void renderPomToStream() {
+		renderer.process("starter-pom.xml", mavenModel, new ByteArrayOutputStream());
+	}
+
+}
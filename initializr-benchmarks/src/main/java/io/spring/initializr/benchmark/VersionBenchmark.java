@@ -0,0 +1,168 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.spring.initializr.util.Version;
+import io.spring.initializr.util.VersionParser;
+import io.spring.initializr.util.VersionRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link Version} parsing and comparison, as well as the parsing and
+ * matching of {@link VersionRange version ranges}. The regular expression that the
+ * parser used to rely on is measured as a baseline.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionBenchmark {
+
+	private static final Pattern VERSION_REGEX = Pattern
+			.compile("^(\\d+)\\.(\\d+|x)\\.(\\d+|x)(?:\\.([^0-9]+)(\\d+)?)?$");
+
+	private static final String[] VERSIONS = { "1.5.10.RELEASE", "2.0.0.RELEASE",
+			"2.0.1.BUILD-SNAPSHOT", "2.1.0.M1", "2.0.0.RC2", "1.5.11.BUILD-SNAPSHOT" };
+
+	private static final String[] UNKNOWN_QUALIFIER_VERSIONS = { "1.5.10.Final",
+			"2.0.0.Final", "2.0.1.Beta1", "2.1.0.Alpha1", "2.0.0.CR2", "1.5.11.Beta2" };
+
+	private static final String[] RANGES = { "[1.5.0.RELEASE,2.0.0.M1)",
+			"[2.0.0.RELEASE,2.1.0.M1)", "2.0.0.RELEASE", "(1.5.10.RELEASE,2.0.0.RC2]" };
+
+	private Version[] versions;
+
+	private Version[] unknownQualifierVersions;
+
+	private VersionRange[] ranges;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		versions = parseAll(VERSIONS);
+		unknownQualifierVersions = parseAll(UNKNOWN_QUALIFIER_VERSIONS);
+		ranges = new VersionRange[RANGES.length];
+		for (int i = 0; i < RANGES.length; i++) {
+			ranges[i] = VersionParser.DEFAULT.parseRange(RANGES[i]);
+		}
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		for (String text : VERSIONS) {
+			blackhole.consume(Version.parse(text));
+		}
+	}
+
+	/**
+	 * Parse with a new parser so that the cache of parsed versions does not apply.
+	 */
+	@Benchmark
+	public void parseUncached(Blackhole blackhole) {
+		VersionParser parser = new VersionParser(Collections.emptyList());
+		for (String text : VERSIONS) {
+			blackhole.consume(parser.parse(text));
+		}
+	}
+
+	@Benchmark
+	public void parseRange(Blackhole blackhole) {
+		for (String text : RANGES) {
+			blackhole.consume(VersionParser.DEFAULT.parseRange(text));
+		}
+	}
+
+	@Benchmark
+	public void matchRange(Blackhole blackhole) {
+		for (VersionRange range : ranges) {
+			for (Version version : versions) {
+				blackhole.consume(range.match(version));
+			}
+		}
+	}
+
+	@Benchmark
+	public void parseWithRegex(Blackhole blackhole) {
+		for (String text : VERSIONS) {
+			blackhole.consume(parseWithRegex(text));
+		}
+	}
+
+	@Benchmark
+	public void compare(Blackhole blackhole) {
+		compareAll(versions, blackhole);
+	}
+
+	@Benchmark
+	public void compareUnknownQualifiers(Blackhole blackhole) {
+		compareAll(unknownQualifierVersions, blackhole);
+	}
+
+	private static void compareAll(Version[] versions, Blackhole blackhole) {
+		for (Version first : versions) {
+			for (Version second : versions) {
+				blackhole.consume(first.compareTo(second));
+			}
+		}
+	}
+
+	private static Version[] parseAll(String[] texts) {
+		Version[] versions = new Version[texts.length];
+		for (int i = 0; i < texts.length; i++) {
+			versions[i] = Version.parse(texts[i]);
+		}
+		return versions;
+	}
+
+	/**
+	 * Parse a version without wildcards the way the parser used to.
+	 */
+	private static Version parseWithRegex(String text) {
+		Matcher matcher = VERSION_REGEX.matcher(text.trim());
+		if (!matcher.matches()) {
+			throw new IllegalArgumentException(text);
+		}
+		Version.Qualifier qualifier = null;
+		if (matcher.group(4) != null) {
+			qualifier = new Version.Qualifier(matcher.group(4),
+					(matcher.group(5) != null ? Integer.valueOf(matcher.group(5)) : null));
+		}
+		return new Version(Integer.valueOf(matcher.group(1)),
+				Integer.valueOf(matcher.group(2)), Integer.valueOf(matcher.group(3)),
+				qualifier);
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * A table of the properties of a bean type, backed by {@link MethodHandle method
+ * handles} that are created once per type. Provides the subset of {@code BeanWrapper}
+ * that is required to copy a request to a model and to apply defaults, without
+ * introspecting the bean on every call.
+ *
+ * @author agent
+ */
+public final class BeanPropertyTable {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class,
+			Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class,
+			Object.class, Object.class);
+
+	private static final ClassValue<BeanPropertyTable> tables = new ClassValue<BeanPropertyTable>() {
+
+		@Override
+		protected BeanPropertyTable computeValue(Class<?> type) {
+			return new BeanPropertyTable(type);
+		}
+
+	};
+
+	private final List<Property> readableProperties;
+
+	private final Map<String, Property> writableProperties;
+
+	private BeanPropertyTable(Class<?> type) {
+		List<Property> readableProperties = new ArrayList<>();
+		Map<String, Property> writableProperties = new LinkedHashMap<>();
+		for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+			Property property = new Property(descriptor);
+			if (property.getter != null) {
+				readableProperties.add(property);
+			}
+			if (property.setter != null) {
+				writableProperties.put(property.name, property);
+			}
+		}
+		this.readableProperties = Collections.unmodifiableList(readableProperties);
+		this.writableProperties = Collections.unmodifiableMap(writableProperties);
+	}
+
+	/**
+	 * Return the {@link BeanPropertyTable} of the specified type.
+	 * @param type the bean type
+	 * @return the property table of that type
+	 */
+	public static BeanPropertyTable forType(Class<?> type) {
+		return tables.get(type);
+	}
+
+	/**
+	 * Copy the value of every readable property of the specified bean to the specified
+	 * map, keyed by property name.
+	 * @param bean the bean to read
+	 * @param target the map to populate
+	 */
+	public void copyTo(Object bean, Map<String, Object> target) {
+		for (Property property : readableProperties) {
+			target.put(property.name, property.get(bean));
+		}
+	}
+
+	/**
+	 * Specify if the property with the specified name can be written.
+	 * @param name the name of a property
+	 * @return {@code true} if the property has a setter
+	 */
+	public boolean isWritableProperty(String name) {
+		return writableProperties.containsKey(name);
+	}
+
+	/**
+	 * Set the value of the specified property.
+	 * @param bean the bean to update
+	 * @param name the name of a writable property
+	 * @param value the value to set
+	 * @throws IllegalArgumentException if the property is not writable or if the value
+	 * is not compatible with the type of the property
+	 */
+	public void setPropertyValue(Object bean, String name, Object value) {
+		Property property = writableProperties.get(name);
+		if (property == null) {
+			throw new IllegalArgumentException("No writable property '" + name
+					+ "' on " + bean.getClass().getName());
+		}
+		property.set(bean, value);
+	}
+
+	private static final class Property {
+
+		private final String name;
+
+		private final Class<?> type;
+
+		private final MethodHandle getter;
+
+		private final MethodHandle setter;
+
+		Property(PropertyDescriptor descriptor) {
+			this.name = descriptor.getName();
+			this.type = ClassUtils.resolvePrimitiveIfNecessary(
+					descriptor.getPropertyType() != null ? descriptor.getPropertyType()
+							: Object.class);
+			this.getter = unreflect(descriptor.getReadMethod(), GETTER_TYPE);
+			this.setter = unreflect(descriptor.getWriteMethod(), SETTER_TYPE);
+		}
+
+		Object get(Object bean) {
+			try {
+				return (Object) getter.invokeExact(bean);
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException("Failed to read property '" + name
+						+ "'", ex);
+			}
+		}
+
+		void set(Object bean, Object value) {
+			if (value != null && !type.isInstance(value)) {
+				throw new IllegalArgumentException("Cannot set property '" + name
+						+ "' of type " + type.getName() + " to " + value);
+			}
+			try {
+				setter.invokeExact(bean, value);
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException("Failed to write property '" + name
+						+ "'", ex);
+			}
+		}
+
+		private static MethodHandle unreflect(Method method, MethodType type) {
+			if (method == null) {
+				return null;
+			}
+			try {
+				ReflectionUtils.makeAccessible(method);
+				return MethodHandles.lookup().unreflect(method).asType(type);
+			}
+			catch (IllegalAccessException ex) {
+				throw new IllegalStateException("Cannot access " + method, ex);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import io.spring.initializr.util.Version;
+
+/**
+ * The features that the generated project can use according to its Spring Boot
+ * version. A profile is computed once per version rather than comparing the version
+ * every time a feature has to be checked.
+ *
+ * @author agent
+ */
+public final class BootVersionProfile {
+
+	private static final Version VERSION_1_2_0_RC1 = Version.parse("1.2.0.RC1");
+
+	private static final Version VERSION_1_3_0_M1 = Version.parse("1.3.0.M1");
+
+	private static final Version VERSION_1_4_0_M2 = Version.parse("1.4.0.M2");
+
+	private static final Version VERSION_1_4_0_M3 = Version.parse("1.4.0.M3");
+
+	private static final Version VERSION_1_4_2_M1 = Version.parse("1.4.2.M1");
+
+	private static final Version VERSION_1_5_0_M1 = Version.parse("1.5.0.M1");
+
+	private static final Version VERSION_2_0_0_M1 = Version.parse("2.0.0.M1");
+
+	private static final Version VERSION_2_0_0_M3 = Version.parse("2.0.0.M3");
+
+	private static final Version VERSION_2_0_0_M6 = Version.parse("2.0.0.M6");
+
+	private final Version bootVersion;
+
+	private final boolean kotlinSupport;
+
+	private final boolean springBootApplicationAvailable;
+
+	private final boolean bootOneThreeAvailable;
+
+	private final boolean bootTwoZeroAvailable;
+
+	private final String springBootPluginName;
+
+	private final boolean newTestInfrastructure;
+
+	private final String servletInitializerClass;
+
+	private final String gradleWrapper;
+
+	private BootVersionProfile(Version bootVersion) {
+		this.bootVersion = bootVersion;
+		// Kotlin supported as of M6
+		this.kotlinSupport = VERSION_2_0_0_M6.compareTo(bootVersion) <= 0;
+		this.springBootApplicationAvailable = VERSION_1_2_0_RC1
+				.compareTo(bootVersion) <= 0;
+		// Gradle plugin has changed as from 1.3.0
+		this.bootOneThreeAvailable = VERSION_1_3_0_M1.compareTo(bootVersion) <= 0;
+		this.bootTwoZeroAvailable = VERSION_2_0_0_M1.compareTo(bootVersion) <= 0;
+		// Gradle plugin has changed again as from 1.4.2
+		this.springBootPluginName = (VERSION_1_4_2_M1.compareTo(bootVersion) <= 0
+				? "org.springframework.boot" : "spring-boot");
+		this.newTestInfrastructure = VERSION_1_4_0_M2.compareTo(bootVersion) <= 0;
+		this.servletInitializerClass = determineServletInitializerClass(bootVersion);
+		this.gradleWrapper = (VERSION_2_0_0_M3.compareTo(bootVersion) < 0 ? "gradle4"
+				: VERSION_1_5_0_M1.compareTo(bootVersion) <= 0 ? "gradle3" : "gradle");
+	}
+
+	/**
+	 * Create the profile of the specified Spring Boot version.
+	 * @param bootVersion the Spring Boot version or {@code null} if it is unknown
+	 * @return the profile of that version
+	 */
+	public static BootVersionProfile of(Version bootVersion) {
+		return new BootVersionProfile(bootVersion);
+	}
+
+	private static String determineServletInitializerClass(Version bootVersion) {
+		if (VERSION_1_4_0_M3.compareTo(bootVersion) > 0) {
+			return "org.springframework.boot.context.web.SpringBootServletInitializer";
+		}
+		else if (VERSION_2_0_0_M1.compareTo(bootVersion) > 0) {
+			return "org.springframework.boot.web.support.SpringBootServletInitializer";
+		}
+		else {
+			return "org.springframework.boot.web.servlet.support.SpringBootServletInitializer";
+		}
+	}
+
+	/**
+	 * Return the Spring Boot version of this profile.
+	 * @return the Spring Boot version or {@code null} if it is unknown
+	 */
+	public Version getBootVersion() {
+		return bootVersion;
+	}
+
+	/**
+	 * Specify if Kotlin projects are supported.
+	 * @return {@code true} if Kotlin is supported
+	 */
+	public boolean isKotlinSupport() {
+		return kotlinSupport;
+	}
+
+	/**
+	 * Specify if {@code @SpringBootApplication} is available.
+	 * @return {@code true} if {@code @SpringBootApplication} is available
+	 */
+	public boolean isSpringBootApplicationAvailable() {
+		return springBootApplicationAvailable;
+	}
+
+	/**
+	 * Specify if the version is at least Spring Boot 1.3.
+	 * @return {@code true} if Spring Boot 1.3 features are available
+	 */
+	public boolean isBootOneThreeAvailable() {
+		return bootOneThreeAvailable;
+	}
+
+	/**
+	 * Specify if the version is at least Spring Boot 2.0.
+	 * @return {@code true} if Spring Boot 2.0 features are available
+	 */
+	public boolean isBootTwoZeroAvailable() {
+		return bootTwoZeroAvailable;
+	}
+
+	/**
+	 * Return the id of the Spring Boot Gradle plugin.
+	 * @return the id of the Gradle plugin
+	 */
+	public String getSpringBootPluginName() {
+		return springBootPluginName;
+	}
+
+	/**
+	 * Specify if {@code @SpringBootTest} is available.
+	 * @return {@code true} if the new test infrastructure is available
+	 */
+	public boolean isNewTestInfrastructure() {
+		return newTestInfrastructure;
+	}
+
+	/**
+	 * Return the fully qualified name of {@code SpringBootServletInitializer}.
+	 * @return the servlet initializer class
+	 */
+	public String getServletInitializerClass() {
+		return servletInitializerClass;
+	}
+
+	/**
+	 * Return the location of the Gradle wrapper to use.
+	 * @return the Gradle wrapper location
+	 */
+	public String getGradleWrapper() {
+		return gradleWrapper;
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+
+/**
+ * A memo of the build files generated for a given {@link InitializrMetadata snapshot}
+ * of the metadata. Build files only depend on the inputs of the request so that
+ * requests with the same inputs can reuse the content and the resolved state of the
+ * request that generated it, skipping both resolution and rendering.
+ * <p>
+ * Entries are kept up to a maximum number, the least recently used entries being
+ * evicted first.
+ *
+ * @author agent
+ */
+final class BuildFileCache {
+
+	private static final BeanPropertyTable properties = BeanPropertyTable
+			.forType(ProjectRequest.class);
+
+	private final InitializrMetadata metadata;
+
+	private final Map<List<Object>, CachedBuildFile> entries;
+
+	BuildFileCache(InitializrMetadata metadata, int maxSize) {
+		this.metadata = metadata;
+		this.entries = new LinkedHashMap<List<Object>, CachedBuildFile>(16, 0.75f,
+				true) {
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<List<Object>, CachedBuildFile> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Return the metadata snapshot that the entries of this cache were generated with.
+	 * @return the metadata
+	 */
+	InitializrMetadata getMetadata() {
+		return metadata;
+	}
+
+	/**
+	 * Compute the key of the specified build file for the specified request. Return
+	 * {@code null} if the request has been resolved already as its outcome may then
+	 * depend on more than its inputs.
+	 * @param fileName the name of the build file
+	 * @param request the request, before resolution
+	 * @return the key or {@code null} if the build file should not be cached
+	 */
+	static List<Object> computeKey(String fileName, ProjectRequest request) {
+		if (request.getResolvedDependencies() != null || !request.getBoms().isEmpty()
+				|| !request.getRepositories().isEmpty()) {
+			return null;
+		}
+		return Arrays.asList(fileName, request.getClass(), request.getType(),
+				request.getBootVersion(), request.getLanguage(), request.getPackaging(),
+				request.getJavaVersion(), new ArrayList<>(request.getStyle()),
+				new ArrayList<>(request.getDependencies()), request.getGroupId(),
+				request.getArtifactId(), request.getVersion(), request.getName(),
+				request.getDescription(), request.getPackageName(),
+				request.getApplicationName(), request.getBaseDir());
+	}
+
+	/**
+	 * Return the build file with the specified key and update the specified request
+	 * with the resolved state of the request that generated it.
+	 * @param key the key of the build file
+	 * @param request the request to update
+	 * @return the content of the build file or {@code null} if it is not cached
+	 */
+	byte[] get(List<Object> key, ProjectRequest request) {
+		CachedBuildFile cached;
+		synchronized (entries) {
+			cached = entries.get(key);
+		}
+		if (cached == null) {
+			return null;
+		}
+		copyResolvedState(cached.request, request);
+		return cached.content;
+	}
+
+	/**
+	 * Cache the specified build file.
+	 * @param key the key of the build file
+	 * @param content the content of the build file
+	 * @param request the resolved request that generated it
+	 */
+	void put(List<Object> key, byte[] content, ProjectRequest request) {
+		ProjectRequest snapshot = new ProjectRequest();
+		copyResolvedState(request, snapshot);
+		synchronized (entries) {
+			entries.put(key, new CachedBuildFile(content, snapshot));
+		}
+	}
+
+	private static void copyResolvedState(ProjectRequest source, ProjectRequest target) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		properties.copyTo(source, values);
+		values.forEach((name, value) -> {
+			if (properties.isWritableProperty(name)) {
+				properties.setPropertyValue(target, name, (value instanceof List
+						? new ArrayList<>((List<?>) value) : value));
+			}
+		});
+		target.getBoms().putAll(source.getBoms());
+		target.getRepositories().putAll(source.getRepositories());
+		BuildProperties buildProperties = source.getBuildProperties();
+		target.getBuildProperties().getMaven().putAll(buildProperties.getMaven());
+		target.getBuildProperties().getGradle().putAll(buildProperties.getGradle());
+		target.getBuildProperties().getVersions().putAll(buildProperties.getVersions());
+	}
+
+	private static final class CachedBuildFile {
+
+		private final byte[] content;
+
+		private final ProjectRequest request;
+
+		CachedBuildFile(byte[] content, ProjectRequest request) {
+			this.content = content;
+			this.request = request;
+		}
+
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link ProjectWriter} that writes the project in a directory.
+ *
+ * @author agent
+ */
+public class DirectoryProjectWriter implements ProjectWriter {
+
+	private final File rootDir;
+
+	public DirectoryProjectWriter(File rootDir) {
+		this.rootDir = rootDir;
+	}
+
+	public File getRootDir() {
+		return rootDir;
+	}
+
+	@Override
+	public void writeDirectory(String path) throws IOException {
+		File dir = new File(rootDir, path);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create directory " + dir);
+		}
+	}
+
+	@Override
+	public void writeFile(String path, byte[] content, int mode) throws IOException {
+		File target = new File(rootDir, path);
+		File parent = target.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Cannot create directory " + parent);
+		}
+		try (OutputStream stream = new FileOutputStream(target)) {
+			StreamUtils.copy(content, stream);
+		}
+		if ((mode & 0100) != 0) {
+			target.setExecutable(true);
+		}
+	}
+
+}
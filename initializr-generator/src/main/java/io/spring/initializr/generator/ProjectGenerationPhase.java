@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+/**
+ * The phases of the generation of a project that a {@link ProjectGenerationTimer}
+ * records.
+ *
+ * @author agent
+ */
+public enum ProjectGenerationPhase {
+
+	/**
+	 * Retrieval of the metadata to use for the request.
+	 */
+	METADATA("metadata"),
+
+	/**
+	 * Invocation of the {@link ProjectRequestPostProcessor post-processors}, both before
+	 * and after the resolution of the request.
+	 */
+	POST_PROCESS("post_process"),
+
+	/**
+	 * Resolution of the request against the metadata.
+	 * @see ProjectRequest#resolve(io.spring.initializr.metadata.InitializrMetadata)
+	 */
+	RESOLVE("resolve"),
+
+	/**
+	 * Creation of the model used to render the templates.
+	 */
+	MODEL("model"),
+
+	/**
+	 * Rendering of a template, qualified by the name of the template.
+	 */
+	RENDER("render"),
+
+	/**
+	 * Copy of a static resource of the project, such as a wrapper script.
+	 */
+	RESOURCES("resources"),
+
+	/**
+	 * Creation of the archive of a project, qualified by the format of the archive.
+	 * Excludes the time spent writing the archive to the client.
+	 */
+	ARCHIVE("archive"),
+
+	/**
+	 * Write of the response to the client, qualified by the format of the archive.
+	 */
+	WRITE("write");
+
+	private final String id;
+
+	ProjectGenerationPhase(String id) {
+		this.id = id;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+/**
+ * Record the time spent in each {@link ProjectGenerationPhase phase} of the generation
+ * of a project. Phases are recorded once the request has been resolved so that its
+ * build system and language are known and validated.
+ * <p>
+ * Implementations are invoked on the hot path of every request and should be fast.
+ *
+ * @author agent
+ */
+@FunctionalInterface
+public interface ProjectGenerationTimer {
+
+	/**
+	 * A {@link ProjectGenerationTimer} that does not record anything.
+	 */
+	ProjectGenerationTimer NONE = (phase, qualifier, request, durationNanos) -> {
+	};
+
+	/**
+	 * Record the time spent in the specified phase.
+	 * @param phase the phase
+	 * @param qualifier a qualifier of the phase with a small set of values, such as the
+	 * name of the template for {@link ProjectGenerationPhase#RENDER}, or {@code null}
+	 * @param request the resolved request
+	 * @param durationNanos the time spent in the phase, in nanoseconds
+	 */
+	void record(ProjectGenerationPhase phase, String qualifier, ProjectRequest request,
+			long durationNanos);
+
+}
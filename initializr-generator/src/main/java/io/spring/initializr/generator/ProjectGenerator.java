@@ -16,12 +16,13 @@
 
 package io.spring.initializr.generator;
 
-import java.beans.PropertyDescriptor;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -29,28 +30,32 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import io.spring.initializr.InitializrException;
 import io.spring.initializr.metadata.BillOfMaterials;
+import io.spring.initializr.metadata.DefaultMetadataElement;
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.metadata.InitializrConfiguration.Env.Maven.ParentPom;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.metadata.MetadataElement;
+import io.spring.initializr.metadata.Type;
 import io.spring.initializr.util.TemplateRenderer;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.FileSystemUtils;
-import org.springframework.util.StreamUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Generate a project based on the configured metadata.
@@ -64,23 +69,7 @@ public class ProjectGenerator {
 
 	private static final Logger log = LoggerFactory.getLogger(ProjectGenerator.class);
 
-	private static final Version VERSION_1_2_0_RC1 = Version.parse("1.2.0.RC1");
-
-	private static final Version VERSION_1_3_0_M1 = Version.parse("1.3.0.M1");
-
-	private static final Version VERSION_1_4_0_M2 = Version.parse("1.4.0.M2");
-
-	private static final Version VERSION_1_4_0_M3 = Version.parse("1.4.0.M3");
-
-	private static final Version VERSION_1_4_2_M1 = Version.parse("1.4.2.M1");
-
-	private static final Version VERSION_1_5_0_M1 = Version.parse("1.5.0.M1");
-
-	private static final Version VERSION_2_0_0_M1 = Version.parse("2.0.0.M1");
-
-	private static final Version VERSION_2_0_0_M3 = Version.parse("2.0.0.M3");
-
-	private static final Version VERSION_2_0_0_M6 = Version.parse("2.0.0.M6");
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
 
 	@Autowired
 	private ApplicationEventPublisher eventPublisher;
@@ -100,8 +89,21 @@ public class ProjectGenerator {
 	@Value("${TMPDIR:.}/initializr")
 	private String tmpdir;
 
+	@Autowired(required = false)
+	private TemporaryFileManager temporaryFileManager = new TemporaryFileManager();
+
+	@Autowired(required = false)
+	private ProjectGenerationTimer timer = ProjectGenerationTimer.NONE;
+
+	private final ThreadLocal<Boolean> warmingUp = new ThreadLocal<>();
+
+	private volatile BootVersionProfiles bootVersionProfiles;
+
+	private int buildFileCacheSize = 256;
+
+	private volatile BuildFileCache buildFileCache;
+
 	private File temporaryDirectory;
-	private transient Map<String, List<File>> temporaryFiles = new LinkedHashMap<>();
 
 	public InitializrMetadataProvider getMetadataProvider() {
 		return metadataProvider;
@@ -117,10 +119,12 @@ public class ProjectGenerator {
 
 	public void setRequestResolver(ProjectRequestResolver requestResolver) {
 		this.requestResolver = requestResolver;
+		this.buildFileCache = null;
 	}
 
 	public void setTemplateRenderer(TemplateRenderer templateRenderer) {
 		this.templateRenderer = templateRenderer;
+		this.buildFileCache = null;
 	}
 
 	public void setProjectResourceLocator(ProjectResourceLocator projectResourceLocator) {
@@ -135,8 +139,80 @@ public class ProjectGenerator {
 		this.temporaryDirectory = temporaryDirectory;
 	}
 
-	public void setTemporaryFiles(Map<String, List<File>> temporaryFiles) {
-		this.temporaryFiles = temporaryFiles;
+	public void setTemporaryFileManager(TemporaryFileManager temporaryFileManager) {
+		this.temporaryFileManager = temporaryFileManager;
+	}
+
+	/**
+	 * Return the {@link ProjectGenerationTimer} that records the time spent in each
+	 * phase of the generation.
+	 * @return the timer
+	 */
+	public ProjectGenerationTimer getTimer() {
+		return timer;
+	}
+
+	public void setTimer(ProjectGenerationTimer timer) {
+		this.timer = timer;
+	}
+
+	/**
+	 * Set the maximum number of build files generated by
+	 * {@link #generateMavenPom(ProjectRequest)} and
+	 * {@link #generateGradleBuild(ProjectRequest)} to keep for requests with the same
+	 * inputs. Build files are discarded as soon as the metadata changes.
+	 * @param buildFileCacheSize the maximum number of build files to keep or
+	 * {@code 0} to disable caching
+	 */
+	public void setBuildFileCacheSize(int buildFileCacheSize) {
+		this.buildFileCacheSize = buildFileCacheSize;
+		this.buildFileCache = null;
+	}
+
+	/**
+	 * Render the templates of a project for every language, build system and packaging
+	 * of the metadata, without publishing any event. Templates are therefore compiled
+	 * and validated against an actual model before the first request is served. The
+	 * time spent is not reported to the {@link #getTimer() timer}.
+	 * @throws IllegalStateException if one of the templates cannot be rendered
+	 */
+	public void warmUp() {
+		InitializrMetadata metadata = metadataProvider.get();
+		if (metadata.getBootVersions().getDefault() == null) {
+			return;
+		}
+		Map<String, Type> projectTypes = new LinkedHashMap<>();
+		for (Type type : metadata.getTypes().getContent()) {
+			String build = type.getTags().get("build");
+			if (build != null && "project".equals(type.getTags().get("format"))) {
+				projectTypes.putIfAbsent(build, type);
+			}
+		}
+		long start = System.nanoTime();
+		int count = 0;
+		warmingUp.set(Boolean.TRUE);
+		try {
+			for (DefaultMetadataElement language : metadata.getLanguages()
+					.getContent()) {
+				for (Type type : projectTypes.values()) {
+					for (DefaultMetadataElement packaging : metadata.getPackagings()
+							.getContent()) {
+						ProjectRequest request = new ProjectRequest();
+						request.initialize(metadata);
+						request.setLanguage(language.getId());
+						request.setType(type.getId());
+						request.setPackaging(packaging.getId());
+						generateProjectTree(request, resolveModel(request));
+						count++;
+					}
+				}
+			}
+		}
+		finally {
+			warmingUp.remove();
+		}
+		log.info("Rendered templates of " + count + " project variants in "
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
 	}
 
 	/**
@@ -144,12 +220,21 @@ public class ProjectGenerator {
 	 */
 	public byte[] generateMavenPom(ProjectRequest request) {
 		try {
-			Map<String, Object> model = resolveModel(request);
-			if (!isMavenBuild(request)) {
-				throw new InvalidProjectRequestException("Could not generate Maven pom, "
-						+ "invalid project type " + request.getType());
+			BuildFileCache cache = getBuildFileCache();
+			List<Object> key = (cache != null
+					? BuildFileCache.computeKey("pom.xml", request) : null);
+			byte[] content = (key != null ? cache.get(key, request) : null);
+			if (content == null) {
+				Map<String, Object> model = resolveModel(request);
+				if (!isMavenBuild(request)) {
+					throw new InvalidProjectRequestException("Could not generate "
+							+ "Maven pom, invalid project type " + request.getType());
+				}
+				content = doGenerateMavenPom(request, model);
+				if (key != null) {
+					cache.put(key, content, request);
+				}
 			}
-			byte[] content = doGenerateMavenPom(model);
 			publishProjectGeneratedEvent(request);
 			return content;
 		}
@@ -164,13 +249,22 @@ public class ProjectGenerator {
 	 */
 	public byte[] generateGradleBuild(ProjectRequest request) {
 		try {
-			Map<String, Object> model = resolveModel(request);
-			if (!isGradleBuild(request)) {
-				throw new InvalidProjectRequestException(
-						"Could not generate Gradle build, " + "invalid project type "
-								+ request.getType());
+			BuildFileCache cache = getBuildFileCache();
+			List<Object> key = (cache != null
+					? BuildFileCache.computeKey("build.gradle", request) : null);
+			byte[] content = (key != null ? cache.get(key, request) : null);
+			if (content == null) {
+				Map<String, Object> model = resolveModel(request);
+				if (!isGradleBuild(request)) {
+					throw new InvalidProjectRequestException(
+							"Could not generate Gradle build, " + "invalid project type "
+									+ request.getType());
+				}
+				content = doGenerateGradleBuild(request, model);
+				if (key != null) {
+					cache.put(key, content, request);
+				}
 			}
-			byte[] content = doGenerateGradleBuild(model);
 			publishProjectGeneratedEvent(request);
 			return content;
 		}
@@ -197,10 +291,36 @@ public class ProjectGenerator {
 		}
 	}
 
+	/**
+	 * Generate an in-memory {@link ProjectTree} for the specified {@link ProjectRequest}.
+	 * Contrary to {@link #generateProjectStructure(ProjectRequest)}, nothing is staged on
+	 * disk: the tree can be written to any destination using a {@link ProjectWriter}.
+	 */
+	public ProjectTree generateProjectTree(ProjectRequest request) {
+		try {
+			Map<String, Object> model = resolveModel(request);
+			ProjectTree tree = (isOverridden("generateProjectStructure",
+					ProjectRequest.class, Map.class)
+							? readProjectStructure(request, model)
+							: generateProjectTree(request, model));
+			publishProjectGeneratedEvent(request);
+			return tree;
+		}
+		catch (InitializrException ex) {
+			publishProjectFailedEvent(request, ex);
+			throw ex;
+		}
+	}
+
 	/**
 	 * Generate a project structure for the specified {@link ProjectRequest} and resolved
 	 * model.
+	 * @deprecated as of 0.6.0 in favour of
+	 * {@link #generateProjectTree(ProjectRequest, Map)}. An override of this method is
+	 * still honoured by {@link #generateProjectTree(ProjectRequest)}, at the cost of
+	 * staging the project on disk
 	 */
+	@Deprecated
 	protected File generateProjectStructure(ProjectRequest request,
 			Map<String, Object> model) {
 		File rootDir;
@@ -210,67 +330,110 @@ public class ProjectGenerator {
 		catch (IOException e) {
 			throw new IllegalStateException("Cannot create temp dir", e);
 		}
-		addTempFile(rootDir.getName(), rootDir);
-		rootDir.delete();
-		rootDir.mkdirs();
+		TemporaryFileManager.Handle handle = temporaryFileManager
+				.create(rootDir.getName());
+		handle.add(rootDir);
+		try {
+			rootDir.delete();
+			rootDir.mkdirs();
+			generateProjectTree(request, model)
+					.writeTo(new DirectoryProjectWriter(rootDir));
+			handle.update();
+		}
+		catch (IOException ex) {
+			handle.close();
+			throw new IllegalStateException("Cannot write project to " + rootDir, ex);
+		}
+		catch (RuntimeException ex) {
+			handle.close();
+			throw ex;
+		}
+		return rootDir;
+	}
 
-		File dir = initializerProjectDir(rootDir, request);
+	/**
+	 * Generate the project structure using an override of the deprecated
+	 * {@link #generateProjectStructure(ProjectRequest, Map)} and read it back as a
+	 * {@link ProjectTree}.
+	 */
+	@SuppressWarnings("deprecation")
+	private ProjectTree readProjectStructure(ProjectRequest request,
+			Map<String, Object> model) {
+		File rootDir = generateProjectStructure(request, model);
+		try {
+			return ProjectTree.read(rootDir);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot read project from " + rootDir, ex);
+		}
+		finally {
+			cleanTempFiles(rootDir);
+		}
+	}
+
+	/**
+	 * Generate an in-memory {@link ProjectTree} for the specified {@link ProjectRequest}
+	 * and resolved model.
+	 */
+	protected ProjectTree generateProjectTree(ProjectRequest request,
+			Map<String, Object> model) {
+		ProjectTree tree = new ProjectTree();
+		String dir = (request.getBaseDir() != null ? request.getBaseDir() + "/" : "");
 
 		if (isGradleBuild(request)) {
-			String gradle = new String(doGenerateGradleBuild(model));
-			writeText(new File(dir, "build.gradle"), gradle);
-			writeGradleWrapper(dir, Version.safeParse(request.getBootVersion()));
+			write(tree, dir + "build.gradle", "starter-build.gradle", model, request);
+			writeGradleWrapper(tree, dir, request);
 		}
 		else {
-			String pom = new String(doGenerateMavenPom(model));
-			writeText(new File(dir, "pom.xml"), pom);
-			writeMavenWrapper(dir);
+			write(tree, dir + "pom.xml", "starter-pom.xml", model, request);
+			writeMavenWrapper(tree, dir, request);
 		}
 
-		generateGitIgnore(dir, request);
+		generateGitIgnore(tree, dir, request);
 
 		String applicationName = request.getApplicationName();
 		String language = request.getLanguage();
 
 		String codeLocation = language;
-		File src = new File(new File(dir, "src/main/" + codeLocation),
-				request.getPackageName().replace(".", "/"));
-		src.mkdirs();
+		String packagePath = request.getPackageName().replace(".", "/");
+		String src = dir + "src/main/" + codeLocation + "/" + packagePath + "/";
 		String extension = ("kotlin".equals(language) ? "kt" : language);
-		write(new File(src, applicationName + "." + extension),
-				"Application." + extension, model);
+		write(tree, src + applicationName + "." + extension,
+				"Application." + extension, model, request);
 
 		if ("war".equals(request.getPackaging())) {
 			String fileName = "ServletInitializer." + extension;
-			write(new File(src, fileName), fileName, model);
+			write(tree, src + fileName, fileName, model, request);
 		}
 
-		File test = new File(new File(dir, "src/test/" + codeLocation),
-				request.getPackageName().replace(".", "/"));
-		test.mkdirs();
+		String test = dir + "src/test/" + codeLocation + "/" + packagePath + "/";
 		setupTestModel(request, model);
-		write(new File(test, applicationName + "Tests." + extension),
-				"ApplicationTests." + extension, model);
+		write(tree, test + applicationName + "Tests." + extension,
+				"ApplicationTests." + extension, model, request);
 
-		File resources = new File(dir, "src/main/resources");
-		resources.mkdirs();
-		writeText(new File(resources, "application.properties"), "");
+		tree.addFile(dir + "src/main/resources/application.properties", new byte[0],
+				ProjectWriter.FILE_MODE);
 
 		if (request.hasWebFacet()) {
-			new File(dir, "src/main/resources/templates").mkdirs();
-			new File(dir, "src/main/resources/static").mkdirs();
+			tree.addDirectory(dir + "src/main/resources/templates");
+			tree.addDirectory(dir + "src/main/resources/static");
 		}
-		return rootDir;
+		return tree;
 	}
 
 	/**
 	 * Create a distribution file for the specified project structure directory and
-	 * extension
+	 * extension. The file is not created: its size is recorded once it has been written,
+	 * on the next sweep of the {@link TemporaryFileManager} or when the handle of the
+	 * directory is {@link TemporaryFileManager.Handle#update() updated}.
 	 */
 	public File createDistributionFile(File dir, String extension) {
 		File download = new File(getTemporaryDirectory(), dir.getName() + extension);
-		addTempFile(dir.getName(), download);
-		return download;
+		TemporaryFileManager.Handle handle = temporaryFileManager.get(dir.getName());
+		if (handle == null) {
+			handle = temporaryFileManager.create(dir.getName());
+		}
+		return handle.add(download);
 	}
 
 	private File getTemporaryDirectory() {
@@ -278,6 +441,7 @@ public class ProjectGenerator {
 			temporaryDirectory = new File(tmpdir, "initializr");
 			temporaryDirectory.mkdirs();
 		}
+		temporaryFileManager.addDirectory(temporaryDirectory);
 		return temporaryDirectory;
 	}
 
@@ -286,17 +450,7 @@ public class ProjectGenerator {
 	 * @see #createDistributionFile
 	 */
 	public void cleanTempFiles(File dir) {
-		List<File> tempFiles = temporaryFiles.remove(dir.getName());
-		if (!tempFiles.isEmpty()) {
-			tempFiles.forEach((File file) -> {
-				if (file.isDirectory()) {
-					FileSystemUtils.deleteRecursively(file);
-				}
-				else if (file.exists()) {
-					file.delete();
-				}
-			});
-		}
+		temporaryFileManager.release(dir.getName());
 	}
 
 	private void publishProjectGeneratedEvent(ProjectRequest request) {
@@ -309,12 +463,69 @@ public class ProjectGenerator {
 		eventPublisher.publishEvent(event);
 	}
 
+	/**
+	 * Generate a {@code .gitignore} file for the specified {@link ProjectRequest}
+	 * @param tree the tree to update
+	 * @param dir the root directory of the project, either empty or ending with a
+	 * {@code /}
+	 * @param request the request to handle
+	 */
+	protected void generateGitIgnore(ProjectTree tree, String dir,
+			ProjectRequest request) {
+		if (isOverridden("generateGitIgnore", File.class, ProjectRequest.class)) {
+			readGitIgnore(tree, dir, request);
+			return;
+		}
+		write(tree, dir + ".gitignore", "gitignore.tmpl", createGitIgnoreModel(request),
+				request);
+	}
+
 	/**
 	 * Generate a {@code .gitignore} file for the specified {@link ProjectRequest}
 	 * @param dir the root directory of the project
 	 * @param request the request to handle
+	 * @deprecated as of 0.6.0 in favour of
+	 * {@link #generateGitIgnore(ProjectTree, String, ProjectRequest)}. An override of
+	 * this method is still honoured when a {@link ProjectTree} is generated
 	 */
+	@Deprecated
 	protected void generateGitIgnore(File dir, ProjectRequest request) {
+		write(new File(dir, ".gitignore"), "gitignore.tmpl",
+				createGitIgnoreModel(request));
+	}
+
+	/**
+	 * Generate the {@code .gitignore} file using an override of the deprecated
+	 * {@link #generateGitIgnore(File, ProjectRequest)} and add it to the tree.
+	 */
+	@SuppressWarnings("deprecation")
+	private void readGitIgnore(ProjectTree tree, String dir, ProjectRequest request) {
+		File tempDir;
+		try {
+			tempDir = File.createTempFile("tmp", "", getTemporaryDirectory());
+			tempDir.delete();
+			tempDir.mkdirs();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot create temp dir", ex);
+		}
+		try {
+			generateGitIgnore(tempDir, request);
+			File gitIgnore = new File(tempDir, ".gitignore");
+			if (gitIgnore.exists()) {
+				tree.addFile(dir + ".gitignore",
+						Files.readAllBytes(gitIgnore.toPath()), ProjectWriter.FILE_MODE);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot read .gitignore", ex);
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(tempDir);
+		}
+	}
+
+	private static Map<String, Object> createGitIgnoreModel(ProjectRequest request) {
 		Map<String, Object> model = new LinkedHashMap<>();
 		if (isMavenBuild(request)) {
 			model.put("build", "maven");
@@ -323,24 +534,40 @@ public class ProjectGenerator {
 		else {
 			model.put("build", "gradle");
 		}
-		write(new File(dir, ".gitignore"), "gitignore.tmpl", model);
+		return model;
+	}
+
+	/**
+	 * Specify if the specified method has been overridden by a sub-class.
+	 */
+	private boolean isOverridden(String name, Class<?>... parameterTypes) {
+		Method method = ReflectionUtils.findMethod(ClassUtils.getUserClass(getClass()),
+				name, parameterTypes);
+		return (method != null && method.getDeclaringClass() != ProjectGenerator.class);
 	}
 
 	/**
 	 * Resolve the specified {@link ProjectRequest} and return the model to use to
-	 * generate the project
+	 * generate the project. Entries that only some templates use are computed on first
+	 * access, see {@link ProjectModel}.
 	 * @param originalRequest the request to handle
 	 * @return a model for that request
 	 */
 	protected Map<String, Object> resolveModel(ProjectRequest originalRequest) {
 		Assert.notNull(originalRequest.getBootVersion(), "boot version must not be null");
-		Map<String, Object> model = new LinkedHashMap<>();
+		long start = System.nanoTime();
+		ProjectModel model = new ProjectModel();
 		InitializrMetadata metadata = metadataProvider.get();
+		long metadataTime = System.nanoTime() - start;
 
-		ProjectRequest request = requestResolver.resolve(originalRequest, metadata);
+		ProjectRequest request = requestResolver.resolve(originalRequest, metadata,
+				timer());
+		timer().record(ProjectGenerationPhase.METADATA, null, request, metadataTime);
+		long modelStart = System.nanoTime();
 
 		// request resolved so we can log what has been requested
-		Version bootVersion = Version.safeParse(request.getBootVersion());
+		BootVersionProfile profile = getBootVersionProfile(request);
+		Version bootVersion = profile.getBootVersion();
 		List<Dependency> dependencies = request.getResolvedDependencies();
 		List<String> dependencyIds = dependencies.stream().map(Dependency::getId)
 				.collect(Collectors.toList());
@@ -351,10 +578,7 @@ public class ProjectGenerator {
 			model.put("war", true);
 		}
 
-		// Kotlin supported as of M6
-		final boolean kotlinSupport = VERSION_2_0_0_M6
-				.compareTo(bootVersion) <= 0;
-		model.put("kotlinSupport", kotlinSupport);
+		model.put("kotlinSupport", profile.isKotlinSupport());
 
 		if (isMavenBuild(request)) {
 			model.put("mavenBuild", true);
@@ -377,22 +601,24 @@ public class ProjectGenerator {
 			model.put("hasRepositories", true);
 		}
 
-		List<Map<String,String>> resolvedBoms = buildResolvedBoms(request);
-		model.put("resolvedBoms", resolvedBoms);
-		ArrayList<Map<String,String>> reversedBoms = new ArrayList<>(resolvedBoms);
-		Collections.reverse(reversedBoms);
-		model.put("reversedBoms", reversedBoms);
+		// Maven uses the boms in order while Gradle reverses them
+		model.putLazy("resolvedBoms", () -> buildResolvedBoms(request));
+		model.putLazy("reversedBoms", () -> {
+			List<Map<String, String>> reversedBoms = buildResolvedBoms(request);
+			Collections.reverse(reversedBoms);
+			return reversedBoms;
+		});
 
-		model.put("compileDependencies",
-				filterDependencies(dependencies, Dependency.SCOPE_COMPILE));
-		model.put("runtimeDependencies",
-				filterDependencies(dependencies, Dependency.SCOPE_RUNTIME));
-		model.put("compileOnlyDependencies",
-				filterDependencies(dependencies, Dependency.SCOPE_COMPILE_ONLY));
-		model.put("providedDependencies",
-				filterDependencies(dependencies, Dependency.SCOPE_PROVIDED));
-		model.put("testDependencies",
-				filterDependencies(dependencies, Dependency.SCOPE_TEST));
+		model.putLazy("compileDependencies",
+				() -> filterDependencies(dependencies, Dependency.SCOPE_COMPILE));
+		model.putLazy("runtimeDependencies",
+				() -> filterDependencies(dependencies, Dependency.SCOPE_RUNTIME));
+		model.putLazy("compileOnlyDependencies",
+				() -> filterDependencies(dependencies, Dependency.SCOPE_COMPILE_ONLY));
+		model.putLazy("providedDependencies",
+				() -> filterDependencies(dependencies, Dependency.SCOPE_PROVIDED));
+		model.putLazy("testDependencies",
+				() -> filterDependencies(dependencies, Dependency.SCOPE_TEST));
 
 		request.getBoms().forEach((k, v) -> {
 			if (v.getVersionProperty() != null) {
@@ -401,23 +627,30 @@ public class ProjectGenerator {
 			}
 		});
 
-		Map<String, String> versions = new LinkedHashMap<>();
-		model.put("buildPropertiesVersions", versions.entrySet());
-		request.getBuildProperties().getVersions().forEach((k, v) ->
-				versions.put(computeVersionProperty(request,k), v.get()));
-		Map<String, String> gradle = new LinkedHashMap<>();
-		model.put("buildPropertiesGradle", gradle.entrySet());
-		request.getBuildProperties().getGradle().forEach((k, v) ->
-				gradle.put(k, v.get()));
-		Map<String, String> maven = new LinkedHashMap<>();
-		model.put("buildPropertiesMaven", maven.entrySet());
-		request.getBuildProperties().getMaven().forEach((k, v) -> maven.put(k, v.get()));
+		model.putLazy("buildPropertiesVersions", () -> {
+			Map<String, String> versions = new LinkedHashMap<>();
+			request.getBuildProperties().getVersions().forEach((k, v) ->
+					versions.put(computeVersionProperty(request, k), v.get()));
+			return versions.entrySet();
+		});
+		model.putLazy("buildPropertiesGradle", () -> {
+			Map<String, String> gradle = new LinkedHashMap<>();
+			request.getBuildProperties().getGradle().forEach((k, v) ->
+					gradle.put(k, v.get()));
+			return gradle.entrySet();
+		});
+		model.putLazy("buildPropertiesMaven", () -> {
+			Map<String, String> maven = new LinkedHashMap<>();
+			request.getBuildProperties().getMaven().forEach((k, v) ->
+					maven.put(k, v.get()));
+			return maven.entrySet();
+		});
 
 		// Add various versions
 		model.put("dependencyManagementPluginVersion", metadata.getConfiguration()
 				.getEnv().getGradle().getDependencyManagementPluginVersion());
-		model.put("kotlinVersion", metadata.getConfiguration().getEnv().getKotlin()
-				.resolveKotlinVersion(bootVersion));
+		model.putLazy("kotlinVersion", () -> metadata.getConfiguration().getEnv()
+				.getKotlin().resolveKotlinVersion(bootVersion));
 		if ("kotlin".equals(request.getLanguage())) {
 			model.put("kotlin", true);
 		}
@@ -428,44 +661,31 @@ public class ProjectGenerator {
 		model.put("isRelease", request.getBootVersion().contains("RELEASE"));
 		setupApplicationModel(request, model);
 
-		// Gradle plugin has changed as from 1.3.0
-		model.put("bootOneThreeAvailable", VERSION_1_3_0_M1
-				.compareTo(bootVersion) <= 0);
-
-		model.put("bootTwoZeroAvailable", VERSION_2_0_0_M1
-				.compareTo(bootVersion) <= 0);
-
-		// Gradle plugin has changed again as from 1.4.2
-		model.put("springBootPluginName",
-				(VERSION_1_4_2_M1
-						.compareTo(bootVersion) <= 0
-						? "org.springframework.boot" : "spring-boot"));
+		model.put("bootOneThreeAvailable", profile.isBootOneThreeAvailable());
+		model.put("bootTwoZeroAvailable", profile.isBootTwoZeroAvailable());
+		model.put("springBootPluginName", profile.getSpringBootPluginName());
 
 		// New testing stuff
-		model.put("newTestInfrastructure", isNewTestInfrastructureAvailable(request));
+		model.put("newTestInfrastructure", profile.isNewTestInfrastructure());
 
 		// Servlet Initializer
-		model.put("servletInitializrImport", new Imports(request.getLanguage()).add(
-				getServletInitializrClass(request)).toString());
+		model.putLazy("servletInitializrImport", () -> new Imports(request.getLanguage())
+				.add(getServletInitializrClass(request)).toString());
 
 		// Kotlin-specific dep
-		model.put("kotlinStdlibArtifactId", getKotlinStdlibArtifactId(request));
+		model.putLazy("kotlinStdlibArtifactId", () -> getKotlinStdlibArtifactId(request));
 
 		// Java versions
 		model.put("java8OrLater", isJava8OrLater(request));
 
 		// Append the project request to the model
-		BeanWrapperImpl bean = new BeanWrapperImpl(request);
-		for (PropertyDescriptor descriptor : bean.getPropertyDescriptors()) {
-			if (bean.isReadableProperty(descriptor.getName())) {
-				model.put(descriptor.getName(),
-						bean.getPropertyValue(descriptor.getName()));
-			}
-		}
+		BeanPropertyTable.forType(request.getClass()).copyTo(request, model);
 		if (!request.getBoms().isEmpty()) {
 			model.put("hasBoms", true);
 		}
 
+		timer().record(ProjectGenerationPhase.MODEL, null, request,
+				System.nanoTime() - modelStart);
 		return model;
 	}
 
@@ -498,8 +718,8 @@ public class ProjectGenerator {
 			Map<String, Object> model) {
 		Imports imports = new Imports(request.getLanguage());
 		Annotations annotations = new Annotations();
-		boolean useSpringBootApplication = VERSION_1_2_0_RC1
-				.compareTo(Version.safeParse(request.getBootVersion())) <= 0;
+		boolean useSpringBootApplication = getBootVersionProfile(request)
+				.isSpringBootApplicationAvailable();
 		if (useSpringBootApplication) {
 			imports.add("org.springframework.boot.autoconfigure.SpringBootApplication");
 			annotations.add("@SpringBootApplication");
@@ -521,7 +741,8 @@ public class ProjectGenerator {
 	protected void setupTestModel(ProjectRequest request, Map<String, Object> model) {
 		Imports imports = new Imports(request.getLanguage());
 		Annotations testAnnotations = new Annotations();
-		boolean newTestInfrastructure = isNewTestInfrastructureAvailable(request);
+		boolean newTestInfrastructure = getBootVersionProfile(request)
+				.isNewTestInfrastructure();
 		if (newTestInfrastructure) {
 			imports.add("org.springframework.boot.test.context.SpringBootTest")
 					.add("org.springframework.test.context.junit4.SpringRunner");
@@ -539,16 +760,37 @@ public class ProjectGenerator {
 	}
 
 	protected String getServletInitializrClass(ProjectRequest request) {
-		Version bootVersion = Version.safeParse(request.getBootVersion());
-		if (VERSION_1_4_0_M3.compareTo(bootVersion) > 0) {
-			return "org.springframework.boot.context.web.SpringBootServletInitializer";
+		return getBootVersionProfile(request).getServletInitializerClass();
+	}
+
+	/**
+	 * Return the {@link BootVersionProfile} of the Spring Boot version of the specified
+	 * request. Profiles of the Spring Boot versions of the current metadata are computed
+	 * once per metadata snapshot.
+	 * @param request the request
+	 * @return the profile of the Spring Boot version of the request
+	 */
+	protected BootVersionProfile getBootVersionProfile(ProjectRequest request) {
+		InitializrMetadata metadata = metadataProvider.get();
+		BootVersionProfiles profiles = bootVersionProfiles;
+		if (profiles == null || profiles.metadata != metadata) {
+			profiles = new BootVersionProfiles(metadata);
+			this.bootVersionProfiles = profiles;
 		}
-		else if (VERSION_2_0_0_M1.compareTo(bootVersion) > 0) {
-			return "org.springframework.boot.web.support.SpringBootServletInitializer";
+		return profiles.get(request.getBootVersion());
+	}
+
+	private BuildFileCache getBuildFileCache() {
+		if (buildFileCacheSize <= 0) {
+			return null;
 		}
-		else {
-			return "org.springframework.boot.web.servlet.support.SpringBootServletInitializer";
+		InitializrMetadata metadata = metadataProvider.get();
+		BuildFileCache cache = buildFileCache;
+		if (cache == null || cache.getMetadata() != metadata) {
+			cache = new BuildFileCache(metadata, buildFileCacheSize);
+			this.buildFileCache = cache;
 		}
+		return cache;
 	}
 
 	protected String getKotlinStdlibArtifactId(ProjectRequest request) {
@@ -579,111 +821,100 @@ public class ProjectGenerator {
 		return "war".equals(request.getPackaging());
 	}
 
-	private static boolean isNewTestInfrastructureAvailable(ProjectRequest request) {
-		return VERSION_1_4_0_M2
-				.compareTo(Version.safeParse(request.getBootVersion())) <= 0;
+	private byte[] doGenerateMavenPom(ProjectRequest request, Map<String, Object> model) {
+		return render("starter-pom.xml", model, request);
 	}
 
-	private static boolean isGradle3Available(Version bootVersion) {
-		return VERSION_1_5_0_M1.compareTo(bootVersion) <= 0;
-	}
-
-	private static boolean isGradle4Available(Version bootVersion) {
-		return VERSION_2_0_0_M3.compareTo(bootVersion) < 0;
+	private byte[] doGenerateGradleBuild(ProjectRequest request,
+			Map<String, Object> model) {
+		return render("starter-build.gradle", model, request);
 	}
 
-	private byte[] doGenerateMavenPom(Map<String, Object> model) {
-		return templateRenderer.process("starter-pom.xml", model).getBytes();
+	private void writeGradleWrapper(ProjectTree tree, String dir,
+			ProjectRequest request) {
+		String gradlePrefix = getBootVersionProfile(request).getGradleWrapper();
+		writeTextResource(tree, dir + "gradlew.bat", gradlePrefix + "/gradlew.bat",
+				ProjectWriter.FILE_MODE, request);
+		writeTextResource(tree, dir + "gradlew", gradlePrefix + "/gradlew",
+				ProjectWriter.EXECUTABLE_FILE_MODE, request);
+		writeTextResource(tree, dir + "gradle/wrapper/gradle-wrapper.properties",
+				gradlePrefix + "/gradle/wrapper/gradle-wrapper.properties",
+				ProjectWriter.FILE_MODE, request);
+		writeBinaryResource(tree, dir + "gradle/wrapper/gradle-wrapper.jar",
+				gradlePrefix + "/gradle/wrapper/gradle-wrapper.jar", request);
 	}
 
-	private byte[] doGenerateGradleBuild(Map<String, Object> model) {
-		return templateRenderer.process("starter-build.gradle", model).getBytes();
+	private void writeMavenWrapper(ProjectTree tree, String dir, ProjectRequest request) {
+		writeTextResource(tree, dir + "mvnw.cmd", "maven/mvnw.cmd",
+				ProjectWriter.FILE_MODE, request);
+		writeTextResource(tree, dir + "mvnw", "maven/mvnw",
+				ProjectWriter.EXECUTABLE_FILE_MODE, request);
+		writeTextResource(tree, dir + ".mvn/wrapper/maven-wrapper.properties",
+				"maven/wrapper/maven-wrapper.properties", ProjectWriter.FILE_MODE,
+				request);
+		writeBinaryResource(tree, dir + ".mvn/wrapper/maven-wrapper.jar",
+				"maven/wrapper/maven-wrapper.jar", request);
 	}
 
-	private void writeGradleWrapper(File dir, Version bootVersion) {
-		String gradlePrefix = isGradle4Available(bootVersion) ? "gradle4" :
-				isGradle3Available(bootVersion) ? "gradle3" : "gradle";
-		writeTextResource(dir, "gradlew.bat", gradlePrefix + "/gradlew.bat");
-		writeTextResource(dir, "gradlew", gradlePrefix + "/gradlew");
-
-		File wrapperDir = new File(dir, "gradle/wrapper");
-		wrapperDir.mkdirs();
-		writeTextResource(wrapperDir, "gradle-wrapper.properties",
-				gradlePrefix + "/gradle/wrapper/gradle-wrapper.properties");
-		writeBinaryResource(wrapperDir, "gradle-wrapper.jar",
-				gradlePrefix + "/gradle/wrapper/gradle-wrapper.jar");
+	private void writeBinaryResource(ProjectTree tree, String path, String location,
+			ProjectRequest request) {
+		tree.addFile(path, timedResource(request, () -> projectResourceLocator
+				.getBinaryResource("classpath:project/" + location)),
+				ProjectWriter.FILE_MODE);
 	}
 
-	private void writeMavenWrapper(File dir) {
-		writeTextResource(dir, "mvnw.cmd", "maven/mvnw.cmd");
-		writeTextResource(dir, "mvnw", "maven/mvnw");
-
-		File wrapperDir = new File(dir, ".mvn/wrapper");
-		wrapperDir.mkdirs();
-		writeTextResource(wrapperDir, "maven-wrapper.properties",
-				"maven/wrapper/maven-wrapper.properties");
-		writeBinaryResource(wrapperDir, "maven-wrapper.jar",
-				"maven/wrapper/maven-wrapper.jar");
+	private void writeTextResource(ProjectTree tree, String path, String location,
+			int mode, ProjectRequest request) {
+		tree.addFile(path, timedResource(request, () -> projectResourceLocator
+				.getTextResource("classpath:project/" + location).getBytes(UTF_8)),
+				mode);
 	}
 
-	private File writeBinaryResource(File dir, String name, String location) {
-		return doWriteProjectResource(dir, name, location, true);
-	}
-
-	private File writeTextResource(File dir, String name, String location) {
-		return doWriteProjectResource(dir, name, location, false);
+	/**
+	 * Copy a resource and record the time spent. Resources are copied while the tree is
+	 * generated so that this time is not part of the time to create the archive.
+	 */
+	private byte[] timedResource(ProjectRequest request, Supplier<byte[]> resource) {
+		long start = System.nanoTime();
+		byte[] content = resource.get();
+		timer().record(ProjectGenerationPhase.RESOURCES, null, request,
+				System.nanoTime() - start);
+		return content;
 	}
 
-	private File doWriteProjectResource(File dir, String name, String location,
-			boolean binary) {
-		File target = new File(dir, name);
-		if (binary) {
-			writeBinary(target, projectResourceLocator
-					.getBinaryResource("classpath:project/" + location));
-		}
-		else {
-			writeText(target, projectResourceLocator
-					.getTextResource("classpath:project/" + location));
-		}
-		return target;
+	/**
+	 * Return the timer to use, ignoring the generations triggered by {@link #warmUp()}.
+	 */
+	private ProjectGenerationTimer timer() {
+		return (warmingUp.get() != null ? ProjectGenerationTimer.NONE : timer);
 	}
 
-	private File initializerProjectDir(File rootDir, ProjectRequest request) {
-		if (request.getBaseDir() != null) {
-			File dir = new File(rootDir, request.getBaseDir());
-			dir.mkdirs();
-			return dir;
-		}
-		else {
-			return rootDir;
-		}
+	private byte[] render(String templateName, Map<String, Object> model,
+			ProjectRequest request) {
+		long start = System.nanoTime();
+		byte[] content = templateRenderer.processToBytes(templateName, model);
+		timer().record(ProjectGenerationPhase.RENDER, templateName, request,
+				System.nanoTime() - start);
+		return content;
 	}
 
 	public void write(File target, String templateName, Map<String, Object> model) {
-		String body = templateRenderer.process(templateName, model);
-		writeText(target, body);
-	}
-
-	private void writeText(File target, String body) {
 		try (OutputStream stream = new FileOutputStream(target)) {
-			StreamUtils.copy(body, Charset.forName("UTF-8"), stream);
+			templateRenderer.process(templateName, model, stream);
 		}
-		catch (Exception e) {
-			throw new IllegalStateException("Cannot write file " + target, e);
-		}
-	}
-
-	private void writeBinary(File target, byte[] body) {
-		try (OutputStream stream = new FileOutputStream(target)) {
-			StreamUtils.copy(body, stream);
-		}
-		catch (Exception e) {
+		catch (IOException e) {
 			throw new IllegalStateException("Cannot write file " + target, e);
 		}
 	}
 
-	private void addTempFile(String group, File file) {
-		temporaryFiles.computeIfAbsent(group, key -> new ArrayList<>()).add(file);
+	/**
+	 * Render the specified template and add it to the tree at the specified path. The
+	 * template is rendered immediately as the model may change afterwards.
+	 */
+	protected void write(ProjectTree tree, String path, String templateName,
+			Map<String, Object> model, ProjectRequest request) {
+		tree.addFile(path, render(templateName, model, request),
+				ProjectWriter.FILE_MODE);
 	}
 
 	private static List<Dependency> filterDependencies(List<Dependency> dependencies,
@@ -781,4 +1012,32 @@ public class ProjectGenerator {
 
 	}
 
+	/**
+	 * The {@link BootVersionProfile profiles} of the Spring Boot versions of a given
+	 * metadata snapshot. Other versions are not cached.
+	 */
+	private static final class BootVersionProfiles {
+
+		private final InitializrMetadata metadata;
+
+		private final Map<String, BootVersionProfile> profiles = new HashMap<>();
+
+		BootVersionProfiles(InitializrMetadata metadata) {
+			this.metadata = metadata;
+			for (DefaultMetadataElement bootVersion : metadata.getBootVersions()
+					.getContent()) {
+				this.profiles.put(bootVersion.getId(),
+						BootVersionProfile.of(Version.safeParse(bootVersion.getId())));
+			}
+		}
+
+		BootVersionProfile get(String bootVersion) {
+			BootVersionProfile profile = (bootVersion != null
+					? profiles.get(bootVersion) : null);
+			return (profile != null ? profile
+					: BootVersionProfile.of(Version.safeParse(bootVersion)));
+		}
+
+	}
+
 }
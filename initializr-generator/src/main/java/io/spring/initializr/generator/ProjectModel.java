@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The model used to render the templates of a project. Entries that are expensive to
+ * compute can be registered {@link #putLazy(String, Supplier) lazily}: their value is
+ * computed the first time it is requested and then memoized so that templates that do
+ * not use them do not pay for them.
+ * <p>
+ * Templates resolve against this model through {@link #get(Object)}, and
+ * {@link #entrySet() iterating} over the model resolves every pending entry. A
+ * {@code ProjectModel} is not thread-safe.
+ *
+ * @author agent
+ */
+public class ProjectModel extends AbstractMap<String, Object> {
+
+	private final Map<String, Object> entries = new LinkedHashMap<>();
+
+	/**
+	 * Register an entry whose value is computed on first access.
+	 * @param key the key of the entry
+	 * @param value the supplier of the value
+	 */
+	public void putLazy(String key, Supplier<?> value) {
+		entries.put(key, new LazyValue(value));
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		return resolve(entries.put(key, value));
+	}
+
+	@Override
+	public Object get(Object key) {
+		Object value = entries.get(key);
+		if (value instanceof LazyValue) {
+			value = ((LazyValue) value).get();
+			entries.put((String) key, value);
+		}
+		return value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return entries.containsKey(key);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		return resolve(entries.remove(key));
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		entries.replaceAll((key, value) -> resolve(value));
+		return entries.entrySet();
+	}
+
+	private static Object resolve(Object value) {
+		return (value instanceof LazyValue ? ((LazyValue) value).get() : value);
+	}
+
+	private static final class LazyValue {
+
+		private final Supplier<?> supplier;
+
+		LazyValue(Supplier<?> supplier) {
+			this.supplier = supplier;
+		}
+
+		Object get() {
+			return supplier.get();
+		}
+
+	}
+
+}
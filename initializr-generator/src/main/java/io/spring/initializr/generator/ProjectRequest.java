@@ -25,13 +25,13 @@ import java.util.stream.Collectors;
 import io.spring.initializr.metadata.BillOfMaterials;
 import io.spring.initializr.metadata.DefaultMetadataElement;
 import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.DependencyIndex;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.Repository;
 import io.spring.initializr.metadata.Type;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionProperty;
 
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.util.StringUtils;
 
 /**
@@ -112,13 +112,13 @@ public class ProjectRequest extends BasicProjectRequest {
 	 * {@link InitializrMetadata}.
 	 */
 	public void initialize(InitializrMetadata metadata) {
-		BeanWrapperImpl bean = new BeanWrapperImpl(this);
+		BeanPropertyTable properties = BeanPropertyTable.forType(getClass());
 		metadata.defaults().forEach((key, value) -> {
-			if (bean.isWritableProperty(key)) {
+			if (properties.isWritableProperty(key)) {
 				// We want to be able to infer a package name if none has been
 				// explicitly set
 				if (!key.equals("packageName")) {
-					bean.setPropertyValue(key, value);
+					properties.setPropertyValue(this, key, value);
 				}
 			}
 		});
@@ -132,13 +132,15 @@ public class ProjectRequest extends BasicProjectRequest {
 		String actualBootVersion = getBootVersion() != null ? getBootVersion()
 				: metadata.getBootVersions().getDefault().getId();
 		Version requestedVersion = Version.parse(actualBootVersion);
+		DependencyIndex.Entry index = metadata.dependencyIndex().get(requestedVersion);
 		this.resolvedDependencies = depIds.stream().map(it -> {
 			Dependency dependency = metadata.getDependencies().get(it);
 			if (dependency == null) {
 				throw new InvalidProjectRequestException(
 						"Unknown dependency '" + it + "' check project metadata");
 			}
-			return dependency.resolve(requestedVersion);
+			Dependency resolved = index.getResolvedDependency(dependency.getId());
+			return (resolved != null ? resolved : dependency.resolve(requestedVersion));
 		}).collect(Collectors.toList());
 		this.resolvedDependencies.forEach(it -> {
 			it.getFacets().forEach(facet -> {
@@ -152,7 +154,7 @@ public class ProjectRequest extends BasicProjectRequest {
 								+ "with Spring Boot " + requestedVersion);
 			}
 			if (it.getBom() != null) {
-				resolveBom(metadata, it.getBom(), requestedVersion);
+				resolveBom(index, it.getBom());
 			}
 			if (it.getRepository() != null) {
 				String repositoryId = it.getRepository();
@@ -242,13 +244,10 @@ public class ProjectRequest extends BasicProjectRequest {
 		}
 	}
 
-	private void resolveBom(InitializrMetadata metadata, String bomId,
-			Version requestedVersion) {
+	private void resolveBom(DependencyIndex.Entry index, String bomId) {
 		if (!boms.containsKey(bomId)) {
-			BillOfMaterials bom = metadata.getConfiguration().getEnv().getBoms().get(bomId)
-					.resolve(requestedVersion);
-			bom.getAdditionalBoms()
-					.forEach(id -> resolveBom(metadata, id, requestedVersion));
+			BillOfMaterials bom = index.getBom(bomId);
+			bom.getAdditionalBoms().forEach(id -> resolveBom(index, id));
 			boms.put(bomId, bom);
 		}
 	}
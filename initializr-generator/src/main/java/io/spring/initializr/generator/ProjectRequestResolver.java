@@ -37,10 +37,31 @@ public class ProjectRequestResolver {
 	}
 
 	public ProjectRequest resolve(ProjectRequest request, InitializrMetadata metadata) {
+		return resolve(request, metadata, ProjectGenerationTimer.NONE);
+	}
+
+	/**
+	 * Resolve the specified {@link ProjectRequest} and record the time spent in the
+	 * post-processors and in the resolution of the request.
+	 * @param request the request to resolve
+	 * @param metadata the metadata to use
+	 * @param timer the timer to use
+	 * @return the resolved request
+	 */
+	public ProjectRequest resolve(ProjectRequest request, InitializrMetadata metadata,
+			ProjectGenerationTimer timer) {
 		Assert.notNull(request, "Request must not be null");
+		long start = System.nanoTime();
 		applyPostProcessBeforeResolution(request, metadata);
+		long resolutionStart = System.nanoTime();
 		request.resolve(metadata);
+		long resolutionEnd = System.nanoTime();
 		applyPostProcessAfterResolution(request, metadata);
+		long end = System.nanoTime();
+		timer.record(ProjectGenerationPhase.POST_PROCESS, null, request,
+				(resolutionStart - start) + (end - resolutionEnd));
+		timer.record(ProjectGenerationPhase.RESOLVE, null, request,
+				resolutionEnd - resolutionStart);
 		return request;
 	}
 
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory representation of a generated project. Each entry maps a path to
+ * either a directory or a file with its content and unix mode. Paths are relative to
+ * the root of the project and use {@code /} as separator.
+ * <p>
+ * The content of a file can be provided by a {@link Supplier} so that it is only
+ * computed when the tree is written. A tree is written to its final destination using a
+ * {@link ProjectWriter}.
+ *
+ * @author agent
+ * @see ProjectGenerator#generateProjectTree(ProjectRequest)
+ */
+public class ProjectTree {
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	/**
+	 * Add a directory at the specified path.
+	 * @param path the path of the directory
+	 * @return this instance
+	 */
+	public ProjectTree addDirectory(String path) {
+		String name = stripTrailingSlash(path);
+		entries.put(name, new Entry(name, null, ProjectWriter.DIRECTORY_MODE));
+		return this;
+	}
+
+	/**
+	 * Add a file at the specified path.
+	 * @param path the path of the file
+	 * @param content the content of the file
+	 * @param mode the unix mode of the file
+	 * @return this instance
+	 */
+	public ProjectTree addFile(String path, byte[] content, int mode) {
+		return addFile(path, () -> content, mode);
+	}
+
+	/**
+	 * Add a file at the specified path whose content is provided by the specified
+	 * {@link Supplier}. The supplier is invoked every time the file is written.
+	 * @param path the path of the file
+	 * @param content the supplier of the content of the file
+	 * @param mode the unix mode of the file
+	 * @return this instance
+	 */
+	public ProjectTree addFile(String path, Supplier<byte[]> content, int mode) {
+		entries.put(path, new Entry(path, content, mode));
+		return this;
+	}
+
+	/**
+	 * Return the {@link Entry} at the specified path or {@code null} if no such entry
+	 * exists.
+	 * @param path the path of the entry
+	 * @return the matching entry or {@code null}
+	 */
+	public Entry getEntry(String path) {
+		return entries.get(stripTrailingSlash(path));
+	}
+
+	/**
+	 * Return the entries of this tree, in the order they were added.
+	 * @return the entries
+	 */
+	public List<Entry> getEntries() {
+		return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+	}
+
+	/**
+	 * Write this tree using the specified {@link ProjectWriter}.
+	 * @param writer the writer to use
+	 * @throws IOException if an entry could not be written
+	 */
+	public void writeTo(ProjectWriter writer) throws IOException {
+		for (Entry entry : entries.values()) {
+			if (entry.isDirectory()) {
+				writer.writeDirectory(entry.getPath());
+			}
+			else {
+				writer.writeFile(entry.getPath(), entry.getContent(), entry.getMode());
+			}
+		}
+	}
+
+	/**
+	 * Create a tree with the content of the specified directory. Files that are
+	 * executable are added with {@link ProjectWriter#EXECUTABLE_FILE_MODE}.
+	 * @param rootDir the directory to read
+	 * @return a tree with the content of the directory
+	 * @throws IOException if the directory could not be read
+	 */
+	static ProjectTree read(File rootDir) throws IOException {
+		ProjectTree tree = new ProjectTree();
+		Path root = rootDir.toPath();
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : (Iterable<Path>) paths.sorted()::iterator) {
+				if (path.equals(root)) {
+					continue;
+				}
+				String name = root.relativize(path).toString()
+						.replace(File.separatorChar, '/');
+				if (Files.isDirectory(path)) {
+					tree.addDirectory(name);
+				}
+				else {
+					tree.addFile(name, Files.readAllBytes(path),
+							(Files.isExecutable(path) ? ProjectWriter.EXECUTABLE_FILE_MODE
+									: ProjectWriter.FILE_MODE));
+				}
+			}
+		}
+		return tree;
+	}
+
+	private static String stripTrailingSlash(String path) {
+		return (path.endsWith("/") ? path.substring(0, path.length() - 1) : path);
+	}
+
+	/**
+	 * An entry of a {@link ProjectTree}.
+	 */
+	public static final class Entry {
+
+		private final String path;
+
+		private final Supplier<byte[]> content;
+
+		private final int mode;
+
+		private Entry(String path, Supplier<byte[]> content, int mode) {
+			this.path = path;
+			this.content = content;
+			this.mode = mode;
+		}
+
+		/**
+		 * Return the path of this entry.
+		 * @return the path
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * Return whether this entry is a directory.
+		 * @return {@code true} for a directory
+		 */
+		public boolean isDirectory() {
+			return content == null;
+		}
+
+		/**
+		 * Return the content of this entry or {@code null} for a directory.
+		 * @return the content
+		 */
+		public byte[] getContent() {
+			return (content != null ? content.get() : null);
+		}
+
+		/**
+		 * Return the unix mode of this entry.
+		 * @return the mode
+		 */
+		public int getMode() {
+			return mode;
+		}
+
+		@Override
+		public String toString() {
+			return path;
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.IOException;
+
+/**
+ * Write the content of a generated project. Paths are relative to the root of the
+ * project and use {@code /} as separator.
+ *
+ * @author agent
+ * @see ProjectTree#writeTo(ProjectWriter)
+ */
+public interface ProjectWriter {
+
+	/**
+	 * The unix mode of a regular file.
+	 */
+	int FILE_MODE = 0644;
+
+	/**
+	 * The unix mode of an executable file, such as a wrapper script.
+	 */
+	int EXECUTABLE_FILE_MODE = 0755;
+
+	/**
+	 * The unix mode of a directory.
+	 */
+	int DIRECTORY_MODE = 0755;
+
+	/**
+	 * Write a directory at the specified path. Parent directories are created if
+	 * necessary.
+	 * @param path the path of the directory
+	 * @throws IOException if the directory could not be written
+	 */
+	void writeDirectory(String path) throws IOException;
+
+	/**
+	 * Write a file at the specified path. Parent directories are created if necessary.
+	 * @param path the path of the file
+	 * @param content the content of the file
+	 * @param mode the unix mode of the file
+	 * @throws IOException if the file could not be written
+	 */
+	void writeFile(String path, byte[] content, int mode) throws IOException;
+
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Track the temporary files that are created while generating projects. Files are
+ * grouped in a {@link Handle} that is scoped to a single request and that deletes them
+ * when it is closed.
+ * <p>
+ * Handles that are never closed, for instance because the client went away before the
+ * project was served, are deleted by {@link #sweep()} once they are older than the
+ * configured time to live. So are the untracked entries of the
+ * {@link #addDirectory(File) registered directories}, for instance the files that a
+ * previous instance left behind. A background sweeper can be started using
+ * {@link #startSweeper(Duration)}.
+ * <p>
+ * The number of files and their size are measured when a file is added to a handle,
+ * when a handle is {@link Handle#update() updated} and on each sweep, rather than every
+ * time they are requested.
+ *
+ * @author agent
+ */
+public class TemporaryFileManager implements Closeable {
+
+	/**
+	 * The default time to live of a {@link Handle}.
+	 */
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+
+	private static final Logger log = LoggerFactory.getLogger(TemporaryFileManager.class);
+
+	private final ConcurrentMap<String, Handle> handles = new ConcurrentHashMap<>();
+
+	private final CopyOnWriteArrayList<File> directories = new CopyOnWriteArrayList<>();
+
+	private final Duration timeToLive;
+
+	private final AtomicLong fileCount = new AtomicLong();
+
+	private final AtomicLong size = new AtomicLong();
+
+	private final AtomicLong sweptCount = new AtomicLong();
+
+	private ScheduledExecutorService sweeper;
+
+	public TemporaryFileManager() {
+		this(DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param timeToLive the time after which a handle that has not been closed is
+	 * considered orphaned
+	 */
+	public TemporaryFileManager(Duration timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Create a new {@link Handle} with the specified id.
+	 * @param id the id of the handle
+	 * @return a new handle
+	 * @throws IllegalStateException if a handle with the same id already exists
+	 */
+	public Handle create(String id) {
+		Handle handle = new Handle(id, System.currentTimeMillis());
+		if (handles.putIfAbsent(id, handle) != null) {
+			throw new IllegalStateException("Temporary files with id '" + id
+					+ "' are already tracked");
+		}
+		return handle;
+	}
+
+	/**
+	 * Return the {@link Handle} with the specified id or {@code null} if no such handle
+	 * exists.
+	 * @param id the id of the handle
+	 * @return the handle or {@code null}
+	 */
+	public Handle get(String id) {
+		return handles.get(id);
+	}
+
+	/**
+	 * Delete the files of the {@link Handle} with the specified id, if any.
+	 * @param id the id of the handle
+	 */
+	public void release(String id) {
+		Handle handle = handles.get(id);
+		if (handle != null) {
+			handle.close();
+		}
+	}
+
+	/**
+	 * Register a directory in which temporary files are created. Its entries that are
+	 * not tracked by any handle are deleted by {@link #sweep()} once they are older than
+	 * the time to live.
+	 * @param directory the directory
+	 */
+	public void addDirectory(File directory) {
+		directories.addIfAbsent(directory.getAbsoluteFile());
+	}
+
+	/**
+	 * Delete the files of the handles and the untracked entries of the registered
+	 * directories that are older than the time to live. The files of the other handles
+	 * are measured again.
+	 * @return the number of handles and untracked entries that have been deleted
+	 */
+	public int sweep() {
+		long threshold = System.currentTimeMillis() - timeToLive.toMillis();
+		int count = 0;
+		for (Handle handle : handles.values()) {
+			if (handle.creationTime < threshold) {
+				log.warn("Deleting orphaned temporary files '" + handle.id + "'");
+				handle.close();
+				count++;
+			}
+			else {
+				handle.update();
+			}
+		}
+		count += sweepUntrackedEntries(threshold);
+		sweptCount.addAndGet(count);
+		return count;
+	}
+
+	private int sweepUntrackedEntries(long threshold) {
+		Set<File> tracked = new HashSet<>();
+		for (Handle handle : handles.values()) {
+			handle.files.forEach((file) -> tracked.add(file.getAbsoluteFile()));
+		}
+		int count = 0;
+		for (File directory : directories) {
+			File[] entries = directory.listFiles();
+			if (entries == null) {
+				continue;
+			}
+			for (File entry : entries) {
+				if (!tracked.contains(entry) && entry.lastModified() < threshold
+						&& FileSystemUtils.deleteRecursively(entry)) {
+					log.warn("Deleted untracked temporary file '" + entry + "'");
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Start a background thread that invokes {@link #sweep()} at the specified interval.
+	 * @param interval the interval between two sweeps
+	 */
+	public synchronized void startSweeper(Duration interval) {
+		if (sweeper != null) {
+			return;
+		}
+		sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "initializr-temp-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweeper.scheduleWithFixedDelay(() -> {
+			try {
+				sweep();
+			}
+			catch (RuntimeException ex) {
+				log.warn("Failed to delete orphaned temporary files", ex);
+			}
+		}, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stop the background sweeper, if any. Files that are still tracked are left
+	 * untouched.
+	 */
+	@Override
+	public synchronized void close() {
+		if (sweeper != null) {
+			sweeper.shutdownNow();
+			sweeper = null;
+		}
+	}
+
+	/**
+	 * Return the number of handles that are currently open.
+	 * @return the number of open handles
+	 */
+	public int getHandleCount() {
+		return handles.size();
+	}
+
+	/**
+	 * Return the number of files, including the content of tracked directories, as
+	 * measured when they were last added or updated.
+	 * @return the number of files
+	 */
+	public long getFileCount() {
+		return fileCount.get();
+	}
+
+	/**
+	 * Return the size of the files, including the content of tracked directories, as
+	 * measured when they were last added or updated.
+	 * @return the size in bytes
+	 */
+	public long getSize() {
+		return size.get();
+	}
+
+	/**
+	 * Return the number of handles and untracked entries that have been deleted by
+	 * {@link #sweep()}.
+	 * @return the number of orphaned handles and entries
+	 */
+	public long getSweptCount() {
+		return sweptCount.get();
+	}
+
+	private static long countFiles(File file) {
+		File[] children = file.listFiles();
+		if (children == null) {
+			return (file.isFile() ? 1 : 0);
+		}
+		long count = 0;
+		for (File child : children) {
+			count += countFiles(child);
+		}
+		return count;
+	}
+
+	private static long sizeOf(File file) {
+		File[] children = file.listFiles();
+		if (children == null) {
+			return file.length();
+		}
+		long size = 0;
+		for (File child : children) {
+			size += sizeOf(child);
+		}
+		return size;
+	}
+
+	/**
+	 * A group of temporary files that are deleted together.
+	 */
+	public final class Handle implements Closeable {
+
+		private final String id;
+
+		private final long creationTime;
+
+		private final List<File> files = new CopyOnWriteArrayList<>();
+
+		private long fileCount;
+
+		private long size;
+
+		private boolean closed;
+
+		private Handle(String id, long creationTime) {
+			this.id = id;
+			this.creationTime = creationTime;
+		}
+
+		/**
+		 * Return the id of this handle.
+		 * @return the id
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Track the specified file or directory. Content that is written to it
+		 * afterwards is only accounted for once this handle is {@link #update()
+		 * updated}.
+		 * @param file the file to track
+		 * @return the file
+		 */
+		public File add(File file) {
+			files.add(file);
+			synchronized (this) {
+				if (!closed) {
+					record(countFiles(file), sizeOf(file));
+				}
+			}
+			return file;
+		}
+
+		/**
+		 * Measure the tracked files again, typically once content has been written to
+		 * them.
+		 */
+		public synchronized void update() {
+			if (closed) {
+				return;
+			}
+			long newFileCount = 0;
+			long newSize = 0;
+			for (File file : files) {
+				newFileCount += countFiles(file);
+				newSize += sizeOf(file);
+			}
+			record(newFileCount - fileCount, newSize - size);
+		}
+
+		private void record(long fileCountDelta, long sizeDelta) {
+			fileCount += fileCountDelta;
+			size += sizeDelta;
+			TemporaryFileManager.this.fileCount.addAndGet(fileCountDelta);
+			TemporaryFileManager.this.size.addAndGet(sizeDelta);
+		}
+
+		/**
+		 * Return the files tracked by this handle.
+		 * @return the tracked files
+		 */
+		public List<File> getFiles() {
+			return new ArrayList<>(files);
+		}
+
+		/**
+		 * Delete the tracked files and stop tracking this handle.
+		 */
+		@Override
+		public void close() {
+			if (!handles.remove(id, this)) {
+				return;
+			}
+			synchronized (this) {
+				record(-fileCount, -size);
+				closed = true;
+			}
+			for (File file : files) {
+				if (file.isDirectory()) {
+					FileSystemUtils.deleteRecursively(file);
+				}
+				else if (file.exists()) {
+					file.delete();
+				}
+			}
+			files.clear();
+		}
+
+	}
+
+}
@@ -27,6 +27,7 @@ import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionProperty;
 import io.spring.initializr.util.VersionRange;
+import io.spring.initializr.util.VersionRangeIndex;
 
 /**
  * Define a Bill Of Materials to be represented in the generated project if a dependency
@@ -44,7 +45,7 @@ public class BillOfMaterials {
 	private Integer order = Integer.MAX_VALUE;
 	private List<String> additionalBoms = new ArrayList<>();
 	private List<String> repositories = new ArrayList<>();
-	private final List<Mapping> mappings = new ArrayList<>();
+	private final MappingList<Mapping> mappings = new MappingList<>();
 
 	public BillOfMaterials() {
 	}
@@ -162,6 +163,7 @@ public class BillOfMaterials {
 						"Invalid version range " + it.versionRange + " for " + this, ex);
 			}
 		});
+		mappings.updateIndex(Mapping::getRange);
 	}
 
 	/**
@@ -174,21 +176,40 @@ public class BillOfMaterials {
 			return this;
 		}
 
+		Mapping mapping = findMapping(bootVersion);
+		if (mapping != null) {
+			BillOfMaterials resolvedBom = new BillOfMaterials(groupId, artifactId,
+					mapping.version);
+			resolvedBom.setVersionProperty(versionProperty);
+			resolvedBom.setOrder(order);
+			resolvedBom.repositories.addAll(!mapping.repositories.isEmpty()
+					? mapping.repositories : repositories);
+			resolvedBom.additionalBoms.addAll(!mapping.additionalBoms.isEmpty()
+					? mapping.additionalBoms : additionalBoms);
+			return resolvedBom;
+		}
+		throw new IllegalStateException(
+				"No suitable mapping was found for " + this + " and version " + bootVersion);
+	}
+
+	/**
+	 * Return the first mapping that matches the specified Spring Boot version, if any.
+	 */
+	private Mapping findMapping(Version bootVersion) {
+		VersionRangeIndex<Mapping> index = mappings.getIndex();
+		if (index != null) {
+			return index.get(bootVersion);
+		}
 		for (Mapping mapping : mappings) {
 			if (mapping.range.match(bootVersion)) {
-				BillOfMaterials resolvedBom = new BillOfMaterials(groupId, artifactId,
-						mapping.version);
-				resolvedBom.setVersionProperty(versionProperty);
-				resolvedBom.setOrder(order);
-				resolvedBom.repositories.addAll(!mapping.repositories.isEmpty()
-						? mapping.repositories : repositories);
-				resolvedBom.additionalBoms.addAll(!mapping.additionalBoms.isEmpty()
-						? mapping.additionalBoms : additionalBoms);
-				return resolvedBom;
+				return mapping;
 			}
 		}
-		throw new IllegalStateException(
-				"No suitable mapping was found for " + this + " and version " + bootVersion);
+		return null;
+	}
+
+	VersionRangeIndex<Mapping> mappingIndex() {
+		return mappings.getIndex();
 	}
 
 	@Override
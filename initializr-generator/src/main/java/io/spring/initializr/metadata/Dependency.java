@@ -27,6 +27,7 @@ import io.spring.initializr.util.InvalidVersionException;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionRange;
+import io.spring.initializr.util.VersionRangeIndex;
 
 import org.springframework.util.StringUtils;
 
@@ -53,7 +54,7 @@ public class Dependency extends MetadataElement implements Describable {
 	private String artifactId;
 	private String version;
 	private String type;
-	private List<Mapping> mappings = new ArrayList<>();
+	private MappingList<Mapping> mappings = new MappingList<>();
 	private String scope = SCOPE_COMPILE;
 	private String description;
 	private String versionRange;
@@ -91,7 +92,7 @@ public class Dependency extends MetadataElement implements Describable {
 		this.artifactId = dependency.artifactId;
 		this.version = dependency.version;
 		this.type = dependency.type;
-		this.mappings.addAll(dependency.mappings);
+		this.mappings.copy(dependency.mappings);
 		this.scope = dependency.scope;
 		this.description = dependency.description;
 		this.versionRange = dependency.versionRange;
@@ -196,6 +197,7 @@ public class Dependency extends MetadataElement implements Describable {
 						"Invalid version range " + it.versionRange + " for " + this, ex);
 			}
 		});
+		mappings.updateIndex(Mapping::getRange);
 	}
 
 	/**
@@ -204,21 +206,40 @@ public class Dependency extends MetadataElement implements Describable {
 	 * specified version.
 	 */
 	public Dependency resolve(Version bootVersion) {
+		Mapping mapping = findMapping(bootVersion);
+		if (mapping != null) {
+			Dependency dependency = new Dependency(this);
+			dependency.groupId = mapping.groupId != null ? mapping.groupId
+					: this.groupId;
+			dependency.artifactId = mapping.artifactId != null ? mapping.artifactId
+					: this.artifactId;
+			dependency.version = mapping.version != null ? mapping.version
+					: this.version;
+			dependency.versionRequirement = mapping.range.toString();
+			dependency.mappings = null;
+			return dependency;
+		}
+		return this;
+	}
+
+	/**
+	 * Return the first mapping that matches the specified Spring Boot version, if any.
+	 */
+	private Mapping findMapping(Version bootVersion) {
+		VersionRangeIndex<Mapping> index = mappings.getIndex();
+		if (index != null) {
+			return index.get(bootVersion);
+		}
 		for (Mapping mapping : mappings) {
 			if (mapping.range.match(bootVersion)) {
-				Dependency dependency = new Dependency(this);
-				dependency.groupId = mapping.groupId != null ? mapping.groupId
-						: this.groupId;
-				dependency.artifactId = mapping.artifactId != null ? mapping.artifactId
-						: this.artifactId;
-				dependency.version = mapping.version != null ? mapping.version
-						: this.version;
-				dependency.versionRequirement = mapping.range.toString();
-				dependency.mappings = null;
-				return dependency;
+				return mapping;
 			}
 		}
-		return this;
+		return null;
+	}
+
+	VersionRangeIndex<Mapping> mappingIndex() {
+		return mappings.getIndex();
 	}
 
 	/**
@@ -308,7 +329,7 @@ public class Dependency extends MetadataElement implements Describable {
 	}
 
 	public void setMappings(List<Mapping> mappings) {
-		this.mappings = mappings;
+		this.mappings = new MappingList<>(mappings);
 	}
 
 	@Override
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.spring.initializr.util.Version;
+import io.spring.initializr.util.VersionRange;
+
+/**
+ * An index of the {@link Dependency dependencies} of an {@link InitializrMetadata}, and
+ * of the {@link BillOfMaterials} and {@link Repository repositories} they require, for
+ * a given Spring Boot version.
+ * <p>
+ * The boundaries of all the version ranges split the versions in intervals where every
+ * version resolves the same way: entries are computed once per interval rather than
+ * once per version. Entries are computed the first time a version of their interval is
+ * requested.
+ *
+ * @author agent
+ */
+public class DependencyIndex {
+
+	private final InitializrMetadata metadata;
+
+	private final List<Version> boundaries;
+
+	private final ConcurrentMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+	public DependencyIndex(InitializrMetadata metadata) {
+		this.metadata = metadata;
+		this.boundaries = collectBoundaries(metadata);
+	}
+
+	/**
+	 * Return the {@link Entry} for the specified Spring Boot version.
+	 * @param bootVersion the Spring Boot version
+	 * @return the entry for that version
+	 */
+	public Entry get(Version bootVersion) {
+		return entries.computeIfAbsent(intervalOf(bootVersion),
+				key -> new Entry(metadata, bootVersion));
+	}
+
+	/**
+	 * Return the number of distinct intervals that the version ranges define.
+	 * @return the number of intervals
+	 */
+	public int getIntervalCount() {
+		return boundaries.size() * 2 + 1;
+	}
+
+	/**
+	 * Return the interval of the specified version. Even numbers identify the interval
+	 * between two boundaries and odd numbers the boundaries themselves.
+	 */
+	private int intervalOf(Version version) {
+		int index = Collections.binarySearch(boundaries, version);
+		return (index >= 0 ? index * 2 + 1 : (-index - 1) * 2);
+	}
+
+	private static List<Version> collectBoundaries(InitializrMetadata metadata) {
+		TreeSet<Version> boundaries = new TreeSet<>();
+		for (Dependency dependency : metadata.getDependencies().getAll()) {
+			addBoundaries(boundaries, dependency.getRange());
+			for (Dependency.Mapping mapping : dependency.getMappings()) {
+				addBoundaries(boundaries, mapping.getRange());
+			}
+		}
+		for (BillOfMaterials bom : metadata.getConfiguration().getEnv().getBoms()
+				.values()) {
+			for (BillOfMaterials.Mapping mapping : bom.getMappings()) {
+				addBoundaries(boundaries, mapping.getRange());
+			}
+		}
+		return new ArrayList<>(boundaries);
+	}
+
+	private static void addBoundaries(TreeSet<Version> boundaries, VersionRange range) {
+		if (range != null) {
+			if (range.getLowerVersion() != null) {
+				boundaries.add(range.getLowerVersion());
+			}
+			if (range.getHigherVersion() != null) {
+				boundaries.add(range.getHigherVersion());
+			}
+		}
+	}
+
+	/**
+	 * The dependencies, BOMs and repositories for a given interval of Spring Boot
+	 * versions.
+	 */
+	public static final class Entry {
+
+		private final InitializrMetadata metadata;
+
+		private final Version bootVersion;
+
+		private final Map<String, Dependency> resolvedDependencies;
+
+		private final Map<String, Dependency> compatibleDependencies;
+
+		private final Map<String, List<Dependency>> compatibleDependencyGroups;
+
+		private final ConcurrentMap<String, BillOfMaterials> resolvedBoms = new ConcurrentHashMap<>();
+
+		private volatile Map<String, BillOfMaterials> boms;
+
+		private volatile Map<String, Repository> repositories;
+
+		private Entry(InitializrMetadata metadata, Version bootVersion) {
+			this.metadata = metadata;
+			this.bootVersion = bootVersion;
+			Map<String, Dependency> resolvedDependencies = new LinkedHashMap<>();
+			Map<String, Dependency> compatibleDependencies = new LinkedHashMap<>();
+			Map<String, List<Dependency>> compatibleDependencyGroups = new LinkedHashMap<>();
+			for (DependencyGroup group : metadata.getDependencies().getContent()) {
+				List<Dependency> compatible = new ArrayList<>();
+				for (Dependency dependency : group.getContent()) {
+					Dependency resolved = dependency.resolve(bootVersion);
+					resolvedDependencies.put(dependency.getId(), resolved);
+					if (dependency.match(bootVersion)) {
+						compatibleDependencies.put(dependency.getId(), resolved);
+						compatible.add(dependency);
+					}
+				}
+				compatibleDependencyGroups.put(group.getName(),
+						Collections.unmodifiableList(compatible));
+			}
+			this.resolvedDependencies = Collections.unmodifiableMap(resolvedDependencies);
+			this.compatibleDependencies = Collections
+					.unmodifiableMap(compatibleDependencies);
+			this.compatibleDependencyGroups = Collections
+					.unmodifiableMap(compatibleDependencyGroups);
+		}
+
+		/**
+		 * Resolve the boms and repositories of the compatible dependencies. Not done
+		 * when the entry is created as a bom may not support this version while a
+		 * request that does not use it should still be resolved.
+		 */
+		private synchronized void resolveBomsAndRepositories() {
+			if (boms != null) {
+				return;
+			}
+			Map<String, Repository> availableRepositories = metadata.getConfiguration()
+					.getEnv().getRepositories();
+			Map<String, Repository> repositories = new LinkedHashMap<>();
+			for (Dependency dependency : compatibleDependencies.values()) {
+				if (dependency.getRepository() != null) {
+					repositories.put(dependency.getRepository(),
+							availableRepositories.get(dependency.getRepository()));
+				}
+			}
+			Map<String, BillOfMaterials> boms = new LinkedHashMap<>();
+			for (Dependency dependency : compatibleDependencies.values()) {
+				if (dependency.getBom() != null) {
+					boms.put(dependency.getBom(), getBom(dependency.getBom()));
+				}
+			}
+			// Each resolved bom may require additional repositories
+			for (BillOfMaterials bom : boms.values()) {
+				for (String id : bom.getRepositories()) {
+					repositories.put(id, availableRepositories.get(id));
+				}
+			}
+			this.repositories = Collections.unmodifiableMap(repositories);
+			this.boms = Collections.unmodifiableMap(boms);
+		}
+
+		/**
+		 * Return the {@link Dependency} with the specified id, resolved for this
+		 * version, or {@code null} if no such dependency exists. The dependency may not
+		 * be compatible with this version.
+		 * @param id the id of a dependency
+		 * @return the resolved dependency or {@code null}
+		 * @see Dependency#resolve(Version)
+		 */
+		public Dependency getResolvedDependency(String id) {
+			return resolvedDependencies.get(id);
+		}
+
+		/**
+		 * Return the resolved dependencies that are compatible with this version,
+		 * indexed by id.
+		 * @return the compatible dependencies
+		 */
+		public Map<String, Dependency> getCompatibleDependencies() {
+			return compatibleDependencies;
+		}
+
+		/**
+		 * Return the dependencies that are compatible with this version, as they are
+		 * defined in the metadata, indexed by group name.
+		 * @return the compatible dependencies of each group
+		 */
+		public Map<String, List<Dependency>> getCompatibleDependencyGroups() {
+			return compatibleDependencyGroups;
+		}
+
+		/**
+		 * Return the {@link BillOfMaterials} with the specified id, resolved for this
+		 * version.
+		 * @param id the id of a bom
+		 * @return the resolved bom or {@code null} if no such bom exists
+		 * @throws IllegalStateException if the bom does not support this version
+		 * @see BillOfMaterials#resolve(Version)
+		 */
+		public BillOfMaterials getBom(String id) {
+			BillOfMaterials bom = resolvedBoms.get(id);
+			if (bom == null) {
+				BillOfMaterials candidate = metadata.getConfiguration().getEnv()
+						.getBoms().get(id);
+				if (candidate == null) {
+					return null;
+				}
+				bom = candidate.resolve(bootVersion);
+				resolvedBoms.putIfAbsent(id, bom);
+			}
+			return bom;
+		}
+
+		/**
+		 * Return the resolved boms that the compatible dependencies require, indexed
+		 * by id.
+		 * @return the boms of the compatible dependencies
+		 * @throws IllegalStateException if one of the boms does not support this
+		 * version
+		 */
+		public Map<String, BillOfMaterials> getBoms() {
+			if (boms == null) {
+				resolveBomsAndRepositories();
+			}
+			return boms;
+		}
+
+		/**
+		 * Return the repositories that the compatible dependencies and their boms
+		 * require, indexed by id.
+		 * @return the repositories of the compatible dependencies
+		 * @throws IllegalStateException if one of the boms does not support this
+		 * version
+		 */
+		public Map<String, Repository> getRepositories() {
+			if (boms == null) {
+				resolveBomsAndRepositories();
+			}
+			return repositories;
+		}
+
+	}
+
+}
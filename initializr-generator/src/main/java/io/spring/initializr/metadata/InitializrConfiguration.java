@@ -31,6 +31,7 @@ import io.spring.initializr.util.InvalidVersionException;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionRange;
+import io.spring.initializr.util.VersionRangeIndex;
 
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.util.StringUtils;
@@ -171,6 +172,13 @@ public class InitializrConfiguration {
 		 */
 		private String springBootMetadataUrl = "https://spring.io/project_metadata/spring-boot";
 
+		/**
+		 * The file holding the last Spring Boot versions that were fetched successfully,
+		 * used as a fallback on startup. Only enabled if a value is explicitly provided.
+		 * Not exposed with the metadata.
+		 */
+		private String springBootMetadataCacheFile;
+
 		/**
 		 * Tracking code for Google Analytics. Only enabled if a value is explicitly
 		 * provided.
@@ -213,6 +221,13 @@ public class InitializrConfiguration {
 		 */
 		private final Map<String, Repository> repositories = new LinkedHashMap<>();
 
+		/**
+		 * Archive-specific settings. Not exposed with the metadata as they describe the
+		 * server rather than the projects it generates.
+		 */
+		@NestedConfigurationProperty
+		private final Archive archive = new Archive();
+
 		/**
 		 * Gradle-specific settings.
 		 */
@@ -251,6 +266,15 @@ public class InitializrConfiguration {
 			this.springBootMetadataUrl = springBootMetadataUrl;
 		}
 
+		@JsonIgnore
+		public String getSpringBootMetadataCacheFile() {
+			return springBootMetadataCacheFile;
+		}
+
+		public void setSpringBootMetadataCacheFile(String springBootMetadataCacheFile) {
+			this.springBootMetadataCacheFile = springBootMetadataCacheFile;
+		}
+
 		public String getGoogleAnalyticsTrackingCode() {
 			return googleAnalyticsTrackingCode;
 		}
@@ -303,6 +327,11 @@ public class InitializrConfiguration {
 			return repositories;
 		}
 
+		@JsonIgnore
+		public Archive getArchive() {
+			return archive;
+		}
+
 		public Gradle getGradle() {
 			return gradle;
 		}
@@ -326,15 +355,18 @@ public class InitializrConfiguration {
 			maven.parent.validate();
 			boms.forEach((k, v) -> v.validate());
 			kotlin.validate();
+			archive.validate();
 		}
 
 		public void merge(Env other) {
 			artifactRepository = other.artifactRepository;
 			springBootMetadataUrl = other.springBootMetadataUrl;
+			springBootMetadataCacheFile = other.springBootMetadataCacheFile;
 			googleAnalyticsTrackingCode = other.googleAnalyticsTrackingCode;
 			fallbackApplicationName = other.fallbackApplicationName;
 			invalidApplicationNames = other.invalidApplicationNames;
 			forceSsl = other.forceSsl;
+			archive.merge(other.archive);
 			gradle.merge(other.gradle);
 			kotlin.merge(other.kotlin);
 			maven.merge(other.maven);
@@ -342,6 +374,130 @@ public class InitializrConfiguration {
 			other.repositories.forEach(repositories::putIfAbsent);
 		}
 
+		public static class Archive {
+
+			/**
+			 * Compression level of generated archives, from 0 (no compression) to 9
+			 * (best compression) or -1 for the default level.
+			 */
+			private int compressionLevel = -1;
+
+			/**
+			 * Size of the buffer used to compress generated archives, in bytes.
+			 */
+			private int bufferSize = 8192;
+
+			/**
+			 * Settings of the cache of generated archives.
+			 */
+			@NestedConfigurationProperty
+			private final Cache cache = new Cache();
+
+			public int getCompressionLevel() {
+				return compressionLevel;
+			}
+
+			public void setCompressionLevel(int compressionLevel) {
+				this.compressionLevel = compressionLevel;
+			}
+
+			public int getBufferSize() {
+				return bufferSize;
+			}
+
+			public void setBufferSize(int bufferSize) {
+				this.bufferSize = bufferSize;
+			}
+
+			public Cache getCache() {
+				return cache;
+			}
+
+			public void validate() {
+				if (compressionLevel < -1 || compressionLevel > 9) {
+					throw new InvalidInitializrMetadataException(
+							"Invalid archive compression level " + compressionLevel
+									+ ", must be between -1 and 9");
+				}
+				if (bufferSize <= 0) {
+					throw new InvalidInitializrMetadataException(
+							"Invalid archive buffer size " + bufferSize
+									+ ", must be positive");
+				}
+			}
+
+			private void merge(Archive other) {
+				compressionLevel = other.compressionLevel;
+				bufferSize = other.bufferSize;
+				cache.merge(other.cache);
+			}
+
+			public static class Cache {
+
+				/**
+				 * Whether generated archives should be cached.
+				 */
+				private boolean enabled = true;
+
+				/**
+				 * Maximum size of the archives kept in memory, in bytes.
+				 */
+				private long maxSize = 16 * 1024 * 1024;
+
+				/**
+				 * Directory in which archives evicted from memory are stored. If not
+				 * set, evicted archives are discarded.
+				 */
+				private String directory;
+
+				/**
+				 * Maximum size of the archives kept on disk, in bytes.
+				 */
+				private long maxDiskSize = 256 * 1024 * 1024;
+
+				public boolean isEnabled() {
+					return enabled;
+				}
+
+				public void setEnabled(boolean enabled) {
+					this.enabled = enabled;
+				}
+
+				public long getMaxSize() {
+					return maxSize;
+				}
+
+				public void setMaxSize(long maxSize) {
+					this.maxSize = maxSize;
+				}
+
+				public String getDirectory() {
+					return directory;
+				}
+
+				public void setDirectory(String directory) {
+					this.directory = directory;
+				}
+
+				public long getMaxDiskSize() {
+					return maxDiskSize;
+				}
+
+				public void setMaxDiskSize(long maxDiskSize) {
+					this.maxDiskSize = maxDiskSize;
+				}
+
+				private void merge(Cache other) {
+					enabled = other.enabled;
+					maxSize = other.maxSize;
+					directory = other.directory;
+					maxDiskSize = other.maxDiskSize;
+				}
+
+			}
+
+		}
+
 		public static class Gradle {
 
 			/**
@@ -374,7 +530,7 @@ public class InitializrConfiguration {
 			/**
 			 * Kotlin version mappings.
 			 */
-			private final List<Mapping> mappings = new ArrayList<>();
+			private final MappingList<Mapping> mappings = new MappingList<>();
 
 			/**
 			 * Resolve the kotlin version to use based on the Spring Boot version.
@@ -382,10 +538,9 @@ public class InitializrConfiguration {
 			 * @return the kotlin version to use
 			 */
 			public String resolveKotlinVersion(Version bootVersion) {
-				for (Mapping mapping : this.mappings) {
-					if (mapping.range.match(bootVersion)) {
-						return mapping.version;
-					}
+				Mapping mapping = findMapping(bootVersion);
+				if (mapping != null) {
+					return mapping.version;
 				}
 				if (defaultVersion == null) {
 					throw new InvalidInitializrMetadataException(
@@ -419,6 +574,7 @@ public class InitializrConfiguration {
 								"Version is mandatory, invalid version mapping for " + this);
 					}
 				});
+				mappings.updateIndex(it -> it.range);
 			}
 
 			public void updateVersionRange(VersionParser versionParser) {
@@ -431,12 +587,32 @@ public class InitializrConfiguration {
 								"Invalid version range " + it.versionRange + " for " + this, ex);
 					}
 				});
+				mappings.updateIndex(it -> it.range);
+			}
+
+			/**
+			 * Return the first mapping that matches the specified Spring Boot version, if any.
+			 */
+			private Mapping findMapping(Version bootVersion) {
+				VersionRangeIndex<Mapping> index = mappings.getIndex();
+				if (index != null) {
+					return index.get(bootVersion);
+				}
+				for (Mapping mapping : mappings) {
+					if (mapping.range.match(bootVersion)) {
+						return mapping;
+					}
+				}
+				return null;
+			}
+
+			VersionRangeIndex<Mapping> mappingIndex() {
+				return mappings.getIndex();
 			}
 
 			private void merge(Kotlin other) {
 				this.defaultVersion = other.defaultVersion;
-				this.mappings.clear();
-				this.mappings.addAll(other.mappings);
+				this.mappings.copy(other.mappings);
 			}
 
 			/**
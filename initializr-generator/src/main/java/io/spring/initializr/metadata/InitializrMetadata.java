@@ -19,11 +19,15 @@ package io.spring.initializr.metadata;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionProperty;
+import io.spring.initializr.util.VersionRangeIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Meta-data used to generate a project.
@@ -33,6 +37,8 @@ import io.spring.initializr.util.VersionProperty;
  */
 public class InitializrMetadata {
 
+	private static final Logger log = LoggerFactory.getLogger(InitializrMetadata.class);
+
 	private final InitializrConfiguration configuration;
 
 	private final DependenciesCapability dependencies = new DependenciesCapability();
@@ -67,6 +73,8 @@ public class InitializrMetadata {
 
 	private final TextCapability packageName = new PackageCapability(groupId, artifactId);
 
+	private volatile DependencyIndex dependencyIndex;
+
 	public InitializrMetadata() {
 		this(new InitializrConfiguration());
 	}
@@ -145,6 +153,7 @@ public class InitializrMetadata {
 		this.artifactId.merge(other.artifactId);
 		this.version.merge(other.version);
 		this.packageName.merge(other.packageName);
+		this.dependencyIndex = null;
 	}
 
 	/**
@@ -169,8 +178,12 @@ public class InitializrMetadata {
 						+ "defines an invalid repository id " + dependency.getRepository()
 						+ ", available repositories " + repositories);
 			}
+			validateMappings(dependency.mappingIndex(), Dependency.Mapping::getVersionRange,
+					"Dependency " + dependency);
 		}
 		for (BillOfMaterials bom : boms.values()) {
+			validateMappings(bom.mappingIndex(), BillOfMaterials.Mapping::getVersionRange,
+					bom.toString());
 			for (String r : bom.getRepositories()) {
 				if (!repositories.containsKey(r)) {
 					throw new InvalidInitializrMetadataException(
@@ -203,6 +216,8 @@ public class InitializrMetadata {
 				}
 			}
 		}
+		validateMappings(configuration.getEnv().getKotlin().mappingIndex(),
+				InitializrConfiguration.Env.Kotlin.Mapping::getVersionRange, "Kotlin");
 	}
 
 	/**
@@ -219,6 +234,20 @@ public class InitializrMetadata {
 		configuration.getEnv().getBoms().values()
 				.forEach(it -> it.updateVersionRange(parser));
 		configuration.getEnv().getKotlin().updateVersionRange(parser);
+		this.dependencyIndex = null;
+	}
+
+	/**
+	 * Return the {@link DependencyIndex} of this instance. The index is created on first
+	 * access and discarded when the Spring Boot versions are updated.
+	 */
+	public DependencyIndex dependencyIndex() {
+		DependencyIndex index = dependencyIndex;
+		if (index == null) {
+			index = new DependencyIndex(this);
+			this.dependencyIndex = index;
+		}
+		return index;
 	}
 
 	/**
@@ -262,6 +291,16 @@ public class InitializrMetadata {
 		return defaults;
 	}
 
+	private static <T> void validateMappings(VersionRangeIndex<T> index,
+			Function<T, String> versionRange, String owner) {
+		if (index != null && !index.getUnreachableElements().isEmpty()) {
+			log.warn(owner
+					+ " defines mappings that are never used as their version range is "
+					+ "covered by a previous mapping: " + index.getUnreachableElements()
+							.stream().map(versionRange).collect(Collectors.toList()));
+		}
+	}
+
 	private static String defaultId(Defaultable<? extends DefaultMetadataElement> element) {
 		DefaultMetadataElement defaultValue = element.getDefault();
 		return defaultValue != null ? defaultValue.getId() : null;
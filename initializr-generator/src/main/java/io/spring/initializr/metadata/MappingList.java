@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.spring.initializr.metadata;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+import io.spring.initializr.util.VersionRange;
+import io.spring.initializr.util.VersionRangeIndex;
+
+/**
+ * A list of version mappings that keeps a {@link VersionRangeIndex} of its elements.
+ * The index is built once the ranges of the mappings have been parsed and is discarded
+ * as soon as the list is modified so that lookups fall back to a scan of the mappings
+ * until their ranges are parsed again.
+ *
+ * @param <T> the type of the mappings
+ * @author agent
+ */
+final class MappingList<T> extends AbstractList<T> implements RandomAccess {
+
+	private final List<T> elements;
+
+	private volatile VersionRangeIndex<T> index;
+
+	MappingList() {
+		this.elements = new ArrayList<>();
+	}
+
+	MappingList(Collection<T> elements) {
+		this.elements = new ArrayList<>(elements);
+	}
+
+	/**
+	 * Replace the content of this instance by the mappings of the specified list,
+	 * reusing its index if it has one.
+	 * @param other the list to copy
+	 */
+	void copy(MappingList<T> other) {
+		elements.clear();
+		elements.addAll(other.elements);
+		index = other.index;
+	}
+
+	/**
+	 * Index the mappings using their current range.
+	 * @param rangeFunction the function that provides the range of a mapping
+	 */
+	void updateIndex(Function<T, VersionRange> rangeFunction) {
+		index = new VersionRangeIndex<>(new ArrayList<>(elements), rangeFunction);
+	}
+
+	/**
+	 * Return the index of the mappings or {@code null} if the list has been modified
+	 * since it was last indexed.
+	 * @return the index or {@code null}
+	 */
+	VersionRangeIndex<T> getIndex() {
+		return index;
+	}
+
+	@Override
+	public T get(int i) {
+		return elements.get(i);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public T set(int i, T element) {
+		index = null;
+		return elements.set(i, element);
+	}
+
+	@Override
+	public void add(int i, T element) {
+		index = null;
+		elements.add(i, element);
+		modCount++;
+	}
+
+	@Override
+	public T remove(int i) {
+		index = null;
+		T element = elements.remove(i);
+		modCount++;
+		return element;
+	}
+
+}
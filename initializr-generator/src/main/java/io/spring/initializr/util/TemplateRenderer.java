@@ -17,9 +17,16 @@
 package io.spring.initializr.util;
 
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import com.samskivert.mustache.Mustache;
@@ -40,11 +47,16 @@ public class TemplateRenderer {
 
 	private static final Logger log = LoggerFactory.getLogger(TemplateRenderer.class);
 
+	private static final Charset UTF_8 = StandardCharsets.UTF_8;
+
 	private boolean cache = true;
 
 	private final Compiler mustache;
 	private final ConcurrentMap<String, Template> templateCaches =
 			new ConcurrentReferenceHashMap<>();
+	private final ConcurrentMap<String, Template> preloadedTemplates =
+			new ConcurrentHashMap<>();
+	private final Map<String, Duration> compileTimes = new ConcurrentHashMap<>();
 
 	public TemplateRenderer(Compiler mustache) {
 		this.mustache = mustache;
@@ -73,13 +85,73 @@ public class TemplateRenderer {
 		}
 	}
 
+	/**
+	 * Render the template with the specified name to the specified
+	 * {@link OutputStream}, encoded in UTF-8. Contrary to
+	 * {@link #process(String, Map)}, the content is written as it is rendered rather
+	 * than being accumulated in a {@link String} first, which is best suited for large
+	 * destinations such as files. The stream is not closed.
+	 * @param name the name of the template
+	 * @param model the model to use
+	 * @param out the stream to write to
+	 */
+	public void process(String name, Map<String, ?> model, OutputStream out) {
+		try {
+			Template template = getTemplate(name);
+			Writer writer = new OutputStreamWriter(out, UTF_8);
+			template.execute(model, writer);
+			writer.flush();
+		}
+		catch (Exception e) {
+			log.error("Cannot render: " + name, e);
+			throw new IllegalStateException("Cannot render template", e);
+		}
+	}
+
+	/**
+	 * Render the template with the specified name as UTF-8 encoded bytes.
+	 * @param name the name of the template
+	 * @param model the model to use
+	 * @return the rendered content
+	 */
+	public byte[] processToBytes(String name, Map<String, ?> model) {
+		return process(name, model).getBytes(UTF_8);
+	}
+
 	public Template getTemplate(String name) {
 		if (cache) {
+			Template template = this.preloadedTemplates.get(name);
+			if (template != null) {
+				return template;
+			}
 			return this.templateCaches.computeIfAbsent(name, this::loadTemplate);
 		}
 		return loadTemplate(name);
 	}
 
+	/**
+	 * Compile the template with the specified name and keep it for the lifetime of
+	 * this instance. Contrary to templates that are compiled on first use, a preloaded
+	 * template is never evicted under memory pressure.
+	 * @param name the name of the template
+	 * @throws IllegalStateException if the template cannot be loaded or compiled
+	 */
+	public void preload(String name) {
+		long start = System.nanoTime();
+		Template template = loadTemplate(name);
+		this.compileTimes.put(name, Duration.ofNanos(System.nanoTime() - start));
+		this.preloadedTemplates.put(name, template);
+	}
+
+	/**
+	 * Return the time it took to compile each {@link #preload(String) preloaded}
+	 * template, indexed by template name.
+	 * @return the compile time of the preloaded templates
+	 */
+	public Map<String, Duration> getCompileTimes() {
+		return Collections.unmodifiableMap(this.compileTimes);
+	}
+
 	protected Template loadTemplate(String name) {
 		try {
 			Reader template;
@@ -34,7 +34,8 @@ import org.springframework.util.StringUtils;
  * {@code RELEASE} qualifier indicates a final release (a.k.a. GA)
  * <p>
  * The main purpose of parsing a version is to compare it with another
- * version, see {@link Comparable}.
+ * version, see {@link Comparable}. Versions that use a well-known qualifier
+ * are compared using a precomputed ordinal.
  *
  * @author Stephane Nicoll
  */
@@ -47,18 +48,35 @@ public final class Version implements Serializable, Comparable<Version> {
 	private static final VersionParser parser =
 			new VersionParser(Collections.emptyList());
 
-	private final Integer major;
-	private final Integer minor;
-	private final Integer patch;
+	private static final long UNORDERED = -1;
+
+	private final int major;
+	private final int minor;
+	private final int patch;
 	private final Qualifier qualifier;
 
+	private transient volatile long ordinal;
+
 	// For Jackson
 	@SuppressWarnings("unused")
 	private Version() {
-		this(null, null, null, null);
+		this(0, 0, 0, null);
 	}
 
+	/**
+	 * Create a new instance. A {@code null} major, minor or patch is equivalent to
+	 * {@code 0}.
+	 * @param major the major version
+	 * @param minor the minor version
+	 * @param patch the patch version
+	 * @param qualifier the qualifier or {@code null}
+	 */
 	public Version(Integer major, Integer minor, Integer patch, Qualifier qualifier) {
+		this(major != null ? major : 0, minor != null ? minor : 0,
+				patch != null ? patch : 0, qualifier);
+	}
+
+	Version(int major, int minor, int patch, Qualifier qualifier) {
 		this.major = major;
 		this.minor = minor;
 		this.patch = patch;
@@ -122,52 +140,85 @@ public final class Version implements Serializable, Comparable<Version> {
 		if (other == null) {
 			return 1;
 		}
-		int majorDiff = safeCompare(this.major, other.major);
+		long ordinal = getOrdinal();
+		long otherOrdinal = other.getOrdinal();
+		if (ordinal != UNORDERED && otherOrdinal != UNORDERED) {
+			return Long.compare(ordinal, otherOrdinal);
+		}
+		int majorDiff = Integer.compare(this.major, other.major);
 		if (majorDiff != 0) {
 			return majorDiff;
 		}
-		int minorDiff = safeCompare(this.minor, other.minor);
+		int minorDiff = Integer.compare(this.minor, other.minor);
 		if (minorDiff != 0) {
 			return minorDiff;
 		}
-		int patch = safeCompare(this.patch, other.patch);
+		int patch = Integer.compare(this.patch, other.patch);
 		if (patch != 0) {
 			return patch;
 		}
 		return qualifierComparator.compare(this.qualifier, other.qualifier);
 	}
 
-	private static int safeCompare(Integer first, Integer second) {
-		Integer firstIndex = first != null ? first : 0;
-		Integer secondIndex = second != null ? second : 0;
-		return firstIndex.compareTo(secondIndex);
+	/**
+	 * Return a number whose natural order is the order of this version, or
+	 * {@link #UNORDERED} if this version uses an unknown qualifier or a component that
+	 * is too large to be encoded. The ordinal is computed lazily as Jackson sets the
+	 * fields after the instance has been created.
+	 */
+	private long getOrdinal() {
+		long result = this.ordinal;
+		if (result == 0) {
+			result = computeOrdinal();
+			this.ordinal = result;
+		}
+		return result;
+	}
+
+	private long computeOrdinal() {
+		int qualifierIndex = VersionQualifierComparator.getQualifierIndex(
+				qualifier != null ? qualifier.qualifier
+						: VersionQualifierComparator.RELEASE);
+		int qualifierVersion = (qualifier != null && qualifier.version != null
+				? qualifier.version : 0);
+		if (qualifierIndex < 0 || !fits(major, 15) || !fits(minor, 12)
+				|| !fits(patch, 12) || !fits(qualifierVersion, 20)) {
+			return UNORDERED;
+		}
+		return (1L << 62) | ((long) major << 47) | ((long) minor << 35)
+				| ((long) patch << 23) | ((long) qualifierIndex << 20) | qualifierVersion;
 	}
 
+	private static boolean fits(int value, int bits) {
+		return value >= 0 && value < (1 << bits);
+	}
+
+	/**
+	 * The qualifier of a {@link Version}. Instances are immutable as parsed versions,
+	 * and therefore their qualifier, are shared.
+	 */
 	public static class Qualifier implements Serializable {
 
 		public Qualifier(String qualifier) {
+			this(qualifier, null);
+		}
+
+		public Qualifier(String qualifier, Integer version) {
 			this.qualifier = qualifier;
+			this.version = version;
 		}
 
-		private String qualifier;
-		private Integer version;
+		private final String qualifier;
+		private final Integer version;
 
 		public String getQualifier() {
 			return qualifier;
 		}
 
-		public void setQualifier(String qualifier) {
-			this.qualifier = qualifier;
-		}
-
 		public Integer getVersion() {
 			return version;
 		}
 
-		public void setVersion(Integer version) {
-			this.version = version;
-		}
-
 		@Override
 		public String toString() {
 			return "Qualifier ["
@@ -214,9 +265,9 @@ public final class Version implements Serializable, Comparable<Version> {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((major == null) ? 0 : major.hashCode());
-		result = prime * result + ((minor == null) ? 0 : minor.hashCode());
-		result = prime * result + ((patch == null) ? 0 : patch.hashCode());
+		result = prime * result + major;
+		result = prime * result + minor;
+		result = prime * result + patch;
 		result = prime * result + ((qualifier == null) ? 0 : qualifier.hashCode());
 		return result;
 	}
@@ -230,23 +281,7 @@ public final class Version implements Serializable, Comparable<Version> {
 		if (getClass() != obj.getClass())
 			return false;
 		Version other = (Version) obj;
-		if (major == null) {
-			if (other.major != null)
-				return false;
-		}
-		else if (!major.equals(other.major))
-			return false;
-		if (minor == null) {
-			if (other.minor != null)
-				return false;
-		}
-		else if (!minor.equals(other.minor))
-			return false;
-		if (patch == null) {
-			if (other.patch != null)
-				return false;
-		}
-		else if (!patch.equals(other.patch))
+		if (major != other.major || minor != other.minor || patch != other.patch)
 			return false;
 		if (qualifier == null) {
 			if (other.qualifier != null)
@@ -18,6 +18,8 @@ package io.spring.initializr.util;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -37,6 +39,9 @@ import org.springframework.util.StringUtils;
  * {@code 1.3.8.BUILD-SNAPSHOT} would be parsed as {@code 1.3.999.BUILD-SNAPSHOT} as the
  * parser doesn't know the latest {@code BUILD-SNAPSHOT} in the {@code 1.3.x} release
  * line.
+ * <p>
+ * Parsed versions are cached so that parsing the same text again returns the same
+ * instance. Equal versions are also shared across parsers.
  *
  * @author Stephane Nicoll
  */
@@ -44,14 +49,17 @@ public class VersionParser {
 
 	public static final VersionParser DEFAULT = new VersionParser(Collections.emptyList());
 
-	private static final Pattern VERSION_REGEX =
-			Pattern.compile("^(\\d+)\\.(\\d+|x)\\.(\\d+|x)(?:\\.([^0-9]+)(\\d+)?)?$");
+	private static final int CACHE_LIMIT = 1024;
+
+	private static final Map<Version, Version> canonicalVersions = new ConcurrentHashMap<>();
 
 	private static final Pattern RANGE_REGEX =
 			Pattern.compile("(\\(|\\[)(.*),(.*)(\\)|\\])");
 
 	private final List<Version> latestVersions;
 
+	private final Map<String, Version> cache = new ConcurrentHashMap<>();
+
 	public VersionParser(List<Version> latestVersions) {
 		this.latestVersions = latestVersions;
 	}
@@ -66,39 +74,12 @@ public class VersionParser {
 	 */
 	public Version parse(String text) {
 		Assert.notNull(text, "Text must not be null");
-		Matcher matcher = VERSION_REGEX.matcher(text.trim());
-		if (!matcher.matches()) {
-			throw new InvalidVersionException("Could not determine version based on '"
-					+ text + "': version format " + "is Minor.Major.Patch.Qualifier "
-					+ "(e.g. 1.0.5.RELEASE)");
-		}
-		Integer major = Integer.valueOf(matcher.group(1));
-		String minor = matcher.group(2);
-		String patch = matcher.group(3);
-		Qualifier qualifier = null;
-		String qualifierId = matcher.group(4);
-		if (StringUtils.hasText(qualifierId)) {
-			qualifier = new Version.Qualifier(qualifierId);
-			String o = matcher.group(5);
-			if (o != null) {
-				qualifier.setVersion(Integer.valueOf(o));
-			}
-		}
-		if ("x".equals(minor) || "x".equals(patch)) {
-			Integer minorInt = "x".equals(minor) ? null : Integer.parseInt(minor);
-			Version latest = findLatestVersion(major, minorInt, qualifier);
-			if (latest == null) {
-				return new Version(major, ("x".equals(minor) ? 999
-						: Integer.parseInt(minor)),
-						("x".equals(patch) ? 999 : Integer.parseInt(patch)), qualifier);
-			}
-			return new Version(major, latest.getMinor(), latest.getPatch(),
-					latest.getQualifier());
-		}
-		else {
-			return new Version(major, Integer.parseInt(minor), Integer.parseInt(patch),
-					qualifier);
+		Version version = cache.get(text);
+		if (version == null) {
+			version = intern(doParse(text));
+			put(cache, text, version);
 		}
+		return version;
 	}
 
 	/**
@@ -140,6 +121,73 @@ public class VersionParser {
 		return new VersionRange(lowerVersion, lowerInclusive, higherVersion, higherInclusive);
 	}
 
+	private Version doParse(String text) {
+		VersionScanner scanner = new VersionScanner(text.trim());
+		int major = scanner.readNumber();
+		if (major < 0 || !scanner.read('.')) {
+			throw invalidVersion(text);
+		}
+		int minor = scanner.readNumberOrWildcard();
+		if (minor == VersionScanner.INVALID || !scanner.read('.')) {
+			throw invalidVersion(text);
+		}
+		int patch = scanner.readNumberOrWildcard();
+		if (patch == VersionScanner.INVALID) {
+			throw invalidVersion(text);
+		}
+		Qualifier qualifier = null;
+		if (!scanner.isAtEnd()) {
+			if (!scanner.read('.')) {
+				throw invalidVersion(text);
+			}
+			String qualifierId = scanner.readQualifier();
+			if (qualifierId.isEmpty()) {
+				throw invalidVersion(text);
+			}
+			int qualifierVersion = (scanner.isAtEnd() ? VersionScanner.INVALID
+					: scanner.readNumber());
+			if (!scanner.isAtEnd()) {
+				throw invalidVersion(text);
+			}
+			if (StringUtils.hasText(qualifierId)) {
+				qualifier = new Version.Qualifier(qualifierId,
+						(qualifierVersion >= 0 ? qualifierVersion : null));
+			}
+		}
+		if (minor == VersionScanner.WILDCARD || patch == VersionScanner.WILDCARD) {
+			Integer minorInt = (minor == VersionScanner.WILDCARD ? null : minor);
+			Version latest = findLatestVersion(major, minorInt, qualifier);
+			if (latest == null) {
+				return new Version(major, (minor == VersionScanner.WILDCARD ? 999 : minor),
+						(patch == VersionScanner.WILDCARD ? 999 : patch), qualifier);
+			}
+			return latest;
+		}
+		return new Version(major, minor, patch, qualifier);
+	}
+
+	private static InvalidVersionException invalidVersion(String text) {
+		return new InvalidVersionException("Could not determine version based on '"
+				+ text + "': version format " + "is Minor.Major.Patch.Qualifier "
+				+ "(e.g. 1.0.5.RELEASE)");
+	}
+
+	private static Version intern(Version version) {
+		Version canonical = canonicalVersions.get(version);
+		if (canonical == null) {
+			put(canonicalVersions, version, version);
+			canonical = version;
+		}
+		return canonical;
+	}
+
+	private static <K> void put(Map<K, Version> cache, K key, Version version) {
+		if (cache.size() >= CACHE_LIMIT) {
+			cache.clear();
+		}
+		cache.putIfAbsent(key, version);
+	}
+
 	private Version findLatestVersion(Integer major, Integer minor,
 			Version.Qualifier qualifier) {
 		List<Version> matches = this.latestVersions.stream().filter(it -> {
@@ -157,4 +205,71 @@ public class VersionParser {
 		return (matches.size() == 1 ? matches.get(0) : null);
 	}
 
+	/**
+	 * A scanner for the components of a version.
+	 */
+	private static final class VersionScanner {
+
+		static final int INVALID = -1;
+
+		static final int WILDCARD = -2;
+
+		private final String text;
+
+		private int position;
+
+		VersionScanner(String text) {
+			this.text = text;
+		}
+
+		boolean isAtEnd() {
+			return position == text.length();
+		}
+
+		boolean read(char c) {
+			if (!isAtEnd() && text.charAt(position) == c) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Read a positive number or return {@link #INVALID} if there are no digits or if
+		 * the number is too large.
+		 */
+		int readNumber() {
+			int start = position;
+			long value = 0;
+			while (!isAtEnd() && isDigit(text.charAt(position))) {
+				value = value * 10 + (text.charAt(position) - '0');
+				if (value > Integer.MAX_VALUE) {
+					return INVALID;
+				}
+				position++;
+			}
+			return (position > start ? (int) value : INVALID);
+		}
+
+		int readNumberOrWildcard() {
+			if (read('x')) {
+				return (isAtEnd() || text.charAt(position) == '.' ? WILDCARD : INVALID);
+			}
+			return readNumber();
+		}
+
+		String readQualifier() {
+			int start = position;
+			while (!isAtEnd() && !isDigit(text.charAt(position))) {
+				position++;
+			}
+			return text.substring(start, position);
+		}
+
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
+		}
+
+	}
+
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Index a list of elements by {@link VersionRange}. The boundaries of the ranges
+ * partition the versions in disjoint segments: a segment is either a boundary or the
+ * versions between two consecutive boundaries. Each segment is mapped to the first
+ * element whose range contains it so that finding the element that matches a version
+ * is a binary search rather than a scan of every range.
+ *
+ * @param <T> the type of the indexed elements
+ * @author agent
+ */
+public final class VersionRangeIndex<T> {
+
+	private final int size;
+
+	private final Version[] boundaries;
+
+	private final Object[] segments;
+
+	private final List<T> unreachableElements = new ArrayList<>();
+
+	/**
+	 * Create a new index.
+	 * @param elements the elements to index, in order of precedence
+	 * @param rangeFunction the function that provides the range of an element
+	 */
+	public VersionRangeIndex(List<T> elements, Function<T, VersionRange> rangeFunction) {
+		this.size = elements.size();
+		TreeSet<Version> versions = new TreeSet<>();
+		for (T element : elements) {
+			VersionRange range = rangeFunction.apply(element);
+			versions.add(range.getLowerVersion());
+			if (range.getHigherVersion() != null) {
+				versions.add(range.getHigherVersion());
+			}
+		}
+		this.boundaries = versions.toArray(new Version[0]);
+		this.segments = new Object[boundaries.length * 2 + 1];
+		for (T element : elements) {
+			VersionRange range = rangeFunction.apply(element);
+			int start = segmentOf(range.getLowerVersion())
+					+ (range.isLowerInclusive() ? 0 : 1);
+			int end = (range.getHigherVersion() != null
+					? segmentOf(range.getHigherVersion())
+							- (range.isHigherInclusive() ? 0 : 1)
+					: segments.length - 1);
+			boolean reachable = false;
+			for (int i = start; i <= end; i++) {
+				if (segments[i] == null) {
+					segments[i] = element;
+					reachable = true;
+				}
+			}
+			if (!reachable) {
+				unreachableElements.add(element);
+			}
+		}
+	}
+
+	/**
+	 * Return the first element whose range contains the specified version.
+	 * @param version the version
+	 * @return the matching element or {@code null} if no range contains that version
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(Version version) {
+		return (T) segments[segmentOf(version)];
+	}
+
+	/**
+	 * Return the number of indexed elements.
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Return the elements that never match as the versions of their range are all
+	 * matched by elements that have a higher precedence.
+	 * @return the unreachable elements
+	 */
+	public List<T> getUnreachableElements() {
+		return Collections.unmodifiableList(unreachableElements);
+	}
+
+	/**
+	 * Return the segment of the specified version. Odd numbers identify the boundaries
+	 * and even numbers the versions in between.
+	 */
+	private int segmentOf(Version version) {
+		int index = Arrays.binarySearch(boundaries, version);
+		return (index >= 0 ? index * 2 + 1 : (-index - 1) * 2);
+	}
+
+}
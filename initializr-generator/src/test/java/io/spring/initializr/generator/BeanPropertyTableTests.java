@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.beans.PropertyDescriptor;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.springframework.beans.BeanWrapperImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BeanPropertyTable}.
+ *
+ * @author agent
+ */
+public class BeanPropertyTableTests {
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void tableIsSharedPerType() {
+		assertThat(BeanPropertyTable.forType(ProjectRequest.class))
+				.isSameAs(BeanPropertyTable.forType(ProjectRequest.class));
+	}
+
+	@Test
+	public void copyToMatchesBeanWrapper() {
+		ProjectRequest request = new ProjectRequest();
+		request.setGroupId("org.acme");
+		request.setArtifactId("demo");
+		request.setBootVersion("2.0.0.RELEASE");
+		request.getFacets().add("web");
+		Map<String, Object> model = new LinkedHashMap<>();
+		BeanPropertyTable.forType(ProjectRequest.class).copyTo(request, model);
+
+		Map<String, Object> expected = new LinkedHashMap<>();
+		BeanWrapperImpl wrapper = new BeanWrapperImpl(request);
+		for (PropertyDescriptor descriptor : wrapper.getPropertyDescriptors()) {
+			if (wrapper.isReadableProperty(descriptor.getName())) {
+				expected.put(descriptor.getName(),
+						wrapper.getPropertyValue(descriptor.getName()));
+			}
+		}
+		assertThat(model).isEqualTo(expected);
+		assertThat(model.keySet()).containsExactlyElementsOf(expected.keySet());
+		assertThat(model.get("packageName")).isEqualTo("org.acme.demo");
+	}
+
+	@Test
+	public void setPropertyValue() {
+		ProjectRequest request = new ProjectRequest();
+		BeanPropertyTable table = BeanPropertyTable.forType(ProjectRequest.class);
+		assertThat(table.isWritableProperty("groupId")).isTrue();
+		table.setPropertyValue(request, "groupId", "org.acme");
+		assertThat(request.getGroupId()).isEqualTo("org.acme");
+	}
+
+	@Test
+	public void readOnlyPropertyIsNotWritable() {
+		BeanPropertyTable table = BeanPropertyTable.forType(ProjectRequest.class);
+		assertThat(table.isWritableProperty("boms")).isFalse();
+		thrown.expect(IllegalArgumentException.class);
+		thrown.expectMessage("boms");
+		table.setPropertyValue(new ProjectRequest(), "boms", null);
+	}
+
+	@Test
+	public void setPropertyValueWithIncompatibleType() {
+		thrown.expect(IllegalArgumentException.class);
+		thrown.expectMessage("groupId");
+		BeanPropertyTable.forType(ProjectRequest.class)
+				.setPropertyValue(new ProjectRequest(), "groupId", 42);
+	}
+
+}
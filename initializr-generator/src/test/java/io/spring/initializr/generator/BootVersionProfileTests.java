@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import io.spring.initializr.util.Version;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BootVersionProfile}.
+ *
+ * @author agent
+ */
+public class BootVersionProfileTests {
+
+	@Test
+	public void springBoot1() {
+		BootVersionProfile profile = BootVersionProfile
+				.of(Version.parse("1.5.10.RELEASE"));
+		assertThat(profile.isKotlinSupport()).isFalse();
+		assertThat(profile.isSpringBootApplicationAvailable()).isTrue();
+		assertThat(profile.isBootOneThreeAvailable()).isTrue();
+		assertThat(profile.isBootTwoZeroAvailable()).isFalse();
+		assertThat(profile.getSpringBootPluginName())
+				.isEqualTo("org.springframework.boot");
+		assertThat(profile.isNewTestInfrastructure()).isTrue();
+		assertThat(profile.getServletInitializerClass()).isEqualTo(
+				"org.springframework.boot.web.support.SpringBootServletInitializer");
+		assertThat(profile.getGradleWrapper()).isEqualTo("gradle3");
+	}
+
+	@Test
+	public void springBoot2() {
+		BootVersionProfile profile = BootVersionProfile
+				.of(Version.parse("2.0.0.RELEASE"));
+		assertThat(profile.isKotlinSupport()).isTrue();
+		assertThat(profile.isBootTwoZeroAvailable()).isTrue();
+		assertThat(profile.getServletInitializerClass()).isEqualTo(
+				"org.springframework.boot.web.servlet.support.SpringBootServletInitializer");
+		assertThat(profile.getGradleWrapper()).isEqualTo("gradle4");
+	}
+
+	@Test
+	public void legacySpringBoot() {
+		BootVersionProfile profile = BootVersionProfile
+				.of(Version.parse("1.1.9.RELEASE"));
+		assertThat(profile.isSpringBootApplicationAvailable()).isFalse();
+		assertThat(profile.isBootOneThreeAvailable()).isFalse();
+		assertThat(profile.getSpringBootPluginName()).isEqualTo("spring-boot");
+		assertThat(profile.isNewTestInfrastructure()).isFalse();
+		assertThat(profile.getServletInitializerClass()).isEqualTo(
+				"org.springframework.boot.context.web.SpringBootServletInitializer");
+		assertThat(profile.getGradleWrapper()).isEqualTo("gradle");
+	}
+
+	@Test
+	public void unknownVersion() {
+		BootVersionProfile profile = BootVersionProfile.of(null);
+		assertThat(profile.getBootVersion()).isNull();
+		assertThat(profile.isKotlinSupport()).isFalse();
+		assertThat(profile.getGradleWrapper()).isEqualTo("gradle");
+	}
+
+}
@@ -17,6 +17,8 @@
 package io.spring.initializr.generator;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Map;
 
 import io.spring.initializr.test.generator.ProjectAssert;
@@ -26,6 +28,7 @@ import org.mockito.Mockito;
 
 import org.springframework.core.io.ClassPathResource;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -78,9 +81,44 @@ public class CustomProjectGeneratorTests extends AbstractProjectGeneratorTests {
 	}
 
 
+	@Test
+	public void generateProjectTreeWithCustomResource() {
+		ProjectRequest request = createProjectRequest();
+		request.setType("maven-project");
+		request.setGroupId("com.example.custom");
+		ProjectTree tree = projectGenerator.generateProjectTree(request);
+		assertThat(new String(tree.getEntry("custom.txt").getContent()))
+				.contains("42");
+		assertThat(tree.getEntry("mvnw").getMode())
+				.isEqualTo(ProjectWriter.EXECUTABLE_FILE_MODE);
+		verifyProjectSuccessfulEventFor(request);
+	}
+
+	@Test
+	public void generateProjectTreeWithCustomGitIgnore() {
+		ProjectRequest request = createProjectRequest();
+		request.setType("gradle-project");
+		ProjectTree tree = projectGenerator.generateProjectTree(request);
+		assertThat(new String(tree.getEntry(".gitignore").getContent()))
+				.isEqualTo("custom-ignore\n");
+	}
+
+
+	@SuppressWarnings("deprecation")
 	private static class MyProjectGenerator extends ProjectGenerator {
 		private Runnable customFileGenerated = mock(Runnable.class);
 
+		@Override
+		protected void generateGitIgnore(File dir, ProjectRequest request) {
+			try {
+				Files.write(new File(dir, ".gitignore").toPath(),
+						"custom-ignore\n".getBytes());
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
 		@Override
 		protected File generateProjectStructure(ProjectRequest request,
 				Map<String, Object> model) {
@@ -16,7 +16,11 @@
 
 package io.spring.initializr.generator;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import io.spring.initializr.metadata.BillOfMaterials;
 import io.spring.initializr.metadata.Dependency;
@@ -36,6 +40,11 @@ import org.springframework.core.io.ClassPathResource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 /**
  * Tests for {@link ProjectGenerator}
@@ -48,6 +57,86 @@ public class ProjectGeneratorTests extends AbstractProjectGeneratorTests {
 	@Rule
 	public final ExpectedException thrown = ExpectedException.none();
 
+	@Test
+	public void warmUpDoesNotPublishEvents() {
+		projectGenerator.warmUp();
+		verifyZeroInteractions(eventPublisher);
+	}
+
+	@Test
+	public void warmUpDoesNotRecordPhases() {
+		ProjectGenerationTimer timer = mock(ProjectGenerationTimer.class);
+		projectGenerator.setTimer(timer);
+		projectGenerator.warmUp();
+		verifyZeroInteractions(timer);
+	}
+
+	@Test
+	public void mavenPomIsReusedForSameInputs() {
+		ProjectRequest request = createProjectRequest("web");
+		request.setType("maven-build");
+		byte[] content = projectGenerator.generateMavenPom(request);
+		ProjectRequest another = createProjectRequest("web");
+		another.setType("maven-build");
+		assertThat(projectGenerator.generateMavenPom(another)).isSameAs(content);
+		assertThat(another.getResolvedDependencies())
+				.isEqualTo(request.getResolvedDependencies());
+		assertThat(another.getBuild()).isEqualTo("maven");
+		verify(eventPublisher, times(2))
+				.publishEvent(any(ProjectGeneratedEvent.class));
+	}
+
+	@Test
+	public void gradleBuildIsNotReusedForDifferentInputs() {
+		ProjectRequest request = createProjectRequest("web");
+		request.setType("gradle-build");
+		byte[] content = projectGenerator.generateGradleBuild(request);
+		ProjectRequest another = createProjectRequest("web");
+		another.setType("gradle-build");
+		another.setArtifactId("another");
+		assertThat(projectGenerator.generateGradleBuild(another)).isNotSameAs(content);
+	}
+
+	@Test
+	public void buildFileIsNotReusedWhenMetadataChanges() {
+		ProjectRequest request = createProjectRequest("web");
+		request.setType("maven-build");
+		byte[] content = projectGenerator.generateMavenPom(request);
+		applyMetadata(InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("web", "web").build());
+		ProjectRequest another = createProjectRequest("web");
+		another.setType("maven-build");
+		assertThat(projectGenerator.generateMavenPom(another)).isNotSameAs(content);
+	}
+
+	@Test
+	public void buildFileIsNotReusedWithCacheDisabled() {
+		projectGenerator.setBuildFileCacheSize(0);
+		ProjectRequest request = createProjectRequest("web");
+		request.setType("maven-build");
+		byte[] content = projectGenerator.generateMavenPom(request);
+		ProjectRequest another = createProjectRequest("web");
+		another.setType("maven-build");
+		assertThat(projectGenerator.generateMavenPom(another)).isNotSameAs(content)
+				.isEqualTo(content);
+	}
+
+	@Test
+	public void generationPhasesAreRecorded() {
+		List<String> phases = new ArrayList<>();
+		projectGenerator.setTimer((phase, qualifier, request, durationNanos) -> {
+			assertThat(request.getBuild()).isEqualTo("gradle");
+			assertThat(durationNanos).isGreaterThanOrEqualTo(0);
+			phases.add(phase.getId() + (qualifier != null ? ":" + qualifier : ""));
+		});
+		ProjectRequest request = createProjectRequest("web");
+		request.setType("gradle-project");
+		projectGenerator.generateProjectTree(request);
+		assertThat(phases).containsSubsequence("post_process", "resolve", "metadata",
+				"model", "render:starter-build.gradle", "resources",
+				"render:Application.java");
+	}
+
 	@Test
 	public void defaultMavenPom() {
 		ProjectRequest request = createProjectRequest("web");
@@ -70,6 +159,33 @@ public class ProjectGeneratorTests extends AbstractProjectGeneratorTests {
 		verifyProjectSuccessfulEventFor(request);
 	}
 
+	@Test
+	public void defaultProjectTree() {
+		ProjectRequest request = createProjectRequest("web");
+		request.setBaseDir("demo");
+		ProjectTree tree = projectGenerator.generateProjectTree(request);
+		assertThat(tree.getEntry("demo/pom.xml").getMode())
+				.isEqualTo(ProjectWriter.FILE_MODE);
+		assertThat(tree.getEntry("demo/mvnw").getMode())
+				.isEqualTo(ProjectWriter.EXECUTABLE_FILE_MODE);
+		assertThat(tree.getEntry("demo/.mvn/wrapper/maven-wrapper.jar").getContent())
+				.isNotEmpty();
+		assertThat(tree.getEntry("demo/src/main/resources/static").isDirectory())
+				.isTrue();
+		verifyProjectSuccessfulEventFor(request);
+	}
+
+	@Test
+	public void cleanTempFiles() throws IOException {
+		ProjectRequest request = createProjectRequest("web");
+		File dir = projectGenerator.generateProjectStructure(request);
+		File download = projectGenerator.createDistributionFile(dir, ".zip");
+		assertThat(download.createNewFile()).isTrue();
+		projectGenerator.cleanTempFiles(dir);
+		assertThat(dir).doesNotExist();
+		assertThat(download).doesNotExist();
+	}
+
 	@Test
 	public void noDependencyAddsRootStarter() {
 		ProjectRequest request = createProjectRequest();
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.samskivert.mustache.Mustache;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectModel}.
+ *
+ * @author agent
+ */
+public class ProjectModelTests {
+
+	@Test
+	public void lazyValueIsComputedOnce() {
+		AtomicInteger counter = new AtomicInteger();
+		ProjectModel model = new ProjectModel();
+		model.putLazy("test", counter::incrementAndGet);
+		assertThat(counter.get()).isEqualTo(0);
+		assertThat(model.containsKey("test")).isTrue();
+		assertThat(counter.get()).isEqualTo(0);
+		assertThat(model.get("test")).isEqualTo(1);
+		assertThat(model.get("test")).isEqualTo(1);
+		assertThat(counter.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void putOverridesLazyValue() {
+		AtomicInteger counter = new AtomicInteger();
+		ProjectModel model = new ProjectModel();
+		model.putLazy("test", counter::incrementAndGet);
+		assertThat(model.put("test", 42)).isEqualTo(1);
+		assertThat(model.get("test")).isEqualTo(42);
+	}
+
+	@Test
+	public void entrySetResolvesLazyValues() {
+		ProjectModel model = new ProjectModel();
+		model.put("first", "one");
+		model.putLazy("second", () -> "two");
+		assertThat(model).containsExactly(entry("first", "one"),
+				entry("second", "two"));
+	}
+
+	@Test
+	public void unusedLazyValueIsNotComputedWhenRendering() {
+		AtomicInteger counter = new AtomicInteger();
+		ProjectModel model = new ProjectModel();
+		model.put("name", "demo");
+		model.putLazy("unused", counter::incrementAndGet);
+		model.putLazy("dependencies", () -> Arrays.asList("web", "jpa"));
+		String content = Mustache.compiler()
+				.compile("{{name}}:{{#dependencies}} {{.}}{{/dependencies}}")
+				.execute(model);
+		assertThat(content).isEqualTo("demo: web jpa");
+		assertThat(counter.get()).isEqualTo(0);
+	}
+
+	private static Map.Entry<String, Object> entry(String key, Object value) {
+		return new AbstractMap.SimpleEntry<>(key, value);
+	}
+
+}
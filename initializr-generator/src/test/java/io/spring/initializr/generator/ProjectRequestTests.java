@@ -322,6 +322,25 @@ public class ProjectRequestTests {
 		assertEquals(additionalBom, request.getBoms().get("bar-bom"));
 	}
 
+	@Test
+	public void resolveIgnoresUnsupportedBomOfUnusedDependency() {
+		Dependency dependency = Dependency.withId("foo");
+		Dependency another = Dependency.withId("bar");
+		another.setBom("bar-bom");
+		BillOfMaterials bom = BillOfMaterials.create("com.example", "bar-bom");
+		bom.getMappings().add(BillOfMaterials.Mapping
+				.create("[1.0.0.RELEASE,1.1.0.RELEASE)", "1.0.0"));
+		metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addBom("bar-bom", bom).addDependencyGroup("test", dependency, another)
+				.build();
+		ProjectRequest request = initProjectRequest();
+		request.setBootVersion("1.2.0.RELEASE");
+		request.getStyle().add("foo");
+		request.resolve(metadata);
+		assertEquals(1, (request.getResolvedDependencies().size()));
+		assertEquals(0, request.getBoms().size());
+	}
+
 	@Test
 	public void resolveAdditionalBomsDuplicates() {
 		Dependency dependency = Dependency.withId("foo");
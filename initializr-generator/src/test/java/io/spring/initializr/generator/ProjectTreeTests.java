@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectTree}.
+ *
+ * @author agent
+ */
+public class ProjectTreeTests {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void entriesAreOrdered() {
+		ProjectTree tree = new ProjectTree().addFile("pom.xml", new byte[0], 0644)
+				.addDirectory("src/").addFile("mvnw", new byte[0], 0755);
+		assertThat(tree.getEntries()).extracting(ProjectTree.Entry::getPath)
+				.containsExactly("pom.xml", "src", "mvnw");
+	}
+
+	@Test
+	public void directoryIsLookedUpWithOrWithoutTrailingSlash() {
+		ProjectTree tree = new ProjectTree().addDirectory("src/main");
+		assertThat(tree.getEntry("src/main").isDirectory()).isTrue();
+		assertThat(tree.getEntry("src/main/").getMode())
+				.isEqualTo(ProjectWriter.DIRECTORY_MODE);
+		assertThat(tree.getEntry("src/main").getContent()).isNull();
+	}
+
+	@Test
+	public void contentIsSuppliedLazily() {
+		AtomicInteger counter = new AtomicInteger();
+		ProjectTree tree = new ProjectTree().addFile("test.txt", () -> {
+			counter.incrementAndGet();
+			return new byte[] { 42 };
+		}, ProjectWriter.FILE_MODE);
+		assertThat(counter.get()).isEqualTo(0);
+		assertThat(tree.getEntry("test.txt").getContent()).containsExactly(42);
+		assertThat(counter.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void writeToDirectory() throws IOException {
+		File root = folder.newFolder();
+		new ProjectTree().addFile("demo/mvnw", "#!/bin/sh".getBytes("UTF-8"),
+				ProjectWriter.EXECUTABLE_FILE_MODE)
+				.addDirectory("demo/src/main/resources/static")
+				.writeTo(new DirectoryProjectWriter(root));
+		assertThat(new File(root, "demo/mvnw")).hasContent("#!/bin/sh");
+		assertThat(new File(root, "demo/mvnw").canExecute()).isTrue();
+		assertThat(new File(root, "demo/src/main/resources/static")).isDirectory();
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TemporaryFileManager}.
+ *
+ * @author agent
+ */
+public class TemporaryFileManagerTests {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	private final TemporaryFileManager manager = new TemporaryFileManager();
+
+	@Test
+	public void closeHandleDeletesFiles() throws IOException {
+		File dir = temporaryFolder.newFolder();
+		Files.write(new File(dir, "test.txt").toPath(), new byte[] { 1, 2, 3 });
+		File file = temporaryFolder.newFile();
+		TemporaryFileManager.Handle handle = manager.create("test");
+		handle.add(dir);
+		handle.add(file);
+		assertThat(manager.getHandleCount()).isEqualTo(1);
+		assertThat(manager.getFileCount()).isEqualTo(2);
+		assertThat(manager.getSize()).isEqualTo(3);
+		handle.close();
+		assertThat(dir).doesNotExist();
+		assertThat(file).doesNotExist();
+		assertThat(manager.get("test")).isNull();
+		assertThat(manager.getHandleCount()).isEqualTo(0);
+		assertThat(manager.getFileCount()).isEqualTo(0);
+		assertThat(manager.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void updateHandleMeasuresNewContent() throws IOException {
+		File dir = temporaryFolder.newFolder();
+		TemporaryFileManager.Handle handle = manager.create("test");
+		handle.add(dir);
+		Files.write(new File(dir, "test.txt").toPath(), new byte[] { 1, 2, 3 });
+		assertThat(manager.getFileCount()).isEqualTo(0);
+		assertThat(manager.getSize()).isEqualTo(0);
+		handle.update();
+		assertThat(manager.getFileCount()).isEqualTo(1);
+		assertThat(manager.getSize()).isEqualTo(3);
+		handle.close();
+		handle.update();
+		assertThat(manager.getFileCount()).isEqualTo(0);
+		assertThat(manager.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void releaseUnknownHandle() {
+		manager.release("does-not-exist");
+		assertThat(manager.getHandleCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void createWithSameId() {
+		manager.create("test");
+		thrown.expect(IllegalStateException.class);
+		thrown.expectMessage("test");
+		manager.create("test");
+	}
+
+	@Test
+	public void sweepKeepsRecentHandles() throws IOException {
+		File file = temporaryFolder.newFile();
+		manager.create("test").add(file);
+		assertThat(manager.sweep()).isEqualTo(0);
+		assertThat(file).exists();
+	}
+
+	@Test
+	public void sweepDeletesOrphanedHandles() throws Exception {
+		TemporaryFileManager manager = new TemporaryFileManager(Duration.ZERO);
+		File file = temporaryFolder.newFile();
+		manager.create("test").add(file);
+		Thread.sleep(5);
+		assertThat(manager.sweep()).isEqualTo(1);
+		assertThat(file).doesNotExist();
+		assertThat(manager.getSweptCount()).isEqualTo(1);
+		assertThat(manager.get("test")).isNull();
+	}
+
+	@Test
+	public void sweepDeletesOldUntrackedEntries() throws IOException {
+		File directory = temporaryFolder.newFolder();
+		manager.addDirectory(directory);
+		File old = new File(directory, "old");
+		assertThat(old.mkdirs()).isTrue();
+		Files.write(new File(old, "test.txt").toPath(), new byte[] { 1, 2, 3 });
+		assertThat(old.setLastModified(System.currentTimeMillis()
+				- Duration.ofHours(2).toMillis())).isTrue();
+		File oldTracked = new File(directory, "old-tracked");
+		assertThat(oldTracked.createNewFile()).isTrue();
+		manager.create("test").add(oldTracked);
+		assertThat(oldTracked.setLastModified(System.currentTimeMillis()
+				- Duration.ofHours(2).toMillis())).isTrue();
+		File recent = new File(directory, "recent");
+		assertThat(recent.createNewFile()).isTrue();
+		assertThat(manager.sweep()).isEqualTo(1);
+		assertThat(old).doesNotExist();
+		assertThat(oldTracked).exists();
+		assertThat(recent).exists();
+		assertThat(manager.getSweptCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void sweepMeasuresRecentHandles() throws IOException {
+		File file = new File(temporaryFolder.getRoot(), "test.zip");
+		manager.create("test").add(file);
+		assertThat(manager.getSize()).isEqualTo(0);
+		Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+		assertThat(manager.sweep()).isEqualTo(0);
+		assertThat(manager.getFileCount()).isEqualTo(1);
+		assertThat(manager.getSize()).isEqualTo(3);
+	}
+
+	@Test
+	public void concurrentHandles() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				String id = "handle-" + i;
+				futures.add(executor.submit(() -> {
+					TemporaryFileManager.Handle handle = manager.create(id);
+					handle.add(new File(temporaryFolder.getRoot(), id));
+					manager.release(id);
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(manager.getHandleCount()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.metadata;
+
+import java.util.Collections;
+
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.util.Version;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DependencyIndex}.
+ *
+ * @author agent
+ */
+public class DependencyIndexTests {
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void compatibleDependencies() {
+		Dependency first = Dependency.withId("first", "org.foo", "first");
+		first.setVersionRange("1.1.4.RELEASE");
+		Dependency second = Dependency.withId("second", "org.foo", "second");
+		Dependency third = Dependency.withId("third", "org.foo", "third");
+		third.setVersionRange("1.1.8.RELEASE");
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", first, second, third).build();
+		DependencyIndex.Entry entry = metadata.dependencyIndex()
+				.get(Version.parse("1.1.5.RELEASE"));
+		assertThat(entry.getCompatibleDependencies()).containsOnlyKeys("first",
+				"second");
+		assertThat(entry.getCompatibleDependencyGroups().get("test"))
+				.containsExactly(first, second);
+		assertThat(entry.getResolvedDependency("third")).isSameAs(third);
+		assertThat(entry.getResolvedDependency("unknown")).isNull();
+	}
+
+	@Test
+	public void sameEntryForVersionsOfTheSameInterval() {
+		Dependency first = Dependency.withId("first", "org.foo", "first");
+		first.setVersionRange("[1.1.0.RELEASE,1.2.0.RELEASE)");
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", first).build();
+		DependencyIndex index = metadata.dependencyIndex();
+		assertThat(index.getIntervalCount()).isEqualTo(5);
+		assertThat(index.get(Version.parse("1.1.2.RELEASE")))
+				.isSameAs(index.get(Version.parse("1.1.7.RELEASE")));
+		assertThat(index.get(Version.parse("1.1.0.RELEASE")))
+				.isNotSameAs(index.get(Version.parse("1.1.2.RELEASE")));
+		assertThat(index.get(Version.parse("1.2.0.RELEASE")))
+				.isNotSameAs(index.get(Version.parse("1.1.2.RELEASE")));
+		assertThat(index.get(Version.parse("1.2.0.RELEASE")).getCompatibleDependencies())
+				.isEmpty();
+		assertThat(index.get(Version.parse("1.1.0.RELEASE")).getCompatibleDependencies())
+				.containsOnlyKeys("first");
+	}
+
+	@Test
+	public void resolveDependencyMappings() {
+		Dependency first = Dependency.withId("first", "org.foo", "first");
+		first.getMappings().add(Dependency.Mapping.create(
+				"[1.0.0.RELEASE, 1.1.0.RELEASE)", "org.bar", "second", "0.1.0.RELEASE"));
+		first.getMappings().add(Dependency.Mapping.create("1.1.0.RELEASE", "org.biz",
+				"third", "0.2.0.RELEASE"));
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", first).build();
+		DependencyIndex index = metadata.dependencyIndex();
+		Dependency resolved = index.get(Version.parse("1.0.5.RELEASE"))
+				.getResolvedDependency("first");
+		assertThat(resolved.getGroupId()).isEqualTo("org.bar");
+		assertThat(resolved.getVersion()).isEqualTo("0.1.0.RELEASE");
+		Dependency another = index.get(Version.parse("1.1.5.RELEASE"))
+				.getResolvedDependency("first");
+		assertThat(another.getGroupId()).isEqualTo("org.biz");
+		assertThat(another.getVersion()).isEqualTo("0.2.0.RELEASE");
+	}
+
+	@Test
+	public void bomsAndRepositories() {
+		Dependency first = Dependency.withId("first", "org.foo", "first");
+		first.setBom("bom-foo");
+		Dependency second = Dependency.withId("second", "org.foo", "second");
+		second.setRepository("repo-bar");
+		BillOfMaterials bom = BillOfMaterials.create("org.foo", "bom");
+		bom.getMappings().add(BillOfMaterials.Mapping
+				.create("[1.0.0.RELEASE, 1.1.0.RELEASE)", "2.0.0.RELEASE"));
+		bom.getMappings().add(BillOfMaterials.Mapping.create("1.1.0.RELEASE",
+				"3.0.0.RELEASE", "repo-foo"));
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addBom("bom-foo", bom)
+				.addRepository("repo-foo", "foo", "http://localhost", false)
+				.addRepository("repo-bar", "bar", "http://localhost", false)
+				.addDependencyGroup("test", first, second).build();
+		DependencyIndex index = metadata.dependencyIndex();
+		DependencyIndex.Entry entry = index.get(Version.parse("1.0.5.RELEASE"));
+		assertThat(entry.getBoms().get("bom-foo").getVersion())
+				.isEqualTo("2.0.0.RELEASE");
+		assertThat(entry.getRepositories()).containsOnlyKeys("repo-bar");
+		DependencyIndex.Entry another = index.get(Version.parse("1.1.5.RELEASE"));
+		assertThat(another.getBoms().get("bom-foo").getVersion())
+				.isEqualTo("3.0.0.RELEASE");
+		assertThat(another.getRepositories()).containsOnlyKeys("repo-bar", "repo-foo");
+	}
+
+	@Test
+	public void bomWithNoMatchingMapping() {
+		Dependency first = Dependency.withId("first", "org.foo", "first");
+		first.setBom("bom-foo");
+		BillOfMaterials bom = BillOfMaterials.create("org.foo", "bom");
+		bom.getMappings().add(BillOfMaterials.Mapping
+				.create("[1.0.0.RELEASE, 1.1.0.RELEASE)", "2.0.0.RELEASE"));
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addBom("bom-foo", bom).addDependencyGroup("test", first).build();
+		DependencyIndex.Entry entry = metadata.dependencyIndex()
+				.get(Version.parse("1.2.0.RELEASE"));
+		assertThat(entry.getResolvedDependency("first")).isNotNull();
+		thrown.expect(IllegalStateException.class);
+		thrown.expectMessage("No suitable mapping");
+		entry.getBoms();
+	}
+
+	@Test
+	public void indexIsResetWhenBootVersionsAreUpdated() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", "first").build();
+		DependencyIndex index = metadata.dependencyIndex();
+		assertThat(metadata.dependencyIndex()).isSameAs(index);
+		DefaultMetadataElement version = new DefaultMetadataElement("1.5.0.RELEASE",
+				true);
+		metadata.updateSpringBootVersions(Collections.singletonList(version));
+		assertThat(metadata.dependencyIndex()).isNotSameAs(index);
+	}
+
+}
@@ -201,6 +201,24 @@ public class DependencyTests {
 				"org.springframework.boot", "spring-boot-starter-web", "0.3.0.RELEASE"); // default
 	}
 
+	@Test
+	public void resolveAfterMappingsAreReordered() {
+		Dependency dependency = Dependency.withId("web", null, null, "0.3.0.RELEASE");
+		Dependency.Mapping first = Dependency.Mapping
+				.create("[1.1.0.RELEASE, 1.3.0.RELEASE)", null, null, "0.1.0.RELEASE");
+		Dependency.Mapping second = Dependency.Mapping
+				.create("[1.2.0.RELEASE, 1.3.0.RELEASE)", null, null, "0.2.0.RELEASE");
+		dependency.getMappings().add(first);
+		dependency.getMappings().add(second);
+		dependency.resolve();
+		assertEquals("0.1.0.RELEASE",
+				dependency.resolve(Version.parse("1.2.0.RELEASE")).getVersion());
+		dependency.getMappings().set(0, second);
+		dependency.getMappings().set(1, first);
+		assertEquals("0.2.0.RELEASE",
+				dependency.resolve(Version.parse("1.2.0.RELEASE")).getVersion());
+	}
+
 	@Test
 	public void resolveMatchArtifactMapping() {
 		Dependency dependency = Dependency.withId("web", null, null, "0.3.0.RELEASE");
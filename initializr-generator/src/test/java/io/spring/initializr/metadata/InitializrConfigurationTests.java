@@ -16,9 +16,12 @@
 
 package io.spring.initializr.metadata;
 
+import io.spring.initializr.metadata.InitializrConfiguration.Env.Archive;
 import io.spring.initializr.metadata.InitializrConfiguration.Env.Kotlin;
 import io.spring.initializr.util.Version;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -30,6 +33,9 @@ import static org.junit.Assert.assertEquals;
  */
 public class InitializrConfigurationTests {
 
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
 	private final InitializrConfiguration properties = new InitializrConfiguration();
 
 	@Test
@@ -187,6 +193,24 @@ public class InitializrConfigurationTests {
 				.isEqualTo("1.2.3");
 	}
 
+	@Test
+	public void validateArchiveWithInvalidCompressionLevel() {
+		Archive archive = this.properties.getEnv().getArchive();
+		archive.setCompressionLevel(10);
+		thrown.expect(InvalidInitializrMetadataException.class);
+		thrown.expectMessage("compression level 10");
+		archive.validate();
+	}
+
+	@Test
+	public void validateArchiveWithInvalidBufferSize() {
+		Archive archive = this.properties.getEnv().getArchive();
+		archive.setBufferSize(0);
+		thrown.expect(InvalidInitializrMetadataException.class);
+		thrown.expectMessage("buffer size 0");
+		archive.validate();
+	}
+
 	private Kotlin.Mapping createKotlinVersionMapping(String versionRange,
 			String kotlinVersion){
 		Kotlin.Mapping mapping = new Kotlin.Mapping();
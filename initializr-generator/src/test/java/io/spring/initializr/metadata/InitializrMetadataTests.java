@@ -162,6 +162,48 @@ public class InitializrMetadataTests {
 		builder.build();
 	}
 
+	@Test
+	public void bomUnreachableMappingIsNeverUsed() {
+		BillOfMaterials bom = BillOfMaterials.create("org.acme", "foo-bom");
+		bom.getMappings().add(Mapping.create("1.2.0.RELEASE", "1.0.0"));
+		bom.getMappings().add(Mapping.create("[1.3.0.RELEASE,1.4.0.RELEASE)", "1.1.0"));
+
+		InitializrMetadataTestBuilder.withDefaults().addBom("foo-bom", bom).build();
+		assertThat(bom.resolve(Version.parse("1.3.5.RELEASE")).getVersion())
+				.isEqualTo("1.0.0");
+	}
+
+	@Test
+	public void dependencyUnreachableMappingIsNeverUsed() {
+		Dependency foo = Dependency.withId("foo", "org.acme", "foo");
+		foo.getMappings().add(Dependency.Mapping.create(
+				"[1.2.0.RELEASE,1.4.0.RELEASE)", null, null, "1.0.0"));
+		foo.getMappings().add(Dependency.Mapping.create(
+				"[1.2.0.RELEASE,1.3.0.RELEASE]", null, null, "1.1.0"));
+
+		InitializrMetadataTestBuilder.withDefaults().addDependencyGroup("test", foo)
+				.build();
+		assertThat(foo.resolve(Version.parse("1.2.5.RELEASE")).getVersion())
+				.isEqualTo("1.0.0");
+	}
+
+	@Test
+	public void overlappingMappingsUseFirstMatch() {
+		Dependency foo = Dependency.withId("foo", "org.acme", "foo");
+		foo.getMappings().add(Dependency.Mapping.create(
+				"[1.2.0.RELEASE,1.4.0.RELEASE)", null, null, "1.0.0"));
+		foo.getMappings().add(Dependency.Mapping.create(
+				"1.3.0.RELEASE", null, null, "1.1.0"));
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", foo).build();
+		assertThat(foo.resolve(Version.parse("1.3.5.RELEASE")).getVersion())
+				.isEqualTo("1.0.0");
+		assertThat(foo.resolve(Version.parse("1.4.0.RELEASE")).getVersion())
+				.isEqualTo("1.1.0");
+		assertThat(foo.resolve(Version.parse("1.1.0.RELEASE"))).isSameAs(foo);
+		assertThat(metadata.getDependencies().get("foo")).isSameAs(foo);
+	}
+
 	@Test
 	public void updateSpringBootVersions() {
 		BillOfMaterials bom = BillOfMaterials.create("org.acme", "foo-bom");
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import com.samskivert.mustache.Mustache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TemplateRenderer}.
+ *
+ * @author agent
+ */
+public class TemplateRendererTests {
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	private final TemplateRenderer renderer = new TemplateRenderer();
+
+	@Test
+	public void processToBytesUsesUtf8() {
+		Map<String, Object> model = Collections.singletonMap("build", "gradle");
+		byte[] content = renderer.processToBytes("gitignore.tmpl", model);
+		assertThat(content).isEqualTo(renderer.process("gitignore.tmpl", model)
+				.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void processToOutputStreamEncodesNonAsciiCharacters() {
+		TemplateRenderer renderer = new TemplateRenderer(Mustache.compiler()
+				.withLoader(name -> new StringReader("<name>{{name}}</name>")));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.process("test", Collections.singletonMap("name", "Démo für Spring"),
+				out);
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8))
+				.isEqualTo("<name>Démo für Spring</name>");
+	}
+
+	@Test
+	public void preloadedTemplateIsUsed() {
+		renderer.preload("gitignore.tmpl");
+		assertThat(renderer.getTemplate("gitignore.tmpl"))
+				.isSameAs(renderer.getTemplate("gitignore.tmpl"));
+		assertThat(renderer.getCompileTimes()).containsOnlyKeys("gitignore.tmpl");
+	}
+
+	@Test
+	public void preloadUnknownTemplate() {
+		thrown.expect(IllegalStateException.class);
+		thrown.expectMessage("does-not-exist.txt");
+		renderer.preload("does-not-exist.txt");
+	}
+
+	@Test
+	public void processToBytesWithUnknownTemplate() {
+		thrown.expect(IllegalStateException.class);
+		renderer.processToBytes("does-not-exist.txt", Collections.emptyMap());
+	}
+
+}
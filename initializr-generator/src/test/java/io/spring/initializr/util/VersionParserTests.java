@@ -27,6 +27,7 @@ import org.junit.rules.ExpectedException;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertNull;
 
 /**
@@ -70,6 +71,24 @@ public class VersionParserTests {
 		assertNull(parser.safeParse("foo"));
 	}
 
+	@Test
+	public void parseInvalidVersionFormats() {
+		for (String text : Arrays.asList("1", "1.2", "1.2.", "1.2.0.", "1.2.0RELEASE",
+				"1.2.0.RC1a", "1.2.0.123", "1.xx.0", "1.2.x0", "x.2.0",
+				"99999999999.2.0", "1.2.0.RC99999999999")) {
+			assertNull(text, parser.safeParse(text));
+		}
+	}
+
+	@Test
+	public void parseCachedVersion() {
+		Version version = parser.parse("1.2.0.RELEASE");
+		assertThat(parser.parse("1.2.0.RELEASE"), sameInstance(version));
+		assertThat(parser.parse(" 1.2.0.RELEASE "), sameInstance(version));
+		assertThat(new VersionParser(Collections.emptyList()).parse("1.2.0.RELEASE"),
+				sameInstance(version));
+	}
+
 	@Test
 	public void parseVersionWithSpaces() {
 		assertThat(parser.parse("    1.2.0.RC3  "),
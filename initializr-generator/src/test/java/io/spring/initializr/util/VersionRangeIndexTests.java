@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link VersionRangeIndex}.
+ *
+ * @author agent
+ */
+public class VersionRangeIndexTests {
+
+	private static final VersionParser parser = new VersionParser(
+			Collections.emptyList());
+
+	@Test
+	public void emptyIndex() {
+		VersionRangeIndex<String> index = createIndex();
+		assertThat(index.get(Version.parse("1.0.0.RELEASE"))).isNull();
+		assertThat(index.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void inclusiveAndExclusiveBoundaries() {
+		VersionRangeIndex<String> index = createIndex("[1.0.0.RELEASE,1.1.0.RELEASE)",
+				"(1.1.0.RELEASE,1.2.0.RELEASE]");
+		assertThat(index.get(Version.parse("0.9.0.RELEASE"))).isNull();
+		assertThat(index.get(Version.parse("1.0.0.RELEASE")))
+				.isEqualTo("[1.0.0.RELEASE,1.1.0.RELEASE)");
+		assertThat(index.get(Version.parse("1.0.5.RELEASE")))
+				.isEqualTo("[1.0.0.RELEASE,1.1.0.RELEASE)");
+		assertThat(index.get(Version.parse("1.1.0.RELEASE"))).isNull();
+		assertThat(index.get(Version.parse("1.1.0.BUILD-SNAPSHOT")))
+				.isEqualTo("[1.0.0.RELEASE,1.1.0.RELEASE)");
+		assertThat(index.get(Version.parse("1.1.1.RELEASE")))
+				.isEqualTo("(1.1.0.RELEASE,1.2.0.RELEASE]");
+		assertThat(index.get(Version.parse("1.2.0.RELEASE")))
+				.isEqualTo("(1.1.0.RELEASE,1.2.0.RELEASE]");
+		assertThat(index.get(Version.parse("1.2.1.RELEASE"))).isNull();
+	}
+
+	@Test
+	public void unboundedRange() {
+		VersionRangeIndex<String> index = createIndex("[1.0.0.RELEASE,1.1.0.RELEASE)",
+				"1.1.0.RELEASE");
+		assertThat(index.get(Version.parse("1.1.0.RELEASE"))).isEqualTo("1.1.0.RELEASE");
+		assertThat(index.get(Version.parse("9.0.0.RELEASE"))).isEqualTo("1.1.0.RELEASE");
+		assertThat(index.getUnreachableElements()).isEmpty();
+	}
+
+	@Test
+	public void firstMatchWins() {
+		VersionRangeIndex<String> index = createIndex("[1.0.0.RELEASE,1.2.0.RELEASE)",
+				"1.1.0.RELEASE");
+		assertThat(index.get(Version.parse("1.1.5.RELEASE")))
+				.isEqualTo("[1.0.0.RELEASE,1.2.0.RELEASE)");
+		assertThat(index.get(Version.parse("1.2.0.RELEASE"))).isEqualTo("1.1.0.RELEASE");
+		assertThat(index.getUnreachableElements()).isEmpty();
+	}
+
+	@Test
+	public void unreachableElements() {
+		VersionRangeIndex<String> index = createIndex("1.0.0.RELEASE",
+				"[1.0.0.RELEASE,1.1.0.RELEASE]", "[1.2.0.RELEASE,1.1.0.RELEASE]");
+		assertThat(index.getUnreachableElements()).containsExactly(
+				"[1.0.0.RELEASE,1.1.0.RELEASE]", "[1.2.0.RELEASE,1.1.0.RELEASE]");
+	}
+
+	@Test
+	public void matchesVersionRange() {
+		List<String> ranges = Arrays.asList("[1.0.0.M1,1.0.0.RELEASE)",
+				"[1.0.0.RELEASE,1.0.5.RELEASE]", "(1.0.5.RELEASE,1.1.0.RC1)",
+				"1.1.0.RC1");
+		VersionRangeIndex<String> index = createIndex(ranges.toArray(new String[0]));
+		for (String candidate : Arrays.asList("0.9.0.RELEASE", "1.0.0.M1",
+				"1.0.0.RC2", "1.0.0.RELEASE", "1.0.5.RELEASE", "1.0.6.BUILD-SNAPSHOT",
+				"1.1.0.M2", "1.1.0.RC1", "2.0.0.RELEASE")) {
+			Version version = Version.parse(candidate);
+			String expected = ranges.stream()
+					.filter(it -> parser.parseRange(it).match(version)).findFirst()
+					.orElse(null);
+			assertThat(index.get(version)).as(candidate).isEqualTo(expected);
+		}
+	}
+
+	private static VersionRangeIndex<String> createIndex(String... ranges) {
+		return new VersionRangeIndex<>(Arrays.asList(ranges), parser::parseRange);
+	}
+
+}
@@ -127,6 +127,24 @@ public class VersionTests {
 		assertThat(parse("1.2.0.BUILD-SNAPSHOT"), lessThan(parse("1.2.0.RELEASE")));
 	}
 
+	@Test
+	public void compareUnknownQualifierWithKnownQualifier() {
+		assertThat(parse("1.2.0.Beta2"), lessThan(parse("1.2.0.M1")));
+		assertThat(parse("1.2.1.Beta2"), greaterThan(parse("1.2.0.RELEASE")));
+	}
+
+	@Test
+	public void compareLargeVersion() {
+		assertThat(parse("100000.0.0.RELEASE"), greaterThan(parse("1.2.0.RELEASE")));
+		assertThat(parse("1.2.0.RELEASE"), lessThan(parse("1.5000.0.RELEASE")));
+		assertThat(parse("1.2.0.RC5000000"), greaterThan(parse("1.2.0.RC2")));
+	}
+
+	@Test
+	public void compareNoQualifierWithRelease() {
+		assertThat(parse("1.2.0"), comparesEqualTo(parse("1.2.0.RELEASE")));
+	}
+
 	private static Version parse(String text) {
 		return parser.parse(text);
 	}
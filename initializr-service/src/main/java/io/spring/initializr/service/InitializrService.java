@@ -16,8 +16,6 @@
 
 package io.spring.initializr.service;
 
-import java.util.concurrent.Executor;
-
 import javax.servlet.Filter;
 
 import io.spring.initializr.metadata.InitializrMetadataProvider;
@@ -33,10 +31,6 @@ import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactor
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.AsyncConfigurerSupport;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.resource.ResourceUrlProvider;
 
 /**
@@ -60,22 +54,6 @@ public class InitializrService {
 		return new LegacyStsController(metadataProvider, resourceUrlProvider);
 	}
 
-	@Configuration
-	@EnableAsync
-	static class AsyncConfiguration extends AsyncConfigurerSupport {
-
-		@Override
-		public Executor getAsyncExecutor() {
-			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-			executor.setCorePoolSize(1);
-			executor.setMaxPoolSize(5);
-			executor.setThreadNamePrefix("initializr-");
-			executor.initialize();
-			return executor;
-		}
-
-	}
-
 	@Bean
 	public Filter hstsFilter() {
 		return new HttpHeaderSecurityFilter();
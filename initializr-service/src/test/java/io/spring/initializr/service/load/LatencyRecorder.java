@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.service.load;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.spring.initializr.service.load.RequestMix.Endpoint;
+
+/**
+ * Record the latencies of the requests sent by a single client thread. Recorders are not
+ * thread-safe, each client thread is expected to use its own and to
+ * {@link #merge(LatencyRecorder) merge} it once the run has completed.
+ *
+ * @author agent
+ */
+class LatencyRecorder {
+
+	private final Map<Endpoint, Latencies> latencies = new EnumMap<>(Endpoint.class);
+
+	/**
+	 * Record the outcome of a request.
+	 * @param endpoint the endpoint that was invoked
+	 * @param nanos the latency of the request, in nanoseconds
+	 * @param success whether the request succeeded
+	 */
+	void record(Endpoint endpoint, long nanos, boolean success) {
+		Latencies target = latencies.computeIfAbsent(endpoint, (e) -> new Latencies());
+		if (success) {
+			target.add(nanos);
+		}
+		else {
+			target.errors++;
+		}
+	}
+
+	/**
+	 * Merge the latencies recorded by the specified recorder into this instance.
+	 * @param other the recorder to merge
+	 */
+	void merge(LatencyRecorder other) {
+		other.latencies.forEach((endpoint, source) -> {
+			Latencies target = latencies.computeIfAbsent(endpoint,
+					(e) -> new Latencies());
+			for (int i = 0; i < source.count; i++) {
+				target.add(source.values[i]);
+			}
+			target.errors += source.errors;
+		});
+	}
+
+	/**
+	 * Return the total number of requests, including the ones that failed.
+	 * @return the number of requests
+	 */
+	long getRequestCount() {
+		return latencies.values().stream().mapToLong((l) -> l.count + l.errors).sum();
+	}
+
+	/**
+	 * Return a summary of the recorded latencies, both in total and per endpoint.
+	 * @param elapsedSeconds the duration of the measurement, in seconds
+	 * @return a summary suitable for serialization
+	 */
+	Map<String, Object> summarize(double elapsedSeconds) {
+		Latencies total = new Latencies();
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		latencies.forEach((endpoint, source) -> {
+			for (int i = 0; i < source.count; i++) {
+				total.add(source.values[i]);
+			}
+			total.errors += source.errors;
+			endpoints.put(endpoint.getPath(), source.summarize(elapsedSeconds));
+		});
+		Map<String, Object> summary = total.summarize(elapsedSeconds);
+		summary.put("endpoints", endpoints);
+		return summary;
+	}
+
+	private static final class Latencies {
+
+		private long[] values = new long[1024];
+
+		private int count;
+
+		private long errors;
+
+		void add(long nanos) {
+			if (count == values.length) {
+				values = Arrays.copyOf(values, count * 2);
+			}
+			values[count++] = nanos;
+		}
+
+		Map<String, Object> summarize(double elapsedSeconds) {
+			long[] sorted = Arrays.copyOf(values, count);
+			Arrays.sort(sorted);
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("requests", count + errors);
+			summary.put("errors", errors);
+			summary.put("throughput", round((count + errors) / elapsedSeconds));
+			Map<String, Object> latency = new LinkedHashMap<>();
+			latency.put("p50", percentile(sorted, 0.50));
+			latency.put("p99", percentile(sorted, 0.99));
+			latency.put("p999", percentile(sorted, 0.999));
+			latency.put("max", (sorted.length > 0 ? millis(sorted[sorted.length - 1]) : 0));
+			summary.put("latencyMs", latency);
+			return summary;
+		}
+
+		private static double percentile(long[] sorted, double percentile) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile * sorted.length) - 1;
+			return millis(sorted[Math.max(0, index)]);
+		}
+
+		private static double millis(long nanos) {
+			return round(nanos / 1_000_000d);
+		}
+
+	}
+
+	static double round(double value) {
+		return Math.round(value * 1000) / 1000d;
+	}
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.service.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.service.InitializrService;
+import io.spring.initializr.service.load.RequestMix.LoadRequest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A load generator for {@link InitializrService}. Boot the service on a random port and
+ * replay a {@link RequestMix weighted mix} of requests from a fixed number of client
+ * threads, then print a JSON summary of the run.
+ * <p>
+ * The run is configured with the following system properties:
+ * <ul>
+ * <li>{@code initializr.load.duration}: the duration of the measurement (default
+ * {@code 60s})</li>
+ * <li>{@code initializr.load.warmup}: the duration of the warmup, during which the
+ * requests are not recorded (default {@code 15s})</li>
+ * <li>{@code initializr.load.concurrency}: the number of client threads (default
+ * {@code 16})</li>
+ * <li>{@code initializr.load.seed}: the seed of the request mix so that two runs with
+ * the same seed send the same sequence of requests per client (default {@code 42})</li>
+ * <li>{@code initializr.load.output}: a file to write the summary to, in addition to the
+ * standard output</li>
+ * </ul>
+ * Any argument is passed to the service, e.g. {@code --logging.level.root=WARN}.
+ * <p>
+ * The allocation rate only accounts for the threads of the service: the memory
+ * allocated by the client threads is excluded.
+ *
+ * @author agent
+ */
+public final class LoadTestHarness {
+
+	private static final String PREFIX = "initializr.load.";
+
+	private final String baseUrl;
+
+	private final RequestMix requestMix;
+
+	private final Duration warmup;
+
+	private final Duration duration;
+
+	private final int concurrency;
+
+	private final long seed;
+
+	LoadTestHarness(String baseUrl, RequestMix requestMix, Duration warmup,
+			Duration duration, int concurrency, long seed) {
+		this.baseUrl = baseUrl;
+		this.requestMix = requestMix;
+		this.warmup = warmup;
+		this.duration = duration;
+		this.concurrency = concurrency;
+		this.seed = seed;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Duration duration = Duration.parse("PT"
+				+ System.getProperty(PREFIX + "duration", "60s").toUpperCase());
+		Duration warmup = Duration.parse("PT"
+				+ System.getProperty(PREFIX + "warmup", "15s").toUpperCase());
+		int concurrency = Integer.getInteger(PREFIX + "concurrency", 16);
+		long seed = Long.getLong(PREFIX + "seed", 42L);
+		String output = System.getProperty(PREFIX + "output");
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				InitializrService.class)
+						.properties("server.port=0",
+								"server.tomcat.protocol-header=X-Forwarded-Proto")
+						.run(args)) {
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			InitializrMetadata metadata = context
+					.getBean(InitializrMetadataProvider.class).get();
+			LoadTestHarness harness = new LoadTestHarness("http://localhost:" + port,
+					new RequestMix(metadata), warmup, duration, concurrency, seed);
+			Map<String, Object> summary = harness.run();
+			ObjectMapper objectMapper = new ObjectMapper()
+					.enable(SerializationFeature.INDENT_OUTPUT);
+			System.out.println(objectMapper.writeValueAsString(summary));
+			if (output != null) {
+				objectMapper.writeValue(new File(output), summary);
+			}
+		}
+	}
+
+	/**
+	 * Run the load test.
+	 * @return a summary of the run
+	 * @throws Exception if the run failed
+	 */
+	Map<String, Object> run() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		Set<Long> clientThreads = new HashSet<>();
+		CountDownLatch started = new CountDownLatch(concurrency);
+		long measurementStart = System.nanoTime() + warmup.toNanos();
+		long end = measurementStart + duration.toNanos();
+		List<Future<LatencyRecorder>> clients = new ArrayList<>();
+		for (int i = 0; i < concurrency; i++) {
+			Random random = new Random(seed + i);
+			clients.add(executor.submit(() -> {
+				synchronized (clientThreads) {
+					clientThreads.add(Thread.currentThread().getId());
+				}
+				started.countDown();
+				return replay(random, measurementStart, end);
+			}));
+		}
+		started.await();
+		sleepUntil(measurementStart);
+		ResourceUsage before = ResourceUsage.sample(clientThreads);
+		sleepUntil(end);
+		ResourceUsage after = ResourceUsage.sample(clientThreads);
+		LatencyRecorder recorder = new LatencyRecorder();
+		for (Future<LatencyRecorder> client : clients) {
+			recorder.merge(client.get());
+		}
+		executor.shutdown();
+		executor.awaitTermination(30, TimeUnit.SECONDS);
+		double elapsedSeconds = duration.toNanos() / 1_000_000_000d;
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("seed", seed);
+		summary.put("concurrency", concurrency);
+		summary.put("warmupSeconds", warmup.getSeconds());
+		summary.put("durationSeconds", duration.getSeconds());
+		summary.putAll(recorder.summarize(elapsedSeconds));
+		summary.put("memory", after.summarize(before, elapsedSeconds,
+				recorder.getRequestCount()));
+		return summary;
+	}
+
+	private LatencyRecorder replay(Random random, long measurementStart, long end) {
+		LatencyRecorder recorder = new LatencyRecorder();
+		byte[] buffer = new byte[8192];
+		long now = System.nanoTime();
+		while (now < end) {
+			LoadRequest request = requestMix.next(random);
+			boolean success = send(request, buffer);
+			long completed = System.nanoTime();
+			if (now >= measurementStart && completed <= end) {
+				recorder.record(request.getEndpoint(), completed - now, success);
+			}
+			now = completed;
+		}
+		return recorder;
+	}
+
+	private boolean send(LoadRequest request, byte[] buffer) {
+		try {
+			HttpURLConnection connection = (HttpURLConnection) new URL(
+					baseUrl + request.getPathAndQuery()).openConnection();
+			connection.setInstanceFollowRedirects(false);
+			connection.setRequestProperty("Accept", request.getAccept());
+			connection.setRequestProperty("User-Agent", request.getUserAgent());
+			connection.setRequestProperty("X-Forwarded-Proto", "https");
+			int status = connection.getResponseCode();
+			// Drain the body so that the connection can be reused
+			try (InputStream in = (status < 400 ? connection.getInputStream()
+					: connection.getErrorStream())) {
+				if (in != null) {
+					while (in.read(buffer) != -1) {
+						// Discard
+					}
+				}
+			}
+			return status == 200;
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private static void sleepUntil(long nanoTime) throws InterruptedException {
+		long remaining = nanoTime - System.nanoTime();
+		if (remaining > 0) {
+			TimeUnit.NANOSECONDS.sleep(remaining);
+		}
+	}
+
+	/**
+	 * A sample of the memory allocated by the threads of the service and of the work of
+	 * the garbage collectors.
+	 */
+	private static final class ResourceUsage {
+
+		private final long allocatedBytes;
+
+		private final long gcCount;
+
+		private final long gcTimeMillis;
+
+		private ResourceUsage(long allocatedBytes, long gcCount, long gcTimeMillis) {
+			this.allocatedBytes = allocatedBytes;
+			this.gcCount = gcCount;
+			this.gcTimeMillis = gcTimeMillis;
+		}
+
+		static ResourceUsage sample(Set<Long> excludedThreads) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+					.getThreadMXBean();
+			long allocatedBytes = 0;
+			for (long id : threads.getAllThreadIds()) {
+				if (!excludedThreads.contains(id)) {
+					allocatedBytes += Math.max(0, threads.getThreadAllocatedBytes(id));
+				}
+			}
+			long gcCount = 0;
+			long gcTimeMillis = 0;
+			for (GarbageCollectorMXBean gc : ManagementFactory
+					.getGarbageCollectorMXBeans()) {
+				gcCount += Math.max(0, gc.getCollectionCount());
+				gcTimeMillis += Math.max(0, gc.getCollectionTime());
+			}
+			return new ResourceUsage(allocatedBytes, gcCount, gcTimeMillis);
+		}
+
+		Map<String, Object> summarize(ResourceUsage before, double elapsedSeconds,
+				long requests) {
+			long allocated = Math.max(0, allocatedBytes - before.allocatedBytes);
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("allocatedBytes", allocated);
+			summary.put("allocationRateBytesPerSecond",
+					LatencyRecorder.round(allocated / elapsedSeconds));
+			summary.put("allocatedBytesPerRequest",
+					(requests > 0 ? allocated / requests : 0));
+			summary.put("gcCount", gcCount - before.gcCount);
+			summary.put("gcTimeMillis", gcTimeMillis - before.gcTimeMillis);
+			return summary;
+		}
+
+	}
+
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.service.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.DependencyIndex;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.util.Agent.AgentId;
+import io.spring.initializr.util.Version;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * A weighted mix of the requests that the service receives. Requests are drawn from a
+ * {@link Random} so that the same seed always produces the same sequence of requests.
+ * <p>
+ * Each request targets an {@link Endpoint} and is sent with the user agent of one of
+ * the {@link AgentId known agents}. Projects and build files use a combination of
+ * dependencies that are compatible with the requested Spring Boot version, according
+ * to the metadata of the service, and whose bom can be resolved for that version.
+ *
+ * @author agent
+ */
+class RequestMix {
+
+	private static final String JSON_METADATA = "application/vnd.initializr.v2.1+json";
+
+	private final List<Weighted<Endpoint>> endpoints;
+
+	private final List<Weighted<AgentId>> agents;
+
+	private final String defaultBootVersion;
+
+	private final List<String> bootVersions;
+
+	private final List<String> languages;
+
+	private final Map<String, List<String>> dependencies;
+
+	private final List<String> dependenciesBootVersions;
+
+	RequestMix(InitializrMetadata metadata) {
+		this(metadata, defaultEndpointWeights(), defaultAgentWeights());
+	}
+
+	RequestMix(InitializrMetadata metadata, Map<Endpoint, Integer> endpointWeights,
+			Map<AgentId, Integer> agentWeights) {
+		this.endpoints = weighted(endpointWeights);
+		this.agents = weighted(agentWeights);
+		this.defaultBootVersion = metadata.getBootVersions().getDefault().getId();
+		this.bootVersions = ids(metadata.getBootVersions().getContent());
+		this.languages = ids(metadata.getLanguages().getContent());
+		this.dependencies = new LinkedHashMap<>();
+		this.dependenciesBootVersions = new ArrayList<>();
+		for (String bootVersion : this.bootVersions) {
+			DependencyIndex.Entry entry = metadata.dependencyIndex()
+					.get(Version.parse(bootVersion));
+			List<String> ids = new ArrayList<>();
+			entry.getCompatibleDependencies().forEach((id, dependency) -> {
+				if (isBomSupported(entry, dependency)) {
+					ids.add(id);
+				}
+			});
+			Collections.sort(ids);
+			this.dependencies.put(bootVersion, ids);
+			if (ids.size() == entry.getCompatibleDependencies().size()) {
+				this.dependenciesBootVersions.add(bootVersion);
+			}
+		}
+		if (this.dependenciesBootVersions.isEmpty()) {
+			this.dependenciesBootVersions.add(this.defaultBootVersion);
+		}
+	}
+
+	/**
+	 * Whether the bom of the specified dependency, if any, can be resolved. Requests
+	 * that would fail because of an incomplete configuration are not sent so that
+	 * errors only account for actual failures of the service.
+	 */
+	private static boolean isBomSupported(DependencyIndex.Entry entry,
+			Dependency dependency) {
+		if (dependency.getBom() == null) {
+			return true;
+		}
+		try {
+			entry.getBom(dependency.getBom());
+			return true;
+		}
+		catch (IllegalStateException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Return the default weight of each endpoint, roughly matching the traffic of the
+	 * production service.
+	 * @return the weight of each endpoint
+	 */
+	static Map<Endpoint, Integer> defaultEndpointWeights() {
+		Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+		weights.put(Endpoint.STARTER_ZIP, 40);
+		weights.put(Endpoint.STARTER_TGZ, 5);
+		weights.put(Endpoint.POM, 8);
+		weights.put(Endpoint.GRADLE_BUILD, 7);
+		weights.put(Endpoint.HOME, 20);
+		weights.put(Endpoint.DEPENDENCIES, 5);
+		weights.put(Endpoint.UI_DEPENDENCIES, 15);
+		return weights;
+	}
+
+	/**
+	 * Return the default weight of each agent.
+	 * @return the weight of each agent
+	 */
+	static Map<AgentId, Integer> defaultAgentWeights() {
+		Map<AgentId, Integer> weights = new EnumMap<>(AgentId.class);
+		for (AgentId id : AgentId.values()) {
+			weights.put(id, defaultWeight(id));
+		}
+		return weights;
+	}
+
+	private static int defaultWeight(AgentId id) {
+		switch (id) {
+			case BROWSER:
+				return 50;
+			case INTELLIJ_IDEA:
+				return 15;
+			case CURL:
+			case STS:
+				return 10;
+			case VSCODE:
+				return 5;
+			case SPRING_BOOT_CLI:
+				return 4;
+			case HTTPIE:
+				return 3;
+			case NETBEANS:
+				return 2;
+			default:
+				return 1;
+		}
+	}
+
+	/**
+	 * Draw the next request.
+	 * @param random the source of randomness
+	 * @return a request
+	 */
+	LoadRequest next(Random random) {
+		Endpoint endpoint = pick(endpoints, random);
+		AgentId agent = pick(agents, random);
+		String userAgent = userAgent(agent);
+		switch (endpoint) {
+			case HOME:
+				return new LoadRequest(endpoint, "/", homeAccept(agent), userAgent);
+			case DEPENDENCIES:
+				return new LoadRequest(endpoint,
+						"/dependencies?bootVersion="
+								+ any(dependenciesBootVersions, random),
+						JSON_METADATA, userAgent);
+			case UI_DEPENDENCIES:
+				String version = (random.nextInt(4) == 0 ? ""
+						: "?version=" + any(bootVersions, random));
+				return new LoadRequest(endpoint, "/ui/dependencies" + version,
+						"application/json", userAgent);
+			default:
+				return new LoadRequest(endpoint,
+						endpoint.path + "?" + projectParameters(random), "*/*",
+						userAgent);
+		}
+	}
+
+	private String projectParameters(Random random) {
+		StringBuilder sb = new StringBuilder();
+		String bootVersion = defaultBootVersion;
+		if (random.nextInt(5) == 0) {
+			bootVersion = any(bootVersions, random);
+			sb.append("bootVersion=").append(bootVersion).append('&');
+		}
+		if (random.nextInt(5) == 0) {
+			sb.append("language=").append(any(languages, random)).append('&');
+		}
+		List<String> candidates = dependencies.get(bootVersion);
+		int count = Math.min(candidates.size(), dependencyCount(random));
+		List<String> selected = new ArrayList<>();
+		while (selected.size() < count) {
+			String id = any(candidates, random);
+			if (!selected.contains(id)) {
+				selected.add(id);
+			}
+		}
+		sb.append("dependencies=")
+				.append(StringUtils.collectionToCommaDelimitedString(selected));
+		return sb.toString();
+	}
+
+	/**
+	 * Most projects have a handful of dependencies, a few have many.
+	 */
+	private static int dependencyCount(Random random) {
+		int value = random.nextInt(100);
+		if (value < 10) {
+			return 0;
+		}
+		if (value < 80) {
+			return 1 + random.nextInt(3);
+		}
+		return 4 + random.nextInt(5);
+	}
+
+	private static String homeAccept(AgentId agent) {
+		switch (agent) {
+			case BROWSER:
+				return "text/html";
+			case CURL:
+			case HTTPIE:
+			case SPRING_BOOT_CLI:
+				return "*/*";
+			default:
+				return JSON_METADATA;
+		}
+	}
+
+	static String userAgent(AgentId agent) {
+		switch (agent) {
+			case CURL:
+				return "curl/7.58.0";
+			case HTTPIE:
+				return "HTTPie/0.9.9";
+			case JBOSS_FORGE:
+				return "SpringBootForgeCli/1.0.0.Final";
+			case SPRING_BOOT_CLI:
+				return "SpringBootCli/2.0.0.RELEASE";
+			case STS:
+				return "STS 3.9.3.RELEASE";
+			case INTELLIJ_IDEA:
+				return "IntelliJ IDEA";
+			case NETBEANS:
+				return "nb-springboot-plugin/0.5";
+			case VSCODE:
+				return "vscode/0.1.0";
+			default:
+				return "Mozilla/5.0 (X11; Linux x86_64; rv:59.0) Gecko/20100101 "
+						+ "Firefox/59.0";
+		}
+	}
+
+	private static List<String> ids(List<DefaultMetadataElement> elements) {
+		List<String> ids = new ArrayList<>();
+		elements.forEach((element) -> ids.add(element.getId()));
+		return ids;
+	}
+
+	private static <T> List<Weighted<T>> weighted(Map<T, Integer> weights) {
+		List<Weighted<T>> result = new ArrayList<>();
+		int total = 0;
+		for (Map.Entry<T, Integer> entry : weights.entrySet()) {
+			if (entry.getValue() > 0) {
+				total += entry.getValue();
+				result.add(new Weighted<>(entry.getKey(), total));
+			}
+		}
+		if (result.isEmpty()) {
+			throw new IllegalArgumentException("At least one weight must be positive");
+		}
+		return result;
+	}
+
+	private static <T> T pick(List<Weighted<T>> candidates, Random random) {
+		int value = random.nextInt(candidates.get(candidates.size() - 1).cumulativeWeight);
+		for (Weighted<T> candidate : candidates) {
+			if (value < candidate.cumulativeWeight) {
+				return candidate.value;
+			}
+		}
+		throw new IllegalStateException("No candidate for " + value);
+	}
+
+	private static String any(List<String> candidates, Random random) {
+		return candidates.get(random.nextInt(candidates.size()));
+	}
+
+	/**
+	 * The endpoints that are exercised.
+	 */
+	enum Endpoint {
+
+		STARTER_ZIP("/starter.zip"),
+
+		STARTER_TGZ("/starter.tgz"),
+
+		POM("/pom.xml"),
+
+		GRADLE_BUILD("/build.gradle"),
+
+		HOME("/"),
+
+		DEPENDENCIES("/dependencies"),
+
+		UI_DEPENDENCIES("/ui/dependencies");
+
+		private final String path;
+
+		Endpoint(String path) {
+			this.path = path;
+		}
+
+		String getPath() {
+			return path;
+		}
+
+	}
+
+	/**
+	 * A request to send to the service.
+	 */
+	static final class LoadRequest {
+
+		private final Endpoint endpoint;
+
+		private final String pathAndQuery;
+
+		private final String accept;
+
+		private final String userAgent;
+
+		LoadRequest(Endpoint endpoint, String pathAndQuery, String accept,
+				String userAgent) {
+			this.endpoint = endpoint;
+			this.pathAndQuery = pathAndQuery;
+			this.accept = accept;
+			this.userAgent = userAgent;
+		}
+
+		Endpoint getEndpoint() {
+			return endpoint;
+		}
+
+		String getPathAndQuery() {
+			return pathAndQuery;
+		}
+
+		String getAccept() {
+			return accept;
+		}
+
+		String getUserAgent() {
+			return userAgent;
+		}
+
+		@Override
+		public String toString() {
+			return userAgent + " -> " + pathAndQuery + " (" + accept + ")";
+		}
+
+	}
+
+	private static final class Weighted<T> {
+
+		private final T value;
+
+		private final int cumulativeWeight;
+
+		Weighted(T value, int cumulativeWeight) {
+			this.value = value;
+			this.cumulativeWeight = cumulativeWeight;
+		}
+
+	}
+
+}
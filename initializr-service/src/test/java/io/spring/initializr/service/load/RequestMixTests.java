@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.service.load;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.service.load.RequestMix.Endpoint;
+import io.spring.initializr.service.load.RequestMix.LoadRequest;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.util.Agent;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RequestMix}.
+ *
+ * @author agent
+ */
+public class RequestMixTests {
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().addDependencyGroup("core", "web", "security", "data-jpa")
+			.addDependencyGroup("legacy", legacy()).build();
+
+	@Test
+	public void sameSeedProducesSameRequests() {
+		RequestMix mix = new RequestMix(metadata);
+		assertThat(requests(mix, new Random(42), 100))
+				.isEqualTo(requests(mix, new Random(42), 100));
+	}
+
+	@Test
+	public void userAgentIsDetected() {
+		for (Agent.AgentId id : Agent.AgentId.values()) {
+			Agent agent = Agent.fromUserAgent(RequestMix.userAgent(id));
+			assertThat(agent).isNotNull();
+			assertThat(agent.getId()).isEqualTo(id);
+		}
+	}
+
+	@Test
+	public void projectsOnlyUseCompatibleDependencies() {
+		Map<Endpoint, Integer> endpoints = new EnumMap<>(Endpoint.class);
+		endpoints.put(Endpoint.STARTER_ZIP, 1);
+		RequestMix mix = new RequestMix(metadata, endpoints,
+				RequestMix.defaultAgentWeights());
+		Random random = new Random(42);
+		for (int i = 0; i < 100; i++) {
+			LoadRequest request = mix.next(random);
+			assertThat(request.getEndpoint()).isEqualTo(Endpoint.STARTER_ZIP);
+			assertThat(request.getPathAndQuery()).startsWith("/starter.zip?")
+					.doesNotContain("legacy");
+		}
+	}
+
+	private static List<String> requests(RequestMix mix, Random random, int count) {
+		List<String> requests = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			requests.add(mix.next(random).toString());
+		}
+		return requests;
+	}
+
+	private static Dependency legacy() {
+		Dependency dependency = Dependency.withId("legacy");
+		dependency.setVersionRange("[1.0.0.RELEASE,1.1.0.RELEASE)");
+		return dependency;
+	}
+
+}
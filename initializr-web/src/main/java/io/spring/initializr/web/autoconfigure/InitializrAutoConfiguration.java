@@ -16,35 +16,48 @@
 
 package io.spring.initializr.web.autoconfigure;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 import javax.cache.configuration.MutableConfiguration;
-import javax.cache.expiry.CreatedExpiryPolicy;
-import javax.cache.expiry.Duration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.spring.initializr.generator.ProjectGenerator;
 import io.spring.initializr.generator.ProjectRequestPostProcessor;
 import io.spring.initializr.generator.ProjectRequestResolver;
 import io.spring.initializr.generator.ProjectResourceLocator;
+import io.spring.initializr.generator.TemporaryFileManager;
 import io.spring.initializr.metadata.DependencyMetadataProvider;
-import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrConfiguration.Env.Archive;
 import io.spring.initializr.metadata.InitializrMetadataBuilder;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.metadata.InitializrProperties;
 import io.spring.initializr.util.TemplateRenderer;
 import io.spring.initializr.web.project.MainController;
+import io.spring.initializr.web.project.PrecompressedZipEntries;
+import io.spring.initializr.web.project.ProjectArchiveCache;
+import io.spring.initializr.web.project.ProjectArchiveCacheMetrics;
 import io.spring.initializr.web.support.DefaultDependencyMetadataProvider;
 import io.spring.initializr.web.support.DefaultInitializrMetadataProvider;
+import io.spring.initializr.web.support.InitializrMetadataProviderMetrics;
+import io.spring.initializr.web.support.TemplateRendererMetrics;
+import io.spring.initializr.web.support.TemporaryFileManagerMetrics;
 import io.spring.initializr.web.ui.UiController;
+import io.spring.initializr.web.ui.UiDependenciesCache;
+import io.spring.initializr.web.ui.UiDependenciesCacheMetrics;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
@@ -54,6 +67,8 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.web.servlet.resource.ResourceUrlProvider;
 
 /**
@@ -87,6 +102,14 @@ public class InitializrAutoConfiguration {
 		return new ProjectGenerator();
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public TemporaryFileManager temporaryFileManager() {
+		TemporaryFileManager temporaryFileManager = new TemporaryFileManager();
+		temporaryFileManager.startSweeper(Duration.ofMinutes(10));
+		return temporaryFileManager;
+	}
+
 	@Bean
 	@ConditionalOnMissingBean
 	public TemplateRenderer templateRenderer(Environment environment) {
@@ -94,9 +117,38 @@ public class InitializrAutoConfiguration {
 		boolean cache = binder.bind("spring.mustache.cache", Boolean.class).orElse(true);
 		TemplateRenderer templateRenderer = new TemplateRenderer();
 		templateRenderer.setCache(cache);
+		if (cache) {
+			findTemplateNames().forEach(templateRenderer::preload);
+		}
 		return templateRenderer;
 	}
 
+	private static List<String> findTemplateNames() {
+		try {
+			List<String> names = new ArrayList<>();
+			for (Resource resource : new PathMatchingResourcePatternResolver()
+					.getResources("classpath*:/templates/*")) {
+				if (resource.isReadable() && resource.getFilename() != null) {
+					names.add(resource.getFilename());
+				}
+			}
+			return names;
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot list templates", ex);
+		}
+	}
+
+	@Bean
+	public SmartInitializingSingleton initializrTemplatesWarmUp(
+			ProjectGenerator projectGenerator, TemplateRenderer templateRenderer) {
+		return () -> {
+			if (templateRenderer.isCache()) {
+				projectGenerator.warmUp();
+			}
+		};
+	}
+
 	@Bean
 	@ConditionalOnMissingBean
 	public ProjectRequestResolver projectRequestResolver() {
@@ -110,14 +162,18 @@ public class InitializrAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean(InitializrMetadataProvider.class)
-	public InitializrMetadataProvider initializrMetadataProvider(
+	public DefaultInitializrMetadataProvider initializrMetadataProvider(
 			InitializrProperties properties,
 			ObjectMapper objectMapper,
 			RestTemplateBuilder restTemplateBuilder) {
-		InitializrMetadata metadata = InitializrMetadataBuilder
-				.fromInitializrProperties(properties).build();
-		return new DefaultInitializrMetadataProvider(metadata,
-				objectMapper, restTemplateBuilder.build());
+		DefaultInitializrMetadataProvider metadataProvider = new DefaultInitializrMetadataProvider(
+				() -> InitializrMetadataBuilder.fromInitializrProperties(properties)
+						.build(), objectMapper, restTemplateBuilder.build());
+		String cacheFile = properties.getEnv().getSpringBootMetadataCacheFile();
+		if (cacheFile != null) {
+			metadataProvider.setCacheFile(new File(cacheFile));
+		}
+		return metadataProvider;
 	}
 
 	@Bean
@@ -143,16 +199,102 @@ public class InitializrAutoConfiguration {
 				TemplateRenderer templateRenderer,
 				ResourceUrlProvider resourceUrlProvider,
 				ProjectGenerator projectGenerator,
-				DependencyMetadataProvider dependencyMetadataProvider) {
+				DependencyMetadataProvider dependencyMetadataProvider,
+				PrecompressedZipEntries precompressedZipEntries,
+				ObjectProvider<ProjectArchiveCache> projectArchiveCache) {
 			return new MainController(metadataProvider, templateRenderer, resourceUrlProvider
-					, projectGenerator, dependencyMetadataProvider);
+					, projectGenerator, dependencyMetadataProvider, precompressedZipEntries,
+					projectArchiveCache.getIfAvailable());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public PrecompressedZipEntries initializrPrecompressedZipEntries(
+				ProjectResourceLocator projectResourceLocator,
+				InitializrProperties properties) {
+			return PrecompressedZipEntries.forWrappers(projectResourceLocator,
+					properties.getEnv().getArchive().getCompressionLevel());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = "initializr.env.archive.cache", name = "enabled", matchIfMissing = true)
+		public ProjectArchiveCache initializrProjectArchiveCache(
+				InitializrProperties properties) {
+			Archive.Cache cache = properties.getEnv().getArchive().getCache();
+			File directory = (cache.getDirectory() != null
+					? new File(cache.getDirectory()) : null);
+			return new ProjectArchiveCache(cache.getMaxSize(), directory,
+					cache.getMaxDiskSize());
 		}
 
 		@Bean
 		@ConditionalOnMissingBean
 		public UiController initializrUiController(
+				InitializrMetadataProvider metadataProvider,
+				UiDependenciesCache uiDependenciesCache) {
+			return new UiController(metadataProvider, uiDependenciesCache);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public UiDependenciesCache initializrUiDependenciesCache() {
+			return new UiDependenciesCache();
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnClass(MeterBinder.class)
+	static class InitializrMetricsConfiguration {
+
+		@Bean
+		public TemporaryFileManagerMetrics initializrTemporaryFileManagerMetrics(
+				TemporaryFileManager temporaryFileManager) {
+			return new TemporaryFileManagerMetrics(temporaryFileManager);
+		}
+
+		@Bean
+		public MeterBinder initializrMetadataProviderMetrics(
 				InitializrMetadataProvider metadataProvider) {
-			return new UiController(metadataProvider);
+			if (metadataProvider instanceof DefaultInitializrMetadataProvider) {
+				return new InitializrMetadataProviderMetrics(
+						(DefaultInitializrMetadataProvider) metadataProvider);
+			}
+			return registry -> { };
+		}
+
+		@Bean
+		public TemplateRendererMetrics initializrTemplateRendererMetrics(
+				TemplateRenderer templateRenderer) {
+			return new TemplateRendererMetrics(templateRenderer);
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnWebApplication
+	@ConditionalOnClass(MeterBinder.class)
+	@ConditionalOnProperty(prefix = "initializr.env.archive.cache", name = "enabled", matchIfMissing = true)
+	static class InitializrArchiveCacheMetricsConfiguration {
+
+		@Bean
+		public ProjectArchiveCacheMetrics initializrProjectArchiveCacheMetrics(
+				ProjectArchiveCache projectArchiveCache) {
+			return new ProjectArchiveCacheMetrics(projectArchiveCache);
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnWebApplication
+	@ConditionalOnClass(MeterBinder.class)
+	static class InitializrUiMetricsConfiguration {
+
+		@Bean
+		public UiDependenciesCacheMetrics initializrUiDependenciesCacheMetrics(
+				UiDependenciesCache uiDependenciesCache) {
+			return new UiDependenciesCacheMetrics(uiDependenciesCache);
 		}
 
 	}
@@ -163,12 +305,7 @@ public class InitializrAutoConfiguration {
 
 		@Bean
 		public JCacheManagerCustomizer initializrCacheManagerCustomizer() {
-			return cm -> {
-				cm.createCache("initializr.metadata", config().setExpiryPolicyFactory(
-						CreatedExpiryPolicy.factoryOf(Duration.TEN_MINUTES)));
-				cm.createCache("initializr.dependency-metadata", config());
-				cm.createCache("initializr.project-resources", config());
-			};
+			return cm -> cm.createCache("initializr.project-resources", config());
 		}
 
 		private MutableConfiguration<Object, Object> config() {
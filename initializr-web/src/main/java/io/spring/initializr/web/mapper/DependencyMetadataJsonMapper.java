@@ -16,6 +16,10 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 import io.spring.initializr.metadata.DependencyMetadata;
 
 /**
@@ -30,4 +34,13 @@ interface DependencyMetadataJsonMapper {
 	 */
 	String write(DependencyMetadata metadata);
 
+	/**
+	 * Write a json representation of the specified metadata to the specified stream,
+	 * using the UTF-8 encoding. The stream is not closed.
+	 */
+	default void write(DependencyMetadata metadata, OutputStream out)
+			throws IOException {
+		out.write(write(metadata).getBytes(StandardCharsets.UTF_8));
+	}
+
 }
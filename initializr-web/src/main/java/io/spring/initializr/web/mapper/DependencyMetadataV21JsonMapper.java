@@ -16,9 +16,14 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -32,11 +37,15 @@ import io.spring.initializr.metadata.Repository;
  * A {@link DependencyMetadataJsonMapper} handling the metadata format for v2.1.
  *
  * @author Stephane Nicoll
+ * @author agent
  */
 public class DependencyMetadataV21JsonMapper implements DependencyMetadataJsonMapper {
 
 	private static final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
 
+	private static final JsonFactory jsonFactory = new JsonFactory()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
 	@Override
 	public String write(DependencyMetadata metadata) {
 		ObjectNode json = nodeFactory.objectNode();
@@ -55,6 +64,38 @@ public class DependencyMetadataV21JsonMapper implements DependencyMetadataJsonMa
 		return json.toString();
 	}
 
+	@Override
+	public void write(DependencyMetadata metadata, OutputStream out) throws IOException {
+		try (JsonGenerator generator = jsonFactory.createGenerator(out,
+				JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			generator.writeStringField("bootVersion",
+					metadata.getBootVersion().toString());
+			generator.writeObjectFieldStart("dependencies");
+			for (Map.Entry<String, Dependency> entry : inTreeOrder(
+					metadata.getDependencies()).entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeDependency(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeObjectFieldStart("repositories");
+			for (Map.Entry<String, Repository> entry : inTreeOrder(
+					metadata.getRepositories()).entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeRepository(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeObjectFieldStart("boms");
+			for (Map.Entry<String, BillOfMaterials> entry : inTreeOrder(
+					metadata.getBoms()).entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeBom(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+	}
+
 	private static JsonNode mapDependency(Dependency dep) {
 		ObjectNode node = nodeFactory.objectNode();
 		node.put("groupId", dep.getGroupId());
@@ -101,4 +142,59 @@ public class DependencyMetadataV21JsonMapper implements DependencyMetadataJsonMa
 		return node;
 	}
 
+	/**
+	 * Return the entries of the specified map in the order used by
+	 * {@link #write(DependencyMetadata)}, so that both representations are identical.
+	 */
+	private static <T> Map<String, T> inTreeOrder(Map<String, T> content) {
+		return content.entrySet().stream()
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
+	private static void writeDependency(JsonGenerator generator, Dependency dep)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("groupId", dep.getGroupId());
+		generator.writeStringField("artifactId", dep.getArtifactId());
+		if (dep.getVersion() != null) {
+			generator.writeStringField("version", dep.getVersion());
+		}
+		generator.writeStringField("scope", dep.getScope());
+		if (dep.getBom() != null) {
+			generator.writeStringField("bom", dep.getBom());
+		}
+		if (dep.getRepository() != null) {
+			generator.writeStringField("repository", dep.getRepository());
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeRepository(JsonGenerator generator, Repository repo)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", repo.getName());
+		generator.writeStringField("url",
+				(repo.getUrl() != null ? repo.getUrl().toString() : null));
+		generator.writeBooleanField("snapshotEnabled", repo.isSnapshotsEnabled());
+		generator.writeEndObject();
+	}
+
+	private static void writeBom(JsonGenerator generator, BillOfMaterials bom)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("groupId", bom.getGroupId());
+		generator.writeStringField("artifactId", bom.getArtifactId());
+		if (bom.getVersion() != null) {
+			generator.writeStringField("version", bom.getVersion());
+		}
+		if (bom.getRepositories() != null) {
+			generator.writeArrayFieldStart("repositories");
+			for (String repository : bom.getRepositories()) {
+				generator.writeString(repository);
+			}
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+	}
+
 }
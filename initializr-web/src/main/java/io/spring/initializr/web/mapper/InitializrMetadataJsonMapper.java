@@ -16,6 +16,10 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 import io.spring.initializr.metadata.InitializrMetadata;
 
 /**
@@ -30,4 +34,13 @@ public interface InitializrMetadataJsonMapper {
 	 */
 	String write(InitializrMetadata metadata, String appUrl);
 
+	/**
+	 * Write a json representation of the specified metadata to the specified stream,
+	 * using the UTF-8 encoding. The stream is not closed.
+	 */
+	default void write(InitializrMetadata metadata, String appUrl, OutputStream out)
+			throws IOException {
+		out.write(write(metadata, appUrl).getBytes(StandardCharsets.UTF_8));
+	}
+
 }
\ No newline at end of file
@@ -16,8 +16,10 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
 import java.util.List;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.metadata.Type;
@@ -66,13 +68,42 @@ public class InitializrMetadataV21JsonMapper extends InitializrMetadataV2JsonMap
 		return content;
 	}
 
+	@Override
+	protected void writeLinks(JsonGenerator generator, List<Type> types, String appUrl)
+			throws IOException {
+		super.writeLinks(generator, types, appUrl);
+		generator.writeObjectFieldStart("dependencies");
+		generator.writeStringField("href", generateDependenciesUri(appUrl));
+		generator.writeBooleanField("templated", true);
+		generator.writeEndObject();
+	}
+
+	@Override
+	protected void writeDependency(JsonGenerator generator, Dependency dependency)
+			throws IOException {
+		generator.writeStartObject();
+		writeValueFields(generator, dependency);
+		if (dependency.getVersionRange() != null) {
+			generator.writeStringField("versionRange", dependency.getVersionRange());
+		}
+		if (dependency.getLinks() != null && !dependency.getLinks().isEmpty()) {
+			generator.writeFieldName("_links");
+			LinkMapper.writeLinks(generator, dependency.getLinks());
+		}
+		generator.writeEndObject();
+	}
+
 	private ObjectNode dependenciesLink(String appUrl) {
-		String uri = appUrl != null ? appUrl + "/dependencies" : "/dependencies";
-		UriTemplate uriTemplate = new UriTemplate(uri, this.dependenciesVariables);
 		ObjectNode result = nodeFactory().objectNode();
-		result.put("href", uriTemplate.toString());
+		result.put("href", generateDependenciesUri(appUrl));
 		result.put("templated", true);
 		return result;
 	}
 
+	private String generateDependenciesUri(String appUrl) {
+		String uri = appUrl != null ? appUrl + "/dependencies" : "/dependencies";
+		UriTemplate uriTemplate = new UriTemplate(uri, this.dependenciesVariables);
+		return uriTemplate.toString();
+	}
+
 }
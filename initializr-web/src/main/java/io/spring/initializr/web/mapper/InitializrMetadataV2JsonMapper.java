@@ -16,9 +16,15 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -42,13 +48,22 @@ import org.springframework.util.StringUtils;
 
 /**
  * A {@link InitializrMetadataJsonMapper} handling the metadata format for v2.
+ * <p>
+ * The metadata can either be mapped to a tree that is converted to a {@code String},
+ * or {@link #write(InitializrMetadata, String, OutputStream) streamed} without building
+ * the tree. Both produce the same output: subclasses that customize one should
+ * customize the other as well.
  *
  * @author Stephane Nicoll
+ * @author agent
  */
 public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMapper {
 
 	private static final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
 
+	private static final JsonFactory jsonFactory = new JsonFactory()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
 	private final TemplateVariables templateVariables;
 
 	public InitializrMetadataV2JsonMapper() {
@@ -99,6 +114,31 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		return delegate.toString();
 	}
 
+	@Override
+	public void write(InitializrMetadata metadata, String appUrl, OutputStream out)
+			throws IOException {
+		try (JsonGenerator generator = jsonFactory.createGenerator(out,
+				JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			generator.writeObjectFieldStart("_links");
+			writeLinks(generator, metadata.getTypes().getContent(), appUrl);
+			generator.writeEndObject();
+			writeDependencies(generator, metadata.getDependencies());
+			writeType(generator, metadata.getTypes());
+			writeSingleSelect(generator, metadata.getPackagings());
+			writeSingleSelect(generator, metadata.getJavaVersions());
+			writeSingleSelect(generator, metadata.getLanguages());
+			writeSingleSelect(generator, metadata.getBootVersions());
+			writeText(generator, metadata.getGroupId());
+			writeText(generator, metadata.getArtifactId());
+			writeText(generator, metadata.getVersion());
+			writeText(generator, metadata.getName());
+			writeText(generator, metadata.getDescription());
+			writeText(generator, metadata.getPackageName());
+			generator.writeEndObject();
+		}
+	}
+
 	protected ObjectNode links(ObjectNode parent, List<Type> types, String appUrl) {
 		ObjectNode content = nodeFactory.objectNode();
 		types.forEach(it -> content.set(it.getId(), link(appUrl, it)));
@@ -214,4 +254,127 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		return result;
 	}
 
+	/**
+	 * Write the links of the metadata, as fields of the current object.
+	 */
+	protected void writeLinks(JsonGenerator generator, List<Type> types, String appUrl)
+			throws IOException {
+		for (Type type : types) {
+			generator.writeObjectFieldStart(type.getId());
+			generator.writeStringField("href", generateTemplatedUri(appUrl, type));
+			generator.writeBooleanField("templated", true);
+			generator.writeEndObject();
+		}
+	}
+
+	protected void writeDependencies(JsonGenerator generator,
+			DependenciesCapability capability) throws IOException {
+		generator.writeObjectFieldStart(capability.getId());
+		generator.writeStringField("type", capability.getType().getName());
+		generator.writeArrayFieldStart("values");
+		for (DependencyGroup group : capability.getContent()) {
+			writeDependencyGroup(generator, group);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	protected void writeType(JsonGenerator generator, TypeCapability capability)
+			throws IOException {
+		generator.writeObjectFieldStart("type");
+		generator.writeStringField("type", "action");
+		Type defaultType = capability.getDefault();
+		if (defaultType != null) {
+			generator.writeStringField("default", defaultType.getId());
+		}
+		generator.writeArrayFieldStart("values");
+		for (Type type : capability.getContent()) {
+			generator.writeStartObject();
+			writeValueFields(generator, type);
+			generator.writeStringField("action", type.getAction());
+			generator.writeObjectFieldStart("tags");
+			for (Map.Entry<String, String> tag : type.getTags().entrySet()) {
+				generator.writeStringField(tag.getKey(), tag.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	protected void writeSingleSelect(JsonGenerator generator,
+			SingleSelectCapability capability) throws IOException {
+		generator.writeObjectFieldStart(capability.getId());
+		generator.writeStringField("type", capability.getType().getName());
+		DefaultMetadataElement defaultType = capability.getDefault();
+		if (defaultType != null) {
+			generator.writeStringField("default", defaultType.getId());
+		}
+		generator.writeArrayFieldStart("values");
+		for (DefaultMetadataElement value : capability.getContent()) {
+			generator.writeStartObject();
+			writeValueFields(generator, value);
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	protected void writeText(JsonGenerator generator, TextCapability capability)
+			throws IOException {
+		generator.writeObjectFieldStart(capability.getId());
+		generator.writeStringField("type", capability.getType().getName());
+		String defaultValue = capability.getContent();
+		if (StringUtils.hasText(defaultValue)) {
+			generator.writeStringField("default", defaultValue);
+		}
+		generator.writeEndObject();
+	}
+
+	protected void writeDependencyGroup(JsonGenerator generator, DependencyGroup group)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", group.getName());
+		if ((group instanceof Describable)
+				&& ((Describable) group).getDescription() != null) {
+			generator.writeStringField("description",
+					((Describable) group).getDescription());
+		}
+		generator.writeArrayFieldStart("values");
+		for (Dependency dependency : group.getContent()) {
+			writeDependency(generator, dependency);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Write the specified dependency as an element of the current array, if it should
+	 * be exposed.
+	 */
+	protected void writeDependency(JsonGenerator generator, Dependency dependency)
+			throws IOException {
+		if (dependency.getVersionRange() == null) {
+			// only map the dependency if no versionRange is set
+			generator.writeStartObject();
+			writeValueFields(generator, dependency);
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Write the fields of the specified element to the current object.
+	 */
+	protected void writeValueFields(JsonGenerator generator, MetadataElement value)
+			throws IOException {
+		generator.writeStringField("id", value.getId());
+		generator.writeStringField("name", value.getName());
+		if ((value instanceof Describable)
+				&& ((Describable) value).getDescription() != null) {
+			generator.writeStringField("description",
+					((Describable) value).getDescription());
+		}
+	}
+
 }
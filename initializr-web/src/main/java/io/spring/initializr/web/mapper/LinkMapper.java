@@ -16,11 +16,13 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -43,10 +45,7 @@ public class LinkMapper {
 	 */
 	public static ObjectNode mapLinks(List<Link> links) {
 		ObjectNode result = nodeFactory.objectNode();
-		Map<String, List<Link>> byRel = new LinkedHashMap<>();
-		links.forEach(it -> byRel.computeIfAbsent(it.getRel(),
-				k -> new ArrayList<>()).add(it));
-		byRel.forEach((rel, l) -> {
+		groupByRel(links).forEach((rel, l) -> {
 			if (l.size() == 1) {
 				ObjectNode root = JsonNodeFactory.instance.objectNode();
 				mapLink(l.get(0), root);
@@ -65,6 +64,53 @@ public class LinkMapper {
 		return result;
 	}
 
+	/**
+	 * Write the specified links as an object, using the same representation as
+	 * {@link #mapLinks(List)}.
+	 * @param generator the generator to use
+	 * @param links the links to write
+	 * @throws IOException if the links cannot be written
+	 */
+	public static void writeLinks(JsonGenerator generator, List<Link> links)
+			throws IOException {
+		generator.writeStartObject();
+		for (Map.Entry<String, List<Link>> entry : groupByRel(links).entrySet()) {
+			List<Link> l = entry.getValue();
+			if (l.size() == 1) {
+				generator.writeFieldName(entry.getKey());
+				writeLink(generator, l.get(0));
+			}
+			else {
+				generator.writeArrayFieldStart(entry.getKey());
+				for (Link link : l) {
+					writeLink(generator, link);
+				}
+				generator.writeEndArray();
+			}
+		}
+		generator.writeEndObject();
+	}
+
+	private static Map<String, List<Link>> groupByRel(List<Link> links) {
+		Map<String, List<Link>> byRel = new LinkedHashMap<>();
+		links.forEach(it -> byRel.computeIfAbsent(it.getRel(),
+				k -> new ArrayList<>()).add(it));
+		return byRel;
+	}
+
+	private static void writeLink(JsonGenerator generator, Link link)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("href", link.getHref());
+		if (link.isTemplated()) {
+			generator.writeBooleanField("templated", true);
+		}
+		if (link.getDescription() != null) {
+			generator.writeStringField("title", link.getDescription());
+		}
+		generator.writeEndObject();
+	}
+
 	private static void mapLink(Link link, ObjectNode node) {
 		node.put("href", link.getHref());
 		if (link.isTemplated()) {
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.spring.initializr.generator.ProjectWriter;
+
+/**
+ * Base {@link ProjectWriter} for archive formats. Makes sure that an entry is written
+ * for each directory, including the parents of a file, exactly once.
+ * <p>
+ * A writer must be {@link #close() closed} once the archive has been written, or has
+ * failed to be written, so that the native resources of the compressor are released.
+ *
+ * @author agent
+ */
+public abstract class AbstractArchiveProjectWriter implements ProjectWriter, Closeable {
+
+	private final Set<String> directories = new HashSet<>();
+
+	@Override
+	public void writeDirectory(String path) throws IOException {
+		String name = (path.endsWith("/") ? path : path + "/");
+		if (directories.contains(name)) {
+			return;
+		}
+		writeParentDirectories(name);
+		writeDirectoryEntry(name, DIRECTORY_MODE);
+		directories.add(name);
+	}
+
+	@Override
+	public void writeFile(String path, byte[] content, int mode) throws IOException {
+		writeParentDirectories(path);
+		writeFileEntry(path, content, mode);
+	}
+
+	/**
+	 * Complete the archive. The underlying stream is not closed.
+	 * @throws IOException if the archive could not be completed
+	 */
+	public abstract void finish() throws IOException;
+
+	/**
+	 * Release the resources of this writer, whether or not the archive has been
+	 * {@link #finish() completed}. The underlying stream is not closed.
+	 * @throws IOException if the resources could not be released
+	 */
+	@Override
+	public void close() throws IOException {
+	}
+
+	/**
+	 * Write a directory entry.
+	 * @param name the name of the directory, ending with a {@code /}
+	 * @param mode the unix mode of the directory
+	 * @throws IOException if the entry could not be written
+	 */
+	protected abstract void writeDirectoryEntry(String name, int mode)
+			throws IOException;
+
+	/**
+	 * Write a file entry.
+	 * @param name the name of the file
+	 * @param content the content of the file
+	 * @param mode the unix mode of the file
+	 * @throws IOException if the entry could not be written
+	 */
+	protected abstract void writeFileEntry(String name, byte[] content, int mode)
+			throws IOException;
+
+	private void writeParentDirectories(String path) throws IOException {
+		String target = (path.endsWith("/") ? path.substring(0, path.length() - 1)
+				: path);
+		int index = target.lastIndexOf('/');
+		if (index > 0) {
+			writeDirectory(target.substring(0, index + 1));
+		}
+	}
+
+}
@@ -16,40 +16,43 @@
 
 package io.spring.initializr.web.project;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import javax.servlet.http.HttpServletResponse;
+
 import com.samskivert.mustache.Mustache;
 import io.spring.initializr.generator.BasicProjectRequest;
 import io.spring.initializr.generator.CommandLineHelpGenerator;
+import io.spring.initializr.generator.ProjectGeneratedEvent;
+import io.spring.initializr.generator.ProjectGenerationPhase;
+import io.spring.initializr.generator.ProjectGenerationTimer;
 import io.spring.initializr.generator.ProjectGenerator;
 import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.generator.ProjectTree;
 import io.spring.initializr.metadata.DependencyMetadata;
 import io.spring.initializr.metadata.DependencyMetadataProvider;
+import io.spring.initializr.metadata.InitializrConfiguration.Env.Archive;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.util.Agent;
 import io.spring.initializr.util.TemplateRenderer;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.web.mapper.DependencyMetadataV21JsonMapper;
-import io.spring.initializr.web.mapper.InitializrMetadataJsonMapper;
-import io.spring.initializr.web.mapper.InitializrMetadataV21JsonMapper;
-import io.spring.initializr.web.mapper.InitializrMetadataV2JsonMapper;
 import io.spring.initializr.web.mapper.InitializrMetadataVersion;
-import org.apache.tools.ant.Project;
-import org.apache.tools.ant.taskdefs.Tar;
-import org.apache.tools.ant.taskdefs.Zip;
-import org.apache.tools.ant.types.TarFileSet;
-import org.apache.tools.ant.types.ZipFileSet;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.spring.initializr.web.project.ProjectArchiveCache.CachedArchive;
+import io.spring.initializr.web.project.RenderedMetadataCache.RenderedMetadata;
 
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -57,7 +60,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.DigestUtils;
-import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -77,9 +80,8 @@ import static io.spring.initializr.util.Agent.AgentId.SPRING_BOOT_CLI;
  * @author Stephane Nicoll
  */
 @Controller
-public class MainController extends AbstractInitializrController {
-
-	private static final Logger log = LoggerFactory.getLogger(MainController.class);
+public class MainController extends AbstractInitializrController
+		implements ApplicationEventPublisherAware {
 
 	public static final MediaType HAL_JSON_CONTENT_TYPE = MediaType
 			.parseMediaType("application/hal+json");
@@ -87,15 +89,36 @@ public class MainController extends AbstractInitializrController {
 	private final ProjectGenerator projectGenerator;
 	private final DependencyMetadataProvider dependencyMetadataProvider;
 	private final CommandLineHelpGenerator commandLineHelpGenerator;
+	private final PrecompressedZipEntries precompressedZipEntries;
+	private final ProjectArchiveCache projectArchiveCache;
+	private final RenderedMetadataCache renderedMetadataCache = new RenderedMetadataCache();
+	private ApplicationEventPublisher eventPublisher;
 
 	public MainController(InitializrMetadataProvider metadataProvider,
 			TemplateRenderer templateRenderer, ResourceUrlProvider resourceUrlProvider,
 			ProjectGenerator projectGenerator,
 			DependencyMetadataProvider dependencyMetadataProvider) {
+		this(metadataProvider, templateRenderer, resourceUrlProvider, projectGenerator,
+				dependencyMetadataProvider, null, null);
+	}
+
+	public MainController(InitializrMetadataProvider metadataProvider,
+			TemplateRenderer templateRenderer, ResourceUrlProvider resourceUrlProvider,
+			ProjectGenerator projectGenerator,
+			DependencyMetadataProvider dependencyMetadataProvider,
+			PrecompressedZipEntries precompressedZipEntries,
+			ProjectArchiveCache projectArchiveCache) {
 		super(metadataProvider, resourceUrlProvider);
 		this.projectGenerator = projectGenerator;
 		this.dependencyMetadataProvider = dependencyMetadataProvider;
 		this.commandLineHelpGenerator = new CommandLineHelpGenerator(templateRenderer);
+		this.precompressedZipEntries = precompressedZipEntries;
+		this.projectArchiveCache = projectArchiveCache;
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
 	}
 
 	@ModelAttribute
@@ -151,62 +174,81 @@ public class MainController extends AbstractInitializrController {
 	}
 
 	@RequestMapping(path = "/", produces = "application/hal+json")
-	public ResponseEntity<String> serviceCapabilitiesHal() {
+	public ResponseEntity<byte[]> serviceCapabilitiesHal(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 		return serviceCapabilitiesFor(InitializrMetadataVersion.V2_1,
-				HAL_JSON_CONTENT_TYPE);
+				HAL_JSON_CONTENT_TYPE, acceptEncoding);
 	}
 
 	@RequestMapping(path = "/", produces = { "application/vnd.initializr.v2.1+json",
 			"application/json" })
-	public ResponseEntity<String> serviceCapabilitiesV21() {
-		return serviceCapabilitiesFor(InitializrMetadataVersion.V2_1);
+	public ResponseEntity<byte[]> serviceCapabilitiesV21(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return serviceCapabilitiesFor(InitializrMetadataVersion.V2_1, acceptEncoding);
 	}
 
 	@RequestMapping(path = "/", produces = "application/vnd.initializr.v2+json")
-	public ResponseEntity<String> serviceCapabilitiesV2() {
-		return serviceCapabilitiesFor(InitializrMetadataVersion.V2);
+	public ResponseEntity<byte[]> serviceCapabilitiesV2(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return serviceCapabilitiesFor(InitializrMetadataVersion.V2, acceptEncoding);
 	}
 
-	private ResponseEntity<String> serviceCapabilitiesFor(
-			InitializrMetadataVersion version) {
-		return serviceCapabilitiesFor(version, version.getMediaType());
+	private ResponseEntity<byte[]> serviceCapabilitiesFor(
+			InitializrMetadataVersion version, String acceptEncoding) {
+		return serviceCapabilitiesFor(version, version.getMediaType(), acceptEncoding);
 	}
 
-	private ResponseEntity<String> serviceCapabilitiesFor(
-			InitializrMetadataVersion version, MediaType contentType) {
-		String appUrl = generateAppUrl();
-		String content = getJsonMapper(version).write(metadataProvider.get(), appUrl);
-		return ResponseEntity.ok().contentType(contentType).eTag(createUniqueId(content))
-				.cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS)).body(content);
+	private ResponseEntity<byte[]> serviceCapabilitiesFor(
+			InitializrMetadataVersion version, MediaType contentType,
+			String acceptEncoding) {
+		RenderedMetadata metadata = renderedMetadataCache.get(metadataProvider.get(),
+				version, generateAppUrl());
+		BodyBuilder builder = ResponseEntity.ok()
+				.contentType(contentType)
+				.varyBy(HttpHeaders.ACCEPT_ENCODING)
+				.cacheControl(CacheControl.noCache());
+		// A matching If-None-Match leads to a 304 without writing the body
+		if (acceptsGzip(acceptEncoding)) {
+			return builder.eTag(metadata.getGzipETag())
+					.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+					.body(metadata.getGzipContent());
+		}
+		return builder.eTag(metadata.getETag()).body(metadata.getContent());
 	}
 
-	private static InitializrMetadataJsonMapper getJsonMapper(
-			InitializrMetadataVersion version) {
-		switch (version) {
-			case V2:
-				return new InitializrMetadataV2JsonMapper();
-			default:
-				return new InitializrMetadataV21JsonMapper();
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+			String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+			if ("gzip".equalsIgnoreCase(parts[0])) {
+				return (parts.length == 1 || !parts[1].matches("q=0(\\.0*)?"));
+			}
 		}
+		return false;
 	}
 
 	@RequestMapping(path = "/dependencies", produces = {
 			"application/vnd.initializr.v2.1+json", "application/json" })
-	public ResponseEntity<String> dependenciesV21(
-			@RequestParam(required = false) String bootVersion) {
+	public ResponseEntity<byte[]> dependenciesV21(
+			@RequestParam(required = false) String bootVersion) throws IOException {
 		return dependenciesFor(InitializrMetadataVersion.V2_1, bootVersion);
 	}
 
-	private ResponseEntity<String> dependenciesFor(InitializrMetadataVersion version,
-			String bootVersion) {
+	private ResponseEntity<byte[]> dependenciesFor(InitializrMetadataVersion version,
+			String bootVersion) throws IOException {
 		InitializrMetadata metadata = metadataProvider.get();
 		Version v = bootVersion != null ? Version.parse(bootVersion)
 				: Version.parse(metadata.getBootVersions().getDefault().getId());
 		DependencyMetadata dependencyMetadata = dependencyMetadataProvider.get(metadata,
 				v);
-		String content = new DependencyMetadataV21JsonMapper().write(dependencyMetadata);
-		return ResponseEntity.ok().contentType(version.getMediaType())
-				.eTag(createUniqueId(content))
+		ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		new DependencyMetadataV21JsonMapper().write(dependencyMetadata, out);
+		byte[] content = out.toByteArray();
+		return ResponseEntity.ok()
+				.contentType(version.getMediaType())
+				.eTag(DigestUtils.md5DigestAsHex(content))
 				.cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS)).body(content);
 	}
 
@@ -252,67 +294,96 @@ public class MainController extends AbstractInitializrController {
 	}
 
 	@RequestMapping("/starter.zip")
-	@ResponseBody
-	public ResponseEntity<byte[]> springZip(BasicProjectRequest basicRequest)
-			throws IOException {
-		ProjectRequest request = (ProjectRequest) basicRequest;
-		File dir = projectGenerator.generateProjectStructure(request);
-
-		File download = projectGenerator.createDistributionFile(dir, ".zip");
-
-		String wrapperScript = getWrapperScript(request);
-		new File(dir, wrapperScript).setExecutable(true);
-		Zip zip = new Zip();
-		zip.setProject(new Project());
-		zip.setDefaultexcludes(false);
-		ZipFileSet set = new ZipFileSet();
-		set.setDir(dir);
-		set.setFileMode("755");
-		set.setIncludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		zip.addFileset(set);
-		set = new ZipFileSet();
-		set.setDir(dir);
-		set.setIncludes("**,");
-		set.setExcludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		zip.addFileset(set);
-		zip.setDestFile(download.getCanonicalFile());
-		zip.execute();
-		return upload(download, dir, generateFileName(request, "zip"), "application/zip");
+	public void springZip(BasicProjectRequest basicRequest,
+			HttpServletResponse response) throws IOException {
+		Archive archive = metadataProvider.get().getConfiguration().getEnv()
+				.getArchive();
+		download((ProjectRequest) basicRequest, response, "zip", "application/zip",
+				out -> new ZipProjectWriter(out, archive.getCompressionLevel(),
+						precompressedZipEntries));
 	}
 
 	@RequestMapping(path = "/starter.tgz", produces = "application/x-compress")
-	@ResponseBody
-	public ResponseEntity<byte[]> springTgz(BasicProjectRequest basicRequest)
+	public void springTgz(BasicProjectRequest basicRequest,
+			HttpServletResponse response) throws IOException {
+		Archive archive = metadataProvider.get().getConfiguration().getEnv()
+				.getArchive();
+		download((ProjectRequest) basicRequest, response, "tar.gz",
+				"application/x-compress",
+				out -> new TarGzProjectWriter(out, archive.getCompressionLevel(),
+						archive.getBufferSize()));
+	}
+
+	private void download(ProjectRequest request, HttpServletResponse response,
+			String extension, String contentType, ArchiveWriterFactory writerFactory)
 			throws IOException {
-		ProjectRequest request = (ProjectRequest) basicRequest;
-		File dir = projectGenerator.generateProjectStructure(request);
-
-		File download = projectGenerator.createDistributionFile(dir, ".tar.gz");
-
-		String wrapperScript = getWrapperScript(request);
-		new File(dir, wrapperScript).setExecutable(true);
-		Tar zip = new Tar();
-		zip.setProject(new Project());
-		zip.setDefaultexcludes(false);
-		TarFileSet set = zip.createTarFileSet();
-		set.setDir(dir);
-		set.setFileMode("755");
-		set.setIncludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		set = zip.createTarFileSet();
-		set.setDir(dir);
-		set.setIncludes("**,");
-		set.setExcludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		zip.setDestFile(download.getCanonicalFile());
-		Tar.TarCompressionMethod method = new Tar.TarCompressionMethod();
-		method.setValue("gzip");
-		zip.setCompression(method );
-		zip.execute();
-		return upload(download, dir, generateFileName(request, "tar.gz"),
-				"application/x-compress");
+		String fileName = generateFileName(request, extension);
+		ProjectGenerationTimer timer = projectGenerator.getTimer();
+		String cacheKey = null;
+		InitializrMetadata metadata = null;
+		if (projectArchiveCache != null) {
+			// The key must be computed before the request is resolved
+			cacheKey = ProjectArchiveCache.computeKey(extension, request);
+			metadata = metadataProvider.get();
+			CachedArchive cached = projectArchiveCache.get(cacheKey, metadata);
+			if (cached != null) {
+				publishProjectGeneratedEvent(request, cached.getRequest());
+				prepareDownload(response, contentType, fileName);
+				response.setContentLength(cached.getContent().length);
+				long start = System.nanoTime();
+				response.getOutputStream().write(cached.getContent());
+				timer.record(ProjectGenerationPhase.WRITE, extension,
+						cached.getRequest(), System.nanoTime() - start);
+				return;
+			}
+		}
+		ProjectTree tree = projectGenerator.generateProjectTree(request);
+		prepareDownload(response, contentType, fileName);
+		TimingOutputStream responseOut = new TimingOutputStream(
+				response.getOutputStream());
+		OutputStream out = responseOut;
+		TeeOutputStream tee = null;
+		if (cacheKey != null) {
+			tee = new TeeOutputStream(out, projectArchiveCache.getMaxSize());
+			out = tee;
+		}
+		long start = System.nanoTime();
+		try (AbstractArchiveProjectWriter writer = writerFactory.create(out)) {
+			tree.writeTo(writer);
+			writer.finish();
+		}
+		long writeTime = responseOut.getElapsedNanos();
+		timer.record(ProjectGenerationPhase.ARCHIVE, extension, request,
+				System.nanoTime() - start - writeTime);
+		timer.record(ProjectGenerationPhase.WRITE, extension, request, writeTime);
+		if (tee != null && tee.getCopy() != null) {
+			projectArchiveCache.put(cacheKey, tee.getCopy(), request, metadata);
+		}
+	}
+
+	/**
+	 * Publish a {@link ProjectGeneratedEvent} for a project served from the cache. The
+	 * event holds the resolved state of the request that generated the archive and the
+	 * parameters of the current request.
+	 */
+	private void publishProjectGeneratedEvent(ProjectRequest request,
+			ProjectRequest resolvedRequest) {
+		if (eventPublisher == null) {
+			return;
+		}
+		ProjectRequest copy = new ProjectRequest();
+		BeanUtils.copyProperties(resolvedRequest, copy);
+		copy.getBoms().putAll(resolvedRequest.getBoms());
+		copy.getRepositories().putAll(resolvedRequest.getRepositories());
+		copy.getParameters().putAll(request.getParameters());
+		eventPublisher.publishEvent(new ProjectGeneratedEvent(copy));
+	}
+
+	private static void prepareDownload(HttpServletResponse response,
+			String contentType, String fileName) {
+		response.setContentType(contentType);
+		response.setHeader("Content-Disposition",
+				createContentDispositionValue(fileName));
 	}
 
 	private static String generateFileName(ProjectRequest request, String extension) {
@@ -325,27 +396,15 @@ public class MainController extends AbstractInitializrController {
 		}
 	}
 
-	private static String getWrapperScript(ProjectRequest request) {
-		String script = "gradle".equals(request.getBuild()) ? "gradlew" : "mvnw";
-		return request.getBaseDir() != null
-				? request.getBaseDir() + "/" + script : script;
-	}
-
-	private ResponseEntity<byte[]> upload(File download, File dir, String fileName,
-			String contentType) throws IOException {
-		byte[] bytes = StreamUtils.copyToByteArray(new FileInputStream(download));
-		log.info("Uploading: {} ({} bytes)", download, bytes.length);
-		ResponseEntity<byte[]> result = createResponseEntity(bytes, contentType,
-				fileName);
-		projectGenerator.cleanTempFiles(dir);
-		return result;
-	}
-
 	private ResponseEntity<byte[]> createResponseEntity(byte[] content,
 			String contentType, String fileName) {
-		String contentDispositionValue = "attachment; filename=\"" + fileName + "\"";
 		return ResponseEntity.ok().header("Content-Type", contentType)
-				.header("Content-Disposition", contentDispositionValue).body(content);
+				.header("Content-Disposition", createContentDispositionValue(fileName))
+				.body(content);
+	}
+
+	private static String createContentDispositionValue(String fileName) {
+		return "attachment; filename=\"" + fileName + "\"";
 	}
 
 	private String createUniqueId(String content) {
@@ -355,6 +414,99 @@ public class MainController extends AbstractInitializrController {
 		return builder.toString();
 	}
 
-}
+	@FunctionalInterface
+	private interface ArchiveWriterFactory {
+
+		AbstractArchiveProjectWriter create(OutputStream out) throws IOException;
+
+	}
+
+	/**
+	 * Measure the time spent writing to the response.
+	 */
+	private static class TimingOutputStream extends FilterOutputStream {
+
+		private long elapsedNanos;
+
+		TimingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			long start = System.nanoTime();
+			out.write(b);
+			elapsedNanos += System.nanoTime() - start;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			long start = System.nanoTime();
+			out.write(b, off, len);
+			elapsedNanos += System.nanoTime() - start;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			long start = System.nanoTime();
+			out.flush();
+			elapsedNanos += System.nanoTime() - start;
+		}
+
+	}
 
+	/**
+	 * Write to the response and keep a copy of the archive for the cache. The copy is
+	 * discarded as soon as it exceeds the specified limit as such an archive cannot be
+	 * cached.
+	 */
+	private static class TeeOutputStream extends FilterOutputStream {
 
+		private final long limit;
+
+		private ByteArrayOutputStream copy;
+
+		TeeOutputStream(OutputStream out, long limit) {
+			super(out);
+			this.limit = limit;
+			this.copy = new ByteArrayOutputStream((int) Math.min(limit, 64 * 1024));
+		}
+
+		/**
+		 * Return the copy of what has been written or {@code null} if it exceeded the
+		 * limit.
+		 */
+		byte[] getCopy() {
+			return (copy != null ? copy.toByteArray() : null);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			if (reserve(1)) {
+				copy.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			if (reserve(len)) {
+				copy.write(b, off, len);
+			}
+		}
+
+		private boolean reserve(int len) {
+			if (copy != null && copy.size() + (long) len > limit) {
+				copy = null;
+			}
+			return copy != null;
+		}
+
+	}
+
+}
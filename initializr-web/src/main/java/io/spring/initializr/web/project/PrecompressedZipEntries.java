@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import io.spring.initializr.generator.ProjectResourceLocator;
+
+/**
+ * Content that has been compressed ahead of time so that it can be copied as is in a
+ * zip archive. Content is looked up by its CRC-32 checksum and size, and only matches
+ * if the bytes are identical.
+ * <p>
+ * The wrapper scripts and jars are the same in every project of a given build system:
+ * use {@link #forWrappers(ProjectResourceLocator, int)} to compress them once.
+ *
+ * @author agent
+ * @see ZipProjectWriter
+ */
+public class PrecompressedZipEntries {
+
+	private static final List<String> WRAPPER_RESOURCES;
+
+	static {
+		List<String> resources = new ArrayList<>();
+		resources.add("maven/mvnw");
+		resources.add("maven/mvnw.cmd");
+		resources.add("maven/wrapper/maven-wrapper.properties");
+		resources.add("maven/wrapper/maven-wrapper.jar");
+		for (String gradle : Arrays.asList("gradle", "gradle3", "gradle4")) {
+			resources.add(gradle + "/gradlew");
+			resources.add(gradle + "/gradlew.bat");
+			resources.add(gradle + "/gradle/wrapper/gradle-wrapper.properties");
+			resources.add(gradle + "/gradle/wrapper/gradle-wrapper.jar");
+		}
+		WRAPPER_RESOURCES = Collections.unmodifiableList(resources);
+	}
+
+	private final int compressionLevel;
+
+	private final Map<Long, List<Entry>> entries = new HashMap<>();
+
+	/**
+	 * Create an instance with no content.
+	 * @param compressionLevel the compression level to use, from 0 to 9 or -1 for the
+	 * default level
+	 */
+	public PrecompressedZipEntries(int compressionLevel) {
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Create an instance with the content of the maven and gradle wrappers.
+	 * @param resourceLocator the locator to use to load the wrapper resources
+	 * @param compressionLevel the compression level to use
+	 * @return an instance with the wrapper resources
+	 */
+	public static PrecompressedZipEntries forWrappers(
+			ProjectResourceLocator resourceLocator, int compressionLevel) {
+		PrecompressedZipEntries entries = new PrecompressedZipEntries(compressionLevel);
+		for (String resource : WRAPPER_RESOURCES) {
+			entries.add(resourceLocator
+					.getBinaryResource("classpath:project/" + resource));
+		}
+		return entries;
+	}
+
+	/**
+	 * Return the compression level that was used to compress the content.
+	 * @return the compression level
+	 */
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	/**
+	 * Compress the specified content and register it.
+	 * @param content the content to add
+	 */
+	public void add(byte[] content) {
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		long checksum = crc.getValue();
+		if (find(content, checksum) != null) {
+			return;
+		}
+		Deflater deflater = new Deflater(compressionLevel, true);
+		try {
+			byte[] compressed = deflate(deflater, content);
+			entries.computeIfAbsent(checksum, key -> new ArrayList<>())
+					.add(new Entry(content, checksum, compressed));
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Return the {@link Entry} for the specified content or {@code null} if it has not
+	 * been compressed ahead of time.
+	 * @param content the content to look up
+	 * @param crc the CRC-32 checksum of the content
+	 * @return the matching entry or {@code null}
+	 */
+	public Entry find(byte[] content, long crc) {
+		List<Entry> candidates = entries.get(crc);
+		if (candidates != null) {
+			for (Entry candidate : candidates) {
+				if (Arrays.equals(candidate.content, content)) {
+					return candidate;
+				}
+			}
+		}
+		return null;
+	}
+
+	static byte[] deflate(Deflater deflater, byte[] content) {
+		deflater.reset();
+		deflater.setInput(content);
+		deflater.finish();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(
+				Math.max(64, content.length / 2));
+		byte[] buffer = new byte[8192];
+		while (!deflater.finished()) {
+			int count = deflater.deflate(buffer);
+			out.write(buffer, 0, count);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Content that has been compressed ahead of time.
+	 */
+	public static final class Entry {
+
+		private final byte[] content;
+
+		private final long crc;
+
+		private final byte[] compressedContent;
+
+		private Entry(byte[] content, long crc, byte[] compressedContent) {
+			this.content = content;
+			this.crc = crc;
+			this.compressedContent = compressedContent;
+		}
+
+		/**
+		 * Return the CRC-32 checksum of the uncompressed content.
+		 * @return the checksum
+		 */
+		public long getCrc() {
+			return crc;
+		}
+
+		/**
+		 * Return the size of the uncompressed content.
+		 * @return the size
+		 */
+		public int getSize() {
+			return content.length;
+		}
+
+		/**
+		 * Return the raw deflated content.
+		 * @return the compressed content
+		 */
+		public byte[] getCompressedContent() {
+			return compressedContent;
+		}
+
+	}
+
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of generated archives, keyed by a canonical hash of the
+ * {@link ProjectRequest}.
+ * <p>
+ * Archives are only valid for the {@link InitializrMetadata} instance that was used to
+ * generate them: all archives are discarded as soon as another instance, typically a
+ * refreshed snapshot, is requested.
+ * <p>
+ * Archives are kept in memory up to a maximum size, the least recently used archives
+ * being evicted first. If a directory is configured, evicted archives are moved to
+ * disk, up to a maximum size as well. Archives left on disk by a previous instance are
+ * deleted when the cache is created, as the resolved requests that they require are
+ * only kept in memory.
+ *
+ * @author agent
+ */
+public class ProjectArchiveCache {
+
+	private static final Logger log = LoggerFactory.getLogger(ProjectArchiveCache.class);
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final long maxSize;
+
+	private final File directory;
+
+	private final long maxDiskSize;
+
+	private final LinkedHashMap<String, CachedArchive> memory = new LinkedHashMap<>(16,
+			0.75f, true);
+
+	private final LinkedHashMap<String, DiskEntry> disk = new LinkedHashMap<>(16, 0.75f,
+			true);
+
+	private InitializrMetadata metadata;
+
+	private long size;
+
+	private long diskSize;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong diskHits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Create a cache that keeps archives in memory only.
+	 * @param maxSize the maximum size of the archives kept in memory, in bytes
+	 */
+	public ProjectArchiveCache(long maxSize) {
+		this(maxSize, null, 0);
+	}
+
+	/**
+	 * Create a cache that moves the archives evicted from memory to the specified
+	 * directory.
+	 * @param maxSize the maximum size of the archives kept in memory, in bytes
+	 * @param directory the directory to use or {@code null} to discard evicted
+	 * archives
+	 * @param maxDiskSize the maximum size of the archives kept on disk, in bytes. Any
+	 * archive that the directory holds already is deleted
+	 */
+	public ProjectArchiveCache(long maxSize, File directory, long maxDiskSize) {
+		this.maxSize = maxSize;
+		this.directory = directory;
+		this.maxDiskSize = maxDiskSize;
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalStateException("Cannot create cache directory " + directory);
+		}
+		if (directory != null) {
+			purge(directory);
+		}
+	}
+
+	private static void purge(File directory) {
+		File[] files = directory.listFiles((dir, name) -> isKey(name));
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (!file.delete()) {
+				log.warn("Failed to delete stale cached archive " + file);
+			}
+		}
+	}
+
+	private static boolean isKey(String name) {
+		if (name.length() != 64) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (Character.digit(name.charAt(i), 16) < 0
+					|| Character.isUpperCase(name.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compute the key of an archive in the specified format for the specified
+	 * {@link ProjectRequest}. Dependencies are sorted so that the order in which they
+	 * were requested does not matter.
+	 * @param format the format of the archive
+	 * @param request the request, before resolution
+	 * @return the key of the archive
+	 */
+	public static String computeKey(String format, ProjectRequest request) {
+		StringBuilder sb = new StringBuilder(256);
+		append(sb, format);
+		append(sb, request.getType());
+		append(sb, request.getBootVersion());
+		append(sb, request.getLanguage());
+		append(sb, request.getPackaging());
+		append(sb, request.getJavaVersion());
+		TreeSet<String> dependencies = new TreeSet<>(request.getStyle());
+		dependencies.addAll(request.getDependencies());
+		append(sb, String.join(",", dependencies));
+		append(sb, request.getGroupId());
+		append(sb, request.getArtifactId());
+		append(sb, request.getVersion());
+		append(sb, request.getName());
+		append(sb, request.getDescription());
+		append(sb, request.getPackageName());
+		append(sb, request.getApplicationName());
+		append(sb, request.getBaseDir());
+		return sha256(sb.toString());
+	}
+
+	/**
+	 * Return the archive with the specified key or {@code null} if it is not cached. If
+	 * the specified metadata is not the one the cached archives were generated with,
+	 * they are all discarded.
+	 * @param key the key of the archive
+	 * @param metadata the metadata to use to generate the project
+	 * @return the cached archive or {@code null}
+	 */
+	public CachedArchive get(String key, InitializrMetadata metadata) {
+		DiskEntry diskEntry;
+		List<DiskEntry> stale = null;
+		synchronized (this) {
+			if (this.metadata != metadata) {
+				this.metadata = metadata;
+				stale = removeAll();
+			}
+			CachedArchive archive = memory.get(key);
+			if (archive != null) {
+				hits.incrementAndGet();
+				return archive;
+			}
+			diskEntry = disk.get(key);
+		}
+		if (stale != null) {
+			stale.forEach((entry) -> entry.file.delete());
+		}
+		if (diskEntry != null) {
+			CachedArchive archive = readFromDisk(diskEntry);
+			if (archive != null) {
+				hits.incrementAndGet();
+				diskHits.incrementAndGet();
+				put(key, archive, metadata);
+				return archive;
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Cache the specified archive. The archive is ignored if the cache has moved to
+	 * another metadata instance in the meantime.
+	 * @param key the key of the archive
+	 * @param content the content of the archive
+	 * @param request the resolved request that was used to generate the archive
+	 * @param metadata the metadata that was used to generate the archive
+	 */
+	public void put(String key, byte[] content, ProjectRequest request,
+			InitializrMetadata metadata) {
+		put(key, new CachedArchive(content, request), metadata);
+	}
+
+	private void put(String key, CachedArchive archive, InitializrMetadata metadata) {
+		if (archive.getContent().length > maxSize) {
+			return;
+		}
+		Map<String, CachedArchive> evicted = new LinkedHashMap<>();
+		synchronized (this) {
+			if (this.metadata == null) {
+				this.metadata = metadata;
+			}
+			else if (this.metadata != metadata) {
+				return;
+			}
+			CachedArchive previous = memory.put(key, archive);
+			if (previous != null) {
+				size -= previous.getContent().length;
+			}
+			size += archive.getContent().length;
+			Iterator<Map.Entry<String, CachedArchive>> it = memory.entrySet().iterator();
+			while (size > maxSize && it.hasNext()) {
+				Map.Entry<String, CachedArchive> eldest = it.next();
+				it.remove();
+				size -= eldest.getValue().getContent().length;
+				evictions.incrementAndGet();
+				evicted.put(eldest.getKey(), eldest.getValue());
+			}
+		}
+		if (directory != null) {
+			evicted.forEach((evictedKey, evictedArchive) -> writeToDisk(evictedKey,
+					evictedArchive, metadata));
+		}
+	}
+
+	/**
+	 * Remove all archives from the cache.
+	 */
+	public void clear() {
+		List<DiskEntry> entries;
+		synchronized (this) {
+			entries = removeAll();
+		}
+		entries.forEach((entry) -> entry.file.delete());
+	}
+
+	private List<DiskEntry> removeAll() {
+		memory.clear();
+		size = 0;
+		List<DiskEntry> entries = new ArrayList<>(disk.values());
+		disk.clear();
+		diskSize = 0;
+		return entries;
+	}
+
+	/**
+	 * Return the number of archives that were found in the cache.
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Return the number of archives that were found on disk.
+	 * @return the number of disk hits
+	 */
+	public long getDiskHitCount() {
+		return diskHits.get();
+	}
+
+	/**
+	 * Return the number of archives that were not found in the cache.
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Return the number of archives that were evicted from memory.
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * Return the maximum size of the archives kept in memory, in bytes. A larger archive
+	 * is never cached.
+	 * @return the maximum size in memory
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Return the size of the archives kept in memory, in bytes.
+	 * @return the size in memory
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Return the size of the archives kept on disk, in bytes.
+	 * @return the size on disk
+	 */
+	public synchronized long getDiskSize() {
+		return diskSize;
+	}
+
+	/**
+	 * Return the number of archives kept in memory.
+	 * @return the number of archives in memory
+	 */
+	public synchronized int getCount() {
+		return memory.size();
+	}
+
+	private void writeToDisk(String key, CachedArchive archive,
+			InitializrMetadata metadata) {
+		int length = archive.getContent().length;
+		if (length > maxDiskSize) {
+			return;
+		}
+		File file = new File(directory, key);
+		try {
+			Files.write(file.toPath(), archive.getContent());
+		}
+		catch (IOException ex) {
+			log.warn("Failed to move archive to disk", ex);
+			return;
+		}
+		List<DiskEntry> removed = new ArrayList<>();
+		synchronized (this) {
+			if (this.metadata != metadata) {
+				// Discarded in the meantime
+				file.delete();
+				return;
+			}
+			DiskEntry previous = disk.put(key,
+					new DiskEntry(file, length, archive.getRequest()));
+			if (previous != null) {
+				diskSize -= previous.size;
+			}
+			diskSize += length;
+			Iterator<DiskEntry> it = disk.values().iterator();
+			while (diskSize > maxDiskSize && it.hasNext()) {
+				DiskEntry eldest = it.next();
+				it.remove();
+				diskSize -= eldest.size;
+				removed.add(eldest);
+			}
+		}
+		removed.forEach((entry) -> entry.file.delete());
+	}
+
+	private CachedArchive readFromDisk(DiskEntry entry) {
+		try {
+			return new CachedArchive(Files.readAllBytes(entry.file.toPath()),
+					entry.request);
+		}
+		catch (IOException ex) {
+			// Evicted in the meantime
+			return null;
+		}
+	}
+
+	private static void append(StringBuilder sb, String value) {
+		sb.append(value != null ? value : "").append('\u0000');
+	}
+
+	private static String sha256(String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(value.getBytes(StandardCharsets.UTF_8));
+			char[] chars = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				chars[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+				chars[i * 2 + 1] = HEX[digest[i] & 0xf];
+			}
+			return new String(chars);
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 is not available", ex);
+		}
+	}
+
+	/**
+	 * An archive held by the cache.
+	 */
+	public static final class CachedArchive {
+
+		private final byte[] content;
+
+		private final ProjectRequest request;
+
+		CachedArchive(byte[] content, ProjectRequest request) {
+			this.content = content;
+			this.request = request;
+		}
+
+		/**
+		 * Return the content of the archive.
+		 * @return the content
+		 */
+		public byte[] getContent() {
+			return content;
+		}
+
+		/**
+		 * Return the resolved {@link ProjectRequest} that was used to generate the
+		 * archive.
+		 * @return the resolved request
+		 */
+		public ProjectRequest getRequest() {
+			return request;
+		}
+
+	}
+
+	private static final class DiskEntry {
+
+		private final File file;
+
+		private final long size;
+
+		private final ProjectRequest request;
+
+		DiskEntry(File file, long size, ProjectRequest request) {
+			this.file = file;
+			this.size = size;
+			this.request = request;
+		}
+
+	}
+
+}
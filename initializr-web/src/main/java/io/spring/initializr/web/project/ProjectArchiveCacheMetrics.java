@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link MeterBinder} that exposes the statistics of a {@link ProjectArchiveCache}.
+ *
+ * @author agent
+ */
+public class ProjectArchiveCacheMetrics implements MeterBinder {
+
+	private static final String PREFIX = "initializr.archive.cache";
+
+	private final ProjectArchiveCache cache;
+
+	public ProjectArchiveCacheMetrics(ProjectArchiveCache cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder(PREFIX + ".hits", cache,
+				ProjectArchiveCache::getHitCount)
+				.description("Number of archives served from the cache")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".disk.hits", cache,
+				ProjectArchiveCache::getDiskHitCount)
+				.description("Number of archives served from the disk tier")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".misses", cache,
+				ProjectArchiveCache::getMissCount)
+				.description("Number of archives that had to be generated")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".evictions", cache,
+				ProjectArchiveCache::getEvictionCount)
+				.description("Number of archives evicted from memory")
+				.register(registry);
+		Gauge.builder(PREFIX + ".size", cache, ProjectArchiveCache::getSize)
+				.tag("tier", "memory").baseUnit("bytes")
+				.description("Size of the cached archives").register(registry);
+		Gauge.builder(PREFIX + ".size", cache, ProjectArchiveCache::getDiskSize)
+				.tag("tier", "disk").baseUnit("bytes")
+				.description("Size of the cached archives").register(registry);
+		Gauge.builder(PREFIX + ".count", cache, ProjectArchiveCache::getCount)
+				.description("Number of archives held in memory").register(registry);
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.web.mapper.InitializrMetadataJsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataV21JsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataV2JsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataVersion;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * A cache of the JSON representations of a given {@link InitializrMetadata snapshot} of
+ * the metadata. Each combination of {@link InitializrMetadataVersion API version} and
+ * application URL is rendered once, and kept along with its gzip representation and
+ * their ETags.
+ * <p>
+ * Entries are tied to the snapshot that was used to render them: all entries are
+ * discarded at once as soon as a different snapshot is requested.
+ *
+ * @author agent
+ */
+final class RenderedMetadataCache {
+
+	private static final int MAX_ENTRIES = 32;
+
+	private final Map<InitializrMetadataVersion, InitializrMetadataJsonMapper> jsonMappers;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+	RenderedMetadataCache() {
+		this.jsonMappers = new EnumMap<>(InitializrMetadataVersion.class);
+		this.jsonMappers.put(InitializrMetadataVersion.V2,
+				new InitializrMetadataV2JsonMapper());
+		this.jsonMappers.put(InitializrMetadataVersion.V2_1,
+				new InitializrMetadataV21JsonMapper());
+	}
+
+	/**
+	 * Return the JSON representation of the specified metadata, rendering it if
+	 * necessary.
+	 * @param metadata the metadata snapshot
+	 * @param version the version of the API
+	 * @param appUrl the URL of the service
+	 * @return the rendered metadata
+	 */
+	RenderedMetadata get(InitializrMetadata metadata, InitializrMetadataVersion version,
+			String appUrl) {
+		Snapshot current = snapshot.updateAndGet((existing) -> (existing != null
+				&& existing.metadata == metadata ? existing : new Snapshot(metadata)));
+		List<Object> key = Arrays.asList(version, appUrl);
+		RenderedMetadata rendered = current.entries.get(key);
+		if (rendered != null) {
+			return rendered;
+		}
+		if (current.entries.size() >= MAX_ENTRIES) {
+			// Do not let unexpected application URLs fill the cache
+			return render(metadata, version, appUrl);
+		}
+		return current.entries.computeIfAbsent(key,
+				(k) -> render(metadata, version, appUrl));
+	}
+
+	private RenderedMetadata render(InitializrMetadata metadata,
+			InitializrMetadataVersion version, String appUrl) {
+		InitializrMetadataJsonMapper jsonMapper = jsonMappers.getOrDefault(version,
+				jsonMappers.get(InitializrMetadataVersion.V2_1));
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+		try {
+			jsonMapper.write(metadata, appUrl, out);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write metadata", ex);
+		}
+		byte[] content = out.toByteArray();
+		return new RenderedMetadata(content, gzip(content));
+	}
+
+	private static byte[] gzip(byte[] content) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(content);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to compress metadata", ex);
+		}
+		return out.toByteArray();
+	}
+
+	private static final class Snapshot {
+
+		private final InitializrMetadata metadata;
+
+		private final Map<List<Object>, RenderedMetadata> entries = new ConcurrentHashMap<>();
+
+		Snapshot(InitializrMetadata metadata) {
+			this.metadata = metadata;
+		}
+
+	}
+
+	/**
+	 * The JSON representation of the metadata, as UTF-8 bytes.
+	 */
+	static final class RenderedMetadata {
+
+		private final byte[] content;
+
+		private final byte[] gzipContent;
+
+		private final String eTag;
+
+		private final String gzipETag;
+
+		RenderedMetadata(byte[] content, byte[] gzipContent) {
+			this.content = content;
+			this.gzipContent = gzipContent;
+			String digest = DigestUtils.md5DigestAsHex(content);
+			this.eTag = "\"" + digest + "\"";
+			this.gzipETag = "\"" + digest + "-gzip\"";
+		}
+
+		byte[] getContent() {
+			return content;
+		}
+
+		byte[] getGzipContent() {
+			return gzipContent;
+		}
+
+		/**
+		 * Return the strong ETag of the identity representation.
+		 * @return the ETag
+		 */
+		String getETag() {
+			return eTag;
+		}
+
+		/**
+		 * Return the strong ETag of the gzip representation.
+		 * @return the ETag
+		 */
+		String getGzipETag() {
+			return gzipETag;
+		}
+
+	}
+
+}
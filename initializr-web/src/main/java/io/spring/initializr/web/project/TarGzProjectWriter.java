@@ -0,0 +1,183 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import io.spring.initializr.generator.ProjectWriter;
+
+/**
+ * A {@link ProjectWriter} that writes the project as a gzip-compressed tar archive to
+ * an {@link OutputStream}. Entries use the ustar format and a GNU long name entry is
+ * written for paths that do not fit in the header.
+ *
+ * @author agent
+ */
+public class TarGzProjectWriter extends AbstractArchiveProjectWriter {
+
+	/**
+	 * The default size of the buffer used by the gzip compressor.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	private static final int BLOCK_SIZE = 512;
+
+	private static final int NAME_LENGTH = 100;
+
+	private static final byte TYPE_FILE = '0';
+
+	private static final byte TYPE_DIRECTORY = '5';
+
+	private static final byte TYPE_GNU_LONG_NAME = 'L';
+
+	private static final String GNU_LONG_NAME = "././@LongLink";
+
+	private final LeveledGZIPOutputStream gzip;
+
+	private final byte[] header = new byte[BLOCK_SIZE];
+
+	private final long modificationTime = System.currentTimeMillis() / 1000;
+
+	public TarGzProjectWriter(OutputStream out) throws IOException {
+		this(out, Deflater.DEFAULT_COMPRESSION, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param out the stream to write the archive to
+	 * @param compressionLevel the gzip compression level, from 0 to 9 or -1 for the
+	 * default level
+	 * @param bufferSize the size of the buffer used by the gzip compressor
+	 * @throws IOException if the gzip header could not be written
+	 */
+	public TarGzProjectWriter(OutputStream out, int compressionLevel, int bufferSize)
+			throws IOException {
+		this.gzip = new LeveledGZIPOutputStream(out, bufferSize, compressionLevel);
+	}
+
+	@Override
+	public void finish() throws IOException {
+		Arrays.fill(header, (byte) 0);
+		gzip.write(header);
+		gzip.write(header);
+		gzip.finish();
+		gzip.flush();
+	}
+
+	@Override
+	public void close() {
+		gzip.end();
+	}
+
+	@Override
+	protected void writeDirectoryEntry(String name, int mode) throws IOException {
+		writeHeader(name, mode, 0, TYPE_DIRECTORY);
+	}
+
+	@Override
+	protected void writeFileEntry(String name, byte[] content, int mode)
+			throws IOException {
+		writeHeader(name, mode, content.length, TYPE_FILE);
+		writeContent(content);
+	}
+
+	private void writeHeader(String name, int mode, long size, byte type)
+			throws IOException {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		if (nameBytes.length > NAME_LENGTH) {
+			byte[] longName = Arrays.copyOf(nameBytes, nameBytes.length + 1);
+			writeHeader(GNU_LONG_NAME.getBytes(StandardCharsets.US_ASCII), 0644,
+					longName.length, TYPE_GNU_LONG_NAME);
+			writeContent(longName);
+		}
+		writeHeader(nameBytes, mode, size, type);
+	}
+
+	private void writeHeader(byte[] name, int mode, long size, byte type)
+			throws IOException {
+		Arrays.fill(header, (byte) 0);
+		System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+		writeOctal(mode, 100, 8);
+		writeOctal(0, 108, 8);
+		writeOctal(0, 116, 8);
+		writeOctal(size, 124, 12);
+		writeOctal(modificationTime, 136, 12);
+		header[156] = type;
+		writeAscii("ustar", 257);
+		writeAscii("00", 263);
+		// The checksum is computed with its own field filled with spaces
+		Arrays.fill(header, 148, 156, (byte) ' ');
+		long checksum = 0;
+		for (byte b : header) {
+			checksum += (b & 0xff);
+		}
+		writeOctal(checksum, 148, 7);
+		gzip.write(header);
+	}
+
+	private void writeContent(byte[] content) throws IOException {
+		gzip.write(content);
+		int remainder = content.length % BLOCK_SIZE;
+		if (remainder != 0) {
+			Arrays.fill(header, (byte) 0);
+			gzip.write(header, 0, BLOCK_SIZE - remainder);
+		}
+	}
+
+	/**
+	 * Write the specified value as a zero-padded octal number terminated by a
+	 * {@code NUL} byte.
+	 */
+	private void writeOctal(long value, int offset, int length) {
+		int index = offset + length - 1;
+		header[index--] = 0;
+		long remaining = value;
+		while (index >= offset) {
+			header[index--] = (byte) ('0' + (remaining & 7));
+			remaining >>>= 3;
+		}
+	}
+
+	private void writeAscii(String value, int offset) {
+		byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(bytes, 0, header, offset, bytes.length);
+	}
+
+	/**
+	 * A {@link GZIPOutputStream} with a configurable compression level whose compressor
+	 * can be released without closing the underlying stream.
+	 */
+	private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+		LeveledGZIPOutputStream(OutputStream out, int bufferSize, int compressionLevel)
+				throws IOException {
+			super(out, bufferSize);
+			def.setLevel(compressionLevel);
+		}
+
+		void end() {
+			def.end();
+		}
+
+	}
+
+}
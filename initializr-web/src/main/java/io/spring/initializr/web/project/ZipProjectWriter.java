@@ -0,0 +1,255 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import io.spring.initializr.generator.ProjectWriter;
+import org.apache.tools.zip.UnixStat;
+
+/**
+ * A {@link ProjectWriter} that writes the project as a zip archive to an
+ * {@link OutputStream}. Entries are written as they are received so that the archive
+ * does not have to be staged on disk or buffered in memory.
+ * <p>
+ * Content that is available in the {@link PrecompressedZipEntries} is copied as is
+ * rather than being compressed again.
+ *
+ * @author agent
+ */
+public class ZipProjectWriter extends AbstractArchiveProjectWriter {
+
+	private static final int LOCAL_FILE_HEADER = 0x04034b50;
+
+	private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+
+	private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+	private static final int STORED = 0;
+
+	private static final int DEFLATED = 8;
+
+	private static final int UTF8_FLAG = 1 << 11;
+
+	private static final int VERSION_DIRECTORY = 10;
+
+	private static final int VERSION_DEFLATED = 20;
+
+	private static final int VERSION_MADE_BY_UNIX = (3 << 8) | VERSION_DEFLATED;
+
+	private final OutputStream out;
+
+	private final PrecompressedZipEntries precompressedEntries;
+
+	private final Deflater deflater;
+
+	private final CRC32 crc = new CRC32();
+
+	private final List<CentralDirectoryEntry> centralDirectory = new ArrayList<>();
+
+	private final byte[] buffer = new byte[46];
+
+	private final int dosTime;
+
+	private long offset;
+
+	public ZipProjectWriter(OutputStream out) {
+		this(out, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param out the stream to write the archive to
+	 * @param compressionLevel the compression level, from 0 to 9 or -1 for the default
+	 * level
+	 */
+	public ZipProjectWriter(OutputStream out, int compressionLevel) {
+		this(out, compressionLevel, null);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param out the stream to write the archive to
+	 * @param compressionLevel the compression level, from 0 to 9 or -1 for the default
+	 * level
+	 * @param precompressedEntries the content that has been compressed ahead of time or
+	 * {@code null}
+	 */
+	public ZipProjectWriter(OutputStream out, int compressionLevel,
+			PrecompressedZipEntries precompressedEntries) {
+		this.out = out;
+		this.precompressedEntries = precompressedEntries;
+		this.deflater = new Deflater(compressionLevel, true);
+		this.dosTime = toDosTime(LocalDateTime.now());
+	}
+
+	@Override
+	public void finish() throws IOException {
+		long centralDirectoryOffset = offset;
+		for (CentralDirectoryEntry entry : centralDirectory) {
+			writeCentralDirectoryHeader(entry);
+		}
+		long centralDirectorySize = offset - centralDirectoryOffset;
+		writeInt(0, END_OF_CENTRAL_DIRECTORY);
+		writeShort(4, 0);
+		writeShort(6, 0);
+		writeShort(8, centralDirectory.size());
+		writeShort(10, centralDirectory.size());
+		writeInt(12, centralDirectorySize);
+		writeInt(16, centralDirectoryOffset);
+		writeShort(20, 0);
+		write(buffer, 0, 22);
+		out.flush();
+	}
+
+	@Override
+	public void close() {
+		deflater.end();
+	}
+
+	@Override
+	protected void writeDirectoryEntry(String name, int mode) throws IOException {
+		CentralDirectoryEntry entry = new CentralDirectoryEntry(name,
+				UnixStat.DIR_FLAG | mode, VERSION_DIRECTORY, STORED, 0, 0, 0, offset);
+		writeLocalFileHeader(entry);
+	}
+
+	@Override
+	protected void writeFileEntry(String name, byte[] content, int mode)
+			throws IOException {
+		crc.reset();
+		crc.update(content);
+		long checksum = crc.getValue();
+		byte[] compressed = null;
+		if (precompressedEntries != null) {
+			PrecompressedZipEntries.Entry precompressed = precompressedEntries
+					.find(content, checksum);
+			if (precompressed != null) {
+				compressed = precompressed.getCompressedContent();
+			}
+		}
+		if (compressed == null) {
+			compressed = PrecompressedZipEntries.deflate(deflater, content);
+		}
+		CentralDirectoryEntry entry = new CentralDirectoryEntry(name,
+				UnixStat.FILE_FLAG | mode, VERSION_DEFLATED, DEFLATED, checksum,
+				compressed.length, content.length, offset);
+		writeLocalFileHeader(entry);
+		write(compressed, 0, compressed.length);
+	}
+
+	private void writeLocalFileHeader(CentralDirectoryEntry entry) throws IOException {
+		writeInt(0, LOCAL_FILE_HEADER);
+		writeShort(4, entry.versionNeeded);
+		writeShort(6, UTF8_FLAG);
+		writeShort(8, entry.method);
+		writeInt(10, dosTime);
+		writeInt(14, entry.crc);
+		writeInt(18, entry.compressedSize);
+		writeInt(22, entry.size);
+		writeShort(26, entry.name.length);
+		writeShort(28, 0);
+		write(buffer, 0, 30);
+		write(entry.name, 0, entry.name.length);
+		centralDirectory.add(entry);
+	}
+
+	private void writeCentralDirectoryHeader(CentralDirectoryEntry entry)
+			throws IOException {
+		writeInt(0, CENTRAL_DIRECTORY_HEADER);
+		writeShort(4, VERSION_MADE_BY_UNIX);
+		writeShort(6, entry.versionNeeded);
+		writeShort(8, UTF8_FLAG);
+		writeShort(10, entry.method);
+		writeInt(12, dosTime);
+		writeInt(16, entry.crc);
+		writeInt(20, entry.compressedSize);
+		writeInt(24, entry.size);
+		writeShort(28, entry.name.length);
+		writeShort(30, 0);
+		writeShort(32, 0);
+		writeShort(34, 0);
+		writeShort(36, 0);
+		writeInt(38, (long) entry.unixMode << 16);
+		writeInt(42, entry.localHeaderOffset);
+		write(buffer, 0, 46);
+		write(entry.name, 0, entry.name.length);
+	}
+
+	private void write(byte[] bytes, int off, int length) throws IOException {
+		out.write(bytes, off, length);
+		offset += length;
+	}
+
+	private void writeShort(int index, int value) {
+		buffer[index] = (byte) value;
+		buffer[index + 1] = (byte) (value >>> 8);
+	}
+
+	private void writeInt(int index, long value) {
+		buffer[index] = (byte) value;
+		buffer[index + 1] = (byte) (value >>> 8);
+		buffer[index + 2] = (byte) (value >>> 16);
+		buffer[index + 3] = (byte) (value >>> 24);
+	}
+
+	private static int toDosTime(LocalDateTime time) {
+		return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21
+				| time.getDayOfMonth() << 16 | time.getHour() << 11
+				| time.getMinute() << 5 | time.getSecond() >> 1;
+	}
+
+	private static final class CentralDirectoryEntry {
+
+		private final byte[] name;
+
+		private final int unixMode;
+
+		private final int versionNeeded;
+
+		private final int method;
+
+		private final long crc;
+
+		private final long compressedSize;
+
+		private final long size;
+
+		private final long localHeaderOffset;
+
+		CentralDirectoryEntry(String name, int unixMode, int versionNeeded, int method,
+				long crc, long compressedSize, long size, long localHeaderOffset) {
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.unixMode = unixMode;
+			this.versionNeeded = versionNeeded;
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2017 the original author or authors.
+ * Copyright 2012-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,72 +16,409 @@
 
 package io.spring.initializr.web.support;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.InitializrConfiguration.Env;
+import io.spring.initializr.metadata.InitializrConfiguration.Env.Archive;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * A default {@link InitializrMetadataProvider} that is able to refresh
  * the metadata with the status of the main spring.io site.
+ * <p>
+ * Each refresh builds a new {@link InitializrMetadata} snapshot that is published
+ * atomically once it is complete, along with its
+ * {@link io.spring.initializr.metadata.DependencyIndex}: a snapshot is never modified
+ * once it has been returned by {@link #get()}.
+ * <p>
+ * Once started, the Spring Boot versions are fetched in the background at a fixed
+ * interval, and callers keep getting the last good snapshot in the meantime. Failures
+ * are retried with an exponential backoff. If a cache file is configured, the last
+ * versions that were fetched successfully are stored on disk and used on startup until
+ * the first refresh completes.
  *
  * @author Stephane Nicoll
  */
-public class DefaultInitializrMetadataProvider implements InitializrMetadataProvider {
+public class DefaultInitializrMetadataProvider
+		implements InitializrMetadataProvider, SmartLifecycle {
+
+	/**
+	 * The default interval between two refreshes of the Spring Boot versions.
+	 */
+	public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(10);
+
+	/**
+	 * The default delay before retrying a refresh that failed.
+	 */
+	public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(15);
 
 	private static final Logger log = LoggerFactory
 			.getLogger(DefaultInitializrMetadataProvider.class);
 
-	private final InitializrMetadata metadata;
+	private final Supplier<InitializrMetadata> metadataFactory;
 	private final ObjectMapper objectMapper;
 	private final RestTemplate restTemplate;
 
-	public DefaultInitializrMetadataProvider(InitializrMetadata metadata,
-			ObjectMapper objectMapper, RestTemplate restTemplate) {
-		this.metadata = metadata;
+	private final AtomicReference<InitializrMetadata> snapshot = new AtomicReference<>();
+	private final AtomicReference<List<DefaultMetadataElement>> bootVersions = new AtomicReference<>();
+
+	private final AtomicLong lastRefreshTime = new AtomicLong(-1);
+	private final AtomicLong refreshCount = new AtomicLong();
+	private final AtomicLong refreshTotalTime = new AtomicLong();
+	private final AtomicLong refreshFailures = new AtomicLong();
+	private volatile int consecutiveFailures;
+
+	private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+	private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+	private File cacheFile;
+
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Create a new instance.
+	 * @param metadataFactory the factory to use to build a new snapshot of the metadata
+	 * @param objectMapper the object mapper to use to read the Spring Boot metadata
+	 * @param restTemplate the rest template to use to fetch the Spring Boot metadata
+	 */
+	public DefaultInitializrMetadataProvider(
+			Supplier<InitializrMetadata> metadataFactory, ObjectMapper objectMapper,
+			RestTemplate restTemplate) {
+		this.metadataFactory = metadataFactory;
 		this.objectMapper = objectMapper;
 		this.restTemplate = restTemplate;
 	}
 
+	/**
+	 * Create a new instance that builds each snapshot from a copy of the specified
+	 * {@link InitializrMetadata}, so that the latter is never updated in place.
+	 * @param metadata the metadata
+	 * @param objectMapper the object mapper to use to read the Spring Boot metadata
+	 * @param restTemplate the rest template to use to fetch the Spring Boot metadata
+	 * @deprecated as of 0.6.0 in favor of
+	 * {@link #DefaultInitializrMetadataProvider(Supplier, ObjectMapper, RestTemplate)}
+	 * that does not expose a partially updated metadata to concurrent readers
+	 */
+	@Deprecated
+	public DefaultInitializrMetadataProvider(InitializrMetadata metadata,
+			ObjectMapper objectMapper, RestTemplate restTemplate) {
+		this(() -> copy(metadata, objectMapper), objectMapper, restTemplate);
+	}
+
+	private static InitializrMetadata copy(InitializrMetadata metadata,
+			ObjectMapper objectMapper) {
+		try {
+			InitializrMetadata copy = new InitializrMetadata();
+			copy.merge(objectMapper.readValue(objectMapper.writeValueAsBytes(metadata),
+					InitializrMetadata.class));
+			copyInternalSettings(metadata.getConfiguration().getEnv(),
+					copy.getConfiguration().getEnv());
+			copy.validate();
+			return copy;
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot copy metadata", ex);
+		}
+	}
+
+	/**
+	 * Copy the settings that are not exposed in the JSON representation of the metadata.
+	 */
+	private static void copyInternalSettings(Env source, Env target) {
+		target.setSpringBootMetadataCacheFile(source.getSpringBootMetadataCacheFile());
+		Archive archive = source.getArchive();
+		target.getArchive().setCompressionLevel(archive.getCompressionLevel());
+		target.getArchive().setBufferSize(archive.getBufferSize());
+		Archive.Cache cache = archive.getCache();
+		target.getArchive().getCache().setEnabled(cache.isEnabled());
+		target.getArchive().getCache().setMaxSize(cache.getMaxSize());
+		target.getArchive().getCache().setDirectory(cache.getDirectory());
+		target.getArchive().getCache().setMaxDiskSize(cache.getMaxDiskSize());
+	}
+
+	/**
+	 * Set the interval between two refreshes of the Spring Boot versions.
+	 * @param refreshInterval the refresh interval
+	 */
+	public void setRefreshInterval(Duration refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * Set the delay before retrying a refresh that failed. The delay doubles on every
+	 * consecutive failure, up to the refresh interval.
+	 * @param initialBackoff the initial backoff
+	 */
+	public void setInitialBackoff(Duration initialBackoff) {
+		this.initialBackoff = initialBackoff;
+	}
+
+	/**
+	 * Set the file in which the last Spring Boot versions that were fetched
+	 * successfully should be stored.
+	 * @param cacheFile the cache file or {@code null} to disable it
+	 */
+	public void setCacheFile(File cacheFile) {
+		this.cacheFile = cacheFile;
+	}
+
 	@Override
-	@Cacheable(value = "initializr.metadata", key = "'metadata'")
 	public InitializrMetadata get() {
+		InitializrMetadata current = snapshot.get();
+		if (current == null) {
+			if (bootVersions.get() == null) {
+				bootVersions.compareAndSet(null, readCacheFile());
+			}
+			return refresh();
+		}
+		return current;
+	}
+
+	/**
+	 * Build a new snapshot of the metadata with the last known Spring Boot versions and
+	 * publish it.
+	 * @return the new snapshot
+	 */
+	public synchronized InitializrMetadata refresh() {
+		InitializrMetadata metadata = metadataFactory.get();
 		updateInitializrMetadata(metadata);
+		metadata.dependencyIndex();
+		snapshot.set(metadata);
 		return metadata;
 	}
 
-	protected void updateInitializrMetadata(InitializrMetadata metadata) {
-		List<DefaultMetadataElement> bootVersions = fetchBootVersions();
-		if (bootVersions != null && !bootVersions.isEmpty()) {
-			if (bootVersions.stream().noneMatch(DefaultMetadataElement::isDefault)) {
+	/**
+	 * Fetch the Spring Boot versions and publish a new snapshot if they are available.
+	 * @return {@code true} if the versions were fetched successfully
+	 */
+	public boolean refreshBootVersions() {
+		long start = System.nanoTime();
+		List<DefaultMetadataElement> versions;
+		try {
+			versions = fetchBootVersions(get());
+		}
+		catch (Exception ex) {
+			refreshFailures.incrementAndGet();
+			consecutiveFailures++;
+			log.warn("Failed to fetch spring boot metadata", ex);
+			return false;
+		}
+		finally {
+			refreshCount.incrementAndGet();
+			refreshTotalTime.addAndGet(System.nanoTime() - start);
+		}
+		if (versions != null && !versions.isEmpty()) {
+			if (versions.stream().noneMatch(DefaultMetadataElement::isDefault)) {
 				// No default specified
-				bootVersions.get(0).setDefault(true);
+				versions.get(0).setDefault(true);
 			}
-			metadata.updateSpringBootVersions(bootVersions);
+			bootVersions.set(versions);
+			writeCacheFile(versions);
+			refresh();
 		}
+		consecutiveFailures = 0;
+		lastRefreshTime.set(System.currentTimeMillis());
+		return true;
 	}
 
+	/**
+	 * Update the specified metadata, before it is published as a new snapshot. By default,
+	 * apply the last Spring Boot versions that were fetched, if any.
+	 * @param metadata the metadata to update
+	 */
+	protected void updateInitializrMetadata(InitializrMetadata metadata) {
+		List<DefaultMetadataElement> versions = bootVersions.get();
+		if (versions != null) {
+			metadata.updateSpringBootVersions(versions);
+		}
+	}
+
+	/**
+	 * Fetch the Spring Boot versions using the location defined by the current snapshot.
+	 * @return the Spring Boot versions or {@code null} if no location is configured or
+	 * if they could not be fetched
+	 * @deprecated as of 0.6.0 in favor of {@link #fetchBootVersions(InitializrMetadata)}
+	 */
+	@Deprecated
 	protected List<DefaultMetadataElement> fetchBootVersions() {
+		try {
+			return fetchBootVersions(get());
+		}
+		catch (Exception ex) {
+			log.warn("Failed to fetch spring boot metadata", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Fetch the Spring Boot versions.
+	 * @param metadata the metadata that defines the location of the Spring Boot
+	 * metadata
+	 * @return the Spring Boot versions or {@code null} if no location is configured
+	 * @throws IOException if the versions could not be fetched
+	 */
+	protected List<DefaultMetadataElement> fetchBootVersions(
+			InitializrMetadata metadata) throws IOException {
 		String url = metadata.getConfiguration().getEnv().getSpringBootMetadataUrl();
 		if (StringUtils.hasText(url)) {
+			log.info("Fetching boot metadata from {}", url);
+			return new SpringBootMetadataReader(objectMapper, restTemplate, url)
+					.getBootVersions();
+		}
+		return null;
+	}
+
+	/**
+	 * Return the time of the last successful refresh, in milliseconds since the epoch,
+	 * or {@code -1} if the Spring Boot versions have not been fetched yet.
+	 * @return the time of the last successful refresh
+	 */
+	public long getLastRefreshTime() {
+		return lastRefreshTime.get();
+	}
+
+	/**
+	 * Return the number of refresh attempts.
+	 * @return the number of refreshes
+	 */
+	public long getRefreshCount() {
+		return refreshCount.get();
+	}
+
+	/**
+	 * Return the total time spent refreshing the Spring Boot versions, in nanoseconds.
+	 * @return the total refresh time
+	 */
+	public long getRefreshTotalTime() {
+		return refreshTotalTime.get();
+	}
+
+	/**
+	 * Return the number of refresh attempts that failed.
+	 * @return the number of failures
+	 */
+	public long getRefreshFailureCount() {
+		return refreshFailures.get();
+	}
+
+	@Override
+	public synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "initializr-metadata-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduleRefresh(Duration.ZERO);
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public synchronized boolean isRunning() {
+		return scheduler != null;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+
+	/**
+	 * Return the delay before the next refresh, according to the number of consecutive
+	 * failures.
+	 */
+	Duration getNextRefreshDelay() {
+		int failures = consecutiveFailures;
+		if (failures == 0) {
+			return refreshInterval;
+		}
+		Duration backoff = initialBackoff.multipliedBy(1L << Math.min(failures - 1, 20));
+		return (backoff.compareTo(refreshInterval) < 0 ? backoff : refreshInterval);
+	}
+
+	private synchronized void scheduleRefresh(Duration delay) {
+		if (scheduler == null) {
+			return;
+		}
+		scheduler.schedule(() -> {
 			try {
-				log.info("Fetching boot metadata from {}", url);
-				return new SpringBootMetadataReader(objectMapper, restTemplate, url)
-						.getBootVersions();
+				refreshBootVersions();
 			}
-			catch (Exception e) {
-				log.warn("Failed to fetch spring boot metadata", e);
+			finally {
+				scheduleRefresh(getNextRefreshDelay());
 			}
+		}, delay.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	private List<DefaultMetadataElement> readCacheFile() {
+		if (cacheFile == null || !cacheFile.exists()) {
+			return null;
+		}
+		try {
+			return Arrays.asList(
+					objectMapper.readValue(cacheFile, DefaultMetadataElement[].class));
+		}
+		catch (IOException ex) {
+			log.warn("Failed to read spring boot metadata from " + cacheFile, ex);
+			return null;
+		}
+	}
+
+	private void writeCacheFile(List<DefaultMetadataElement> versions) {
+		if (cacheFile == null) {
+			return;
+		}
+		try {
+			File parent = cacheFile.getAbsoluteFile().getParentFile();
+			parent.mkdirs();
+			File tmp = File.createTempFile(cacheFile.getName(), ".tmp", parent);
+			objectMapper.writeValue(tmp, versions);
+			Files.move(tmp.toPath(), cacheFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException ex) {
+			log.warn("Failed to write spring boot metadata to " + cacheFile, ex);
 		}
-		return null;
 	}
 
 }
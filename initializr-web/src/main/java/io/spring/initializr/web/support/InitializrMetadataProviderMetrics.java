@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link MeterBinder} that exposes the refresh statistics of a
+ * {@link DefaultInitializrMetadataProvider}.
+ *
+ * @author agent
+ */
+public class InitializrMetadataProviderMetrics implements MeterBinder {
+
+	private static final String PREFIX = "initializr.metadata.refresh";
+
+	private final DefaultInitializrMetadataProvider metadataProvider;
+
+	public InitializrMetadataProviderMetrics(
+			DefaultInitializrMetadataProvider metadataProvider) {
+		this.metadataProvider = metadataProvider;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionTimer.builder(PREFIX, metadataProvider,
+				DefaultInitializrMetadataProvider::getRefreshCount,
+				DefaultInitializrMetadataProvider::getRefreshTotalTime,
+				TimeUnit.NANOSECONDS)
+				.description("Time spent fetching the Spring Boot versions")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".failures", metadataProvider,
+				DefaultInitializrMetadataProvider::getRefreshFailureCount)
+				.description("Number of failed attempts to fetch the Spring Boot versions")
+				.register(registry);
+		Gauge.builder(PREFIX + ".age", metadataProvider,
+				InitializrMetadataProviderMetrics::getRefreshAge).baseUnit("seconds")
+				.description("Time since the Spring Boot versions were last fetched")
+				.register(registry);
+	}
+
+	private static double getRefreshAge(DefaultInitializrMetadataProvider provider) {
+		long lastRefreshTime = provider.getLastRefreshTime();
+		if (lastRefreshTime < 0) {
+			return Double.NaN;
+		}
+		return (System.currentTimeMillis() - lastRefreshTime) / 1000.0;
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.spring.initializr.util.TemplateRenderer;
+
+/**
+ * A {@link MeterBinder} that exposes the time it took to compile each template that a
+ * {@link TemplateRenderer} preloaded on startup.
+ *
+ * @author agent
+ */
+public class TemplateRendererMetrics implements MeterBinder {
+
+	private final TemplateRenderer templateRenderer;
+
+	public TemplateRendererMetrics(TemplateRenderer templateRenderer) {
+		this.templateRenderer = templateRenderer;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		templateRenderer.getCompileTimes().forEach((name, compileTime) ->
+				TimeGauge.builder("initializr.templates.compile", compileTime,
+						TimeUnit.NANOSECONDS, Duration::toNanos).tag("template", name)
+						.description("Time to compile the template on startup")
+						.register(registry));
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.spring.initializr.generator.TemporaryFileManager;
+
+/**
+ * A {@link MeterBinder} that exposes the temporary files tracked by a
+ * {@link TemporaryFileManager}.
+ *
+ * @author agent
+ */
+public class TemporaryFileManagerMetrics implements MeterBinder {
+
+	private static final String PREFIX = "initializr.temp";
+
+	private final TemporaryFileManager temporaryFileManager;
+
+	public TemporaryFileManagerMetrics(TemporaryFileManager temporaryFileManager) {
+		this.temporaryFileManager = temporaryFileManager;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(PREFIX + ".handles", temporaryFileManager,
+				TemporaryFileManager::getHandleCount)
+				.description("Number of requests holding temporary files")
+				.register(registry);
+		Gauge.builder(PREFIX + ".files", temporaryFileManager,
+				TemporaryFileManager::getFileCount)
+				.description("Number of temporary files on disk").register(registry);
+		Gauge.builder(PREFIX + ".size", temporaryFileManager,
+				TemporaryFileManager::getSize).baseUnit("bytes")
+				.description("Size of the temporary files on disk").register(registry);
+		FunctionCounter.builder(PREFIX + ".swept", temporaryFileManager,
+				TemporaryFileManager::getSweptCount)
+				.description("Number of orphaned temporary files groups deleted")
+				.register(registry);
+	}
+
+}
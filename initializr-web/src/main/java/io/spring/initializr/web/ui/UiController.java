@@ -16,22 +16,24 @@
 
 package io.spring.initializr.web.ui;
 
-import java.nio.charset.StandardCharsets;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import io.spring.initializr.metadata.Dependency;
-import io.spring.initializr.metadata.DependencyGroup;
+import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.util.Version;
+import io.spring.initializr.web.ui.UiDependenciesCache.CachedDependencies;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -41,64 +43,97 @@ import org.springframework.web.bind.annotation.RestController;
  * UI specific controller providing dedicated endpoints for the Web UI.
  *
  * @author Stephane Nicoll
+ * @author agent
  */
 @RestController
 public class UiController {
 
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
 	protected final InitializrMetadataProvider metadataProvider;
 
+	private final UiDependenciesCache dependenciesCache;
+
 	public UiController(InitializrMetadataProvider metadataProvider) {
+		this(metadataProvider, new UiDependenciesCache());
+	}
+
+	public UiController(InitializrMetadataProvider metadataProvider,
+			UiDependenciesCache dependenciesCache) {
 		this.metadataProvider = metadataProvider;
+		this.dependenciesCache = dependenciesCache;
 	}
 
 	@GetMapping(path = "/ui/dependencies", produces = "application/json")
-	public ResponseEntity<String> dependencies(
+	public ResponseEntity<byte[]> dependencies(
 			@RequestParam(required = false) String version) {
-		List<DependencyGroup> dependencyGroups = metadataProvider.get()
-				.getDependencies().getContent();
+		InitializrMetadata metadata = metadataProvider.get();
+		Version bootVersion = (StringUtils.isEmpty(version) ? null
+				: Version.parse(version));
+		CachedDependencies dependencies = dependenciesCache.get(metadata,
+				(bootVersion != null ? bootVersion.toString() : ""),
+				() -> writeDependencies(getDependencies(metadata, bootVersion)));
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag(dependencies.getETag())
+				.cacheControl(CacheControl.noCache())
+				.body(dependencies.getContent());
+	}
+
+	private static List<DependencyItem> getDependencies(InitializrMetadata metadata,
+			Version bootVersion) {
 		List<DependencyItem> content = new ArrayList<>();
-		Version v = StringUtils.isEmpty(version) ? null : Version.parse(version);
-		dependencyGroups.forEach(g -> g.getContent().forEach(d -> {
-			if (v != null && d.getVersionRange() != null) {
-				if (d.match(v)) {
-					content.add(new DependencyItem(g.getName(), d));
-				}
-			}
-			else {
-				content.add(new DependencyItem(g.getName(), d));
-			}
-		}));
-		String json = writeDependencies(content);
-		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).
-				eTag(createUniqueId(json)).body(json);
+		if (bootVersion == null) {
+			metadata.getDependencies().getContent().forEach(g -> g.getContent()
+					.forEach(d -> content.add(new DependencyItem(g.getName(), d))));
+		}
+		else {
+			metadata.dependencyIndex().get(bootVersion)
+					.getCompatibleDependencyGroups()
+					.forEach((group, dependencies) -> dependencies
+							.forEach(d -> content.add(new DependencyItem(group, d))));
+		}
+		return content;
 	}
 
-	private static String writeDependencies(List<DependencyItem> items) {
-		ObjectNode json = JsonNodeFactory.instance.objectNode();
-		ArrayNode maps = JsonNodeFactory.instance.arrayNode();
-		items.forEach(d -> maps.add(mapDependency(d)));
-		json.set("dependencies", maps);
-		return json.toString();
+	private static byte[] writeDependencies(List<DependencyItem> items) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(items.size() * 128);
+		try (JsonGenerator generator = jsonFactory.createGenerator(out,
+				JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			generator.writeArrayFieldStart("dependencies");
+			for (DependencyItem item : items) {
+				writeDependency(generator, item);
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write dependencies", ex);
+		}
+		return out.toByteArray();
 	}
 
-	private static ObjectNode mapDependency(DependencyItem item) {
-		ObjectNode node = JsonNodeFactory.instance.objectNode();
+	private static void writeDependency(JsonGenerator generator, DependencyItem item)
+			throws IOException {
+		generator.writeStartObject();
 		Dependency d = item.dependency;
-		node.put("id", d.getId());
-		node.put("name", d.getName());
-		node.put("group", item.group);
+		generator.writeStringField("id", d.getId());
+		generator.writeStringField("name", d.getName());
+		generator.writeStringField("group", item.group);
 		if (d.getDescription() != null) {
-			node.put("description", d.getDescription());
+			generator.writeStringField("description", d.getDescription());
 		}
 		if (d.getWeight() > 0) {
-			node.put("weight", d.getWeight());
+			generator.writeNumberField("weight", d.getWeight());
 		}
 		if (!CollectionUtils.isEmpty(d.getKeywords()) || !CollectionUtils.isEmpty(d.getAliases())) {
 			List<String> all = new ArrayList<>(d.getKeywords());
 			all.addAll(d.getAliases());
-			node.put("keywords", StringUtils.collectionToCommaDelimitedString(all));
+			generator.writeStringField("keywords",
+					StringUtils.collectionToCommaDelimitedString(all));
 		}
-		return node;
+		generator.writeEndObject();
 	}
 
 	private static class DependencyItem {
@@ -111,10 +146,4 @@ public class UiController {
 		}
 	}
 
-	private String createUniqueId(String content) {
-		StringBuilder builder = new StringBuilder();
-		DigestUtils.appendMd5DigestAsHex(content.getBytes(StandardCharsets.UTF_8), builder);
-		return builder.toString();
-	}
-
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.ui;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * A cache of the dependencies rendered for the Web UI, keyed by normalized Spring Boot
+ * version for a given {@link InitializrMetadata snapshot} of the metadata.
+ * <p>
+ * All entries are discarded at once as soon as a different snapshot is requested.
+ * Entries are kept up to a maximum number per snapshot: once it is reached, content for
+ * additional versions is rendered on every request.
+ *
+ * @author agent
+ */
+public class UiDependenciesCache {
+
+	private static final int DEFAULT_MAX_ENTRIES = 64;
+
+	private final int maxEntries;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Create a cache with a default maximum number of entries.
+	 */
+	public UiDependenciesCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Create a cache with the specified maximum number of entries.
+	 * @param maxEntries the maximum number of versions to keep per snapshot
+	 */
+	public UiDependenciesCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Return the dependencies for the specified version, rendering them with the
+	 * specified {@code renderer} if necessary.
+	 * @param metadata the metadata snapshot
+	 * @param version the normalized Spring Boot version, or an empty string for all
+	 * dependencies
+	 * @param renderer the renderer of the JSON content, as UTF-8 bytes
+	 * @return the cached dependencies
+	 */
+	public CachedDependencies get(InitializrMetadata metadata, String version,
+			Supplier<byte[]> renderer) {
+		Snapshot current = snapshot.updateAndGet((existing) -> (existing != null
+				&& existing.metadata == metadata ? existing : new Snapshot(metadata)));
+		CachedDependencies dependencies = current.entries.get(version);
+		if (dependencies != null) {
+			hits.incrementAndGet();
+			return dependencies;
+		}
+		misses.incrementAndGet();
+		if (current.entries.size() >= maxEntries) {
+			return new CachedDependencies(renderer.get());
+		}
+		return current.entries.computeIfAbsent(version,
+				(v) -> new CachedDependencies(renderer.get()));
+	}
+
+	/**
+	 * Return the number of requests that were served from the cache.
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Return the number of requests that required the dependencies to be rendered.
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Return the number of versions cached for the current snapshot.
+	 * @return the number of entries
+	 */
+	public int getCount() {
+		Snapshot current = snapshot.get();
+		return (current != null ? current.entries.size() : 0);
+	}
+
+	private static final class Snapshot {
+
+		private final InitializrMetadata metadata;
+
+		private final Map<String, CachedDependencies> entries = new ConcurrentHashMap<>();
+
+		Snapshot(InitializrMetadata metadata) {
+			this.metadata = metadata;
+		}
+
+	}
+
+	/**
+	 * Dependencies held by the cache.
+	 */
+	public static final class CachedDependencies {
+
+		private final byte[] content;
+
+		private final String eTag;
+
+		CachedDependencies(byte[] content) {
+			this.content = content;
+			this.eTag = "\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+		}
+
+		/**
+		 * Return the JSON representation of the dependencies, as UTF-8 bytes.
+		 * @return the content
+		 */
+		public byte[] getContent() {
+			return content;
+		}
+
+		/**
+		 * Return the strong ETag of the content.
+		 * @return the ETag
+		 */
+		public String getETag() {
+			return eTag;
+		}
+
+	}
+
+}
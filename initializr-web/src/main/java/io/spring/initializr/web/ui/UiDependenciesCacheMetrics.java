@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.ui;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link MeterBinder} that exposes the statistics of a {@link UiDependenciesCache}.
+ *
+ * @author agent
+ */
+public class UiDependenciesCacheMetrics implements MeterBinder {
+
+	private static final String PREFIX = "initializr.ui.dependencies.cache";
+
+	private final UiDependenciesCache cache;
+
+	public UiDependenciesCacheMetrics(UiDependenciesCache cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder(PREFIX + ".hits", cache,
+				UiDependenciesCache::getHitCount)
+				.description("Number of dependencies responses served from the cache")
+				.register(registry);
+		FunctionCounter.builder(PREFIX + ".misses", cache,
+				UiDependenciesCache::getMissCount)
+				.description("Number of dependencies responses that had to be rendered")
+				.register(registry);
+		Gauge.builder(PREFIX + ".hit.ratio", cache, UiDependenciesCacheMetrics::hitRatio)
+				.description("Ratio of dependencies responses served from the cache")
+				.register(registry);
+		Gauge.builder(PREFIX + ".count", cache, UiDependenciesCache::getCount)
+				.description("Number of versions cached for the current metadata")
+				.register(registry);
+	}
+
+	private static double hitRatio(UiDependenciesCache cache) {
+		long hits = cache.getHitCount();
+		long total = hits + cache.getMissCount();
+		return (total > 0 ? (double) hits / total : 0);
+	}
+
+}
@@ -17,6 +17,7 @@
 package io.spring.initializr.web.autoconfigure;
 
 import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.util.TemplateRenderer;
 import org.junit.Test;
 
 import org.springframework.beans.DirectFieldAccessor;
@@ -46,6 +47,22 @@ public class InitializrAutoConfigurationTests {
 					InitializrAutoConfiguration.class));
 
 
+	@Test
+	public void templatesArePreloaded() {
+		this.contextRunner.run((context) -> {
+			TemplateRenderer templateRenderer = context.getBean(TemplateRenderer.class);
+			assertThat(templateRenderer.getCompileTimes()).containsKeys(
+					"starter-pom.xml", "starter-build.gradle", "Application.java");
+		});
+	}
+
+	@Test
+	public void templatesAreNotPreloadedWithCacheDisabled() {
+		this.contextRunner.withPropertyValues("spring.mustache.cache=false")
+				.run((context) -> assertThat(context.getBean(TemplateRenderer.class)
+						.getCompileTimes()).isEmpty());
+	}
+
 	@Test
 	public void customRestTemplateBuilderIsUsed() {
 		this.contextRunner.withUserConfiguration(CustomRestTemplateConfiguration.class)
@@ -16,8 +16,12 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.ByteArrayOutputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import io.spring.initializr.metadata.BillOfMaterials;
 import io.spring.initializr.metadata.Dependency;
@@ -27,6 +31,7 @@ import io.spring.initializr.util.Version;
 import org.json.JSONObject;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -64,4 +69,30 @@ public class DependencyMetadataJsonMapperTests {
 				.getJSONObject("bom-id").getString("version"));
 	}
 
+	@Test
+	public void streamingWriteMatchesTree() throws Exception {
+		Map<String, Dependency> dependencies = new LinkedHashMap<>();
+		Map<String, Repository> repositories = new LinkedHashMap<>();
+		Map<String, BillOfMaterials> boms = new LinkedHashMap<>();
+		for (int i = 0; i < 20; i++) {
+			Dependency d = Dependency.withId("foo-" + i, "org.foo", "foo-" + i);
+			d.setBom("bom-" + i);
+			dependencies.put(d.getId(), d);
+			Repository repository = new Repository();
+			repository.setName("Repo " + i);
+			repository.setUrl(new URL("http://example.com/repo-" + i));
+			repositories.put("repo-" + i, repository);
+			BillOfMaterials bom = BillOfMaterials.create("org.foo", "foo-bom-" + i,
+					"1.0.0.RELEASE");
+			bom.getRepositories().add("repo-" + i);
+			boms.put("bom-" + i, bom);
+		}
+		DependencyMetadata metadata = new DependencyMetadata(
+				Version.parse("1.2.0.RELEASE"), dependencies, repositories, boms);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		mapper.write(metadata, out);
+		assertArrayEquals(mapper.write(metadata).getBytes(StandardCharsets.UTF_8),
+				out.toByteArray());
+	}
+
 }
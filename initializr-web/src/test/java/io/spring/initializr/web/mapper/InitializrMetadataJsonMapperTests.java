@@ -16,7 +16,9 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,6 +28,7 @@ import io.spring.initializr.metadata.Link;
 import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -77,6 +80,42 @@ public class InitializrMetadataJsonMapperTests {
 		assertTrue(second > 0);
 	}
 
+	@Test
+	public void streamingWriteMatchesTree() throws IOException {
+		InitializrMetadata metadata = createRichMetadata();
+		assertArrayEquals(
+				jsonMapper.write(metadata, "http://localhost").getBytes(StandardCharsets.UTF_8),
+				writeToBytes(jsonMapper, metadata, "http://localhost"));
+	}
+
+	@Test
+	public void streamingWriteMatchesTreeV2() throws IOException {
+		InitializrMetadataJsonMapper v2 = new InitializrMetadataV2JsonMapper();
+		InitializrMetadata metadata = createRichMetadata();
+		assertArrayEquals(v2.write(metadata, null).getBytes(StandardCharsets.UTF_8),
+				writeToBytes(v2, metadata, null));
+	}
+
+	private static InitializrMetadata createRichMetadata() {
+		Dependency dependency = Dependency.withId("foo", "com.example", "foo");
+		dependency.setDescription("A \"quoted\"\tdescription with \u00e9\u00e8 and \u4e2d");
+		dependency.getLinks().add(Link.create("guide", "https://example.com/how-to"));
+		dependency.getLinks().add(Link.create("guide", "https://example.com/other",
+				"Another guide"));
+		dependency.getLinks().add(Link.create("reference", "https://example.com/doc"));
+		Dependency ranged = Dependency.withId("bar", "com.example", "bar");
+		ranged.setVersionRange("[1.2.0.RELEASE,2.0.0.M1)");
+		return InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", dependency, ranged).build();
+	}
+
+	private static byte[] writeToBytes(InitializrMetadataJsonMapper mapper,
+			InitializrMetadata metadata, String appUrl) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		mapper.write(metadata, appUrl, out);
+		return out.toByteArray();
+	}
+
 	private Object get(JsonNode result, String path) {
 		String[] nodes = path.split("\\.");
 		for (int i = 0; i < nodes.length - 1; i++) {
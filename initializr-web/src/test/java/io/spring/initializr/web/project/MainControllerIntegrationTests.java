@@ -16,8 +16,14 @@
 
 package io.spring.initializr.web.project;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
 
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.web.AbstractInitializrControllerIntegrationTests;
@@ -28,11 +34,15 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpClientErrorException;
 
 import static org.hamcrest.CoreMatchers.allOf;
@@ -41,7 +51,10 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -53,6 +66,9 @@ import static org.junit.Assert.fail;
 public class MainControllerIntegrationTests
 		extends AbstractInitializrControllerIntegrationTests {
 
+	@Autowired
+	private ProjectArchiveCache projectArchiveCache;
+
 	@Test
 	public void simpleZipProject() {
 		downloadZip("/starter.zip?style=web&style=jpa").isJavaProject()
@@ -73,6 +89,19 @@ public class MainControllerIntegrationTests
 				.hasDependency("org.acme", "foo", "1.3.5");
 	}
 
+	@Test
+	public void sameProjectIsServedFromCache() {
+		projectArchiveCache.clear();
+		long hits = projectArchiveCache.getHitCount();
+		byte[] first = downloadArchive("/starter.zip?style=web&style=security");
+		byte[] second = downloadArchive("/starter.zip?style=security&style=web");
+		assertEquals(hits + 1, projectArchiveCache.getHitCount());
+		assertArrayEquals(first, second);
+		downloadZip("/starter.zip?style=security&style=web").isJavaProject()
+				.isMavenProject().pomAssert().hasSpringBootStarterDependency("web")
+				.hasSpringBootStarterDependency("security");
+	}
+
 	@Test
 	public void dependencyInRange() {
 		Dependency biz = Dependency.create("org.acme", "biz", "1.3.5", "runtime");
@@ -217,6 +246,41 @@ public class MainControllerIntegrationTests
 		validateCurrentMetadata(response.getBody());
 	}
 
+	@Test
+	public void metadataWithMatchingETagIsNotModified() {
+		ResponseEntity<String> response = invokeHome(null,
+				"application/vnd.initializr.v2.1+json");
+		String eTag = response.getHeaders().getETag();
+		assertEquals("no-cache", response.getHeaders().getCacheControl());
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(
+				MediaType.parseMediaType("application/vnd.initializr.v2.1+json")));
+		headers.setIfNoneMatch(eTag);
+		ResponseEntity<String> conditional = getRestTemplate().exchange(createUrl("/"),
+				HttpMethod.GET, new HttpEntity<Void>(headers), String.class);
+		assertEquals(HttpStatus.NOT_MODIFIED, conditional.getStatusCode());
+		assertEquals(eTag, conditional.getHeaders().getETag());
+		assertNull(conditional.getBody());
+	}
+
+	@Test
+	public void metadataWithGzipAcceptEncoding() throws IOException {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(
+				MediaType.parseMediaType("application/vnd.initializr.v2.1+json")));
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		ResponseEntity<byte[]> response = getRestTemplate().exchange(createUrl("/"),
+				HttpMethod.GET, new HttpEntity<Void>(headers), byte[].class);
+		assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		String eTag = response.getHeaders().getETag();
+		assertNotEquals(eTag, invokeHome(null, "application/vnd.initializr.v2.1+json")
+				.getHeaders().getETag());
+		try (InputStream in = new GZIPInputStream(
+				new ByteArrayInputStream(response.getBody()))) {
+			validateCurrentMetadata(StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+		}
+	}
+
 	@Test
 	public void metadataWithUnknownAcceptHeader() {
 		try {
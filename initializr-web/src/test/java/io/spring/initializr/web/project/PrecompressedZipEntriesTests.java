@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import io.spring.initializr.generator.ProjectResourceLocator;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PrecompressedZipEntries}.
+ *
+ * @author agent
+ */
+public class PrecompressedZipEntriesTests {
+
+	@Test
+	public void findMatchingContent() throws Exception {
+		byte[] content = "Hello World".getBytes("UTF-8");
+		PrecompressedZipEntries entries = new PrecompressedZipEntries(9);
+		entries.add(content);
+		PrecompressedZipEntries.Entry entry = entries.find(content.clone(),
+				crc(content));
+		assertThat(entry).isNotNull();
+		assertThat(entry.getSize()).isEqualTo(content.length);
+		assertThat(entry.getCrc()).isEqualTo(crc(content));
+		assertThat(inflate(entry)).isEqualTo(content);
+	}
+
+	@Test
+	public void findWithSameChecksumAndDifferentContent()
+			throws UnsupportedEncodingException {
+		byte[] content = "Hello World".getBytes("UTF-8");
+		PrecompressedZipEntries entries = new PrecompressedZipEntries(9);
+		entries.add(content);
+		assertThat(entries.find("Hello Spring".getBytes("UTF-8"), crc(content)))
+				.isNull();
+	}
+
+	@Test
+	public void forWrappersContainsGeneratedContent() {
+		ProjectResourceLocator locator = new ProjectResourceLocator();
+		PrecompressedZipEntries entries = PrecompressedZipEntries.forWrappers(locator,
+				-1);
+		for (String location : new String[] { "maven/mvnw", "gradle4/gradlew.bat",
+				"gradle3/gradle/wrapper/gradle-wrapper.jar" }) {
+			byte[] content = locator.getBinaryResource("classpath:project/" + location);
+			assertThat(entries.find(content, crc(content))).as(location).isNotNull();
+		}
+		byte[] text = locator.getTextResource("classpath:project/maven/mvnw.cmd")
+				.getBytes(StandardCharsets.UTF_8);
+		assertThat(entries.find(text, crc(text))).isNotNull();
+	}
+
+	private static long crc(byte[] content) {
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		return crc.getValue();
+	}
+
+	private static byte[] inflate(PrecompressedZipEntries.Entry entry)
+			throws DataFormatException {
+		Inflater inflater = new Inflater(true);
+		inflater.setInput(entry.getCompressedContent());
+		byte[] result = new byte[entry.getSize()];
+		inflater.inflate(result);
+		inflater.end();
+		return result;
+	}
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.File;
+import java.util.Arrays;
+
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectArchiveCache}.
+ *
+ * @author agent
+ */
+public class ProjectArchiveCacheTests {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().build();
+
+	@Test
+	public void keyIgnoresDependenciesOrder() {
+		ProjectRequest first = createRequest("web", "data-jpa");
+		ProjectRequest second = createRequest("data-jpa", "web");
+		assertThat(ProjectArchiveCache.computeKey("zip", first))
+				.isEqualTo(ProjectArchiveCache.computeKey("zip", second));
+	}
+
+	@Test
+	public void keyIncludesStyle() {
+		ProjectRequest first = createRequest("web", "data-jpa");
+		ProjectRequest second = createRequest("web");
+		second.setStyle(Arrays.asList("data-jpa"));
+		assertThat(ProjectArchiveCache.computeKey("zip", first))
+				.isEqualTo(ProjectArchiveCache.computeKey("zip", second));
+	}
+
+	@Test
+	public void keyDependsOnFormat() {
+		ProjectRequest request = createRequest("web");
+		assertThat(ProjectArchiveCache.computeKey("zip", request))
+				.isNotEqualTo(ProjectArchiveCache.computeKey("tar.gz", request));
+	}
+
+	@Test
+	public void keyDependsOnCoordinates() {
+		ProjectRequest first = createRequest("web");
+		ProjectRequest second = createRequest("web");
+		second.setArtifactId("another");
+		assertThat(ProjectArchiveCache.computeKey("zip", first))
+				.isNotEqualTo(ProjectArchiveCache.computeKey("zip", second));
+	}
+
+	@Test
+	public void anotherMetadataDiscardsArchives() throws Exception {
+		File directory = temporaryFolder.newFolder();
+		ProjectArchiveCache cache = new ProjectArchiveCache(4, directory, 1024);
+		cache.put("one", new byte[4], createRequest(), metadata);
+		cache.put("two", new byte[4], createRequest(), metadata);
+		InitializrMetadata another = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		assertThat(cache.get("two", another)).isNull();
+		assertThat(cache.getSize()).isEqualTo(0);
+		assertThat(cache.getDiskSize()).isEqualTo(0);
+		assertThat(directory.listFiles()).isEmpty();
+	}
+
+	@Test
+	public void putWithStaleMetadataIsIgnored() {
+		ProjectArchiveCache cache = new ProjectArchiveCache(1024);
+		InitializrMetadata another = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		cache.get("test", another);
+		cache.put("test", new byte[] { 1, 2, 3 }, createRequest(), metadata);
+		assertThat(cache.get("test", another)).isNull();
+		assertThat(cache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void getUnknownKey() {
+		ProjectArchiveCache cache = new ProjectArchiveCache(1024);
+		assertThat(cache.get("test", metadata)).isNull();
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void putAndGet() {
+		ProjectArchiveCache cache = new ProjectArchiveCache(1024);
+		ProjectRequest request = createRequest("web");
+		cache.put("test", new byte[] { 1, 2, 3 }, request, metadata);
+		ProjectArchiveCache.CachedArchive archive = cache.get("test", metadata);
+		assertThat(archive.getContent()).containsExactly(1, 2, 3);
+		assertThat(archive.getRequest()).isSameAs(request);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(cache.getSize()).isEqualTo(3);
+		assertThat(cache.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void putArchiveLargerThanMaxSize() {
+		ProjectArchiveCache cache = new ProjectArchiveCache(2);
+		cache.put("test", new byte[] { 1, 2, 3 }, createRequest(), metadata);
+		assertThat(cache.get("test", metadata)).isNull();
+		assertThat(cache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void leastRecentlyUsedArchiveIsEvicted() {
+		ProjectArchiveCache cache = new ProjectArchiveCache(8);
+		cache.put("one", new byte[4], createRequest(), metadata);
+		cache.put("two", new byte[4], createRequest(), metadata);
+		assertThat(cache.get("one", metadata)).isNotNull();
+		cache.put("three", new byte[4], createRequest(), metadata);
+		assertThat(cache.get("two", metadata)).isNull();
+		assertThat(cache.get("one", metadata)).isNotNull();
+		assertThat(cache.get("three", metadata)).isNotNull();
+		assertThat(cache.getEvictionCount()).isEqualTo(1);
+		assertThat(cache.getSize()).isEqualTo(8);
+	}
+
+	@Test
+	public void evictedArchiveIsMovedToDisk() throws Exception {
+		File directory = temporaryFolder.newFolder();
+		ProjectArchiveCache cache = new ProjectArchiveCache(4, directory, 1024);
+		cache.put("one", new byte[] { 1, 2, 3, 4 }, createRequest(), metadata);
+		cache.put("two", new byte[] { 5, 6, 7, 8 }, createRequest(), metadata);
+		assertThat(cache.getDiskSize()).isEqualTo(4);
+		assertThat(new File(directory, "one")).exists();
+		ProjectArchiveCache.CachedArchive archive = cache.get("one", metadata);
+		assertThat(archive.getContent()).containsExactly(1, 2, 3, 4);
+		assertThat(cache.getDiskHitCount()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		// Promoted back to memory, evicting the other archive
+		assertThat(cache.getCount()).isEqualTo(1);
+		assertThat(cache.get("two", metadata).getContent()).containsExactly(5, 6, 7,
+				8);
+	}
+
+	@Test
+	public void diskTierIsBounded() throws Exception {
+		File directory = temporaryFolder.newFolder();
+		ProjectArchiveCache cache = new ProjectArchiveCache(4, directory, 4);
+		cache.put("one", new byte[4], createRequest(), metadata);
+		cache.put("two", new byte[4], createRequest(), metadata);
+		cache.put("three", new byte[4], createRequest(), metadata);
+		assertThat(cache.getDiskSize()).isEqualTo(4);
+		assertThat(new File(directory, "one")).doesNotExist();
+		assertThat(new File(directory, "two")).exists();
+		assertThat(cache.get("one", metadata)).isNull();
+	}
+
+	@Test
+	public void archivesOfPreviousInstanceAreDeleted() throws Exception {
+		File directory = temporaryFolder.newFolder();
+		String key = ProjectArchiveCache.computeKey("zip", createRequest());
+		ProjectArchiveCache previous = new ProjectArchiveCache(4, directory, 1024);
+		previous.put(key, new byte[4], createRequest(), metadata);
+		previous.put("another", new byte[4], createRequest(), metadata);
+		assertThat(new File(directory, key)).exists();
+		File unrelated = new File(directory, "unrelated.txt");
+		assertThat(unrelated.createNewFile()).isTrue();
+		ProjectArchiveCache cache = new ProjectArchiveCache(4, directory, 1024);
+		assertThat(new File(directory, key)).doesNotExist();
+		assertThat(unrelated).exists();
+		assertThat(cache.getDiskSize()).isEqualTo(0);
+		assertThat(cache.get(key, metadata)).isNull();
+	}
+
+	@Test
+	public void clear() throws Exception {
+		File directory = temporaryFolder.newFolder();
+		ProjectArchiveCache cache = new ProjectArchiveCache(4, directory, 1024);
+		cache.put("one", new byte[4], createRequest(), metadata);
+		cache.put("two", new byte[4], createRequest(), metadata);
+		cache.clear();
+		assertThat(cache.getSize()).isEqualTo(0);
+		assertThat(cache.getDiskSize()).isEqualTo(0);
+		assertThat(directory.listFiles()).isEmpty();
+	}
+
+	private ProjectRequest createRequest(String... dependencies) {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(metadata);
+		request.setDependencies(Arrays.asList(dependencies));
+		return request;
+	}
+
+}
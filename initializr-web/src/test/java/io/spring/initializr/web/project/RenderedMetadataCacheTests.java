@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.web.mapper.InitializrMetadataVersion;
+import io.spring.initializr.web.project.RenderedMetadataCache.RenderedMetadata;
+import org.junit.Test;
+
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RenderedMetadataCache}.
+ *
+ * @author agent
+ */
+public class RenderedMetadataCacheTests {
+
+	private final RenderedMetadataCache cache = new RenderedMetadataCache();
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().build();
+
+	@Test
+	public void sameInputsAreRenderedOnce() {
+		RenderedMetadata first = cache.get(metadata, InitializrMetadataVersion.V2_1,
+				"http://localhost");
+		RenderedMetadata second = cache.get(metadata, InitializrMetadataVersion.V2_1,
+				"http://localhost");
+		assertThat(second).isSameAs(first);
+		assertThat(first.getETag()).startsWith("\"").endsWith("\"");
+		assertThat(first.getGzipETag()).isNotEqualTo(first.getETag());
+	}
+
+	@Test
+	public void versionAndAppUrlAreRenderedSeparately() {
+		RenderedMetadata v21 = cache.get(metadata, InitializrMetadataVersion.V2_1,
+				"http://localhost");
+		RenderedMetadata v2 = cache.get(metadata, InitializrMetadataVersion.V2,
+				"http://localhost");
+		RenderedMetadata anotherUrl = cache.get(metadata, InitializrMetadataVersion.V2_1,
+				"https://start.example.com");
+		assertThat(v2.getETag()).isNotEqualTo(v21.getETag());
+		assertThat(anotherUrl.getETag()).isNotEqualTo(v21.getETag());
+		assertThat(new String(anotherUrl.getContent()))
+				.contains("https://start.example.com");
+	}
+
+	@Test
+	public void newSnapshotIsRenderedAgain() {
+		RenderedMetadata first = cache.get(metadata, InitializrMetadataVersion.V2_1,
+				"http://localhost");
+		InitializrMetadata another = InitializrMetadataTestBuilder.withDefaults()
+				.addBootVersion("2.0.0.RELEASE", false).build();
+		RenderedMetadata second = cache.get(another, InitializrMetadataVersion.V2_1,
+				"http://localhost");
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getETag()).isNotEqualTo(first.getETag());
+	}
+
+	@Test
+	public void gzipContentMatchesContent() throws IOException {
+		RenderedMetadata rendered = cache.get(metadata, InitializrMetadataVersion.V2_1,
+				"http://localhost");
+		try (InputStream in = new GZIPInputStream(
+				new ByteArrayInputStream(rendered.getGzipContent()))) {
+			assertThat(StreamUtils.copyToByteArray(in))
+					.isEqualTo(rendered.getContent());
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import io.spring.initializr.generator.ProjectWriter;
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarInputStream;
+import org.junit.Test;
+
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link TarGzProjectWriter}.
+ *
+ * @author agent
+ */
+public class TarGzProjectWriterTests {
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	private final Map<String, TarEntry> entries = new LinkedHashMap<>();
+
+	private final Map<String, String> contents = new LinkedHashMap<>();
+
+	@Test
+	public void entriesAndModesArePreserved() throws IOException {
+		TarGzProjectWriter writer = new TarGzProjectWriter(out);
+		writer.writeFile("demo/mvnw", "#!/bin/sh".getBytes("UTF-8"),
+				ProjectWriter.EXECUTABLE_FILE_MODE);
+		writer.writeFile("demo/pom.xml", "<project/>".getBytes("UTF-8"),
+				ProjectWriter.FILE_MODE);
+		writer.writeDirectory("demo/src/main/resources/static");
+		writer.finish();
+		readArchive();
+		assertEquals(entries.keySet().toString(), 7, entries.size());
+		assertEquals(0755, entries.get("demo/mvnw").getMode() & 0777);
+		assertEquals(0644, entries.get("demo/pom.xml").getMode() & 0777);
+		assertEquals("<project/>", contents.get("demo/pom.xml"));
+		assertTrue(entries.get("demo/src/main/resources/static/").isDirectory());
+	}
+
+	@Test
+	public void longNameIsPreserved() throws IOException {
+		String name = "demo/src/main/java/com/example/with/a/very/long/package/name/"
+				+ "that/exceeds/the/ustar/limit/DemoApplication.java";
+		TarGzProjectWriter writer = new TarGzProjectWriter(out, 9, 512);
+		writer.writeFile(name, "class Demo {}".getBytes("UTF-8"),
+				ProjectWriter.FILE_MODE);
+		writer.finish();
+		readArchive();
+		assertTrue(name.length() > 100);
+		assertEquals("class Demo {}", contents.get(name));
+	}
+
+	@Test
+	public void contentIsPaddedToBlockSize() throws IOException {
+		TarGzProjectWriter writer = new TarGzProjectWriter(out);
+		writer.writeFile("one.txt", new byte[513], ProjectWriter.FILE_MODE);
+		writer.writeFile("two.txt", new byte[512], ProjectWriter.FILE_MODE);
+		writer.finish();
+		readArchive();
+		assertEquals(513, contents.get("one.txt").length());
+		assertEquals(512, contents.get("two.txt").length());
+	}
+
+	private void readArchive() throws IOException {
+		try (TarInputStream tar = new TarInputStream(
+				new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))) {
+			TarEntry entry;
+			while ((entry = tar.getNextEntry()) != null) {
+				entries.put(entry.getName(), entry);
+				contents.put(entry.getName(),
+						StreamUtils.copyToString(tar, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+}
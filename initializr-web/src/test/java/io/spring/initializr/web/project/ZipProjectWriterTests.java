@@ -0,0 +1,149 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import io.spring.initializr.generator.ProjectWriter;
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ZipProjectWriter}.
+ *
+ * @author agent
+ */
+public class ZipProjectWriterTests {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void parentDirectoriesAreWrittenOnce() throws IOException {
+		File archive = writeArchive(writer -> {
+			writer.writeFile("demo/pom.xml", new byte[0], ProjectWriter.FILE_MODE);
+			writer.writeFile("demo/src/main/App.java", new byte[0],
+					ProjectWriter.FILE_MODE);
+			writer.writeDirectory("demo/src/main/resources");
+		});
+		try (ZipFile zip = new ZipFile(archive)) {
+			List<String> names = new ArrayList<>();
+			for (ZipEntry entry : Collections.list(zip.getEntries())) {
+				names.add(entry.getName());
+			}
+			assertEquals(names.toString(), 6, names.size());
+			assertTrue(names.contains("demo/"));
+			assertTrue(names.contains("demo/src/"));
+			assertTrue(names.contains("demo/src/main/"));
+			assertTrue(names.contains("demo/src/main/resources/"));
+		}
+	}
+
+	@Test
+	public void unixModesArePreserved() throws IOException {
+		File archive = writeArchive(writer -> {
+			writer.writeFile("mvnw", "#!/bin/sh".getBytes("UTF-8"),
+					ProjectWriter.EXECUTABLE_FILE_MODE);
+			writer.writeFile("pom.xml", "<project/>".getBytes("UTF-8"),
+					ProjectWriter.FILE_MODE);
+			writer.writeDirectory("src");
+		});
+		try (ZipFile zip = new ZipFile(archive)) {
+			assertEquals(UnixStat.FILE_FLAG | 0755, zip.getEntry("mvnw").getUnixMode());
+			assertEquals(UnixStat.FILE_FLAG | 0644,
+					zip.getEntry("pom.xml").getUnixMode());
+			assertEquals(UnixStat.DIR_FLAG | 0755, zip.getEntry("src/").getUnixMode());
+		}
+	}
+
+	@Test
+	public void contentIsReadableWithJdkZipSupport() throws IOException {
+		byte[] content = new byte[20000];
+		new Random(42).nextBytes(content);
+		File archive = writeArchive(writer -> {
+			writer.writeFile("random.bin", content, ProjectWriter.FILE_MODE);
+			writer.writeFile("empty.txt", new byte[0], ProjectWriter.FILE_MODE);
+		});
+		assertArrayEquals(content, readEntry(archive, "random.bin"));
+		assertArrayEquals(new byte[0], readEntry(archive, "empty.txt"));
+	}
+
+	@Test
+	public void precompressedContentIsCopied() throws IOException {
+		byte[] content = "#!/bin/sh\necho 'hello'\n".getBytes("UTF-8");
+		PrecompressedZipEntries entries = new PrecompressedZipEntries(9);
+		entries.add(content);
+		File archive = new File(this.folder.getRoot(), "test.zip");
+		try (OutputStream out = new FileOutputStream(archive)) {
+			ZipProjectWriter writer = new ZipProjectWriter(out, 0, entries);
+			writer.writeFile("mvnw", content.clone(),
+					ProjectWriter.EXECUTABLE_FILE_MODE);
+			writer.writeFile("other", "other".getBytes("UTF-8"),
+					ProjectWriter.FILE_MODE);
+			writer.finish();
+		}
+		try (ZipFile zip = new ZipFile(archive)) {
+			ZipEntry entry = zip.getEntry("mvnw");
+			byte[] compressed = entries.find(content, entry.getCrc())
+					.getCompressedContent();
+			assertEquals(compressed.length, entry.getCompressedSize());
+			assertEquals(UnixStat.FILE_FLAG | 0755, entry.getUnixMode());
+		}
+		assertArrayEquals(content, readEntry(archive, "mvnw"));
+		assertArrayEquals("other".getBytes("UTF-8"), readEntry(archive, "other"));
+	}
+
+	private byte[] readEntry(File archive, String name) throws IOException {
+		try (java.util.zip.ZipFile zip = new java.util.zip.ZipFile(archive)) {
+			return StreamUtils.copyToByteArray(zip.getInputStream(zip.getEntry(name)));
+		}
+	}
+
+	private File writeArchive(ProjectWriterCallback callback) throws IOException {
+		File archive = new File(this.folder.getRoot(), "test.zip");
+		try (OutputStream out = new FileOutputStream(archive)) {
+			ZipProjectWriter writer = new ZipProjectWriter(out);
+			callback.write(writer);
+			writer.finish();
+		}
+		return archive;
+	}
+
+	private interface ProjectWriterCallback {
+
+		void write(ProjectWriter writer) throws IOException;
+
+	}
+
+}
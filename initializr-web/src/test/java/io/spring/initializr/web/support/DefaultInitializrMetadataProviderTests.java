@@ -16,6 +16,8 @@
 
 package io.spring.initializr.web.support;
 
+import java.io.File;
+import java.time.Duration;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -23,7 +25,9 @@ import io.spring.initializr.metadata.DefaultMetadataElement;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpHeaders;
@@ -34,9 +38,15 @@ import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 
 /**
@@ -46,6 +56,9 @@ public class DefaultInitializrMetadataProviderTests {
 
 	private static final ObjectMapper objectMapper = new ObjectMapper();
 
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	private RestTemplate restTemplate;
 
 	private MockRestServiceServer mockServer;
@@ -64,11 +77,12 @@ public class DefaultInitializrMetadataProviderTests {
 				.build();
 		assertEquals("0.0.9.RELEASE", metadata.getBootVersions().getDefault().getId());
 		DefaultInitializrMetadataProvider provider =
-				new DefaultInitializrMetadataProvider(metadata, objectMapper,
+				new DefaultInitializrMetadataProvider(() -> metadata, objectMapper,
 						restTemplate);
 		expectJson(metadata.getConfiguration().getEnv().getSpringBootMetadataUrl(),
 				"metadata/sagan/spring-boot.json");
 
+		assertTrue(provider.refreshBootVersions());
 		InitializrMetadata updatedMetadata = provider.get();
 		assertNotNull(updatedMetadata.getBootVersions());
 		List<DefaultMetadataElement> updatedBootVersions =
@@ -87,11 +101,12 @@ public class DefaultInitializrMetadataProviderTests {
 				.addBootVersion("0.0.8.RELEASE", false).build();
 		assertEquals("0.0.9.RELEASE", metadata.getBootVersions().getDefault().getId());
 		DefaultInitializrMetadataProvider provider =
-				new DefaultInitializrMetadataProvider(metadata, objectMapper,
+				new DefaultInitializrMetadataProvider(() -> metadata, objectMapper,
 						restTemplate);
 		expectJson(metadata.getConfiguration().getEnv().getSpringBootMetadataUrl(),
 				"metadata/sagan/spring-boot-no-default.json");
 
+		assertTrue(provider.refreshBootVersions());
 		InitializrMetadata updatedMetadata = provider.get();
 		assertNotNull(updatedMetadata.getBootVersions());
 		List<DefaultMetadataElement> updatedBootVersions =
@@ -103,6 +118,156 @@ public class DefaultInitializrMetadataProviderTests {
 		assertBootVersion(updatedBootVersions.get(3), "1.2.5", false);
 	}
 
+	@Test
+	public void getDoesNotFetchBootVersions() {
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, restTemplate);
+		InitializrMetadata metadata = provider.get();
+		assertEquals("0.0.9.RELEASE", metadata.getBootVersions().getDefault().getId());
+		assertSame(metadata, provider.get());
+		assertEquals(-1, provider.getLastRefreshTime());
+		mockServer.verify();
+	}
+
+	@Test
+	public void refreshPublishesNewSnapshot() {
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, restTemplate);
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot.json");
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot-no-default.json");
+		provider.refreshBootVersions();
+		InitializrMetadata first = provider.get();
+		assertSame(first, provider.get());
+		provider.refreshBootVersions();
+		InitializrMetadata second = provider.get();
+		assertNotSame(first, second);
+		// Previous snapshot is left untouched
+		assertEquals("1.4.0", first.getBootVersions().getDefault().getName());
+		assertEquals("1.3.1 (SNAPSHOT)", second.getBootVersions().getDefault().getName());
+		assertEquals(2, provider.getRefreshCount());
+		assertTrue(provider.getLastRefreshTime() > 0);
+	}
+
+	@Test
+	public void failedRefreshKeepsLastGoodSnapshot() {
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, restTemplate);
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot.json");
+		mockServer.expect(requestTo("https://example.com/boot"))
+				.andRespond(withServerError());
+		provider.refreshBootVersions();
+		InitializrMetadata metadata = provider.get();
+		assertFalse(provider.refreshBootVersions());
+		assertSame(metadata, provider.get());
+		assertEquals("1.4.0", metadata.getBootVersions().getDefault().getName());
+		assertEquals(1, provider.getRefreshFailureCount());
+	}
+
+	@Test
+	public void failedRefreshBacksOff() {
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, restTemplate);
+		provider.setRefreshInterval(Duration.ofMinutes(1));
+		provider.setInitialBackoff(Duration.ofSeconds(10));
+		for (int i = 0; i < 4; i++) {
+			mockServer.expect(requestTo("https://example.com/boot"))
+					.andRespond(withServerError());
+		}
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot.json");
+		assertEquals(Duration.ofMinutes(1), provider.getNextRefreshDelay());
+		provider.refreshBootVersions();
+		assertEquals(Duration.ofSeconds(10), provider.getNextRefreshDelay());
+		provider.refreshBootVersions();
+		assertEquals(Duration.ofSeconds(20), provider.getNextRefreshDelay());
+		provider.refreshBootVersions();
+		assertEquals(Duration.ofSeconds(40), provider.getNextRefreshDelay());
+		provider.refreshBootVersions();
+		assertEquals(Duration.ofMinutes(1), provider.getNextRefreshDelay());
+		provider.refreshBootVersions();
+		assertEquals(Duration.ofMinutes(1), provider.getNextRefreshDelay());
+	}
+
+	@Test
+	public void lastGoodBootVersionsAreRestoredFromDisk() throws Exception {
+		File cacheFile = new File(temporaryFolder.newFolder(), "boot.json");
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, restTemplate);
+		provider.setCacheFile(cacheFile);
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot.json");
+		provider.refreshBootVersions();
+		assertTrue(cacheFile.exists());
+
+		DefaultInitializrMetadataProvider anotherProvider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, new RestTemplate());
+		anotherProvider.setCacheFile(cacheFile);
+		List<DefaultMetadataElement> bootVersions = anotherProvider.get()
+				.getBootVersions().getContent();
+		assertEquals(4, bootVersions.size());
+		assertBootVersion(bootVersions.get(1), "1.4.0", true);
+	}
+
+	@Test
+	public void scheduledRefresh() throws Exception {
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, restTemplate);
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot.json");
+		provider.start();
+		try {
+			long timeout = System.currentTimeMillis() + 5000;
+			while (provider.getLastRefreshTime() < 0
+					&& System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+		}
+		finally {
+			provider.stop();
+		}
+		assertEquals("1.4.0", provider.get().getBootVersions().getDefault().getName());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void deprecatedConstructorDoesNotUpdateMetadataInPlace() {
+		InitializrMetadata metadata = createMetadata();
+		metadata.getConfiguration().getEnv().getArchive().getCache().setMaxSize(42);
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				metadata, objectMapper, restTemplate);
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot.json");
+		InitializrMetadata first = provider.get();
+		assertTrue(provider.refreshBootVersions());
+		InitializrMetadata second = provider.get();
+		assertNotSame(first, second);
+		assertNotSame(metadata, second);
+		assertEquals("0.0.9.RELEASE", metadata.getBootVersions().getDefault().getId());
+		assertEquals("0.0.9.RELEASE", first.getBootVersions().getDefault().getId());
+		assertEquals("1.4.0", second.getBootVersions().getDefault().getName());
+		assertEquals(metadata.getDependencies().getAll().size(),
+				second.getDependencies().getAll().size());
+		assertEquals(42, second.getConfiguration().getEnv().getArchive().getCache()
+				.getMaxSize());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void deprecatedFetchBootVersionsReturnsNullOnFailure() {
+		DefaultInitializrMetadataProvider provider = new DefaultInitializrMetadataProvider(
+				this::createMetadata, objectMapper, restTemplate);
+		expectJson("https://example.com/boot", "metadata/sagan/spring-boot.json");
+		mockServer.expect(requestTo("https://example.com/boot"))
+				.andRespond(withServerError());
+		assertEquals(4, provider.fetchBootVersions().size());
+		assertNull(provider.fetchBootVersions());
+		mockServer.verify();
+	}
+
+	private InitializrMetadata createMetadata() {
+		InitializrMetadata metadata = new InitializrMetadataTestBuilder()
+				.addBootVersion("0.0.9.RELEASE", true).build();
+		metadata.getConfiguration().getEnv()
+				.setSpringBootMetadataUrl("https://example.com/boot");
+		return metadata;
+	}
+
 	private static void assertBootVersion(DefaultMetadataElement actual, String name,
 			boolean defaultVersion) {
 		assertEquals(name, actual.getName());
@@ -23,10 +23,17 @@ import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * @author Stephane Nicoll
  */
@@ -34,6 +41,9 @@ import org.springframework.test.context.ActiveProfiles;
 public class UiControllerIntegrationTests
 		extends AbstractInitializrControllerIntegrationTests {
 
+	@Autowired
+	private UiDependenciesCache dependenciesCache;
+
 	@Test
 	public void dependenciesNoVersion() throws JSONException {
 		ResponseEntity<String> response = execute("/ui/dependencies", String.class, null);
@@ -49,6 +59,34 @@ public class UiControllerIntegrationTests
 		validateDependenciesOutput("1.1.2", response.getBody());
 	}
 
+	@Test
+	public void dependenciesWithMatchingETagAreNotModified() {
+		ResponseEntity<String> response = execute(
+				"/ui/dependencies?version=1.1.2.RELEASE", String.class, null);
+		String eTag = response.getHeaders().getETag();
+		assertThat(eTag).isNotNull();
+		assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+		ResponseEntity<String> conditional = getRestTemplate().exchange(
+				createUrl("/ui/dependencies?version=1.1.2.RELEASE"), HttpMethod.GET,
+				new HttpEntity<Void>(headers), String.class);
+		assertThat(conditional.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(conditional.getBody()).isNull();
+	}
+
+	@Test
+	public void dependenciesAreCachedPerVersion() {
+		long hits = dependenciesCache.getHitCount();
+		ResponseEntity<String> first = execute("/ui/dependencies?version=1.1.2.RELEASE",
+				String.class, null);
+		ResponseEntity<String> second = execute("/ui/dependencies?version=1.1.2.RELEASE",
+				String.class, null);
+		assertThat(second.getHeaders().getETag())
+				.isEqualTo(first.getHeaders().getETag());
+		assertThat(dependenciesCache.getHitCount()).isGreaterThan(hits);
+	}
+
 	protected void validateDependenciesOutput(String version, String actual)
 			throws JSONException {
 		JSONObject expected = readJsonFrom(
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.ui;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.web.ui.UiDependenciesCache.CachedDependencies;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link UiDependenciesCache}.
+ *
+ * @author agent
+ */
+public class UiDependenciesCacheTests {
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().build();
+
+	private final AtomicInteger renderCount = new AtomicInteger();
+
+	@Test
+	public void sameVersionIsRenderedOnce() {
+		UiDependenciesCache cache = new UiDependenciesCache();
+		CachedDependencies first = cache.get(metadata, "1.2.3.RELEASE", renderer("a"));
+		CachedDependencies second = cache.get(metadata, "1.2.3.RELEASE", renderer("a"));
+		assertThat(second).isSameAs(first);
+		assertThat(first.getETag()).startsWith("\"").endsWith("\"");
+		assertThat(renderCount).hasValue(1);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void newSnapshotIsRenderedAgain() {
+		UiDependenciesCache cache = new UiDependenciesCache();
+		cache.get(metadata, "", renderer("a"));
+		InitializrMetadata another = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		CachedDependencies dependencies = cache.get(another, "", renderer("b"));
+		assertThat(new String(dependencies.getContent(), StandardCharsets.UTF_8))
+				.isEqualTo("b");
+		assertThat(renderCount).hasValue(2);
+		assertThat(cache.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void versionsAreNotCachedOnceFull() {
+		UiDependenciesCache cache = new UiDependenciesCache(1);
+		cache.get(metadata, "1.2.3.RELEASE", renderer("a"));
+		cache.get(metadata, "1.3.0.RELEASE", renderer("b"));
+		cache.get(metadata, "1.3.0.RELEASE", renderer("b"));
+		assertThat(renderCount).hasValue(3);
+		assertThat(cache.getCount()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(0);
+	}
+
+	private Supplier<byte[]> renderer(String content) {
+		return () -> {
+			renderCount.incrementAndGet();
+			return content.getBytes(StandardCharsets.UTF_8);
+		};
+	}
+
+}